@@ -0,0 +1,145 @@
+// Load-test scenarios for the users API, run with k6 (https://k6.io):
+//
+//   ./gradlew bootRun --args='--spring.profiles.active=embedded --users.admission.trusted-proxies=127.0.0.1,0:0:0:0:0:0:0:1'
+//   ./gradlew bootRun --args='--spring.profiles.active=datagen,embedded --users.datagen.count=100000'
+//   k6 run -e BASE_URL=http://localhost:8080 load-tests/users.js
+//
+// or ./gradlew loadTest. Each scenario reports throughput and p50/p90/p95/p99 latencies; the summary is
+// written to build/load-tests/summary.json and summary.txt.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend, Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+// point reads and patches pick from the users born in this range, read once at setup
+const ID_SAMPLE_START = __ENV.ID_SAMPLE_START || '1995-01-01';
+const ID_SAMPLE_END = __ENV.ID_SAMPLE_END || '1995-12-31';
+const DURATION = __ENV.DURATION || '1m';
+const RATE = parseInt(__ENV.RATE || '200'); // requests per second of the point read scenario
+const REPORT_DIR = __ENV.REPORT_DIR || 'build/load-tests';
+
+const latency = {
+    pointRead: new Trend('latency_point_read', true),
+    range: new Trend('latency_range', true),
+    create: new Trend('latency_create', true),
+    patch: new Trend('latency_patch', true),
+};
+const rejected = new Counter('rejected_429');
+
+export const options = {
+    summaryTrendStats: ['avg', 'min', 'med', 'p(90)', 'p(95)', 'p(99)', 'max'],
+    // every client gets its own rate-limit bucket, as distinct services would; the client header is only
+    // believed from trusted proxies, hence the local addresses among them when starting the application
+    scenarios: {
+        point_reads: {
+            executor: 'constant-arrival-rate', exec: 'pointRead',
+            rate: RATE, timeUnit: '1s', duration: DURATION, preAllocatedVUs: 50, maxVUs: 200,
+        },
+        ranges: {
+            executor: 'constant-arrival-rate', exec: 'range',
+            rate: Math.max(1, RATE / 20), timeUnit: '1s', duration: DURATION, preAllocatedVUs: 10, maxVUs: 50,
+        },
+        creates: {
+            executor: 'constant-arrival-rate', exec: 'create',
+            rate: Math.max(1, RATE / 10), timeUnit: '1s', duration: DURATION, preAllocatedVUs: 10, maxVUs: 50,
+        },
+        patches: {
+            executor: 'constant-arrival-rate', exec: 'patch',
+            rate: Math.max(1, RATE / 10), timeUnit: '1s', duration: DURATION, preAllocatedVUs: 10, maxVUs: 50,
+        },
+    },
+    thresholds: {
+        latency_point_read: ['p(99)<100'],
+        latency_range: ['p(95)<1000'],
+        latency_create: ['p(99)<250'],
+        latency_patch: ['p(99)<250'],
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+export function setup() {
+    const response = http.get(`${BASE_URL}/users/range?startDate=${ID_SAMPLE_START}&endDate=${ID_SAMPLE_END}`,
+        { headers: clientHeaders('setup') });
+    // ids are 64-bit and lose precision as JavaScript numbers, keep them as strings
+    const ids = [...response.body.matchAll(/"id":(\d+)/g)].map((match) => match[1]);
+    if (ids.length === 0) {
+        throw new Error(`No users born between ${ID_SAMPLE_START} and ${ID_SAMPLE_END}`);
+    }
+    return { ids };
+}
+
+function randomId(data) {
+    return data.ids[Math.floor(Math.random() * data.ids.length)];
+}
+
+function record(response, trend, expected) {
+    trend.add(response.timings.duration);
+    if (response.status === 429) {
+        rejected.add(1);
+    }
+    check(response, { [`status is ${expected.join(' or ')}`]: (r) => expected.includes(r.status) });
+}
+
+function clientHeaders(scenario, headers = {}) {
+    return Object.assign({ 'X-Client-Id': `k6-${scenario}-${__VU}` }, headers);
+}
+
+export function pointRead(data) {
+    const response = http.get(`${BASE_URL}/users/${randomId(data)}`,
+        { headers: clientHeaders('read'), tags: { name: 'GET /users/{id}' } });
+    record(response, latency.pointRead, [200, 404]);
+}
+
+export function range() {
+    const year = 1950 + Math.floor(Math.random() * 55);
+    const response = http.get(`${BASE_URL}/users/range?startDate=${year}-01-01&endDate=${year}-01-31`,
+        { headers: clientHeaders('range'), tags: { name: 'GET /users/range' } });
+    record(response, latency.range, [200]);
+}
+
+export function create() {
+    const suffix = `${Date.now()}-${__VU}-${__ITER}`;
+    const body = JSON.stringify({
+        email: `load.${suffix}@example.com`,
+        firstname: 'Load',
+        lastname: 'Test',
+        birthDate: '1990-05-17',
+        address: '1 Main St',
+        phoneNumber: '+380501234567',
+    });
+    const response = http.post(`${BASE_URL}/users`, body,
+        { headers: clientHeaders('create', JSON_HEADERS), tags: { name: 'POST /users' } });
+    record(response, latency.create, [201, 202]);
+}
+
+export function patch(data) {
+    const body = JSON.stringify({ address: `${Math.floor(Math.random() * 300)} Oak St` });
+    const response = http.patch(`${BASE_URL}/users/${randomId(data)}`, body,
+        { headers: clientHeaders('patch', JSON_HEADERS), tags: { name: 'PATCH /users/{id}' } });
+    record(response, latency.patch, [200, 404]);
+}
+
+export function handleSummary(data) {
+    const lines = [];
+    const seconds = data.state.testRunDurationMs / 1000;
+    for (const [name, metric] of Object.entries(data.metrics)) {
+        if (!name.startsWith('latency_')) {
+            continue;
+        }
+        const v = metric.values;
+        lines.push(`${name.padEnd(20)} ${(v.count / seconds).toFixed(1).padStart(8)} req/s`
+            + `  p50 ${v.med.toFixed(1)} ms  p90 ${v['p(90)'].toFixed(1)} ms`
+            + `  p95 ${v['p(95)'].toFixed(1)} ms  p99 ${v['p(99)'].toFixed(1)} ms  max ${v.max.toFixed(1)} ms`);
+    }
+    const failed = data.metrics.http_req_failed ? data.metrics.http_req_failed.values.rate : 0;
+    const rejectedCount = data.metrics.rejected_429 ? data.metrics.rejected_429.values.count : 0;
+    lines.push(`failed ${(failed * 100).toFixed(2)}%, rejected by admission control ${rejectedCount}`);
+    const text = lines.join('\n') + '\n';
+    return {
+        stdout: text,
+        [`${REPORT_DIR}/summary.txt`]: text,
+        [`${REPORT_DIR}/summary.json`]: JSON.stringify(data, null, 2),
+    };
+}
@@ -0,0 +1,60 @@
+package com.krasnopolskyi.usersapitask.benchmark;
+
+import com.krasnopolskyi.usersapitask.audit.AuditRingBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures what recording an audit event costs a request thread, e.g.
+ * {@code ./gradlew jmh -Pjmh.includes=AuditRingBuffer}. A background thread drains the ring like the audit
+ * writer does, so producers see a ring that is mostly empty; the target is well under a microsecond per event,
+ * and the gc profiler should report no allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(8)
+public class AuditRingBufferBenchmark {
+    private AuditRingBuffer ringBuffer;
+    private Thread consumer;
+    private volatile boolean running;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ringBuffer = new AuditRingBuffer(65536, 0.75);
+        running = true;
+        consumer = new Thread(() -> {
+            while (running) {
+                if (ringBuffer.drain(event -> { }, 1000) == 0) {
+                    LockSupport.parkNanos(100_000);
+                }
+            }
+        }, "audit-drain");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        consumer.join();
+    }
+
+    @Benchmark
+    public boolean publishRead() {
+        return ringBuffer.tryPublish(System.currentTimeMillis(), "GET", "/users/{id}", 42, "k6", 200, false);
+    }
+
+    @Benchmark
+    public boolean publishWrite() {
+        return ringBuffer.tryPublish(System.currentTimeMillis(), "PATCH", "/users/{id}", 42, "k6", 200, true);
+    }
+
+    @Benchmark
+    public void baseline(Blackhole blackhole) {
+        blackhole.consume(System.currentTimeMillis());
+    }
+}
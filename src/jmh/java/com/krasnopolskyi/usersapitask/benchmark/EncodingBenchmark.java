@@ -0,0 +1,92 @@
+package com.krasnopolskyi.usersapitask.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.krasnopolskyi.usersapitask.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes a /users/range response in every negotiable representation: JSON, CBOR and Smile, each
+ * with and without gzip. The time per operation is the CPU cost of one response; the bytes on the wire
+ * are reported as the 'bytes' secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EncodingBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int users;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"identity", "gzip"})
+    private String encoding;
+
+    private List<User> response;
+    private ObjectMapper objectMapper;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class WireBytes {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        ObjectMapper json = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper = switch (format) {
+            case "cbor" -> json.copyWith(new CBORFactory());
+            case "smile" -> json.copyWith(new SmileFactory());
+            default -> json;
+        };
+        Random random = new Random(42);
+        String[] firstnames = {"John", "Jane", "Olena", "Taras", "Maria", "Petro", "Anna", "Ivan"};
+        String[] lastnames = {"Gold", "Smith", "Shevchenko", "Kovalenko", "Bondarenko", "Tkachenko"};
+        response = new ArrayList<>(users);
+        for (int i = 1; i <= users; i++) {
+            String firstname = firstnames[random.nextInt(firstnames.length)];
+            String lastname = lastnames[random.nextInt(lastnames.length)];
+            response.add(User.builder()
+                    .id((long) i)
+                    .email(firstname.toLowerCase() + "." + lastname.toLowerCase() + i + "@example.com")
+                    .firstname(firstname)
+                    .lastname(lastname)
+                    .birthDate(LocalDate.of(1950, 1, 1).plusDays(random.nextInt(20_000)))
+                    .address(random.nextInt(200) + " Main Street, Kyiv")
+                    .phoneNumber("+38050" + (1_000_000 + random.nextInt(9_000_000)))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public int encode(WireBytes wireBytes) throws IOException {
+        ByteArrayOutputStream wire = new ByteArrayOutputStream(users * 64);
+        try (OutputStream body = encoding.equals("gzip") ? new GZIPOutputStream(wire, 8192) : wire) {
+            objectMapper.writeValue(body, response);
+        }
+        wireBytes.bytes += wire.size();
+        return wire.size();
+    }
+}
@@ -0,0 +1,51 @@
+package com.krasnopolskyi.usersapitask.benchmark;
+
+import com.krasnopolskyi.usersapitask.exception.ValidationException;
+import com.krasnopolskyi.usersapitask.utils.IdListConvertor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing, deduplicating and sorting a batch of ids with boxed collections
+ * against {@link IdListConvertor}. Run with the gc profiler to see bytes allocated per batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IdBatchBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int batchSize;
+
+    private String ids;
+
+    @Setup
+    public void setUp() {
+        StringJoiner joiner = new StringJoiner(",");
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < batchSize; i++) {
+            // about 10% duplicates
+            joiner.add(Long.toString(1 + random.nextLong(batchSize * 9L / 10 + 1)));
+        }
+        ids = joiner.toString();
+    }
+
+    @Benchmark
+    public List<Long> boxed() {
+        Set<Long> distinct = new HashSet<>();
+        for (String id : ids.split(",")) {
+            distinct.add(Long.valueOf(id.trim()));
+        }
+        List<Long> sorted = new ArrayList<>(distinct);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    @Benchmark
+    public long[] primitive() throws ValidationException {
+        return IdListConvertor.convertIds(ids, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,113 @@
+package com.krasnopolskyi.usersapitask.benchmark;
+
+import com.krasnopolskyi.usersapitask.id.SnowflakeIdGenerator;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+/**
+ * Shows the effect of each Connector/J setting of application-perf.yaml on the two hot statements: a
+ * {@code findById} style point read and a batched insert. Needs a MySQL server with the users table, e.g.
+ * {@code ./gradlew jmh -Pjmh.includes=JdbcSettings}; pass another server with {@code -p url=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class JdbcSettingsBenchmark {
+    private static final Map<String, String> SETTINGS = Map.of(
+            "defaults", "",
+            "serverPrepStmts", "&useServerPrepStmts=true",
+            "cachePrepStmts", "&cachePrepStmts=true&prepStmtCacheSize=500&prepStmtCacheSqlLimit=2048",
+            "serverAndCachedPrepStmts", "&useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=500",
+            "rewriteBatched", "&rewriteBatchedStatements=true",
+            "perfProfile", "&useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=500"
+                    + "&prepStmtCacheSqlLimit=2048&rewriteBatchedStatements=true&useLocalSessionState=true"
+                    + "&cacheServerConfiguration=true&cacheResultSetMetadata=true&elideSetAutoCommits=true"
+                    + "&maintainTimeStats=false");
+    private static final String FIND_BY_ID = "SELECT id, email, firstname, lastname, birth_date, address, "
+            + "phone_number FROM users WHERE id = ?";
+    private static final String INSERT = "INSERT INTO users "
+            + "(id, email, firstname, lastname, birth_date, address, phone_number) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final int INSERT_BATCH_SIZE = 100;
+
+    @Param({"jdbc:mysql://localhost:3306/krasnopolskyi_task_users_api?user=root&password=root"})
+    private String url;
+
+    @Param({"defaults", "serverPrepStmts", "cachePrepStmts", "serverAndCachedPrepStmts", "rewriteBatched",
+            "perfProfile"})
+    private String setting;
+
+    private HikariDataSource dataSource;
+    private long[] ids;
+    private final AtomicLong sequence = new AtomicLong();
+    private final SnowflakeIdGenerator idGenerator =
+            new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID, System::currentTimeMillis, 1000);
+
+    @Setup
+    public void setUp() throws SQLException {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url + SETTINGS.get(setting));
+        config.setMaximumPoolSize(8);
+        config.setMinimumIdle(8);
+        dataSource = new HikariDataSource(config);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT id FROM users LIMIT 100000")) {
+            // ids are sparse, point reads pick from existing ones
+            LongStream.Builder existing = LongStream.builder();
+            while (resultSet.next()) {
+                existing.add(resultSet.getLong(1));
+            }
+            ids = existing.build().toArray();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM users WHERE email LIKE 'jmh-%'");
+        }
+        dataSource.close();
+    }
+
+    @Benchmark
+    public String findById() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(FIND_BY_ID)) {
+            statement.setLong(1, ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(2) : null;
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERT_BATCH_SIZE)
+    public int[] batchedInsert() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            Date birthDate = Date.valueOf(LocalDate.of(1990, 1, 1));
+            for (int i = 0; i < INSERT_BATCH_SIZE; i++) {
+                statement.setLong(1, idGenerator.nextId());
+                statement.setString(2, "jmh-" + setting + "-" + sequence.incrementAndGet() + "@example.com");
+                statement.setString(3, "Bench");
+                statement.setString(4, "Mark");
+                statement.setDate(5, birthDate);
+                statement.setString(6, "1 Main St");
+                statement.setString(7, "+380501234567");
+                statement.addBatch();
+            }
+            return statement.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.krasnopolskyi.usersapitask.benchmark;
+
+import com.krasnopolskyi.usersapitask.UsersApiTaskApplication;
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import com.krasnopolskyi.usersapitask.service.ParallelRangeQuery;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the wall time of a wide range export run as one query with the same export split into parallel
+ * sub-range queries. Starts the application on the embedded profile with {@code users} generated users, e.g.
+ * {@code ./gradlew jmh -Pjmh.includes=ParallelRange}. H2 only hints at the gain; against MySQL each part runs on
+ * a server thread of its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelRangeBenchmark {
+    private static final LocalDate FROM = LocalDate.of(1950, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2010, 12, 31);
+
+    @Param({"200000"})
+    private int users;
+
+    @Param({"2", "4", "8"})
+    private int parts;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private ParallelRangeQuery parallelRangeQuery;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(UsersApiTaskApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("datagen", "embedded") // embedded last, its data source wins
+                .properties("users.datagen.count=" + users, "users.grpc.enabled=false",
+                        "users.range.parallel.max-parts=" + parts, "users.range.parallel.threads=" + parts,
+                        "users.range.parallel.rows-per-part=1",
+                        "spring.datasource.hikari.maximum-pool-size=" + (parts + 2))
+                .run();
+        userRepository = context.getBean(UserRepository.class);
+        parallelRangeQuery = context.getBean(ParallelRangeQuery.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<User> singleQuery() {
+        return userRepository.findAllByBirthDateBetweenOrderByBirthDateAscIdAsc(FROM, TO);
+    }
+
+    @Benchmark
+    public List<User> parallelSubRanges() {
+        return parallelRangeQuery.findAllByBirthDateBetween(FROM, TO);
+    }
+}
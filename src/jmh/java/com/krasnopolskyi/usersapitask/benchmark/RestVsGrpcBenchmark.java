@@ -0,0 +1,117 @@
+package com.krasnopolskyi.usersapitask.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.grpc.proto.GetUserRequest;
+import com.krasnopolskyi.usersapitask.grpc.proto.RangeUsersRequest;
+import com.krasnopolskyi.usersapitask.grpc.proto.UserMessage;
+import com.krasnopolskyi.usersapitask.grpc.proto.UsersGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares REST/JSON with gRPC/protobuf for point reads and large ranges, client-side decoding included.
+ *
+ * <p>Needs a running instance with {@code users.grpc.enabled=true} and a populated database. Run it with several
+ * threads for throughput, e.g. {@code ./gradlew jmh -Pjmh.includes=RestVsGrpc}, and compare the average times
+ * of the same operation over both transports.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RestVsGrpcBenchmark {
+
+    @Param({"localhost"})
+    private String host;
+
+    @Param({"8080"})
+    private int restPort;
+
+    @Param({"9090"})
+    private int grpcPort;
+
+    @Param({"1980-01-01"})
+    private String rangeStart;
+
+    @Param({"1989-12-31"})
+    private String rangeEnd;
+
+    private HttpClient httpClient;
+    private ObjectMapper objectMapper;
+    private ManagedChannel channel;
+    private UsersGrpc.UsersBlockingStub stub;
+    private long[] ids;
+
+    @Setup
+    public void setUp() {
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        channel = NettyChannelBuilder.forAddress(host, grpcPort).usePlaintext().build();
+        stub = UsersGrpc.newBlockingStub(channel);
+        // ids are sparse, point reads pick from the users of the range
+        List<Long> rangeIds = new ArrayList<>();
+        stub.rangeUsers(RangeUsersRequest.newBuilder().setStartDate(rangeStart).setEndDate(rangeEnd).build())
+                .forEachRemaining(user -> rangeIds.add(user.getId()));
+        ids = rangeIds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public User restPointRead() throws IOException, InterruptedException {
+        byte[] body = httpClient.send(get("/users/" + randomId()), HttpResponse.BodyHandlers.ofByteArray()).body();
+        return objectMapper.readValue(body, User.class);
+    }
+
+    @Benchmark
+    public UserMessage grpcPointRead() {
+        return stub.getUser(GetUserRequest.newBuilder().setId(randomId()).build());
+    }
+
+    @Benchmark
+    public long restRange() throws IOException, InterruptedException {
+        HttpRequest request = get("/users/range?startDate=" + rangeStart + "&endDate=" + rangeEnd);
+        try (InputStream body = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream()).body()) {
+            return objectMapper.readValue(body, User[].class).length;
+        }
+    }
+
+    @Benchmark
+    public long grpcRange() {
+        Iterator<UserMessage> users = stub.rangeUsers(RangeUsersRequest.newBuilder()
+                .setStartDate(rangeStart)
+                .setEndDate(rangeEnd)
+                .build());
+        long count = 0;
+        while (users.hasNext()) {
+            users.next();
+            count++;
+        }
+        return count;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://" + host + ":" + restPort + path)).GET().build();
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
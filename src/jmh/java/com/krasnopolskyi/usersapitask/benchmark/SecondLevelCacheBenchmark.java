@@ -0,0 +1,105 @@
+package com.krasnopolskyi.usersapitask.benchmark;
+
+import com.krasnopolskyi.usersapitask.UsersApiTaskApplication;
+import com.krasnopolskyi.usersapitask.entity.User;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.jpa.HibernateHints;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compares point reads and birth date range queries served by the second-level and query caches with the same
+ * reads going to the database. Starts the application on the embedded profile and fills it with {@code users}
+ * generated users, e.g. {@code ./gradlew jmh -Pjmh.includes=SecondLevelCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class SecondLevelCacheBenchmark {
+    private static final String RANGE_QUERY = "select u from User u where u.birthDate between :from and :to";
+    private static final LocalDate RANGE_START = LocalDate.of(1980, 1, 1);
+    private static final LocalDate RANGE_END = LocalDate.of(1980, 3, 31);
+
+    @Param({"10000"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory entityManagerFactory;
+    private long[] ids;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(UsersApiTaskApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("datagen", "embedded") // embedded last, its data source wins
+                .properties("users.datagen.count=" + users, "users.grpc.enabled=false")
+                .run();
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        ids = inTransaction(entityManager -> entityManager
+                .createQuery("select u.id from User u", Long.class)
+                .getResultStream()
+                .mapToLong(Long::longValue)
+                .toArray());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public User cachedFindById() {
+        return inTransaction(entityManager -> entityManager.find(User.class, randomId()));
+    }
+
+    @Benchmark
+    public User uncachedFindById() {
+        return inTransaction(entityManager -> entityManager.find(User.class, randomId(),
+                Map.of("jakarta.persistence.cache.retrieveMode", CacheRetrieveMode.BYPASS)));
+    }
+
+    @Benchmark
+    public List<User> cachedRange() {
+        return inTransaction(entityManager -> entityManager.createQuery(RANGE_QUERY, User.class)
+                .setParameter("from", RANGE_START)
+                .setParameter("to", RANGE_END)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList());
+    }
+
+    @Benchmark
+    public List<User> uncachedRange() {
+        return inTransaction(entityManager -> entityManager.createQuery(RANGE_QUERY, User.class)
+                .setParameter("from", RANGE_START)
+                .setParameter("to", RANGE_END)
+                .setHint("jakarta.persistence.cache.retrieveMode", CacheRetrieveMode.BYPASS)
+                .getResultList());
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private <T> T inTransaction(Function<EntityManager, T> work) {
+        try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+            entityManager.getTransaction().begin();
+            try {
+                return work.apply(entityManager);
+            } finally {
+                entityManager.getTransaction().rollback();
+            }
+        }
+    }
+}
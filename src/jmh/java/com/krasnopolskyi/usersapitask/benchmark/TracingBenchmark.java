@@ -0,0 +1,73 @@
+package com.krasnopolskyi.usersapitask.benchmark;
+
+import com.krasnopolskyi.usersapitask.tracing.InMemoryTraceExporter;
+import com.krasnopolskyi.usersapitask.tracing.Span;
+import com.krasnopolskyi.usersapitask.tracing.Tracer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what tracing adds to a request, e.g. {@code ./gradlew jmh -Pjmh.includes=Tracing}, with the spans of
+ * a {@code POST /users}: reading the body, controller, service, validator, repository, one insert and writing the
+ * response.
+ *
+ * <ul>
+ *     <li>{@code off} starts no trace, every span is the no-op span.</li>
+ *     <li>{@code tail} records every span and drops the trace at the end, like a fast request would.</li>
+ *     <li>{@code all} keeps every trace in the memory exporter, i.e. 100% sampling.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(8)
+public class TracingBenchmark {
+    @Param({"off", "tail", "all"})
+    public String sampling;
+
+    private Tracer tracer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long slowMillis = sampling.equals("all") ? 0 : Long.MAX_VALUE / 1_000_000;
+        tracer = new Tracer(new InMemoryTraceExporter(1000), slowMillis, 0, 1000);
+    }
+
+    @Benchmark
+    public void request(Blackhole blackhole) {
+        if (sampling.equals("off")) {
+            spans(blackhole);
+            return;
+        }
+        try (Span ignored = tracer.startTrace("POST /users", null)) {
+            spans(blackhole);
+        }
+    }
+
+    @Benchmark
+    public void baseline(Blackhole blackhole) {
+        blackhole.consume(42L);
+    }
+
+    private void spans(Blackhole blackhole) {
+        tracer.startSpan("jackson.read").setAttribute("mediaType", "application/json").close();
+        try (Span ignored = tracer.startSpan("UserController.createUser")) {
+            try (Span service = tracer.startSpan("UserService.createUser")) {
+                tracer.startSpan("UserValidator.validateEmail").close();
+                try (Span repository = tracer.startSpan("UserRepository.save")) {
+                    tracer.startSpan("sql.connection").close();
+                    Span sql = tracer.startDetachedSpan("sql")
+                            .setAttribute("statement", "insert into users (email, birth_date) values (?, ?)");
+                    blackhole.consume(repository);
+                    sql.setAttribute("executeMicros", 120L).setAttribute("rows", 1L).close();
+                }
+                blackhole.consume(service);
+            }
+        }
+        try (Span write = tracer.startSpan("jackson.write").setAttribute("mediaType", "application/json")) {
+            blackhole.consume(write);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.krasnopolskyi.usersapitask;
 
+import com.krasnopolskyi.usersapitask.config.NativeRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class UsersApiTaskApplication {
 
     public static void main(String[] args) {
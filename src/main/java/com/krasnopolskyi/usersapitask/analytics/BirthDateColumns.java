@@ -0,0 +1,241 @@
+package com.krasnopolskyi.usersapitask.analytics;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Immutable columnar copy of user ids and birth dates (as epoch days) held in direct buffers.
+ *
+ * <p>The rows are stored twice: ordered by id, to look up the birth date of a single user,
+ * and ordered by birth date with the matching id permutation, so that range counts are two binary searches.
+ * Nothing but the buffer wrappers lives on the Java heap, also while the columns are built by a {@link Builder},
+ * which checks its off-heap budget before every allocation.</p>
+ */
+final class BirthDateColumns {
+    static final long BYTES_PER_ROW = 2L * (Integer.BYTES + Long.BYTES);
+    static final int NONE = Integer.MIN_VALUE;
+
+    private final int size;
+    private final LongBuffer idsById;
+    private final IntBuffer daysById;
+    private final IntBuffer daysByDay;
+    private final LongBuffer idsByDay;
+
+    private BirthDateColumns(int size, LongBuffer idsById, IntBuffer daysById, IntBuffer daysByDay,
+                             LongBuffer idsByDay) {
+        this.size = size;
+        this.idsById = idsById;
+        this.daysById = daysById;
+        this.daysByDay = daysByDay;
+        this.idsByDay = idsByDay;
+    }
+
+    static BirthDateColumns empty() {
+        return new Builder(0, 0).build();
+    }
+
+    /**
+     * Thrown instead of an allocation that would take a {@link Builder} past its budget.
+     */
+    static final class OverBudgetException extends RuntimeException {
+        OverBudgetException(long budget) {
+            super("The birth-date columns do not fit into " + budget + " bytes off-heap");
+        }
+    }
+
+    /**
+     * Appends rows in id order straight into direct buffers, so that neither a load nor a compaction builds
+     * the columns on the heap first.
+     */
+    static final class Builder {
+        private static final int ROW_BYTES = Long.BYTES + Integer.BYTES;
+
+        private final long budget;
+        private long allocated;
+        private LongBuffer ids;
+        private IntBuffer days;
+        private int size;
+        private int minDay = Integer.MAX_VALUE;
+        private int maxDay = Integer.MIN_VALUE;
+
+        /**
+         * @param capacity The expected number of rows. The buffers double when it is exceeded, as far as the budget
+         *                 leaves room for the birth-date order to be derived.
+         * @param budget   The off-heap bytes the builder and the columns it builds may hold at any one time.
+         * @throws OverBudgetException If the capacity alone does not fit.
+         */
+        Builder(int capacity, long budget) {
+            this.budget = budget;
+            reserve((long) capacity * ROW_BYTES);
+            ids = allocate(Math.multiplyExact(capacity, Long.BYTES)).asLongBuffer();
+            days = allocate(Math.multiplyExact(capacity, Integer.BYTES)).asIntBuffer();
+        }
+
+        /**
+         * @param id  The user id, greater than the id of the previous row.
+         * @param day The birth date as epoch day.
+         * @throws OverBudgetException If the row does not fit.
+         */
+        Builder add(long id, int day) {
+            if (size > 0 && id <= ids.get(size - 1)) {
+                throw new IllegalArgumentException("Rows must be added in ascending id order, " + id
+                        + " follows " + ids.get(size - 1));
+            }
+            if (size == ids.capacity()) {
+                grow();
+            }
+            ids.put(size, id);
+            days.put(size, day);
+            size++;
+            minDay = Math.min(minDay, day);
+            maxDay = Math.max(maxDay, day);
+            return this;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Derives the birth-date order with a counting sort over the days, which keeps users born on the same day
+         * in id order. The counts are kept off-heap as well.
+         *
+         * @throws OverBudgetException If the birth-date order does not fit.
+         */
+        BirthDateColumns build() {
+            reserve((long) size * ROW_BYTES);
+            BirthDateColumns columns = new BirthDateColumns(size, ids.slice(0, size), days.slice(0, size),
+                    allocate(Math.multiplyExact(size, Integer.BYTES)).asIntBuffer(),
+                    allocate(Math.multiplyExact(size, Long.BYTES)).asLongBuffer());
+            if (size == 0) {
+                return columns;
+            }
+            long positionBytes = ((long) maxDay - minDay + 1) * Integer.BYTES;
+            reserve(positionBytes);
+            IntBuffer positions = allocate(Math.toIntExact(positionBytes)).asIntBuffer();
+            for (int row = 0; row < size; row++) {
+                int slot = days.get(row) - minDay;
+                positions.put(slot, positions.get(slot) + 1);
+            }
+            int position = 0;
+            for (int slot = 0; slot < positions.capacity(); slot++) {
+                int count = positions.get(slot);
+                positions.put(slot, position);
+                position += count;
+            }
+            for (int row = 0; row < size; row++) {
+                int day = days.get(row);
+                int target = positions.get(day - minDay);
+                positions.put(day - minDay, target + 1);
+                columns.daysByDay.put(target, day);
+                columns.idsByDay.put(target, ids.get(row));
+            }
+            allocated -= positionBytes;
+            return columns;
+        }
+
+        // room is left for the birth-date order of every row the new capacity can hold
+        private void grow() {
+            long capacity = Math.min(Math.max(1024, 2L * size), Math.min(budget / BYTES_PER_ROW, Integer.MAX_VALUE));
+            if (capacity <= size) {
+                throw new OverBudgetException(budget);
+            }
+            long previousBytes = (long) ids.capacity() * ROW_BYTES;
+            reserve(capacity * ROW_BYTES);
+            ids = allocate(Math.multiplyExact((int) capacity, Long.BYTES)).asLongBuffer().put(0, ids, 0, size);
+            days = allocate(Math.multiplyExact((int) capacity, Integer.BYTES)).asIntBuffer().put(0, days, 0, size);
+            // the previous buffers are garbage once copied
+            allocated -= previousBytes;
+        }
+
+        private void reserve(long bytes) {
+            if (allocated + bytes > budget) {
+                throw new OverBudgetException(budget);
+            }
+            allocated += bytes;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long idAt(int row) {
+        return idsById.get(row);
+    }
+
+    int dayAt(int row) {
+        return daysById.get(row);
+    }
+
+    long idByDayAt(int position) {
+        return idsByDay.get(position);
+    }
+
+    /**
+     * @return The birth date of the user as epoch day, or {@link #NONE} if the id is not in the columns.
+     */
+    int dayOf(long id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = idsById.get(mid);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return daysById.get(mid);
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * @return The number of rows with a birth date within [fromDay, toDay].
+     */
+    int count(int fromDay, int toDay) {
+        return firstAfter(toDay) - firstAtLeast(fromDay);
+    }
+
+    /**
+     * @return The position of the first row (in birth-date order) born on or after the day.
+     */
+    int firstAtLeast(int day) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (daysByDay.get(mid) < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return The position of the first row (in birth-date order) born after the day.
+     */
+    int firstAfter(int day) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (daysByDay.get(mid) <= day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+}
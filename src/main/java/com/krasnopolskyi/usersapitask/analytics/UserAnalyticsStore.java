@@ -0,0 +1,325 @@
+package com.krasnopolskyi.usersapitask.analytics;
+
+import com.krasnopolskyi.usersapitask.dto.HistogramBucketDto;
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.event.UserChangedEvent;
+import com.krasnopolskyi.usersapitask.exception.ValidationException;
+import com.krasnopolskyi.usersapitask.repository.UserBirthDateView;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Optional in-memory analytic store answering birth-date count and histogram queries without MySQL.
+ *
+ * <p>The bulk of the data is an off-heap {@link BirthDateColumns} snapshot. Committed writes are
+ * recorded in a small on-heap overlay (id to new birth date, or deleted) which queries apply on top
+ * of the snapshot; once the overlay grows past the compaction threshold it is merged into a new snapshot
+ * in the background.</p>
+ *
+ * <p>Only counts are answered here. Listing the users of a period still goes to the {@link UserRepository}, the
+ * snapshot holds nothing but ids and birth dates.</p>
+ *
+ * <p>Loads and compactions replace the snapshot and never overlap: a compaction waiting for a load merges into
+ * the loaded snapshot, and a load never drops the overlay a compaction is merging.</p>
+ *
+ * <p>{@code max-bytes} bounds all off-heap memory of the store. A compaction builds the next snapshot while the
+ * current one is still served, so each snapshot, including the buffers it is built in, gets half of it. A
+ * compaction that would not fit keeps the current snapshot and the overlay, and the store is unavailable until a
+ * later compaction fits again.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "analytics.snapshot.enabled", havingValue = "true")
+@Slf4j
+public class UserAnalyticsStore {
+    private static final int DELETED = BirthDateColumns.NONE;
+    private static final int MAX_BUCKETS = 1200;
+
+    private final UserRepository userRepository;
+    private final long maxBytes;
+    private final long snapshotBudget;
+    private final int compactionThreshold;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "analytics-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // held for the whole of a load or a compaction, writes only take the monitor of the store
+    private final Object rebuildLock = new Object();
+    private volatile State state = new State(BirthDateColumns.empty(), Map.of(), new ConcurrentHashMap<>());
+    private volatile boolean available;
+    private volatile int compactAt;
+    // guarded by rebuildLock
+    private boolean loaded;
+
+    /**
+     * Snapshot plus overlays. {@code frozen} is the overlay being merged by a running compaction,
+     * {@code live} receives new writes.
+     */
+    private record State(BirthDateColumns base, Map<Long, Integer> frozen, ConcurrentHashMap<Long, Integer> live) {
+    }
+
+    public UserAnalyticsStore(UserRepository userRepository,
+                              @Value("${analytics.snapshot.max-bytes:268435456}") long maxBytes,
+                              @Value("${analytics.snapshot.compaction-threshold:65536}") int compactionThreshold) {
+        this.userRepository = userRepository;
+        this.maxBytes = maxBytes;
+        this.snapshotBudget = maxBytes / 2;
+        this.compactionThreshold = compactionThreshold;
+        this.compactAt = compactionThreshold;
+    }
+
+    /**
+     * Loads the snapshot from a streamed scan of the users table once the application is ready.
+     * If the table does not fit into the configured memory budget the store stays unavailable.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        synchronized (rebuildLock) {
+            long started = System.nanoTime();
+            BirthDateColumns columns;
+            try (Stream<UserBirthDateView> views = userRepository.streamBirthDates()) {
+                BirthDateColumns.Builder builder = new BirthDateColumns.Builder(0, snapshotBudget);
+                Iterator<UserBirthDateView> iterator = views.iterator();
+                while (iterator.hasNext()) {
+                    UserBirthDateView view = iterator.next();
+                    builder.add(view.getId(), toDay(view.getBirthDate()));
+                }
+                columns = builder.build();
+            } catch (BirthDateColumns.OverBudgetException exception) {
+                log.warn("Users do not fit into the analytic snapshot budget of " + maxBytes + " bytes, "
+                        + "the analytic store stays disabled");
+                return;
+            }
+            synchronized (this) {
+                // writes committed during the scan stay in the overlay, re-applying them is idempotent
+                state = new State(columns, Map.of(), state.live());
+            }
+            loaded = true;
+            available = true;
+            log.info("Analytic snapshot loaded with " + columns.size() + " users ("
+                    + columns.size() * BirthDateColumns.BYTES_PER_ROW + " bytes off-heap) in "
+                    + (System.nanoTime() - started) / 1_000_000 + " ms");
+        }
+    }
+
+    /**
+     * Records a committed write in the overlay.
+     *
+     * @param event The change that has been committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        User user = event.user();
+        int day = event.type() == UserChangedEvent.Type.DELETED ? DELETED : toDay(user.getBirthDate());
+        int overlaySize;
+        synchronized (this) {
+            state.live().put(user.getId(), day);
+            overlaySize = state.live().size();
+        }
+        if (overlaySize >= compactAt) {
+            compactor.execute(this::compact);
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Counts the users born within [from, to], both inclusive.
+     *
+     * @param from The first birth date to count, or {@code null} for no lower bound.
+     * @param to   The last birth date to count, or {@code null} for no upper bound.
+     */
+    public long count(LocalDate from, LocalDate to) {
+        State current = state;
+        int fromDay = from == null ? Integer.MIN_VALUE + 1 : toDay(from);
+        int toDay = to == null ? Integer.MAX_VALUE - 1 : toDay(to);
+        long count = current.base().count(fromDay, toDay);
+        for (Map.Entry<Long, Integer> override : overrides(current)) {
+            count += adjustment(current, override, fromDay, toDay);
+        }
+        return count;
+    }
+
+    /**
+     * Counts the users born within [from, to] per calendar year or month.
+     *
+     * @param unit Either {@link ChronoUnit#YEARS} or {@link ChronoUnit#MONTHS}.
+     * @return The buckets covering the period, in chronological order.
+     * @throws ValidationException if the period spans more than 1200 buckets.
+     */
+    public List<HistogramBucketDto> histogram(LocalDate from, LocalDate to, ChronoUnit unit)
+            throws ValidationException {
+        State current = state;
+        List<LocalDate> starts = new ArrayList<>();
+        LocalDate bucketStart = unit == ChronoUnit.YEARS ? from.withDayOfYear(1) : from.withDayOfMonth(1);
+        for (; !bucketStart.isAfter(to); bucketStart = bucketStart.plus(1, unit)) {
+            if (starts.size() == MAX_BUCKETS) {
+                throw new ValidationException("Histogram is limited to " + MAX_BUCKETS + " buckets");
+            }
+            starts.add(bucketStart);
+        }
+        int[] bounds = new int[starts.size() + 1];
+        long[] counts = new long[starts.size()];
+        for (int i = 0; i < starts.size(); i++) {
+            bounds[i] = Math.max(toDay(starts.get(i)), toDay(from));
+        }
+        bounds[starts.size()] = toDay(to) + 1;
+        // each bucket is two binary searches over the sorted birth-date column
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = current.base().count(bounds[i], bounds[i + 1] - 1);
+        }
+        for (Map.Entry<Long, Integer> override : overrides(current)) {
+            int baseDay = current.base().dayOf(override.getKey());
+            int bucket = bucketOf(bounds, baseDay);
+            if (bucket >= 0) {
+                counts[bucket]--;
+            }
+            bucket = bucketOf(bounds, override.getValue());
+            if (bucket >= 0) {
+                counts[bucket]++;
+            }
+        }
+        List<HistogramBucketDto> buckets = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            buckets.add(new HistogramBucketDto(
+                    LocalDate.ofEpochDay(bounds[i]), LocalDate.ofEpochDay(bounds[i + 1] - 1L), counts[i]));
+        }
+        return buckets;
+    }
+
+    void compact() {
+        synchronized (rebuildLock) {
+            State frozen;
+            synchronized (this) {
+                if (state.live().isEmpty()) {
+                    return;
+                }
+                frozen = new State(state.base(), state.live(), new ConcurrentHashMap<>());
+                state = frozen;
+            }
+            BirthDateColumns merged;
+            try {
+                merged = merge(frozen.base(), frozen.frozen());
+            } catch (BirthDateColumns.OverBudgetException exception) {
+                synchronized (this) {
+                    // newer writes win over the ones that could not be merged
+                    frozen.frozen().forEach(state.live()::putIfAbsent);
+                    state = new State(state.base(), Map.of(), state.live());
+                    compactAt = state.live().size() + compactionThreshold;
+                }
+                if (available) {
+                    available = false;
+                    log.warn("Analytic snapshot outgrew its budget of " + maxBytes + " bytes and has been disabled "
+                            + "until a compaction fits again");
+                }
+                return;
+            }
+            synchronized (this) {
+                state = new State(merged, Map.of(), state.live());
+                compactAt = compactionThreshold;
+            }
+            if (loaded && !available) {
+                available = true;
+                log.info("Analytic snapshot fits into its budget again and has been enabled");
+            }
+            log.debug("Analytic snapshot compacted to " + merged.size() + " users");
+        }
+    }
+
+    // only the ids of the overlay are sorted on the heap, the overlay is bounded by the compaction threshold
+    private BirthDateColumns merge(BirthDateColumns base, Map<Long, Integer> overlay) {
+        long[] overlayIds = overlay.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        // sized exactly, so that a snapshot that does not fit is refused before anything is copied
+        int size = base.size();
+        for (long id : overlayIds) {
+            boolean inBase = base.dayOf(id) != BirthDateColumns.NONE;
+            boolean deleted = overlay.get(id) == DELETED;
+            if (inBase && deleted) {
+                size--;
+            } else if (!inBase && !deleted) {
+                size++;
+            }
+        }
+        BirthDateColumns.Builder builder = new BirthDateColumns.Builder(size, snapshotBudget);
+        int row = 0;
+        int next = 0;
+        while (row < base.size() || next < overlayIds.length) {
+            long baseId = row < base.size() ? base.idAt(row) : Long.MAX_VALUE;
+            long overlayId = next < overlayIds.length ? overlayIds[next] : Long.MAX_VALUE;
+            if (baseId < overlayId) {
+                builder.add(baseId, base.dayAt(row++));
+                continue;
+            }
+            if (baseId == overlayId) {
+                row++;
+            }
+            int day = overlay.get(overlayId);
+            next++;
+            if (day != DELETED) {
+                builder.add(overlayId, day);
+            }
+        }
+        return builder.build();
+    }
+
+    private static Iterable<Map.Entry<Long, Integer>> overrides(State current) {
+        if (current.frozen().isEmpty()) {
+            return current.live().entrySet();
+        }
+        List<Map.Entry<Long, Integer>> merged = new ArrayList<>(current.live().entrySet());
+        for (Map.Entry<Long, Integer> entry : current.frozen().entrySet()) {
+            if (!current.live().containsKey(entry.getKey())) {
+                merged.add(entry);
+            }
+        }
+        return merged;
+    }
+
+    private static int adjustment(State current, Map.Entry<Long, Integer> override, int fromDay, int toDay) {
+        int adjustment = 0;
+        int baseDay = current.base().dayOf(override.getKey());
+        if (baseDay != BirthDateColumns.NONE && baseDay >= fromDay && baseDay <= toDay) {
+            adjustment--;
+        }
+        int day = override.getValue();
+        if (day != DELETED && day >= fromDay && day <= toDay) {
+            adjustment++;
+        }
+        return adjustment;
+    }
+
+    private static int bucketOf(int[] bounds, int day) {
+        if (day == BirthDateColumns.NONE || day < bounds[0] || day >= bounds[bounds.length - 1]) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(bounds, day);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private static int toDay(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+}
@@ -0,0 +1,84 @@
+package com.krasnopolskyi.usersapitask.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Records when users were last read or written, cheaply enough for the read path.
+ *
+ * <p>Only a sample of the accesses is recorded, and recorded ids are collected in memory and written with one
+ * {@code UPDATE ... IN} per chunk when flushed, so a user read a thousand times between two flushes costs
+ * a single row update. A user that is accessed regularly is sampled long before it could become inactive; one that
+ * is read only once in a long while may be missed and archived, and is then restored on its next read.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "users.archive.enabled", havingValue = "true")
+@Slf4j
+public class UserAccessTracker {
+    private static final int CHUNK_SIZE = 1000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final double sampleRate;
+    private final int maxPending;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    public UserAccessTracker(NamedParameterJdbcTemplate jdbcTemplate,
+                             Clock clock,
+                             @Value("${users.archive.access-sample-rate:0.1}") double sampleRate,
+                             @Value("${users.archive.max-pending-accesses:100000}") int maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.sampleRate = sampleRate;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Records an access of the user with the configured probability.
+     *
+     * @param id The id of the user that has been read or written.
+     */
+    public void record(long id) {
+        // accesses beyond the cap are dropped, the next flush makes room again
+        if (ThreadLocalRandom.current().nextDouble() < sampleRate && pending.size() < maxPending) {
+            pending.add(id);
+        }
+    }
+
+    /**
+     * Writes the recorded accesses to the users table.
+     *
+     * @return The number of users whose last access has been updated.
+     */
+    public int flush() {
+        List<Long> ids = new ArrayList<>(pending.size());
+        for (Iterator<Long> iterator = pending.iterator(); iterator.hasNext(); ) {
+            ids.add(iterator.next());
+            iterator.remove();
+        }
+        Timestamp now = Timestamp.from(clock.instant());
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            updated += jdbcTemplate.update("UPDATE users SET last_accessed_at = :now WHERE id IN (:ids)",
+                    new MapSqlParameterSource("now", now)
+                            .addValue("ids", ids.subList(from, Math.min(ids.size(), from + CHUNK_SIZE))));
+        }
+        if (!ids.isEmpty()) {
+            log.debug("Recorded the last access of " + updated + " users");
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,203 @@
+package com.krasnopolskyi.usersapitask.archive;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold tier of the users table.
+ *
+ * <p>Users not accessed for the configured number of days are moved in batches from {@code users} into
+ * {@code users_archive} (compressed on MySQL), so that the hot table and its indexes stay small enough for the
+ * buffer pool. An archived user keeps its id and email. The first read or write by id moves it back into the hot
+ * table, see {@link #restore(long)}; range, search and batch queries only see the hot table.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "users.archive.enabled", havingValue = "true")
+@Slf4j
+public class UserArchive {
+    private static final String COLUMNS = "id, email, firstname, lastname, birth_date, address, phone_number";
+    private static final String SELECT_INACTIVE = "SELECT id FROM users WHERE last_accessed_at < :cutoff "
+            + "ORDER BY last_accessed_at LIMIT :limit";
+    // the cutoff is checked again, a user accessed since the select stays hot
+    private static final String COPY_TO_ARCHIVE = "INSERT INTO users_archive (" + COLUMNS + ", last_accessed_at, "
+            + "archived_at) SELECT " + COLUMNS + ", last_accessed_at, :now FROM users "
+            + "WHERE id IN (:ids) AND last_accessed_at < :cutoff";
+    private static final String DELETE_ARCHIVED = "DELETE FROM users WHERE id IN (:ids) AND last_accessed_at < :cutoff";
+    private static final String COPY_TO_USERS = "INSERT INTO users (" + COLUMNS + ", last_accessed_at) "
+            + "SELECT " + COLUMNS + ", :now FROM users_archive WHERE id = :id";
+    private static final RowMapper<User> USER_ROW_MAPPER = (resultSet, rowNum) -> User.builder()
+            .id(resultSet.getLong("id"))
+            .email(resultSet.getString("email"))
+            .firstname(resultSet.getString("firstname"))
+            .lastname(resultSet.getString("lastname"))
+            .birthDate(resultSet.getDate("birth_date").toLocalDate())
+            .address(resultSet.getString("address"))
+            .phoneNumber(resultSet.getString("phone_number"))
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserAccessTracker accessTracker;
+    private final Cache cache;
+    private final Clock clock;
+    private final Duration inactivity;
+    private final int batchSize;
+    private final long archiveIntervalMinutes;
+    private final long accessFlushSeconds;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-archive");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UserArchive(NamedParameterJdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       UserAccessTracker accessTracker,
+                       EntityManagerFactory entityManagerFactory,
+                       Clock clock,
+                       @Value("${users.archive.inactive-days:180}") long inactiveDays,
+                       @Value("${users.archive.batch-size:1000}") int batchSize,
+                       @Value("${users.archive.interval-minutes:60}") long archiveIntervalMinutes,
+                       @Value("${users.archive.access-flush-seconds:30}") long accessFlushSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.accessTracker = accessTracker;
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        this.clock = clock;
+        this.inactivity = Duration.ofDays(inactiveDays);
+        this.batchSize = batchSize;
+        this.archiveIntervalMinutes = archiveIntervalMinutes;
+        this.accessFlushSeconds = accessFlushSeconds;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(() -> runSafely("flush accesses", accessTracker::flush),
+                accessFlushSeconds, accessFlushSeconds, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(() -> runSafely("archive users", this::archiveInactive),
+                archiveIntervalMinutes, archiveIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Records an access of a user, see {@link UserAccessTracker}.
+     */
+    public void recordAccess(long id) {
+        accessTracker.record(id);
+    }
+
+    /**
+     * Moves every user not accessed within the inactivity period into the archive, one transaction per batch.
+     * Recorded accesses are flushed first, so that they count.
+     *
+     * @return The number of users archived.
+     */
+    public int archiveInactive() {
+        accessTracker.flush();
+        Timestamp now = Timestamp.from(clock.instant());
+        Timestamp cutoff = Timestamp.from(clock.instant().minus(inactivity));
+        int archived = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(SELECT_INACTIVE,
+                    Map.of("cutoff", cutoff, "limit", batchSize), Long.class);
+            if (ids.isEmpty()) {
+                break;
+            }
+            MapSqlParameterSource parameters = new MapSqlParameterSource("ids", ids)
+                    .addValue("cutoff", cutoff)
+                    .addValue("now", now);
+            Integer moved = transactionTemplate.execute(status -> {
+                jdbcTemplate.update(COPY_TO_ARCHIVE, parameters);
+                return jdbcTemplate.update(DELETE_ARCHIVED, parameters);
+            });
+            // the rows left the table behind Hibernate's back
+            ids.forEach(id -> cache.evictEntityData(User.class, id));
+            archived += moved == null ? 0 : moved;
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        if (archived > 0) {
+            cache.evictQueryRegion(UserRepository.BIRTH_DATE_QUERY_REGION);
+            log.info("Archived " + archived + " users inactive since " + cutoff);
+        }
+        return archived;
+    }
+
+    /**
+     * Moves an archived user back into the users table. Joins the caller's transaction if there is one.
+     *
+     * @param id The id of the user.
+     * @return The restored user, or empty if the user is not in the archive.
+     */
+    public Optional<User> restore(long id) {
+        Optional<User> restored = transactionTemplate.execute(status -> {
+            Optional<User> user = jdbcTemplate.query("SELECT " + COLUMNS + " FROM users_archive WHERE id = :id",
+                    Map.of("id", id), USER_ROW_MAPPER).stream().findFirst();
+            if (user.isPresent()) {
+                try {
+                    jdbcTemplate.update(COPY_TO_USERS,
+                            Map.of("id", id, "now", Timestamp.from(clock.instant())));
+                } catch (DuplicateKeyException exception) {
+                    // restored concurrently, the row in the users table is the same
+                }
+                jdbcTemplate.update("DELETE FROM users_archive WHERE id = :id", Map.of("id", id));
+            }
+            return user;
+        });
+        if (restored != null && restored.isPresent()) {
+            cache.evictQueryRegion(UserRepository.BIRTH_DATE_QUERY_REGION);
+            log.debug("Restored user " + id + " from the archive");
+            return restored;
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @param email The email to check.
+     * @return {@code true} if an archived user has this email.
+     */
+    public boolean existsByEmail(String email) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM users_archive WHERE email = :email)", Map.of("email", email),
+                Boolean.class));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        runSafely("flush accesses", accessTracker::flush);
+    }
+
+    private void runSafely(String task, Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (RuntimeException exception) {
+            log.warn("Could not " + task, exception);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.krasnopolskyi.usersapitask.audit;
+
+import lombok.Getter;
+
+/**
+ * One slot of the {@link AuditRingBuffer}. Slots are allocated once and overwritten in place, so recording an
+ * access allocates nothing; the strings are the request's own method, the handler's constant path pattern and
+ * the client header value.
+ */
+@Getter
+public final class AuditEvent {
+    private long timestampMillis;
+    private String method;
+    private String pathPattern;
+    private long userId;
+    private String client;
+    private int status;
+
+    void set(long timestampMillis, String method, String pathPattern, long userId, String client, int status) {
+        this.timestampMillis = timestampMillis;
+        this.method = method;
+        this.pathPattern = pathPattern;
+        this.userId = userId;
+        this.client = client;
+        this.status = status;
+    }
+}
@@ -0,0 +1,58 @@
+package com.krasnopolskyi.usersapitask.audit;
+
+import com.krasnopolskyi.usersapitask.filter.ClientIdentityFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Records the completed reads of the user endpoints and the rejected writes in the {@link UserAuditLog}, with the
+ * status they ended with. Successful writes are left to {@link UserAuditLog#onUserChanged}, which records them
+ * once per changed user when they commit.
+ */
+@RequiredArgsConstructor
+public class AuditInterceptor implements HandlerInterceptor {
+    // posts the ids only because they may not fit into a URL
+    private static final String MULTI_GET_PATTERN = "/users/multi-get";
+
+    private final UserAuditLog auditLog;
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception exception) {
+        String pattern = pathPattern(request);
+        boolean read = request.getMethod().equals("GET") || pattern.equals(MULTI_GET_PATTERN);
+        if (!read && response.getStatus() < 400) {
+            return;
+        }
+        auditLog.record(request.getMethod(), pattern, userId(request), ClientIdentityFilter.clientOf(request),
+                response.getStatus(), !read);
+    }
+
+    /**
+     * @return The path pattern of the handler of a request, its URI if it has none.
+     */
+    static String pathPattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : request.getRequestURI();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long userId(HttpServletRequest request) {
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String id = variables == null ? null : variables.get("id");
+        if (id == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException exception) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.krasnopolskyi.usersapitask.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer, single-consumer ring of preallocated {@link AuditEvent} slots, in the style of the LMAX
+ * Disruptor.
+ *
+ * <p>A producer claims the next sequence with one compare-and-set, fills the slot and publishes it by storing the
+ * sequence in the slot's entry of {@code published}. The consumer reads slots in sequence order as long as they
+ * are published and then releases them all at once by advancing {@code consumed}. Nobody ever waits: when the ring
+ * is full a producer drops its event and counts it. Reads are dropped earlier, once the ring is filled beyond
+ * {@code readShare}, so that the space left is kept for writes.</p>
+ */
+public final class AuditRingBuffer {
+    private final AuditEvent[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final long writeLimit;
+    private final long readLimit;
+    // the next sequence to claim and the next sequence to consume
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final LongAdder droppedReads = new LongAdder();
+    private final LongAdder droppedWrites = new LongAdder();
+
+    /**
+     * @param capacity  The number of slots, a power of two.
+     * @param readShare The share of the slots reads may fill, between 0 and 1.
+     */
+    public AuditRingBuffer(int capacity, double readShare) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity should be a power of two, not " + capacity);
+        }
+        this.slots = new AuditEvent[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new AuditEvent();
+            published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+        this.writeLimit = capacity;
+        this.readLimit = Math.max(1, (long) (capacity * readShare));
+    }
+
+    /**
+     * Records an event unless the ring is too full for it.
+     *
+     * @param write Whether the event is a write, which may use the whole ring.
+     * @return {@code false} if the event has been dropped.
+     */
+    public boolean tryPublish(long timestampMillis, String method, String pathPattern, long userId, String client,
+                              int status, boolean write) {
+        long limit = write ? writeLimit : readLimit;
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() >= limit) {
+                (write ? droppedWrites : droppedReads).increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        int index = (int) sequence & mask;
+        slots[index].set(timestampMillis, method, pathPattern, userId, client, status);
+        published.lazySet(index, sequence);
+        return true;
+    }
+
+    /**
+     * Hands the published events to the consumer in order, then frees their slots. Must only be called by one
+     * thread at a time, and the consumer must copy what it needs, as the slots are reused afterwards.
+     *
+     * @param consumer  Receives every event.
+     * @param maxEvents The most events to drain.
+     * @return The number of events drained.
+     */
+    public int drain(Consumer<AuditEvent> consumer, int maxEvents) {
+        long sequence = consumed.get();
+        int drained = 0;
+        while (drained < maxEvents) {
+            int index = (int) sequence & mask;
+            if (published.get(index) != sequence) {
+                break;
+            }
+            consumer.accept(slots[index]);
+            sequence++;
+            drained++;
+        }
+        consumed.lazySet(sequence);
+        return drained;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * @return The number of claimed slots not consumed yet.
+     */
+    public long size() {
+        return claimed.get() - consumed.get();
+    }
+
+    public long getDroppedReads() {
+        return droppedReads.sum();
+    }
+
+    public long getDroppedWrites() {
+        return droppedWrites.sum();
+    }
+}
@@ -0,0 +1,189 @@
+package com.krasnopolskyi.usersapitask.audit;
+
+import com.krasnopolskyi.usersapitask.dto.AuditStatsDto;
+import com.krasnopolskyi.usersapitask.event.UserChangedEvent;
+import com.krasnopolskyi.usersapitask.filter.ClientIdentityFilter;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of the reads and writes of the user endpoints.
+ *
+ * <p>Request threads only put the event into an {@link AuditRingBuffer}, which takes well under a microsecond and
+ * never blocks. A single consumer thread drains the ring and inserts the events into {@code user_audit} with
+ * JDBC batches of up to {@code batch-size} rows. If the database is unavailable the consumer retries the same
+ * batch while the ring absorbs new events; once it is full, events are dropped and counted, see
+ * {@link #stats()}.</p>
+ *
+ * <p>Reads and rejected writes are recorded by the {@link AuditInterceptor}. Committed changes are recorded by
+ * the user services through their {@link UserChangedEvent}s, one event per affected user, so that creates and
+ * batch deletes carry the ids of their users and changes made over gRPC are audited as well.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "users.audit.enabled", havingValue = "true")
+@Slf4j
+public class UserAuditLog {
+    private static final String INSERT = "INSERT INTO user_audit "
+            + "(occurred_at, http_method, path_pattern, user_id, client, status) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // the path pattern of changes made outside an HTTP request, by gRPC calls or the write-behind flusher
+    static final String INTERNAL = "internal";
+    private static final Map<UserChangedEvent.Type, String> INTERNAL_METHODS = Map.of(
+            UserChangedEvent.Type.CREATED, "POST",
+            UserChangedEvent.Type.UPDATED, "PUT",
+            UserChangedEvent.Type.DELETED, "DELETE");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditRingBuffer ringBuffer;
+    private final int batchSize;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final Thread consumer;
+    private volatile boolean running = true;
+
+    public UserAuditLog(JdbcTemplate jdbcTemplate,
+                        @Value("${users.audit.capacity:65536}") int capacity,
+                        @Value("${users.audit.read-share:0.75}") double readShare,
+                        @Value("${users.audit.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ringBuffer = new AuditRingBuffer(capacity, readShare);
+        this.batchSize = batchSize;
+        this.consumer = new Thread(this::consume, "user-audit");
+        this.consumer.setDaemon(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        consumer.start();
+    }
+
+    /**
+     * Records a request to a user endpoint. Never blocks.
+     *
+     * @param method      The HTTP method.
+     * @param pathPattern The path pattern of the handler, e.g. {@code /users/{id}}.
+     * @param userId      The id of the user addressed, or -1 if the request addresses no single user.
+     * @param client      The client id, or {@code null} if unknown.
+     * @param status      The HTTP status of the response.
+     */
+    public void record(String method, String pathPattern, long userId, String client, int status) {
+        record(method, pathPattern, userId, client, status, !method.equals("GET"));
+    }
+
+    /**
+     * Records a request to a user endpoint. Never blocks.
+     *
+     * @param write Whether the request is a write, which may use the whole ring.
+     * @see #record(String, String, long, String, int)
+     */
+    public void record(String method, String pathPattern, long userId, String client, int status, boolean write) {
+        ringBuffer.tryPublish(System.currentTimeMillis(), method, pathPattern, userId, client, status, write);
+    }
+
+    /**
+     * Records a committed change with the id of the user it affected.
+     *
+     * <p>Within an HTTP request the change is recorded with the request's method, path pattern and client.
+     * Changes made outside of one, by gRPC calls or by the write-behind flusher, are recorded with the method
+     * matching the change, the path pattern {@value #INTERNAL} and no client. The response is not written yet at
+     * commit, so creates are recorded with status 201 and all other changes with 200.</p>
+     *
+     * @param event The change that has been committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        long userId = event.user().getId();
+        int status = event.type() == UserChangedEvent.Type.CREATED ? 201 : 200;
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            record(request.getMethod(), AuditInterceptor.pathPattern(request), userId,
+                    ClientIdentityFilter.clientOf(request), status, true);
+        } else {
+            record(INTERNAL_METHODS.get(event.type()), INTERNAL, userId, null, status, true);
+        }
+    }
+
+    /**
+     * @return The counters of the audit trail since startup.
+     */
+    public AuditStatsDto stats() {
+        return new AuditStatsDto(written.sum(), ringBuffer.size(), ringBuffer.getCapacity(),
+                ringBuffer.getDroppedReads(), ringBuffer.getDroppedWrites(), failedBatches.sum());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(consumer);
+        consumer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void consume() {
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        while (running || ringBuffer.size() > 0) {
+            ringBuffer.drain(event -> batch.add(toRow(event)), batchSize);
+            if (batch.isEmpty()) {
+                if (!running) {
+                    break; // a claimed slot that is never published must not hold up the shutdown
+                }
+                LockSupport.parkNanos(IDLE_NANOS);
+                continue;
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Object[]> batch) {
+        while (true) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT, batch);
+                written.add(batch.size());
+                return;
+            } catch (DataAccessException exception) {
+                failedBatches.increment();
+                if (!running) {
+                    log.error("Audit events lost at shutdown: " + batch.size(), exception);
+                    return;
+                }
+                log.warn("Could not write " + batch.size() + " audit events, retrying", exception);
+                LockSupport.parkNanos(RETRY_NANOS);
+            }
+        }
+    }
+
+    private static Object[] toRow(AuditEvent event) {
+        return new Object[]{
+                new Timestamp(event.getTimestampMillis()),
+                event.getMethod(),
+                truncate(event.getPathPattern(), 128),
+                event.getUserId() < 0 ? null : event.getUserId(),
+                truncate(event.getClient(), 128),
+                event.getStatus()};
+    }
+
+    // an oversized value would fail the batch over and over
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
@@ -0,0 +1,94 @@
+package com.krasnopolskyi.usersapitask.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the connection pool and driver settings at startup and logs a warning for each misconfiguration,
+ * e.g. a pool that is too small for the Tomcat threads. See application-perf.yaml for a tuned configuration.
+ */
+@Component
+@Slf4j
+public class DataSourceSelfCheck {
+    private static final long MAX_CONNECTION_TIMEOUT_MILLIS = 5000;
+
+    private final DataSource dataSource;
+    private final ObjectProvider<ServerProperties> serverProperties;
+    private final boolean failOnWarning;
+
+    /**
+     * The settings the check looks at.
+     *
+     * @param poolSize                The maximum size of the connection pool.
+     * @param connectionTimeoutMillis How long a request waits for a connection.
+     * @param requestThreads          The maximum number of Tomcat request threads, 0 if not a web application.
+     * @param jdbcUrl                 The JDBC url including the driver properties.
+     * @param cores                   The number of available processors.
+     */
+    record Settings(int poolSize, long connectionTimeoutMillis, int requestThreads, String jdbcUrl, int cores) {
+    }
+
+    public DataSourceSelfCheck(DataSource dataSource,
+                               ObjectProvider<ServerProperties> serverProperties,
+                               @Value("${users.datasource.self-check.fail-on-warning:false}") boolean failOnWarning) {
+        this.dataSource = dataSource;
+        this.serverProperties = serverProperties;
+        this.failOnWarning = failOnWarning;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() throws SQLException {
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+            return;
+        }
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        ServerProperties server = serverProperties.getIfAvailable();
+        Settings settings = new Settings(hikari.getMaximumPoolSize(), hikari.getConnectionTimeout(),
+                server == null ? 0 : server.getTomcat().getThreads().getMax(),
+                hikari.getJdbcUrl(), Runtime.getRuntime().availableProcessors());
+        List<String> warnings = check(settings);
+        warnings.forEach(warning -> log.warn("Data source self-check: " + warning));
+        if (failOnWarning && !warnings.isEmpty()) {
+            throw new IllegalStateException("Data source self-check failed: " + String.join("; ", warnings));
+        }
+    }
+
+    static List<String> check(Settings settings) {
+        List<String> warnings = new ArrayList<>();
+        if (settings.requestThreads() > settings.poolSize()
+                && settings.connectionTimeoutMillis() > MAX_CONNECTION_TIMEOUT_MILLIS) {
+            warnings.add("the pool has " + settings.poolSize() + " connections for " + settings.requestThreads()
+                    + " request threads, and a request waits up to " + settings.connectionTimeoutMillis()
+                    + " ms for one; lower spring.datasource.hikari.connection-timeout or raise the pool size");
+        }
+        if (settings.poolSize() > settings.requestThreads() && settings.requestThreads() > 0) {
+            warnings.add("the pool has " + settings.poolSize() + " connections but only "
+                    + settings.requestThreads() + " request threads can use them");
+        }
+        if (settings.poolSize() > settings.cores() * 4) {
+            warnings.add("the pool has " + settings.poolSize() + " connections for " + settings.cores()
+                    + " cores; more connections than the database can run in parallel only add contention");
+        }
+        String url = settings.jdbcUrl() == null ? "" : settings.jdbcUrl();
+        if (url.startsWith("jdbc:mysql:")) {
+            if (!url.contains("cachePrepStmts=true") || !url.contains("useServerPrepStmts=true")) {
+                warnings.add("prepared statements are not cached, set useServerPrepStmts=true&cachePrepStmts=true");
+            }
+            if (!url.contains("rewriteBatchedStatements=true")) {
+                warnings.add("JDBC batches are sent row by row, set rewriteBatchedStatements=true");
+            }
+        }
+        return warnings;
+    }
+}
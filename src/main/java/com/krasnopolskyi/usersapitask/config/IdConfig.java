@@ -0,0 +1,53 @@
+package com.krasnopolskyi.usersapitask.config;
+
+import com.krasnopolskyi.usersapitask.id.SnowflakeIdGenerator;
+import com.krasnopolskyi.usersapitask.id.SnowflakeIdentifierGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Configuration
+public class IdConfig {
+    // the ordinal a StatefulSet appends to the names of its pods, users-api-3 is node 3
+    private static final Pattern STATEFUL_SET_ORDINAL = Pattern.compile(".+-(\\d{1,4})");
+
+    /**
+     * The single id generator of this instance, shared by Hibernate and the JDBC writers.
+     */
+    @Bean
+    public SnowflakeIdGenerator snowflakeIdGenerator(Clock clock,
+                                                     @Value("${users.ids.node-id:}") String nodeId,
+                                                     @Value("${HOSTNAME:}") String hostName,
+                                                     @Value("${users.ids.max-drift-ms:1000}") long maxDriftMillis) {
+        return new SnowflakeIdGenerator(nodeId(nodeId, hostName), clock::millis, maxDriftMillis);
+    }
+
+    /**
+     * Two instances with the same node id hand out the same ids, so there is no default: the node id is either
+     * configured or taken from the StatefulSet ordinal in the host name.
+     *
+     * @throws IllegalStateException If neither is available, which stops the application from starting.
+     */
+    static int nodeId(String nodeId, String hostName) {
+        if (!nodeId.isBlank()) {
+            return Integer.parseInt(nodeId.trim());
+        }
+        Matcher ordinal = STATEFUL_SET_ORDINAL.matcher(hostName);
+        if (ordinal.matches()) {
+            return Integer.parseInt(ordinal.group(1));
+        }
+        throw new IllegalStateException("No node id for the id generator: set users.ids.node-id (USERS_NODE_ID) "
+                + "to a value between 0 and " + SnowflakeIdGenerator.MAX_NODE_ID + " unique among the running "
+                + "instances, or run them as a StatefulSet");
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer snowflakeIdSetting(SnowflakeIdGenerator snowflakeIdGenerator) {
+        return properties -> properties.put(SnowflakeIdentifierGenerator.GENERATOR_SETTING, snowflakeIdGenerator);
+    }
+}
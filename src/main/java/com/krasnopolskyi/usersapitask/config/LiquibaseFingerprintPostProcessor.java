@@ -0,0 +1,113 @@
+package com.krasnopolskyi.usersapitask.config;
+
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Skips Liquibase when the changelogs have not changed since the last successful run against the database.
+ *
+ * <p>The fingerprint is a SHA-256 over every file under {@code db/changelog}, and is stored in the database
+ * itself after Liquibase has run. On the next start the changelogs are hashed again (which is much cheaper than
+ * parsing them and comparing every changeset with {@code DATABASECHANGELOG}) and Liquibase is switched off
+ * if nothing changed.</p>
+ *
+ * <p>{@link SpringLiquibase} does not expose whether it is going to run, so the decision is kept here. The bean
+ * only exists while {@code spring.liquibase.enabled} is on.</p>
+ */
+@Slf4j
+public class LiquibaseFingerprintPostProcessor implements BeanPostProcessor {
+    private static final String CHANGELOG_PATTERN = "classpath*:db/changelog/**";
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS schema_fingerprint ("
+            + "id INT PRIMARY KEY, fingerprint VARCHAR(64) NOT NULL)";
+    private static final String SELECT = "SELECT fingerprint FROM schema_fingerprint WHERE id = 1";
+    private static final String DELETE = "DELETE FROM schema_fingerprint WHERE id = 1";
+    private static final String INSERT = "INSERT INTO schema_fingerprint (id, fingerprint) VALUES (1, ?)";
+
+    private final Set<String> skipped = new HashSet<>();
+    private String fingerprint;
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof SpringLiquibase liquibase) {
+            fingerprint = fingerprint();
+            String stored = readStoredFingerprint(liquibase.getDataSource());
+            if (fingerprint.equals(stored)) {
+                log.info("Changelogs are unchanged since the last migration, skipping Liquibase");
+                liquibase.setShouldRun(false);
+                skipped.add(beanName);
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        // reached only when the migration succeeded, a failing one aborts the startup
+        if (bean instanceof SpringLiquibase liquibase && !skipped.contains(beanName)) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(liquibase.getDataSource());
+            jdbcTemplate.execute(CREATE_TABLE);
+            jdbcTemplate.update(DELETE);
+            jdbcTemplate.update(INSERT, fingerprint);
+        }
+        return bean;
+    }
+
+    /**
+     * @return Whether the Liquibase bean of that name has been switched off because the changelogs are unchanged.
+     */
+    boolean isSkipped(String beanName) {
+        return skipped.contains(beanName);
+    }
+
+    private String readStoredFingerprint(DataSource dataSource) {
+        try {
+            List<String> stored = new JdbcTemplate(dataSource).queryForList(SELECT, String.class);
+            return stored.isEmpty() ? null : stored.get(0);
+        } catch (RuntimeException exception) {
+            // the table does not exist before the first fingerprinted migration
+            return null;
+        }
+    }
+
+    static String fingerprint() {
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver().getResources(CHANGELOG_PATTERN);
+            Arrays.sort(resources, Comparator.comparing(Resource::getFilename,
+                    Comparator.nullsFirst(Comparator.naturalOrder())));
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Resource resource : resources) {
+                if (!resource.isReadable()) {
+                    continue; // directories
+                }
+                digest.update(resource.getFilename().getBytes(StandardCharsets.UTF_8));
+                try (InputStream inputStream = resource.getInputStream()) {
+                    digest.update(inputStream.readAllBytes());
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.krasnopolskyi.usersapitask.config;
+
+import com.krasnopolskyi.usersapitask.id.SnowflakeIdGenerator;
+import com.krasnopolskyi.usersapitask.memory.InMemoryUserRepository;
+import com.krasnopolskyi.usersapitask.memory.UserMemoryStore;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+@ConditionalOnProperty(name = "users.memory.enabled", havingValue = "true")
+public class MemoryStoreConfig {
+
+    /**
+     * The users kept in memory and, unless {@code users.memory.directory} is empty, persisted to a snapshot and
+     * a write-ahead log in that directory.
+     */
+    @Bean(destroyMethod = "close")
+    public UserMemoryStore userMemoryStore(SnowflakeIdGenerator idGenerator,
+                                           @Value("${users.memory.directory:}") String directory,
+                                           @Value("${users.memory.fsync:true}") boolean fsync,
+                                           @Value("${users.memory.checkpoint-every:100000}") int checkpointEvery)
+            throws IOException {
+        if (directory.isBlank()) {
+            return UserMemoryStore.volatileStore(idGenerator::nextId);
+        }
+        return UserMemoryStore.open(Path.of(directory), idGenerator::nextId, fsync, checkpointEvery);
+    }
+
+    /**
+     * Takes the place of the JPA repository in every service. The JPA repository and the users table remain,
+     * unused.
+     */
+    @Bean
+    @Primary
+    public UserRepository inMemoryUserRepository(UserMemoryStore userMemoryStore) {
+        return new InMemoryUserRepository(userMemoryStore);
+    }
+}
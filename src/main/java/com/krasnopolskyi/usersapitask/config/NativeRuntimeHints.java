@@ -0,0 +1,44 @@
+package com.krasnopolskyi.usersapitask.config;
+
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.krasnopolskyi.usersapitask.dto.BatchDeleteResponseDto;
+import com.krasnopolskyi.usersapitask.dto.HistogramBucketDto;
+import com.krasnopolskyi.usersapitask.dto.UserChangesResponseDto;
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.entity.UserEvent;
+import com.krasnopolskyi.usersapitask.handler.ErrorResponse;
+import com.krasnopolskyi.usersapitask.id.SnowflakeIdentifierGenerator;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reachability metadata for the native image that Spring AOT cannot infer from the bean definitions.
+ *
+ * <p>The entities are (de)serialized with Jackson outside of controller signatures (outbox payloads and the
+ * write-behind journal), the JSR-310 module and the id generator are instantiated reflectively, and the Liquibase
+ * changelogs, the Ehcache configuration of the second-level cache and the schema of the user partitions are read as
+ * classpath resources at startup.</p>
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(),
+                User.class,
+                UserEvent.class,
+                UserChangesResponseDto.class,
+                HistogramBucketDto.class,
+                BatchDeleteResponseDto.class,
+                ErrorResponse.class);
+        hints.reflection().registerType(JavaTimeModule.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.reflection().registerType(SnowflakeIdentifierGenerator.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources()
+                .registerPattern("db/changelog/*.yaml")
+                .registerPattern("db/changelog/*.sql")
+                .registerPattern("db/sharding/*.sql")
+                .registerPattern("ehcache.xml");
+    }
+}
@@ -0,0 +1,65 @@
+package com.krasnopolskyi.usersapitask.config;
+
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import com.krasnopolskyi.usersapitask.sharding.ShardedUserRepository;
+import com.krasnopolskyi.usersapitask.sharding.ShardedUserStore;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(name = "users.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    /**
+     * One connection pool per partition, in the order of {@code users.sharding.urls}. The order decides which
+     * partition a user id points to, so partitions may only be appended to the list, never reordered.
+     *
+     * @throws IllegalStateException If the outbox is enabled, which stops the application from starting: the
+     *                               partitions commit outside the transaction that writes the outbox, so an event
+     *                               could be recorded for a change that was never made, or the other way round.
+     */
+    @Bean(destroyMethod = "close")
+    public ShardedUserStore shardedUserStore(@Value("${users.sharding.urls}") List<String> urls,
+                                             @Value("${users.sharding.username:${spring.datasource.username}}") String username,
+                                             @Value("${users.sharding.password:${spring.datasource.password}}") String password,
+                                             @Value("${users.sharding.pool-size:10}") int poolSize,
+                                             @Value("${users.sharding.threads:32}") int threads,
+                                             @Value("${users.changes.enabled:true}") boolean changesEnabled) {
+        if (changesEnabled) {
+            throw new IllegalStateException("Sharding cannot keep the outbox in step with the partitions: "
+                    + "set users.changes.enabled=false to shard users");
+        }
+        List<DataSource> dataSources = new ArrayList<>(urls.size());
+        for (int shard = 0; shard < urls.size(); shard++) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("users-shard-" + shard);
+            config.setJdbcUrl(urls.get(shard));
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setMaximumPoolSize(poolSize);
+            dataSources.add(new HikariDataSource(config));
+        }
+        ShardedUserStore store = new ShardedUserStore(dataSources, threads);
+        store.initSchema();
+        return store;
+    }
+
+    /**
+     * Takes the place of the JPA repository in every service. The JPA repository and the users table of the
+     * main schema remain, unused.
+     */
+    @Bean
+    @Primary
+    public UserRepository shardedUserRepository(ShardedUserStore shardedUserStore) {
+        return new ShardedUserRepository(shardedUserStore);
+    }
+}
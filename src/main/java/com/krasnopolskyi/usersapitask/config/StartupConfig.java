@@ -0,0 +1,26 @@
+package com.krasnopolskyi.usersapitask.config;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "users.startup.liquibase-fingerprint", havingValue = "true")
+    public static LiquibaseFingerprintPostProcessor liquibaseFingerprintPostProcessor() {
+        return new LiquibaseFingerprintPostProcessor();
+    }
+
+    /**
+     * Keeps migrations at startup under lazy initialization, so that a broken schema fails the boot
+     * instead of the first request.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerLiquibase() {
+        return LazyInitializationExcludeFilter.forBeanTypes(SpringLiquibase.class);
+    }
+}
@@ -0,0 +1,18 @@
+package com.krasnopolskyi.usersapitask.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+public class TimeConfig {
+
+    /**
+     * The clock of date-dependent rules such as the minimum age, replaceable in tests.
+     */
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+}
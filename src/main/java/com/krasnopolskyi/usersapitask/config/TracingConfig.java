@@ -0,0 +1,57 @@
+package com.krasnopolskyi.usersapitask.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krasnopolskyi.usersapitask.tracing.FileTraceExporter;
+import com.krasnopolskyi.usersapitask.tracing.InMemoryTraceExporter;
+import com.krasnopolskyi.usersapitask.tracing.TraceExporter;
+import com.krasnopolskyi.usersapitask.tracing.Tracer;
+import com.krasnopolskyi.usersapitask.tracing.TracingBeanPostProcessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Request tracing, see {@link Tracer}. The beans are static and build their own JSON mapper, because the post
+ * processor that instruments the other beans is created before them.
+ */
+@Configuration
+@ConditionalOnProperty(name = "users.tracing.enabled", havingValue = "true")
+public class TracingConfig {
+
+    /**
+     * Where the kept traces go: the last {@code users.tracing.memory.capacity} traces in memory, served by
+     * {@code GET /traces}, or a JSON lines file.
+     */
+    @Bean
+    public static TraceExporter traceExporter(
+            @Value("${users.tracing.exporter:memory}") String exporter,
+            @Value("${users.tracing.memory.capacity:1000}") int capacity,
+            @Value("${users.tracing.file.path:data/traces.jsonl}") String path,
+            @Value("${users.tracing.file.queue-capacity:10000}") int queueCapacity,
+            @Value("${users.tracing.file.max-mb:100}") long maxMegabytes) {
+        return switch (exporter) {
+            case "memory" -> new InMemoryTraceExporter(capacity);
+            case "file" -> new FileTraceExporter(new ObjectMapper(), Path.of(path), queueCapacity,
+                    maxMegabytes * 1024 * 1024);
+            default -> throw new IllegalArgumentException("Unknown trace exporter " + exporter
+                    + ", expected memory or file");
+        };
+    }
+
+    @Bean
+    public static Tracer tracer(TraceExporter traceExporter,
+                                @Value("${users.tracing.slow-ms:250}") long slowMillis,
+                                @Value("${users.tracing.sample-rate:0.0}") double sampleRate,
+                                @Value("${users.tracing.max-spans:1000}") int maxSpans) {
+        return new Tracer(traceExporter, slowMillis, sampleRate, maxSpans);
+    }
+
+    @Bean
+    public static TracingBeanPostProcessor tracingBeanPostProcessor(ObjectProvider<Tracer> tracer) {
+        return new TracingBeanPostProcessor(tracer);
+    }
+}
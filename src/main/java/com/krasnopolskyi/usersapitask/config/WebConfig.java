@@ -0,0 +1,57 @@
+package com.krasnopolskyi.usersapitask.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.krasnopolskyi.usersapitask.audit.AuditInterceptor;
+import com.krasnopolskyi.usersapitask.audit.UserAuditLog;
+import com.krasnopolskyi.usersapitask.tracing.Tracer;
+import com.krasnopolskyi.usersapitask.tracing.TracingMessageConverter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<UserAuditLog> userAuditLog;
+    private final ObjectProvider<Tracer> tracer;
+
+    /**
+     * Serves every endpoint as CBOR or Smile as well as JSON, selected by the {@code Accept} header.
+     *
+     * <p>Spring MVC already registers binary converters when the dataformats are on the classpath, but with a
+     * mapper of its own. They are replaced by converters sharing the modules and settings of the application's
+     * JSON mapper, so dates and null handling are the same in every representation.</p>
+     *
+     * <p>If tracing is enabled the Jackson converters are wrapped to record reading and writing bodies.</p>
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(objectMapper.copyWith(new CBORFactory())));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(objectMapper.copyWith(new SmileFactory())));
+        tracer.ifAvailable(activeTracer -> converters.replaceAll(converter ->
+                converter instanceof AbstractJackson2HttpMessageConverter jackson
+                        ? new TracingMessageConverter(jackson, activeTracer) : converter));
+    }
+
+    /**
+     * Audits the requests to the user endpoints if the audit trail is enabled.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        userAuditLog.ifAvailable(auditLog -> registry.addInterceptor(new AuditInterceptor(auditLog))
+                .addPathPatterns("/users", "/users/**"));
+    }
+}
@@ -0,0 +1,29 @@
+package com.krasnopolskyi.usersapitask.controller;
+
+import com.krasnopolskyi.usersapitask.audit.UserAuditLog;
+import com.krasnopolskyi.usersapitask.dto.AuditStatsDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/audit")
+@ConditionalOnProperty(name = "users.audit.enabled", havingValue = "true")
+public class AuditStatsController {
+
+    private final UserAuditLog userAuditLog;
+    /**
+     * Report how many audit events have been stored, are pending or have been dropped.
+     *
+     * @return ResponseEntity with HTTP status 200 (OK) and the counters of the audit trail.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<AuditStatsDto> getAuditStats() {
+        return ResponseEntity.status(HttpStatus.OK).body(userAuditLog.stats());
+    }
+}
@@ -0,0 +1,45 @@
+package com.krasnopolskyi.usersapitask.controller;
+
+import com.krasnopolskyi.usersapitask.dto.CacheRegionStatsDto;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/cache")
+public class CacheStatsController {
+
+    private final EntityManagerFactory entityManagerFactory;
+    /**
+     * Report the hit and miss counts of the Hibernate cache regions for users.
+     *
+     * @return ResponseEntity with HTTP status 200 (OK) and the statistics of the entity and query regions.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheRegionStatsDto>> getCacheStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return ResponseEntity.status(HttpStatus.OK).body(List.of(
+                toDto("users", statistics.getDomainDataRegionStatistics("users")),
+                toDto(UserRepository.BIRTH_DATE_QUERY_REGION,
+                        statistics.getQueryRegionStatistics(UserRepository.BIRTH_DATE_QUERY_REGION))));
+    }
+
+    private CacheRegionStatsDto toDto(String region, CacheRegionStatistics regionStatistics) {
+        if (regionStatistics == null) {
+            return new CacheRegionStatsDto(region, 0, 0, 0, 0);
+        }
+        return new CacheRegionStatsDto(region, regionStatistics.getHitCount(), regionStatistics.getMissCount(),
+                regionStatistics.getPutCount(), regionStatistics.getElementCountInMemory());
+    }
+}
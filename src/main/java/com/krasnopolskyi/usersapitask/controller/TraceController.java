@@ -0,0 +1,59 @@
+package com.krasnopolskyi.usersapitask.controller;
+
+import com.krasnopolskyi.usersapitask.exception.UserAppException;
+import com.krasnopolskyi.usersapitask.exception.ValidationException;
+import com.krasnopolskyi.usersapitask.tracing.InMemoryTraceExporter;
+import com.krasnopolskyi.usersapitask.tracing.TraceData;
+import com.krasnopolskyi.usersapitask.tracing.TraceExporter;
+import com.krasnopolskyi.usersapitask.tracing.Tracer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/traces")
+@ConditionalOnProperty(name = "users.tracing.enabled", havingValue = "true")
+public class TraceController {
+    private static final int MAX_TRACES = 1000;
+
+    private final Tracer tracer;
+    private final TraceExporter traceExporter;
+    /**
+     * Retrieve the most recent traces kept by the tail sampling, i.e. slow or failed requests.
+     *
+     * @param limit The number of traces (default 20, at most 1000).
+     * @return ResponseEntity with HTTP status 200 (OK) and the traces, the most recent first.
+     * @throws ValidationException If the limit is out of range.
+     * @throws UserAppException    If traces are exported to a file instead (HTTP 503).
+     */
+    @GetMapping
+    public ResponseEntity<List<TraceData>> getTraces(@RequestParam(defaultValue = "20") int limit)
+            throws ValidationException, UserAppException {
+        if (limit < 1 || limit > MAX_TRACES) {
+            throw new ValidationException("Limit should be between 1 and " + MAX_TRACES);
+        }
+        if (!(traceExporter instanceof InMemoryTraceExporter inMemoryExporter)) {
+            UserAppException exception = new UserAppException("Traces are exported to a file, not kept in memory");
+            exception.setExceptionStatus(503);
+            throw exception;
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(inMemoryExporter.recent(limit));
+    }
+    /**
+     * Report how many requests have been traced and how many traces have been kept.
+     *
+     * @return ResponseEntity with HTTP status 200 (OK) and the counters of the tracer.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Tracer.Stats> getTraceStats() {
+        return ResponseEntity.status(HttpStatus.OK).body(tracer.stats());
+    }
+}
@@ -0,0 +1,88 @@
+package com.krasnopolskyi.usersapitask.controller;
+
+import com.krasnopolskyi.usersapitask.analytics.UserAnalyticsStore;
+import com.krasnopolskyi.usersapitask.dto.HistogramBucketDto;
+import com.krasnopolskyi.usersapitask.exception.UserAppException;
+import com.krasnopolskyi.usersapitask.exception.ValidationException;
+import com.krasnopolskyi.usersapitask.utils.DateConvertor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/users/stats")
+@ConditionalOnProperty(name = "analytics.snapshot.enabled", havingValue = "true")
+public class UserAnalyticsController {
+    private static final LocalDate HISTOGRAM_DEFAULT_START = LocalDate.of(1900, 1, 1);
+
+    private final UserAnalyticsStore analyticsStore;
+    /**
+     * Count users by birth date using the in-memory analytic snapshot.
+     *
+     * @param startDate The first birth date to count (optional, inclusive).
+     * @param endDate   The last birth date to count (optional, inclusive).
+     * @return ResponseEntity with HTTP status 200 (OK) and the number of matching users.
+     * @throws ValidationException If the provided dates are invalid.
+     * @throws UserAppException    If the analytic snapshot is not loaded (HTTP 503).
+     */
+    @GetMapping("/count")
+    public ResponseEntity<Long> countByPeriod(
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate
+    ) throws ValidationException, UserAppException {
+        LocalDate from = DateConvertor.convertDate(startDate);
+        LocalDate to = DateConvertor.convertDate(endDate);
+        validatePeriod(from, to);
+        checkAvailable();
+        return ResponseEntity.status(HttpStatus.OK).body(analyticsStore.count(from, to));
+    }
+    /**
+     * Build a histogram of users by birth year or month using the in-memory analytic snapshot.
+     *
+     * @param startDate The first birth date of the histogram (optional, defaults to 1900-01-01).
+     * @param endDate   The last birth date of the histogram (optional, defaults to today).
+     * @param bucket    The bucket width, either YEARS (default) or MONTHS.
+     * @return ResponseEntity with HTTP status 200 (OK) and the buckets in chronological order.
+     * @throws ValidationException If the provided dates or bucket are invalid.
+     * @throws UserAppException    If the analytic snapshot is not loaded (HTTP 503).
+     */
+    @GetMapping("/histogram")
+    public ResponseEntity<List<HistogramBucketDto>> histogramByPeriod(
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(defaultValue = "YEARS") ChronoUnit bucket
+    ) throws ValidationException, UserAppException {
+        LocalDate from = startDate == null ? HISTOGRAM_DEFAULT_START : DateConvertor.convertDate(startDate);
+        LocalDate to = endDate == null ? LocalDate.now() : DateConvertor.convertDate(endDate);
+        validatePeriod(from, to);
+        if (bucket != ChronoUnit.YEARS && bucket != ChronoUnit.MONTHS) {
+            throw new ValidationException("Histogram bucket should be YEARS or MONTHS");
+        }
+        checkAvailable();
+        return ResponseEntity.status(HttpStatus.OK).body(analyticsStore.histogram(from, to, bucket));
+    }
+
+    private void validatePeriod(LocalDate from, LocalDate to) throws ValidationException {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ValidationException("Start date should be before end date");
+        }
+    }
+
+    private void checkAvailable() throws UserAppException {
+        if (!analyticsStore.isAvailable()) {
+            UserAppException exception = new UserAppException("Analytic snapshot is not available");
+            exception.setExceptionStatus(503);
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.krasnopolskyi.usersapitask.controller;
+
+import com.krasnopolskyi.usersapitask.dto.BatchDeleteResponseDto;
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.exception.ValidationException;
+import com.krasnopolskyi.usersapitask.service.UserBatchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/users")
+public class UserBatchController {
+
+    private final UserBatchService userBatchService;
+    /**
+     * Retrieve several users by their ids.
+     *
+     * @param ids The comma-separated ids of the users, e.g. '1,2,3'. Duplicates are ignored.
+     * @return ResponseEntity with HTTP status 200 (OK) and the existing users ordered by id,
+     *         or HTTP status 400 (BAD_REQUEST) if the ids are malformed or too many.
+     * @throws ValidationException If the ids are malformed or exceed the configured limit.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<User>> getUsers(@RequestParam String ids) throws ValidationException {
+        return ResponseEntity.status(HttpStatus.OK).body(userBatchService.getUsersByIds(ids));
+    }
+    /**
+     * Delete several users by their ids.
+     *
+     * @param ids The comma-separated ids of the users, e.g. '1,2,3'. Duplicates are ignored.
+     * @return ResponseEntity with HTTP status 200 (OK) and the number of requested and deleted users,
+     *         or HTTP status 400 (BAD_REQUEST) if the ids are malformed or too many.
+     * @throws ValidationException If the ids are malformed or exceed the configured limit.
+     */
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<BatchDeleteResponseDto> deleteUsers(@RequestParam String ids) throws ValidationException {
+        return ResponseEntity.status(HttpStatus.OK).body(userBatchService.deleteUsersByIds(ids));
+    }
+    /**
+     * Delete several users by the ids sent as a plain-text body.
+     * Meant for batches too large for a query string (the request line is limited to a few kilobytes).
+     *
+     * @param ids The comma-separated ids of the users. Duplicates are ignored.
+     * @return ResponseEntity with HTTP status 200 (OK) and the number of requested and deleted users,
+     *         or HTTP status 400 (BAD_REQUEST) if the ids are malformed or too many.
+     * @throws ValidationException If the ids are malformed or exceed the configured limit.
+     */
+    @DeleteMapping(consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<BatchDeleteResponseDto> deleteUsersFromBody(@RequestBody String ids)
+            throws ValidationException {
+        return ResponseEntity.status(HttpStatus.OK).body(userBatchService.deleteUsersByIds(ids));
+    }
+}
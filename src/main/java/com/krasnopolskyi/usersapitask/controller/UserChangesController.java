@@ -0,0 +1,42 @@
+package com.krasnopolskyi.usersapitask.controller;
+
+import com.krasnopolskyi.usersapitask.dto.UserChangesResponseDto;
+import com.krasnopolskyi.usersapitask.exception.ValidationException;
+import com.krasnopolskyi.usersapitask.service.UserChangeFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+@ConditionalOnProperty(name = "users.changes.enabled", havingValue = "true", matchIfMissing = true)
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/users/changes")
+public class UserChangesController {
+
+    private final UserChangeFeed userChangeFeed;
+    /**
+     * Stream user changes (creates, updates and deletes) in order, for incremental synchronisation.
+     *
+     * <p>The request is held open until at least one event after the cursor is committed
+     * or the timeout elapses, in which case an empty page with the same cursor is returned.</p>
+     *
+     * @param since     The cursor: id of the last processed event, 0 to read from the beginning.
+     * @param limit     The maximum number of events to return (default 100, at most 1000).
+     * @param timeoutMs How long to wait for new events, in milliseconds (default 25000, 0 to return at once).
+     * @return The events after the cursor and the cursor for the next call, with HTTP status 200 (OK),
+     *         or HTTP status 400 (BAD_REQUEST) if the parameters are out of range.
+     * @throws ValidationException If the cursor, limit or timeout are out of range.
+     */
+    @GetMapping
+    public DeferredResult<UserChangesResponseDto> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "25000") long timeoutMs
+    ) throws ValidationException {
+        return userChangeFeed.poll(since, limit, timeoutMs);
+    }
+}
@@ -1,12 +1,15 @@
 package com.krasnopolskyi.usersapitask.controller;
 
+import com.krasnopolskyi.usersapitask.dto.UserMultiGetRequestDto;
 import com.krasnopolskyi.usersapitask.dto.UserPostRequestDto;
 import com.krasnopolskyi.usersapitask.dto.UserPatchRequestDto;
 import com.krasnopolskyi.usersapitask.dto.UserPutRequestDto;
 import com.krasnopolskyi.usersapitask.exception.MinimumAgeException;
+import com.krasnopolskyi.usersapitask.exception.QueryTooLargeException;
 import com.krasnopolskyi.usersapitask.exception.UserAppException;
 import com.krasnopolskyi.usersapitask.exception.ValidationException;
 import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.filter.ClientIdentityFilter;
 import com.krasnopolskyi.usersapitask.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -35,18 +38,34 @@ public class UserController {
     public ResponseEntity<User> getUser(@PathVariable("id") Long id) throws UserAppException {
         return ResponseEntity.status(HttpStatus.OK).body(userService.getUserById(id));
     }
+    /**
+     * Retrieve several users by their ids in one call.
+     *
+     * <p>Lookups are coalesced with concurrent requests for the same ids and batched into few database queries.</p>
+     *
+     * @param request The ids of the users to retrieve (at most 1000).
+     * @return ResponseEntity with HTTP status 200 (OK) and the existing users in the order of the ids.
+     *         Unknown ids are skipped.
+     */
+    @PostMapping("/multi-get")
+    public ResponseEntity<List<User>> multiGetUsers(@Validated @RequestBody UserMultiGetRequestDto request) {
+        return ResponseEntity.status(HttpStatus.OK).body(userService.multiGetUsers(request.getIds()));
+    }
     /**
      * Create a new user with the provided user data.
      *
      * @param userDto The data of the user to be created.
-     * @return ResponseEntity containing the created user information with an HTTP 201 Created status.
+     * @return ResponseEntity containing the created user information with an HTTP 201 Created status,
+     *         or with an HTTP 202 Accepted status (and no id yet) if the insert has been deferred to the write-behind journal.
      * @throws MinimumAgeException  If the user's age is below the minimum allowed age.
      * @throws ValidationException If the user data fails validation checks.
      */
     @PostMapping
     public ResponseEntity<User> createUser(@Validated @RequestBody UserPostRequestDto userDto)
             throws MinimumAgeException, ValidationException {
-        return ResponseEntity.status(HttpStatus.CREATED).body(userService.createUser(userDto));
+        User user = userService.createUser(userDto);
+        HttpStatus status = user.getId() == null ? HttpStatus.ACCEPTED : HttpStatus.CREATED;
+        return ResponseEntity.status(status).body(user);
     }
     /**
      * Update the specified user with the provided partial user data.
@@ -94,20 +113,49 @@ public class UserController {
     /**
      * Retrieve a list of users based on the specified date range.
      *
+     * <p>Ranges with more users than the client may read in one response have to be read page by page.</p>
+     *
      * @param startDate The start date of the range (optional). If provided, only users with birth dates
      *                  on or after this date will be included.
      * @param endDate   The end date of the range (optional). If provided, only users with birth dates
      *                  on or before this date will be included.
+     * @param page      The zero-based page number (optional, default 0 if a size is given).
+     * @param size      The page size (optional, default and at most 1000 if a page is given).
+     * @param client    The client as resolved by the {@link ClientIdentityFilter}, whose range limits apply.
      * @return ResponseEntity with HTTP status 200 (OK) and a list of users within the specified date range,
-     *         or HTTP status 400 (BAD_REQUEST) if the provided dates are invalid.
-     * @throws ValidationException If the provided start date is after the end date.
+     *         HTTP status 400 (BAD_REQUEST) if the provided dates or paging parameters are invalid,
+     *         or HTTP status 413 (PAYLOAD_TOO_LARGE) with a hint if the range holds too many users to be read
+     *         at once or at all.
+     * @throws ValidationException    If the provided start date is after the end date.
+     * @throws QueryTooLargeException If the range holds too many users.
      */
     @GetMapping("/range")
     public ResponseEntity<List<User>> getUsersByPeriod(
             @RequestParam(required = false) String startDate,
-            @RequestParam(required = false) String endDate
-    ) throws ValidationException {
-        List<User> users = userService.getUsersByBirthDate(startDate, endDate);
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestAttribute(name = ClientIdentityFilter.CLIENT_ATTRIBUTE, required = false) String client
+    ) throws ValidationException, QueryTooLargeException {
+        List<User> users = userService.getUsersByBirthDate(startDate, endDate, client, page, size);
         return ResponseEntity.status(HttpStatus.OK).body(users);
     }
+    /**
+     * Search users by first name, last name or email.
+     *
+     * @param q    The free-text query. Every word has to match a name or email token, exactly or as a prefix.
+     * @param page The zero-based page number (default 0).
+     * @param size The page size (default 20, at most 100).
+     * @return ResponseEntity with HTTP status 200 (OK) and the ranked users of the requested page,
+     *         or HTTP status 400 (BAD_REQUEST) if the query or paging parameters are invalid.
+     * @throws ValidationException If the query is blank or the paging parameters are out of range.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<User>> searchUsers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) throws ValidationException {
+        return ResponseEntity.status(HttpStatus.OK).body(userService.searchUsers(q, page, size));
+    }
 }
@@ -0,0 +1,139 @@
+package com.krasnopolskyi.usersapitask.datagen;
+
+import com.krasnopolskyi.usersapitask.id.SnowflakeIdGenerator;
+import com.krasnopolskyi.usersapitask.utils.AgePolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills the database with synthetic users, run with {@code --spring.profiles.active=datagen}.
+ *
+ * <p>Users are generated chunk by chunk from a seeded random source, so any number of them can be streamed into
+ * the database in constant memory and a run is reproducible. Emails are unique, every user passes the
+ * {@link AgePolicy}, and ages follow a half-normal distribution so that most users are young adults, like in
+ * production. Chunks are written either with JDBC batches or, for MySQL, with {@code LOAD DATA LOCAL INFILE}
+ * (needs {@code allowLoadLocalInfile=true} on the connection and {@code local_infile=ON} on the server).</p>
+ */
+@Component
+@Profile("datagen")
+@Slf4j
+public class UserDataGenerator implements CommandLineRunner {
+    private static final String INSERT = "INSERT INTO users "
+            + "(id, email, firstname, lastname, birth_date, address, phone_number) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String LOAD_DATA = "LOAD DATA LOCAL INFILE '%s' INTO TABLE users "
+            + "FIELDS TERMINATED BY ',' LINES TERMINATED BY '\\n' "
+            + "(id, email, firstname, lastname, birth_date, address, phone_number)";
+    private static final String[] FIRSTNAMES = {"John", "Jane", "Michael", "Emily", "Olena", "Taras", "Maria",
+            "Petro", "Anna", "Ivan", "Sofia", "Andrii", "Kateryna", "Dmytro", "Iryna", "Oleksandr", "Natalia"};
+    private static final String[] LASTNAMES = {"Doe", "Smith", "Johnson", "Brown", "Shevchenko", "Kovalenko",
+            "Bondarenko", "Tkachenko", "Kravchenko", "Melnyk", "Boyko", "Moroz", "Lysenko", "Rudenko"};
+    private static final String[] STREETS = {"Main St", "Elm St", "Oak St", "Maple St", "Khreshchatyk",
+            "Shevchenko Ave", "Lesi Ukrainky Blvd", "Sahaidachnoho St"};
+    private static final String[] DOMAINS = {"example.com", "mail.com", "test.org", "users.dev"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AgePolicy agePolicy;
+    private final SnowflakeIdGenerator idGenerator;
+    private final long count;
+    private final int batchSize;
+    private final long seed;
+    private final String mode;
+
+    public UserDataGenerator(JdbcTemplate jdbcTemplate,
+                             AgePolicy agePolicy,
+                             SnowflakeIdGenerator idGenerator,
+                             @Value("${users.datagen.count:1000000}") long count,
+                             @Value("${users.datagen.batch-size:5000}") int batchSize,
+                             @Value("${users.datagen.seed:42}") long seed,
+                             @Value("${users.datagen.mode:batch}") String mode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.agePolicy = agePolicy;
+        this.idGenerator = idGenerator;
+        this.count = count;
+        this.batchSize = batchSize;
+        this.seed = seed;
+        this.mode = mode;
+    }
+
+    @Override
+    public void run(String... args) throws IOException {
+        Random random = new Random(seed);
+        // the run number keeps emails unique across several runs against the same database
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        long start = System.nanoTime();
+        for (long generated = 0; generated < count; ) {
+            int size = (int) Math.min(batchSize, count - generated);
+            List<Object[]> rows = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                rows.add(generateRow(random, run, generated + i));
+            }
+            if (mode.equals("load-data")) {
+                loadData(rows);
+            } else {
+                jdbcTemplate.batchUpdate(INSERT, rows);
+            }
+            generated += size;
+            if (generated % (batchSize * 20L) == 0 || generated == count) {
+                double seconds = (System.nanoTime() - start) / 1e9;
+                log.info(String.format("Generated %d of %d users, %.0f users/s", generated, count, generated / seconds));
+            }
+        }
+    }
+
+    Object[] generateRow(Random random, String run, long sequence) {
+        String firstname = FIRSTNAMES[random.nextInt(FIRSTNAMES.length)];
+        String lastname = LASTNAMES[random.nextInt(LASTNAMES.length)];
+        String email = firstname.toLowerCase() + "." + lastname.toLowerCase() + "." + run + sequence
+                + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+        String address = (1 + random.nextInt(300)) + " " + STREETS[random.nextInt(STREETS.length)];
+        String phoneNumber = "+380" + (500_000_000 + random.nextInt(499_999_999));
+        return new Object[]{idGenerator.nextId(), email, firstname, lastname, Date.valueOf(birthDate(random)), address, phoneNumber};
+    }
+
+    // half-normal ages from the minimum age on, mostly between 18 and 45, none older than 100
+    LocalDate birthDate(Random random) {
+        int maxExtraYears = 100 - agePolicy.getMinimumAge();
+        double extraYears = Math.min(maxExtraYears, Math.abs(random.nextGaussian()) * 18);
+        return agePolicy.latestAllowedBirthDate().minusDays((long) (extraYears * 365.25));
+    }
+
+    private void loadData(List<Object[]> rows) throws IOException {
+        Path file = Files.createTempFile("users-", ".csv");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (Object[] row : rows) {
+                    for (int column = 0; column < row.length; column++) {
+                        if (column > 0) {
+                            writer.write(',');
+                        }
+                        writer.write(row[column].toString());
+                    }
+                    writer.write('\n');
+                }
+            }
+            jdbcTemplate.execute(String.format(LOAD_DATA, file.toAbsolutePath().toString().replace('\\', '/')));
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.krasnopolskyi.usersapitask.dto;
+
+/**
+ * Counters of the audit trail since startup.
+ *
+ * @param written       Events stored in the audit table.
+ * @param pending       Events waiting in the ring buffer.
+ * @param capacity      Size of the ring buffer.
+ * @param droppedReads  Read events dropped because the ring buffer was too full.
+ * @param droppedWrites Write events dropped because the ring buffer was full.
+ * @param failedBatches Batch inserts that failed and were retried.
+ */
+public record AuditStatsDto(long written, long pending, int capacity, long droppedReads, long droppedWrites,
+                            long failedBatches) {
+}
@@ -0,0 +1,10 @@
+package com.krasnopolskyi.usersapitask.dto;
+
+/**
+ * Result of a batch delete.
+ *
+ * @param requested The number of distinct ids in the request.
+ * @param deleted   The number of users that existed and have been deleted.
+ */
+public record BatchDeleteResponseDto(int requested, int deleted) {
+}
@@ -0,0 +1,13 @@
+package com.krasnopolskyi.usersapitask.dto;
+
+/**
+ * Statistics of one second-level or query cache region since startup.
+ *
+ * @param region  The name of the region.
+ * @param hits    The number of lookups answered from the region.
+ * @param misses  The number of lookups that had to go to the database.
+ * @param puts    The number of entries written to the region.
+ * @param entries The number of entries currently held in memory, -1 if unknown.
+ */
+public record CacheRegionStatsDto(String region, long hits, long misses, long puts, long entries) {
+}
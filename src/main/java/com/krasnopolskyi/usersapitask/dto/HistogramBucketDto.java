@@ -0,0 +1,13 @@
+package com.krasnopolskyi.usersapitask.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Number of users born within a bucket of the birth-date histogram.
+ *
+ * @param from  The first day of the bucket (inclusive).
+ * @param to    The last day of the bucket (inclusive).
+ * @param count The number of users born in the bucket.
+ */
+public record HistogramBucketDto(LocalDate from, LocalDate to, long count) {
+}
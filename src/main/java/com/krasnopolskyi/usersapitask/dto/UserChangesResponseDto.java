@@ -0,0 +1,14 @@
+package com.krasnopolskyi.usersapitask.dto;
+
+import com.krasnopolskyi.usersapitask.entity.UserEvent;
+
+import java.util.List;
+
+/**
+ * A page of the user change stream.
+ *
+ * @param events     The events after the requested cursor, in commit order of their ids.
+ * @param nextCursor The cursor to pass as 'since' to get the following events.
+ */
+public record UserChangesResponseDto(List<UserEvent> events, long nextCursor) {
+}
@@ -0,0 +1,15 @@
+package com.krasnopolskyi.usersapitask.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class UserMultiGetRequestDto {
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@NotNull @Positive Long> ids;
+}
@@ -0,0 +1,32 @@
+package com.krasnopolskyi.usersapitask.entity;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.krasnopolskyi.usersapitask.event.UserChangedEvent;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row describing one committed change of a user.
+ */
+@Entity
+@Table(name = "user_events")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id")
+    private Long id;
+    private Long userId;
+    @Enumerated(EnumType.STRING)
+    private UserChangedEvent.Type eventType;
+    @JsonRawValue
+    private String payload;
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
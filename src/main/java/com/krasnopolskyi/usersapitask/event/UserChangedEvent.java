@@ -0,0 +1,18 @@
+package com.krasnopolskyi.usersapitask.event;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+
+/**
+ * Application event published by the user service after every successful write.
+ *
+ * @param type The kind of change that was applied to the user.
+ * @param user The state of the user after the change (or the last known state for deletions).
+ */
+public record UserChangedEvent(Type type, User user) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
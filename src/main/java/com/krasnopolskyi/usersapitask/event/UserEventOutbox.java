@@ -0,0 +1,34 @@
+package com.krasnopolskyi.usersapitask.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krasnopolskyi.usersapitask.entity.UserEvent;
+import com.krasnopolskyi.usersapitask.repository.UserEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Transactional outbox: records every user change in {@code user_events}.
+ *
+ * <p>The listener is synchronous, so the row is written in the transaction of the change itself
+ * and both are committed or rolled back together. Disabled together with the change feed by
+ * {@code users.changes.enabled=false}.</p>
+ */
+@ConditionalOnProperty(name = "users.changes.enabled", havingValue = "true", matchIfMissing = true)
+@Component
+@RequiredArgsConstructor
+public class UserEventOutbox {
+    private final UserEventRepository userEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) throws JsonProcessingException {
+        userEventRepository.save(UserEvent.builder()
+                .userId(event.user().getId())
+                .eventType(event.type())
+                .payload(objectMapper.writeValueAsString(event.user()))
+                .build());
+    }
+}
@@ -0,0 +1,12 @@
+package com.krasnopolskyi.usersapitask.exception;
+
+/**
+ * A query that would read more rows than the client is allowed to, answered with 413 (Payload Too Large).
+ * The message tells the client how to narrow or page the query.
+ */
+public class QueryTooLargeException extends UserAppException {
+    public QueryTooLargeException(String message) {
+        super(message);
+        setExceptionStatus(413);
+    }
+}
@@ -0,0 +1,85 @@
+package com.krasnopolskyi.usersapitask.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Global limit on the requests in flight that adapts to the observed latency (AIMD).
+ *
+ * <p>While requests complete within the latency target the limit grows by one per limit's worth of completions
+ * (additive increase). A slow or failed request cuts it by the backoff ratio, at most once per limit's worth of
+ * completions so that one burst of slow requests does not collapse it (multiplicative decrease). The request
+ * latency is dominated by the database, so the limit tracks what the database can currently take.</p>
+ *
+ * <p>The limit and its completion count are replaced together by compare-and-set, no lock is taken on either
+ * path.</p>
+ */
+public class AdaptiveConcurrencyLimiter {
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicReference<Window> window;
+
+    private record Window(double limit, int completionsSinceDecrease) {
+    }
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      long latencyTargetNanos, double backoffRatio) {
+        this.window = new AtomicReference<>(new Window(initialLimit, 0));
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.backoffRatio = backoffRatio;
+    }
+
+    /**
+     * Admits a request if the number of requests in flight is below the current limit.
+     *
+     * @return {@code true} if admitted, the caller must then call {@link #onComplete(long, boolean)}.
+     */
+    public boolean tryAcquire() {
+        int current = inFlight.incrementAndGet();
+        if (current > getLimit()) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Releases an admitted request and adjusts the limit.
+     *
+     * @param latencyNanos How long the request took.
+     * @param failed       Whether the request failed on the server side.
+     */
+    public void onComplete(long latencyNanos, boolean failed) {
+        inFlight.decrementAndGet();
+        boolean slow = failed || latencyNanos > latencyTargetNanos;
+        Window current;
+        do {
+            current = window.get();
+        } while (!window.compareAndSet(current, adjust(current, slow)));
+    }
+
+    public int getLimit() {
+        return (int) window.get().limit();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private Window adjust(Window current, boolean slow) {
+        int completions = current.completionsSinceDecrease() + 1;
+        if (!slow) {
+            return new Window(Math.min(maxLimit, current.limit() + 1 / current.limit()), completions);
+        }
+        if (completions >= current.limit()) {
+            return new Window(Math.max(minLimit, current.limit() * backoffRatio), 0);
+        }
+        return new Window(current.limit(), completions);
+    }
+}
@@ -0,0 +1,140 @@
+package com.krasnopolskyi.usersapitask.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krasnopolskyi.usersapitask.handler.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the user endpoints.
+ *
+ * <p>Every request is charged against the token bucket of its client, with a cost reflecting how much database
+ * work it causes: point reads are cheap, open birth date ranges (full scans) are expensive. Admitted requests
+ * then pass a global concurrency limit that adapts to the observed latency. Rejected requests get 429 with a
+ * {@code Retry-After} header, in the usual {@link ErrorResponse} shape.</p>
+ *
+ * <p>Clients are identified as resolved by the {@link ClientIdentityFilter}: by their remote address, or by the
+ * client header when the request comes through a trusted proxy.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "users.admission.enabled", havingValue = "true")
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final int POINT_COST = 1;
+    private static final int WRITE_COST = 2;
+    private static final int SEARCH_COST = 2;
+    private static final int MULTI_GET_COST = 5;
+    private static final int BOUNDED_RANGE_COST = 5;
+    private static final int FULL_SCAN_COST = 20;
+    private static final int IDS_PER_COST_UNIT = 100;
+
+    private final ObjectMapper objectMapper;
+    private final ClientRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    public AdmissionControlFilter(ObjectMapper objectMapper,
+                                  @Value("${users.admission.tokens-per-second:50}") double tokensPerSecond,
+                                  @Value("${users.admission.burst:200}") int burst,
+                                  @Value("${users.admission.max-clients:100000}") int maxClients,
+                                  @Value("${users.admission.concurrency.initial:50}") int initialLimit,
+                                  @Value("${users.admission.concurrency.min:5}") int minLimit,
+                                  @Value("${users.admission.concurrency.max:200}") int maxLimit,
+                                  @Value("${users.admission.concurrency.latency-target-ms:250}") long latencyTargetMillis) {
+        this.objectMapper = objectMapper;
+        this.rateLimiter = new ClientRateLimiter(tokensPerSecond, burst, maxClients, System::nanoTime);
+        this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+                TimeUnit.MILLISECONDS.toNanos(latencyTargetMillis), 0.9);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !path(request).startsWith("/users");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long waitNanos = rateLimiter.tryAcquire(ClientIdentityFilter.clientOf(request), cost(request));
+        if (waitNanos > 0) {
+            reject(response, "Rate limit exceeded", waitNanos);
+            return;
+        }
+        // long polls are parked without a thread or connection, they must not hold a concurrency slot
+        if (path(request).equals("/users/changes")) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            reject(response, "Server is at capacity (" + concurrencyLimiter.getLimit() + " requests in flight)",
+                    TimeUnit.SECONDS.toNanos(1));
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            concurrencyLimiter.onComplete(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Estimates the database work of a request in tokens.
+     */
+    static int cost(HttpServletRequest request) {
+        String path = path(request);
+        String method = request.getMethod();
+        if (path.equals("/users/range")) {
+            boolean bounded = request.getParameter("startDate") != null && request.getParameter("endDate") != null
+                    || request.getParameter("page") != null || request.getParameter("size") != null;
+            return bounded ? BOUNDED_RANGE_COST : FULL_SCAN_COST;
+        }
+        if (path.equals("/users/search") || path.startsWith("/users/stats")) {
+            return SEARCH_COST;
+        }
+        if (path.equals("/users/multi-get")) {
+            return MULTI_GET_COST;
+        }
+        String ids = request.getParameter("ids");
+        if (path.equals("/users") && ids != null) {
+            int count = ids.isEmpty() ? 0 : ids.length() - ids.replace(",", "").length() + 1;
+            return POINT_COST + count / IDS_PER_COST_UNIT;
+        }
+        if (path.equals("/users") && method.equals("DELETE")) {
+            return FULL_SCAN_COST; // id list in the body, size unknown up front
+        }
+        return method.equals("GET") ? POINT_COST : WRITE_COST;
+    }
+
+    private void reject(HttpServletResponse response, String message, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        log.warn("caused by " + message);
+        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.TOO_MANY_REQUESTS.value(), message);
+        errorResponse.setRetryAfterSeconds(retryAfterSeconds);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
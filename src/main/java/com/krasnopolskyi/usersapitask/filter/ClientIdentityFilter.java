@@ -0,0 +1,60 @@
+package com.krasnopolskyi.usersapitask.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Resolves who a request is charged to and exposes it as the {@link #CLIENT_ATTRIBUTE} request attribute.
+ *
+ * <p>A client is its remote address. The {@code users.admission.client-header} header is only believed on
+ * requests coming from one of the {@code users.admission.trusted-proxies} addresses, which set it after
+ * authenticating the caller; anybody else could put any name there and pick a fresh budget per request.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class ClientIdentityFilter extends OncePerRequestFilter {
+    public static final String CLIENT_ATTRIBUTE = "com.krasnopolskyi.usersapitask.filter.ClientIdentityFilter.client";
+
+    private final String clientHeader;
+    private final Set<String> trustedProxies;
+
+    public ClientIdentityFilter(@Value("${users.admission.client-header:X-Client-Id}") String clientHeader,
+                                @Value("${users.admission.trusted-proxies:}") Set<String> trustedProxies) {
+        this.clientHeader = clientHeader;
+        this.trustedProxies = trustedProxies;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        request.setAttribute(CLIENT_ATTRIBUTE, client(request));
+        chain.doFilter(request, response);
+    }
+
+    String client(HttpServletRequest request) {
+        String remoteAddress = request.getRemoteAddr();
+        if (!trustedProxies.contains(remoteAddress)) {
+            return remoteAddress;
+        }
+        String client = request.getHeader(clientHeader);
+        return client != null && !client.isBlank() ? client : remoteAddress;
+    }
+
+    /**
+     * @return The client of a request that has passed this filter, its remote address otherwise.
+     */
+    public static String clientOf(HttpServletRequest request) {
+        Object client = request.getAttribute(CLIENT_ATTRIBUTE);
+        return client != null ? client.toString() : request.getRemoteAddr();
+    }
+}
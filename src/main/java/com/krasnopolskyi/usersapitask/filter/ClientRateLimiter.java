@@ -0,0 +1,112 @@
+package com.krasnopolskyi.usersapitask.filter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free per-client token buckets, implemented with the generic cell rate algorithm.
+ *
+ * <p>Each client has a single "theoretical arrival time": the moment its bucket would be full again. Taking
+ * {@code cost} tokens moves it forward by {@code cost} emission intervals, and the request is admitted while it
+ * stays within the burst capacity ahead of now. One compare-and-set per request, no refill thread.</p>
+ *
+ * <p>The buckets are kept in a concurrent map, so a known client is found without locking. Once more than
+ * {@code maxClients} are tracked, one thread drops the fullest buckets until an eighth of the room is free again,
+ * which keeps the sweeps rare. A bucket whose arrival time has passed is full and is dropped without losing
+ * anything; a client whose partly spent bucket is dropped starts again with a full one, which only happens while
+ * far more than {@code maxClients} clients are active at once.</p>
+ */
+public class ClientRateLimiter {
+    private final long emissionIntervalNanos;
+    private final int burst;
+    private final long burstToleranceNanos;
+    private final int maxClients;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private record Candidate(String client, AtomicLong bucket, long arrivalTime) {
+    }
+
+    /**
+     * @param tokensPerSecond The sustained rate of a client.
+     * @param burst           The capacity of a bucket, the most a client can spend at once.
+     * @param maxClients      The number of tracked clients above which the fullest buckets are dropped.
+     * @param nanoClock       The time source, {@link System#nanoTime()} outside of tests.
+     */
+    public ClientRateLimiter(double tokensPerSecond, int burst, int maxClients, LongSupplier nanoClock) {
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / tokensPerSecond);
+        this.burst = burst;
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+        this.maxClients = maxClients;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes tokens from the bucket of a client.
+     *
+     * @param client The client key.
+     * @param cost   The number of tokens the request costs, capped at the burst so that it can be admitted.
+     * @return 0 if the request is admitted, otherwise the nanoseconds until it would be.
+     */
+    public long tryAcquire(String client, int cost) {
+        long now = nanoClock.getAsLong();
+        AtomicLong arrivalTime = bucketOf(client, now);
+        long increment = emissionIntervalNanos * Math.min(cost, burst);
+        while (true) {
+            long current = arrivalTime.get();
+            long next = Math.max(current, now) + increment;
+            long wait = next - now - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrivalTime.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    int trackedClients() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucketOf(String client, long now) {
+        AtomicLong bucket = buckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        bucket = buckets.computeIfAbsent(client, key -> new AtomicLong(now));
+        if (buckets.size() > maxClients) {
+            evict();
+        }
+        return bucket;
+    }
+
+    // a request still holding a dropped bucket spends from it once more, which is harmless
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int excess = buckets.size() - (maxClients - maxClients / 8);
+            if (excess <= 0) {
+                return;
+            }
+            // the arrival times are read once, they keep moving while the candidates are sorted
+            List<Candidate> candidates = new ArrayList<>(buckets.size());
+            buckets.forEach((client, bucket) -> candidates.add(new Candidate(client, bucket, bucket.get())));
+            candidates.sort(Comparator.comparingLong(Candidate::arrivalTime));
+            for (int i = 0; i < Math.min(excess, candidates.size()); i++) {
+                buckets.remove(candidates.get(i).client(), candidates.get(i).bucket());
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+}
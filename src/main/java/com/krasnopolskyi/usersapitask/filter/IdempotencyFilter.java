@@ -0,0 +1,276 @@
+package com.krasnopolskyi.usersapitask.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krasnopolskyi.usersapitask.handler.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes POST /users safe to retry with an {@code Idempotency-Key} header.
+ *
+ * <p>The first request with a key is processed and its response is kept for a while; retries with the same key
+ * and the same body get the stored response replayed (marked with {@code Idempotent-Replayed: true}) without
+ * touching the database. A retry arriving while the first request is still running waits for its outcome.
+ * Server errors are not stored, so the client can retry them. Reusing a key with a different body is rejected
+ * with 422.</p>
+ *
+ * <p>Keys are scoped by the client as identified by {@link ClientIdentityFilter}, so a key chosen by one client
+ * never replays the response stored for another. Responses are kept in memory of this instance, bounded by count
+ * and age.</p>
+ */
+@Component
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final ObjectMapper objectMapper;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final long waitMillis;
+    // insertion order is creation order, so expired entries are always at the head
+    private final LinkedHashMap<ClientKey, Entry> entries = new LinkedHashMap<>();
+
+    private record ClientKey(String client, String key) {
+    }
+
+    private record StoredResponse(int status, String contentType, String location, byte[] body) {
+    }
+
+    private record Entry(byte[] requestHash, long createdAt, CompletableFuture<StoredResponse> response) {
+    }
+
+    public IdempotencyFilter(ObjectMapper objectMapper,
+                             @Value("${users.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                             @Value("${users.idempotency.max-entries:100000}") int maxEntries,
+                             @Value("${users.idempotency.wait-ms:10000}") long waitMillis) {
+        this.objectMapper = objectMapper;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.maxEntries = maxEntries;
+        this.waitMillis = waitMillis;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !"POST".equals(request.getMethod())
+                || !"/users".equals(path)
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY_HEADER + " should not be blank or longer than " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        ClientKey clientKey = new ClientKey(ClientIdentityFilter.clientOf(request), key);
+        byte[] body = request.getInputStream().readAllBytes();
+        byte[] requestHash = sha256(body);
+        while (true) {
+            Entry entry = new Entry(requestHash, System.currentTimeMillis(), new CompletableFuture<>());
+            Entry existing = claim(clientKey, entry);
+            if (existing == null) {
+                process(clientKey, entry, new CachedBodyRequest(request, body), response, chain);
+                return;
+            }
+            if (!Arrays.equals(existing.requestHash(), requestHash)) {
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        IDEMPOTENCY_KEY_HEADER + " " + key + " was already used for a different request");
+                return;
+            }
+            StoredResponse stored;
+            try {
+                stored = existing.response().get(waitMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException exception) {
+                writeError(response, HttpStatus.CONFLICT,
+                        "A request with " + IDEMPOTENCY_KEY_HEADER + " " + key + " is still being processed");
+                return;
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(exception);
+            } catch (ExecutionException exception) {
+                throw new ServletException(exception.getCause());
+            }
+            if (stored != null) {
+                replay(stored, response);
+                return;
+            }
+            // the first attempt failed and released the key, try to claim it again
+        }
+    }
+
+    private void process(ClientKey key, Entry entry, HttpServletRequest request, HttpServletResponse response,
+                         FilterChain chain) throws ServletException, IOException {
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        StoredResponse stored = null;
+        try {
+            chain.doFilter(request, responseWrapper);
+            if (responseWrapper.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                stored = new StoredResponse(responseWrapper.getStatus(), responseWrapper.getContentType(),
+                        responseWrapper.getHeader(HttpHeaders.LOCATION), responseWrapper.getContentAsByteArray());
+            }
+            responseWrapper.copyBodyToResponse();
+        } finally {
+            if (stored == null) {
+                release(key, entry);
+            }
+            entry.response().complete(stored);
+        }
+    }
+
+    private Entry claim(ClientKey key, Entry entry) {
+        synchronized (entries) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext() && isExpired(iterator.next())) {
+                iterator.remove();
+            }
+            Entry existing = entries.putIfAbsent(key, entry);
+            if (existing != null) {
+                return existing;
+            }
+            iterator = entries.values().iterator();
+            while (entries.size() > maxEntries) {
+                iterator.next();
+                iterator.remove();
+            }
+            return null;
+        }
+    }
+
+    private void release(ClientKey key, Entry entry) {
+        synchronized (entries) {
+            entries.remove(key, entry);
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        return System.currentTimeMillis() - entry.createdAt() > ttlMillis;
+    }
+
+    private void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.location());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        log.warn("caused by " + message);
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(status.value(), message));
+    }
+
+    private static byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * The request with its body already read, so that it can be hashed before the controller parses it.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return inputStream.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // the whole body is in memory, so it is available at once and never blocks
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException exception) {
+                        readListener.onError(exception);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return inputStream.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return inputStream.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws UnsupportedEncodingException {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.krasnopolskyi.usersapitask.grpc;
+
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the gRPC endpoint on its own port with its own executor, so that gRPC traffic neither competes for
+ * Tomcat's request threads nor is affected by the servlet filters.
+ */
+@Component
+@ConditionalOnProperty(name = "users.grpc.enabled", havingValue = "true")
+@Slf4j
+public class UserGrpcServer implements SmartLifecycle {
+    private final UserGrpcService userGrpcService;
+    private final int port;
+    private final int threads;
+    private final long shutdownGraceMillis;
+
+    private ExecutorService executor;
+    private Server server;
+
+    public UserGrpcServer(UserGrpcService userGrpcService,
+                          @Value("${users.grpc.port:9090}") int port,
+                          @Value("${users.grpc.threads:16}") int threads,
+                          @Value("${users.grpc.shutdown-grace-ms:5000}") long shutdownGraceMillis) {
+        this.userGrpcService = userGrpcService;
+        this.port = port;
+        this.threads = threads;
+        this.shutdownGraceMillis = shutdownGraceMillis;
+    }
+
+    @Override
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "grpc-users-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            server = NettyServerBuilder.forPort(port)
+                    .executor(executor)
+                    .addService(userGrpcService)
+                    .build()
+                    .start();
+        } catch (IOException exception) {
+            executor.shutdownNow();
+            throw new UncheckedIOException("Could not start the gRPC server on port " + port, exception);
+        }
+        log.info("gRPC server started on port " + server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(shutdownGraceMillis, TimeUnit.MILLISECONDS)) {
+                server.shutdownNow();
+            }
+        } catch (InterruptedException exception) {
+            server.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+}
@@ -0,0 +1,178 @@
+package com.krasnopolskyi.usersapitask.grpc;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.exception.GlobalAppException;
+import com.krasnopolskyi.usersapitask.exception.MinimumAgeException;
+import com.krasnopolskyi.usersapitask.exception.UserAppException;
+import com.krasnopolskyi.usersapitask.grpc.proto.*;
+import com.krasnopolskyi.usersapitask.service.UserService;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * gRPC binding of {@link UserService}, for internal service-to-service traffic.
+ *
+ * <p>Requests are validated with the same bean validation constraints as the REST DTOs and go through the same
+ * service, so the behaviour matches the REST API. Errors are mapped to gRPC status codes the way the REST handler
+ * maps them to HTTP statuses.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "users.grpc.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class UserGrpcService extends UsersGrpc.UsersImplBase {
+    private final UserService userService;
+    private final Validator validator;
+
+    @FunctionalInterface
+    private interface Call<T> {
+        T execute() throws GlobalAppException;
+    }
+
+    @Override
+    public void getUser(GetUserRequest request, StreamObserver<UserMessage> responseObserver) {
+        unary(responseObserver, () -> UserProtoMapper.toMessage(userService.getUserById(request.getId())));
+    }
+
+    @Override
+    public void createUser(CreateUserRequest request, StreamObserver<UserMessage> responseObserver) {
+        unary(responseObserver, () -> UserProtoMapper.toMessage(
+                userService.createUser(validated(UserProtoMapper.toPostDto(request)))));
+    }
+
+    @Override
+    public void putUser(PutUserRequest request, StreamObserver<UserMessage> responseObserver) {
+        unary(responseObserver, () -> UserProtoMapper.toMessage(
+                userService.updatePut(request.getId(), validated(UserProtoMapper.toPutDto(request)))));
+    }
+
+    @Override
+    public void patchUser(PatchUserRequest request, StreamObserver<UserMessage> responseObserver) {
+        unary(responseObserver, () -> UserProtoMapper.toMessage(
+                userService.updatePatch(request.getId(), validated(UserProtoMapper.toPatchDto(request)))));
+    }
+
+    @Override
+    public void deleteUser(DeleteUserRequest request, StreamObserver<DeleteUserResponse> responseObserver) {
+        unary(responseObserver, () -> DeleteUserResponse.newBuilder()
+                .setDeleted(userService.deleteUser(request.getId()))
+                .build());
+    }
+
+    /**
+     * Streams the users of the period, sending only as fast as the client reads (flow control), so a large
+     * range does not pile up in the outbound buffers. The users are read from a database cursor as they are sent,
+     * never collected into a list; the cursor holds a connection until the stream completes, fails or is
+     * cancelled. The default range limits apply, a period with more users than may be read in one response fails
+     * with {@code OUT_OF_RANGE}.
+     */
+    @Override
+    public void rangeUsers(RangeUsersRequest request, StreamObserver<UserMessage> responseObserver) {
+        Stream<User> stream;
+        try {
+            stream = userService.streamUsersByBirthDate(
+                    request.hasStartDate() ? request.getStartDate() : null,
+                    request.hasEndDate() ? request.getEndDate() : null, null);
+        } catch (GlobalAppException | RuntimeException exception) {
+            responseObserver.onError(toStatus(exception));
+            return;
+        }
+        Iterator<User> users = stream.iterator();
+        ServerCallStreamObserver<UserMessage> serverObserver = (ServerCallStreamObserver<UserMessage>) responseObserver;
+        // the handlers of one call never run concurrently, the cursor is read by one thread at a time
+        serverObserver.setOnCancelHandler(() -> {
+            log.debug("Range stream cancelled by the client");
+            stream.close();
+        });
+        serverObserver.setOnReadyHandler(new Runnable() {
+            private boolean done;
+
+            @Override
+            public void run() {
+                if (done) {
+                    return;
+                }
+                try {
+                    while (serverObserver.isReady() && !serverObserver.isCancelled() && users.hasNext()) {
+                        serverObserver.onNext(UserProtoMapper.toMessage(users.next()));
+                    }
+                    if (!users.hasNext() && !serverObserver.isCancelled()) {
+                        done = true;
+                        stream.close();
+                        serverObserver.onCompleted();
+                    }
+                } catch (RuntimeException exception) {
+                    done = true;
+                    stream.close();
+                    serverObserver.onError(toStatus(exception));
+                }
+            }
+        });
+    }
+
+    private <T> void unary(StreamObserver<T> responseObserver, Call<T> call) {
+        T response;
+        try {
+            response = call.execute();
+        } catch (GlobalAppException | RuntimeException exception) {
+            responseObserver.onError(toStatus(exception));
+            return;
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    private <T> T validated(T dto) {
+        Set<ConstraintViolation<T>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            throw Status.INVALID_ARGUMENT.withDescription(message).asRuntimeException();
+        }
+        return dto;
+    }
+
+    private StatusRuntimeException toStatus(Exception exception) {
+        if (exception instanceof StatusRuntimeException statusException) {
+            return statusException;
+        }
+        Status status;
+        if (exception instanceof MinimumAgeException) {
+            status = Status.INVALID_ARGUMENT;
+        } else if (exception instanceof UserAppException userAppException) {
+            status = switch (userAppException.getExceptionStatus()) {
+                case 404 -> Status.NOT_FOUND;
+                case 409 -> Status.ALREADY_EXISTS;
+                case 413 -> Status.OUT_OF_RANGE;
+                case 503 -> Status.UNAVAILABLE;
+                default -> Status.FAILED_PRECONDITION;
+            };
+        } else if (exception instanceof GlobalAppException) {
+            status = Status.INVALID_ARGUMENT;
+        } else if (exception instanceof DataIntegrityViolationException) {
+            status = Status.ALREADY_EXISTS;
+        } else {
+            log.error("Unknown error occurred", exception);
+            return Status.INTERNAL.withDescription("Sorry, but something went wrong. Try again later")
+                    .asRuntimeException();
+        }
+        log.warn("caused by " + exception.getMessage());
+        return status.withDescription(exception.getMessage()).asRuntimeException();
+    }
+}
@@ -0,0 +1,76 @@
+package com.krasnopolskyi.usersapitask.grpc;
+
+import com.krasnopolskyi.usersapitask.dto.UserPatchRequestDto;
+import com.krasnopolskyi.usersapitask.dto.UserPostRequestDto;
+import com.krasnopolskyi.usersapitask.dto.UserPutRequestDto;
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.exception.ValidationException;
+import com.krasnopolskyi.usersapitask.grpc.proto.CreateUserRequest;
+import com.krasnopolskyi.usersapitask.grpc.proto.PatchUserRequest;
+import com.krasnopolskyi.usersapitask.grpc.proto.PutUserRequest;
+import com.krasnopolskyi.usersapitask.grpc.proto.UserMessage;
+import com.krasnopolskyi.usersapitask.utils.DateConvertor;
+
+import java.time.LocalDate;
+
+/**
+ * Maps between the protobuf messages and the DTOs and entities shared with the REST API.
+ */
+public class UserProtoMapper {
+
+    private UserProtoMapper() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static UserMessage toMessage(User user) {
+        UserMessage.Builder builder = UserMessage.newBuilder()
+                .setId(user.getId() == null ? 0 : user.getId())
+                .setEmail(user.getEmail())
+                .setFirstname(user.getFirstname())
+                .setLastname(user.getLastname())
+                .setBirthDate(user.getBirthDate().toString());
+        if (user.getAddress() != null) {
+            builder.setAddress(user.getAddress());
+        }
+        if (user.getPhoneNumber() != null) {
+            builder.setPhoneNumber(user.getPhoneNumber());
+        }
+        return builder.build();
+    }
+
+    public static UserPostRequestDto toPostDto(CreateUserRequest request) throws ValidationException {
+        return UserPostRequestDto.builder()
+                .email(request.getEmail())
+                .firstname(request.getFirstname())
+                .lastname(request.getLastname())
+                .birthDate(toDate(request.getBirthDate()))
+                .address(request.hasAddress() ? request.getAddress() : null)
+                .phoneNumber(request.hasPhoneNumber() ? request.getPhoneNumber() : null)
+                .build();
+    }
+
+    public static UserPutRequestDto toPutDto(PutUserRequest request) throws ValidationException {
+        return UserPutRequestDto.builder()
+                .firstname(request.getFirstname())
+                .lastname(request.getLastname())
+                .birthDate(toDate(request.getBirthDate()))
+                .address(request.hasAddress() ? request.getAddress() : null)
+                .phoneNumber(request.hasPhoneNumber() ? request.getPhoneNumber() : null)
+                .build();
+    }
+
+    public static UserPatchRequestDto toPatchDto(PatchUserRequest request) throws ValidationException {
+        return UserPatchRequestDto.builder()
+                .firstname(request.hasFirstname() ? request.getFirstname() : null)
+                .lastname(request.hasLastname() ? request.getLastname() : null)
+                .birthDate(request.hasBirthDate() ? toDate(request.getBirthDate()) : null)
+                .address(request.hasAddress() ? request.getAddress() : null)
+                .phoneNumber(request.hasPhoneNumber() ? request.getPhoneNumber() : null)
+                .build();
+    }
+
+    // proto3 strings are never null, an unset date arrives as an empty string
+    private static LocalDate toDate(String date) throws ValidationException {
+        return date.isEmpty() ? null : DateConvertor.convertDate(date);
+    }
+}
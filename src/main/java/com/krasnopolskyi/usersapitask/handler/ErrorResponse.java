@@ -17,6 +17,7 @@ public class ErrorResponse {
     private final int status;
     private final String message;
     private List<ErrorContent> errors;
+    private Long retryAfterSeconds;
 
     /**
      * Record representing detailed error content for a specific field.
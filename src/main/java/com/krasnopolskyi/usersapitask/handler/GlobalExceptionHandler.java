@@ -5,6 +5,7 @@ import com.krasnopolskyi.usersapitask.exception.MinimumAgeException;
 import com.krasnopolskyi.usersapitask.exception.UserAppException;
 import com.krasnopolskyi.usersapitask.exception.ValidationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -23,6 +24,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
     private static final String VALIDATION_ERROR_MESSAGE = "Validation error. Check 'errors' field for details.";
     private static final String INTERNAL_SERVER_ERROR_MESSAGE = "Sorry, but something went wrong. Try again later";
+    private static final String CONFLICT_MESSAGE = "The user conflicts with an existing one, e.g. its email is already taken";
 
     /**
      * Handles validation errors and builds a response with detailed error content.
@@ -68,6 +70,22 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return ResponseEntity.internalServerError().body(errorResponse);
     }
 
+    /**
+     * Handles violations of database constraints, e.g. two concurrent creates of the same email
+     * on different instances that both passed the existence check.
+     *
+     * @param exception The DataIntegrityViolationException.
+     * @param request   The current web request.
+     * @return ResponseEntity with a status of CONFLICT.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Object> handleDataIntegrityViolationException(
+            DataIntegrityViolationException exception, WebRequest request) {
+        log.warn("caused by " + exception.getMostSpecificCause().getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                new ErrorResponse(HttpStatus.CONFLICT.value(), CONFLICT_MESSAGE));
+    }
+
     /**
      * Handles custom MinimumAgeException
      *
@@ -0,0 +1,91 @@
+package com.krasnopolskyi.usersapitask.id;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates unique, time-ordered 64-bit ids without locks and without asking the database.
+ *
+ * <p>An id is made of 41 bits of milliseconds since 2024-01-01 (enough for 69 years), {@value #NODE_BITS} bits
+ * of node id and {@value #SEQUENCE_BITS} bits of sequence, so every node can hand out 4096 ids per millisecond.
+ * The last millisecond and sequence are kept in one {@link AtomicLong} and advanced with compare-and-set.</p>
+ *
+ * <p>If the sequence of a millisecond is exhausted, or the clock steps back a little, the generator carries on
+ * in the following milliseconds of its own logical time instead of reusing ids. It runs at most
+ * {@code maxDriftMillis} ahead of the clock: beyond that it waits for the clock when the sequence is exhausted,
+ * and fails when the clock has moved backwards. Every running instance needs a node id of its own, and a node
+ * must not be restarted with a clock set back further than its previous run's last id.</p>
+ *
+ * <p>The ids are far above 2<sup>53</sup>, the largest integer a JavaScript number holds exactly: they are sent
+ * as JSON numbers, so JavaScript clients have to parse them as {@code BigInt} or strings (for example with
+ * {@code JSON.parse} and a reviver on the source text), a plain {@code JSON.parse} rounds them to other ids.</p>
+ */
+public class SnowflakeIdGenerator {
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    public static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private final LongSupplier clockMillis;
+    private final long maxDriftMillis;
+    // milliseconds since the epoch << SEQUENCE_BITS | sequence of the last id
+    private final AtomicLong lastState = new AtomicLong();
+
+    /**
+     * @param nodeId         The id of this instance, between 0 and 1023, unique among all running instances.
+     * @param clockMillis    The wall clock in milliseconds since 1970.
+     * @param maxDriftMillis How far the ids may run ahead of the clock.
+     */
+    public SnowflakeIdGenerator(int nodeId, LongSupplier clockMillis, long maxDriftMillis) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id should be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        this.clockMillis = clockMillis;
+        this.maxDriftMillis = maxDriftMillis;
+    }
+
+    /**
+     * @return A new id, greater than every id returned before by this generator.
+     * @throws IllegalStateException If the clock has moved backwards by more than the allowed drift.
+     */
+    public long nextId() {
+        while (true) {
+            long now = clockMillis.getAsLong() - EPOCH_MILLIS;
+            long last = lastState.get();
+            long lastMillis = last >>> SEQUENCE_BITS;
+            // a new millisecond starts a new sequence, otherwise the sequence goes on and may carry into the next one
+            long next = now > lastMillis ? now << SEQUENCE_BITS : last + 1;
+            long nextMillis = next >>> SEQUENCE_BITS;
+            if (nextMillis - now > maxDriftMillis) {
+                if (lastMillis - now > maxDriftMillis) {
+                    throw new IllegalStateException("Clock moved backwards by " + (lastMillis - now) + " ms");
+                }
+                Thread.onSpinWait();
+                continue;
+            }
+            if (lastState.compareAndSet(last, next)) {
+                return nextMillis << (NODE_BITS + SEQUENCE_BITS) | nodeId << SEQUENCE_BITS | next & SEQUENCE_MASK;
+            }
+        }
+    }
+
+    /**
+     * @param id An id generated by any node.
+     * @return The node that generated it.
+     */
+    public static int nodeOf(long id) {
+        return (int) (id >>> SEQUENCE_BITS & MAX_NODE_ID);
+    }
+
+    /**
+     * @param id An id generated by any node.
+     * @return The time the id was generated at, to the millisecond.
+     */
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS);
+    }
+}
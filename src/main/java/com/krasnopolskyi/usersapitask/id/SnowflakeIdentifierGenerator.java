@@ -0,0 +1,37 @@
+package com.krasnopolskyi.usersapitask.id;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Lets Hibernate assign entity ids from the application's {@link SnowflakeIdGenerator}, so that inserts need no
+ * round trip for the id and can be batched.
+ *
+ * <p>Hibernate instantiates this class itself; the generator bean is handed over in the Hibernate settings under
+ * {@value #GENERATOR_SETTING}, see {@code IdConfig}, so that all entities and JDBC writers share one sequence.</p>
+ */
+public class SnowflakeIdentifierGenerator implements IdentifierGenerator {
+    public static final String GENERATOR_SETTING = "users.ids.generator";
+
+    private SnowflakeIdGenerator generator;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        Object setting = serviceRegistry.getService(ConfigurationService.class).getSettings().get(GENERATOR_SETTING);
+        if (!(setting instanceof SnowflakeIdGenerator configured)) {
+            throw new MappingException("No SnowflakeIdGenerator in the Hibernate setting " + GENERATOR_SETTING);
+        }
+        generator = configured;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return generator.nextId();
+    }
+}
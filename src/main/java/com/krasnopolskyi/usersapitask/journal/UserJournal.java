@@ -0,0 +1,267 @@
+package com.krasnopolskyi.usersapitask.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Ring journal backed by a memory-mapped file of fixed capacity.
+ *
+ * <p>Layout: a header (magic, checkpoint) followed by a ring of records of {@code [length][offset][crc32][payload]}.
+ * Positions are logical offsets that only ever grow; a record lives at its offset modulo the size of the ring and
+ * stores its own offset, so a record left over from an earlier lap is recognised and never replayed. A record
+ * that does not fit before the end of the file is preceded by a wrap marker (a record of length 0) and written at
+ * the start of the ring. The checkpoint is the offset of the first record that has not been consumed yet; the
+ * space before it is reused as soon as it has been consumed, so the journal only runs full when the consumer
+ * falls behind by the whole ring.</p>
+ *
+ * <p>Appends are made durable with group commit: the first waiting appender forces everything written so far
+ * to disk while the others wait, so one fsync covers all appends that arrived in the meantime.</p>
+ */
+public class UserJournal implements Closeable {
+    private static final int MAGIC = 0x55534a32;
+    private static final int HEADER_SIZE = 16;
+    private static final int CHECKPOINT_OFFSET = 8;
+    private static final int RECORD_HEADER_SIZE = 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int ringSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition synced = lock.newCondition();
+
+    private long checkpoint;
+    private long writeOffset;
+    private long syncedOffset;
+    private boolean syncing;
+
+    /**
+     * A batch of consumed records.
+     *
+     * @param payloads   The payloads of the records, in append order.
+     * @param nextOffset The offset to checkpoint once the batch has been processed.
+     */
+    public record Batch(List<byte[]> payloads, long nextOffset) {
+    }
+
+    private UserJournal(FileChannel channel, MappedByteBuffer buffer, int capacity) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.ringSize = capacity - HEADER_SIZE;
+    }
+
+    /**
+     * Opens or creates the journal and positions it after the last valid record following the checkpoint.
+     *
+     * @throws IOException If the file cannot be mapped.
+     */
+    public static UserJournal open(Path path, int capacity) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        UserJournal journal = new UserJournal(channel, buffer, capacity);
+        journal.recover();
+        return journal;
+    }
+
+    /**
+     * Appends a record and waits until it is durable.
+     *
+     * @return {@code false} if the journal has no room left for the record until more records are consumed.
+     */
+    public boolean append(byte[] payload) {
+        lock.lock();
+        try {
+            int size = RECORD_HEADER_SIZE + payload.length;
+            int tail = capacity - positionOf(writeOffset);
+            int skipped = size > tail ? tail : 0;
+            if (writeOffset - checkpoint + skipped + size > ringSize) {
+                return false;
+            }
+            if (skipped > 0) {
+                if (tail >= RECORD_HEADER_SIZE) {
+                    writeHeader(positionOf(writeOffset), 0, writeOffset, 0);
+                }
+                writeOffset += skipped;
+            }
+            int position = positionOf(writeOffset);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            buffer.put(position + RECORD_HEADER_SIZE, payload);
+            writeHeader(position, payload.length, writeOffset, (int) crc.getValue());
+            writeOffset += size;
+            awaitSynced(writeOffset);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads up to {@code maxRecords} durable records starting at the checkpoint.
+     */
+    public Batch read(int maxRecords) {
+        lock.lock();
+        try {
+            List<byte[]> payloads = new ArrayList<>();
+            long offset = checkpoint;
+            while (payloads.size() < maxRecords && offset < syncedOffset) {
+                int position = positionOf(offset);
+                int length = capacity - position < RECORD_HEADER_SIZE ? 0 : buffer.getInt(position);
+                if (length == 0) {
+                    offset += capacity - position;
+                    continue;
+                }
+                payloads.add(readRecord(position));
+                offset += RECORD_HEADER_SIZE + length;
+            }
+            return new Batch(payloads, offset);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks every record before {@code offset} as consumed, its space is reused by later appends.
+     */
+    public void checkpoint(long offset) {
+        lock.lock();
+        try {
+            checkpoint = offset;
+            buffer.putLong(CHECKPOINT_OFFSET, checkpoint);
+            buffer.force(0, HEADER_SIZE);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int pendingBytes() {
+        lock.lock();
+        try {
+            return (int) (writeOffset - checkpoint);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            buffer.force();
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitSynced(long offset) {
+        while (syncedOffset < offset) {
+            if (syncing) {
+                synced.awaitUninterruptibly();
+                continue;
+            }
+            syncing = true;
+            long from = syncedOffset;
+            long to = writeOffset;
+            boolean forced = false;
+            lock.unlock();
+            try {
+                force(from, to);
+                forced = true;
+            } finally {
+                lock.lock();
+                if (forced) {
+                    syncedOffset = to;
+                }
+                syncing = false;
+                synced.signalAll();
+            }
+        }
+    }
+
+    // the range may run past the end of the file and continue at the start of the ring
+    private void force(long from, long to) {
+        int start = positionOf(from);
+        int length = (int) (to - from);
+        if (start + length <= capacity) {
+            buffer.force(start, length);
+        } else {
+            buffer.force(start, capacity - start);
+            buffer.force(HEADER_SIZE, length - (capacity - start));
+        }
+    }
+
+    private void recover() {
+        if (buffer.getInt(0) != MAGIC) {
+            checkpoint = 0;
+            buffer.putInt(0, MAGIC);
+            buffer.putLong(CHECKPOINT_OFFSET, checkpoint);
+            buffer.force(0, HEADER_SIZE);
+        } else {
+            checkpoint = buffer.getLong(CHECKPOINT_OFFSET);
+        }
+        long offset = checkpoint;
+        while (offset - checkpoint < ringSize) {
+            int position = positionOf(offset);
+            int tail = capacity - position;
+            if (tail < RECORD_HEADER_SIZE) {
+                offset += tail;
+                continue;
+            }
+            if (buffer.getLong(position + 4) != offset + 1) {
+                break;
+            }
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                offset += tail;
+            } else if (isValidRecord(position, length)) {
+                offset += RECORD_HEADER_SIZE + length;
+            } else {
+                break;
+            }
+        }
+        writeOffset = syncedOffset = offset;
+    }
+
+    // a torn write at the tail ends the journal
+    private boolean isValidRecord(int position, int length) {
+        if (length < 0 || length > capacity - position - RECORD_HEADER_SIZE) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(readRecord(position));
+        return (int) crc.getValue() == buffer.getInt(position + 12);
+    }
+
+    // the offset is stored plus one, so that space that has never been written is no valid wrap marker
+    private void writeHeader(int position, int length, long offset, int crc) {
+        buffer.putInt(position, length);
+        buffer.putLong(position + 4, offset + 1);
+        buffer.putInt(position + 12, crc);
+    }
+
+    private int positionOf(long offset) {
+        return HEADER_SIZE + (int) (offset % ringSize);
+    }
+
+    private byte[] readRecord(int position) {
+        byte[] payload = new byte[buffer.getInt(position)];
+        buffer.get(position + RECORD_HEADER_SIZE, payload);
+        return payload;
+    }
+}
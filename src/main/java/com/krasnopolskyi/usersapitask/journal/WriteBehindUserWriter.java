@@ -0,0 +1,208 @@
+package com.krasnopolskyi.usersapitask.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.event.UserChangedEvent;
+import com.krasnopolskyi.usersapitask.exception.ValidationException;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind path for user creation.
+ *
+ * <p>A create is acknowledged once the user is durable in the local {@link UserJournal}. A background flusher
+ * drains the journal into the database in large batches, and whatever is left in the journal after a restart is
+ * replayed by the same flusher. Email uniqueness is enforced up front by a local reservation of every email
+ * that is in the journal but not yet in the database.</p>
+ *
+ * <p>A batch the database rejects for a constraint (e.g. a column that is too long) is retried user by user, and
+ * the users rejected on their own are moved to a dead-letter file of JSON lines, so that one bad record never
+ * holds up the creates behind it. Any other failure, such as the database being down, leaves the batch in the
+ * journal to be retried.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "users.write-behind.enabled", havingValue = "true")
+@Slf4j
+public class WriteBehindUserWriter {
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final UserJournal journal;
+    private final Path deadLetterPath;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+
+    private final Set<String> reservedEmails = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "write-behind-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public WriteBehindUserWriter(UserRepository userRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ObjectMapper objectMapper,
+                                 @Value("${users.write-behind.journal-path:data/create-journal.bin}") String journalPath,
+                                 @Value("${users.write-behind.journal-capacity:67108864}") int journalCapacity,
+                                 @Value("${users.write-behind.dead-letter-path:data/create-dead-letter.jsonl}")
+                                 String deadLetterPath,
+                                 @Value("${users.write-behind.batch-size:500}") int batchSize,
+                                 @Value("${users.write-behind.flush-interval-ms:200}") long flushIntervalMillis)
+            throws IOException {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.deadLetterPath = Path.of(deadLetterPath);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.journal = UserJournal.open(Path.of(journalPath), journalCapacity);
+        List<byte[]> pending = journal.read(Integer.MAX_VALUE).payloads();
+        for (byte[] payload : pending) {
+            reservedEmails.add(emailKey(decode(payload).getEmail()));
+        }
+        log.info("Write-behind journal " + journalPath + " opened with " + pending.size() + " users to replay");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        flusher.scheduleWithFixedDelay(this::flushSafely, 0, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reserves an email for a create. The reservation is held until the user has been flushed to the database.
+     *
+     * @throws ValidationException if another create for the same email is still pending.
+     */
+    public void reserve(String email) throws ValidationException {
+        if (!reservedEmails.add(emailKey(email))) {
+            throw new ValidationException("The email address " + email + " already exists.");
+        }
+    }
+
+    public void release(String email) {
+        reservedEmails.remove(emailKey(email));
+    }
+
+    /**
+     * Appends a user to the journal and waits until it is durable. The email must have been reserved.
+     *
+     * @return {@code false} if the journal is full, in which case the caller has to insert the user itself.
+     */
+    public boolean append(User user) {
+        try {
+            return journal.append(objectMapper.writeValueAsBytes(user));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    void flush() {
+        UserJournal.Batch batch;
+        do {
+            batch = journal.read(batchSize);
+            if (batch.payloads().isEmpty()) {
+                return;
+            }
+            List<User> users = batch.payloads().stream().map(this::decode).toList();
+            try {
+                insert(users);
+            } catch (DataIntegrityViolationException exception) {
+                log.warn("Flushing " + users.size() + " journaled users was rejected, retrying them one by one",
+                        exception);
+                for (User user : users) {
+                    insertOrDeadLetter(user);
+                }
+            }
+            journal.checkpoint(batch.nextOffset());
+            users.forEach(user -> release(user.getEmail()));
+        } while (batch.payloads().size() == batchSize);
+    }
+
+    private void insertOrDeadLetter(User user) {
+        try {
+            insert(List.of(user));
+        } catch (DataIntegrityViolationException exception) {
+            log.error("Journaled user " + user.getEmail() + " was rejected, moving it to " + deadLetterPath,
+                    exception);
+            try {
+                if (deadLetterPath.getParent() != null) {
+                    Files.createDirectories(deadLetterPath.getParent());
+                }
+                Files.write(deadLetterPath, (objectMapper.writeValueAsString(user) + "\n")
+                        .getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException writeException) {
+                // the user stays in the journal, the whole batch is retried
+                throw new UncheckedIOException(writeException);
+            }
+        }
+    }
+
+    private void insert(List<User> users) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // a crash between commit and checkpoint replays users that are already in the database
+            Set<String> existing = new HashSet<>();
+            userRepository.findExistingEmails(users.stream().map(User::getEmail).toList())
+                    .forEach(email -> existing.add(emailKey(email)));
+            List<User> fresh = users.stream()
+                    .filter(user -> existing.add(emailKey(user.getEmail())))
+                    .toList();
+            for (User user : userRepository.saveAll(fresh)) {
+                eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.CREATED, user));
+            }
+            log.debug("Flushed " + fresh.size() + " journaled users, skipped " + (users.size() - fresh.size()));
+        });
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException exception) {
+            // the batch stays in the journal and is retried on the next run
+            log.error("Flushing the write-behind journal failed", exception);
+        }
+    }
+
+    private User decode(byte[] payload) {
+        try {
+            return objectMapper.readValue(payload, User.class);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flushSafely();
+        journal.close();
+    }
+}
@@ -0,0 +1,350 @@
+package com.krasnopolskyi.usersapitask.memory;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.repository.BirthMonthCount;
+import com.krasnopolskyi.usersapitask.repository.UserBirthDateView;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import com.krasnopolskyi.usersapitask.repository.UserSearchView;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.*;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * {@link UserRepository} backed by a {@link UserMemoryStore} instead of the users table, so that the services
+ * run unchanged on top of it.
+ *
+ * <p>The derived queries keep their JPA semantics: {@code After} and {@code Before} exclude the date itself,
+ * {@code Between} includes both ends. Entities are detached copies, changes only take effect through
+ * {@code save}, and flushing does nothing because every change is applied at once. Query by example is not
+ * supported.</p>
+ */
+@RequiredArgsConstructor
+public class InMemoryUserRepository implements UserRepository {
+    private final UserMemoryStore store;
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return store.existsByEmail(email);
+    }
+
+    @Override
+    public List<String> findExistingEmails(Collection<String> emails) {
+        return store.findExistingEmails(emails);
+    }
+
+    @Override
+    public List<User> findAllByBirthDateAfter(LocalDate date) {
+        return store.findAllByBirthDate(date, false, null, false);
+    }
+
+    @Override
+    public List<User> findAllByBirthDateBefore(LocalDate date) {
+        return store.findAllByBirthDate(null, false, date, false);
+    }
+
+    @Override
+    public List<User> findAllByBirthDateBetween(LocalDate startDate, LocalDate endDate) {
+        return store.findAllByBirthDate(startDate, true, endDate, true);
+    }
+
+    @Override
+    public List<User> findAllByBirthDateBetweenOrderByBirthDateAscIdAsc(LocalDate startDate, LocalDate endDate) {
+        return store.findAllByBirthDate(startDate, true, endDate, true);
+    }
+
+    @Override
+    public List<User> findAllByBirthDateBetween(LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        return page(store.findAllByBirthDate(startDate, true, endDate, true), pageable);
+    }
+
+    @Override
+    public List<BirthMonthCount> countByBirthMonth() {
+        List<BirthMonthCount> counts = new ArrayList<>();
+        store.countByBirthMonth().forEach((month, users) ->
+                counts.add(new MonthCount(month.getYear(), month.getMonthValue(), users)));
+        return counts;
+    }
+
+    @Override
+    public Stream<UserSearchView> streamSearchViews() {
+        return store.findAll().stream().map(SearchView::new);
+    }
+
+    @Override
+    public Stream<UserBirthDateView> streamBirthDates() {
+        return store.findAll().stream().map(BirthDateView::new);
+    }
+
+    @Override
+    public Stream<User> streamAllByBirthDateBetween(LocalDate startDate, LocalDate endDate) {
+        return store.findAllByBirthDate(startDate, true, endDate, true).stream();
+    }
+
+    @Override
+    public <S extends User> S save(S entity) {
+        store.save(entity);
+        return entity;
+    }
+
+    @Override
+    public <S extends User> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    @Override
+    public <S extends User> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+
+    @Override
+    public <S extends User> List<S> saveAllAndFlush(Iterable<S> entities) {
+        return saveAll(entities);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return store.findById(id);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return store.findById(id).isPresent();
+    }
+
+    @Override
+    public List<User> findAll() {
+        return store.findAll();
+    }
+
+    @Override
+    public List<User> findAll(Sort sort) {
+        List<User> users = store.findAll();
+        if (sort.isSorted()) {
+            users.sort(comparatorOf(sort));
+        }
+        return users;
+    }
+
+    @Override
+    public Page<User> findAll(Pageable pageable) {
+        List<User> users = store.findAll();
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(page(users, pageable));
+        }
+        return new PageImpl<>(page(users, pageable), pageable, users.size());
+    }
+
+    @Override
+    public List<User> findAllById(Iterable<Long> ids) {
+        return store.findAllById(ids);
+    }
+
+    @Override
+    public long count() {
+        return store.count();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        store.delete(id);
+    }
+
+    @Override
+    public void delete(User entity) {
+        store.delete(entity.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        ids.forEach(store::delete);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends User> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        store.findAll().forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<User> entities) {
+        deleteAll(entities);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    @Override
+    public void flush() {
+        // every change is applied when it is saved
+    }
+
+    @Override
+    @Deprecated
+    public User getOne(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public User getById(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    public User getReferenceById(Long id) {
+        return store.findById(id).orElseThrow(() -> new EntityNotFoundException("Not found user with id " + id));
+    }
+
+    @Override
+    public <S extends User> Optional<S> findOne(Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends User> List<S> findAll(Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends User> List<S> findAll(Example<S> example, Sort sort) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends User> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends User> long count(Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends User> boolean exists(Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends User, R> R findBy(Example<S> example,
+                                        Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw queryByExampleNotSupported();
+    }
+
+    private static List<User> page(List<User> users, Pageable pageable) {
+        // an empty result of the store is immutable
+        if (pageable.getSort().isSorted() && users.size() > 1) {
+            users.sort(comparatorOf(pageable.getSort()));
+        }
+        if (pageable.isUnpaged()) {
+            return users;
+        }
+        int from = (int) Math.min(pageable.getOffset(), users.size());
+        int to = Math.min(from + pageable.getPageSize(), users.size());
+        return users.subList(from, to);
+    }
+
+    private static Comparator<User> comparatorOf(Sort sort) {
+        Comparator<User> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<User> byProperty = switch (order.getProperty()) {
+                case "id" -> Comparator.comparing(User::getId);
+                case "email" -> Comparator.comparing(User::getEmail, Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "firstname" -> Comparator.comparing(User::getFirstname,
+                        Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "lastname" -> Comparator.comparing(User::getLastname,
+                        Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "birthDate" -> Comparator.comparing(User::getBirthDate,
+                        Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "address" -> Comparator.comparing(User::getAddress,
+                        Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "phoneNumber" -> Comparator.comparing(User::getPhoneNumber,
+                        Comparator.nullsFirst(Comparator.naturalOrder()));
+                default -> throw new IllegalArgumentException("No property " + order.getProperty() + " on User");
+            };
+            if (order.isDescending()) {
+                byProperty = byProperty.reversed();
+            }
+            comparator = comparator == null ? byProperty : comparator.thenComparing(byProperty);
+        }
+        return comparator;
+    }
+
+    private static UnsupportedOperationException queryByExampleNotSupported() {
+        return new UnsupportedOperationException("Query by example is not supported by the in-memory user store");
+    }
+
+    private record MonthCount(Integer year, Integer month, Long users) implements BirthMonthCount {
+        @Override
+        public Integer getYear() {
+            return year;
+        }
+
+        @Override
+        public Integer getMonth() {
+            return month;
+        }
+
+        @Override
+        public Long getUsers() {
+            return users;
+        }
+    }
+
+    private record SearchView(User user) implements UserSearchView {
+        @Override
+        public Long getId() {
+            return user.getId();
+        }
+
+        @Override
+        public String getEmail() {
+            return user.getEmail();
+        }
+
+        @Override
+        public String getFirstname() {
+            return user.getFirstname();
+        }
+
+        @Override
+        public String getLastname() {
+            return user.getLastname();
+        }
+    }
+
+    private record BirthDateView(User user) implements UserBirthDateView {
+        @Override
+        public Long getId() {
+            return user.getId();
+        }
+
+        @Override
+        public LocalDate getBirthDate() {
+            return user.getBirthDate();
+        }
+    }
+}
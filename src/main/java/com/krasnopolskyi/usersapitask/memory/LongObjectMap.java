@@ -0,0 +1,155 @@
+package com.krasnopolskyi.usersapitask.memory;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+
+/**
+ * Open-addressing hash map from primitive long keys to values, with lock-free reads.
+ *
+ * <p>Every slot holds an immutable {@link Entry}, so a reader sees either the whole previous or the whole new
+ * mapping of a key. Removed keys leave a tombstone behind instead of shifting their neighbours, which keeps
+ * every probe sequence valid while readers walk it. Growing builds a new table and publishes it in one volatile
+ * write; readers still walking the old table see the map as it was when they started.</p>
+ *
+ * <p>Writers must be serialised by the caller.</p>
+ */
+public final class LongObjectMap<V> {
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+    private static final int MIN_CAPACITY = 16;
+    private static final Entry<?> TOMBSTONE = new Entry<>(0, null);
+
+    private volatile AtomicReferenceArray<Entry<V>> table;
+    private volatile int size;
+    private int used; // live entries and tombstones
+
+    private record Entry<V>(long key, V value) {
+    }
+
+    public LongObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize The number of entries the map should hold without growing.
+     */
+    public LongObjectMap(int expectedSize) {
+        table = new AtomicReferenceArray<>(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * @return The value of the key, or {@code null} if there is none.
+     */
+    public V get(long key) {
+        AtomicReferenceArray<Entry<V>> slots = table;
+        int mask = slots.length() - 1;
+        for (int index = indexOf(key, mask); ; index = (index + 1) & mask) {
+            Entry<V> entry = slots.get(index);
+            if (entry == null) {
+                return null;
+            }
+            if (entry != TOMBSTONE && entry.key() == key) {
+                return entry.value();
+            }
+        }
+    }
+
+    /**
+     * Maps the key to the value, replacing the previous value.
+     *
+     * @return The previous value, or {@code null} if there was none.
+     */
+    public V put(long key, V value) {
+        AtomicReferenceArray<Entry<V>> slots = table;
+        int mask = slots.length() - 1;
+        int free = -1;
+        int index = indexOf(key, mask);
+        for (Entry<V> entry; (entry = slots.get(index)) != null; index = (index + 1) & mask) {
+            if (entry == TOMBSTONE) {
+                if (free < 0) {
+                    free = index;
+                }
+            } else if (entry.key() == key) {
+                slots.set(index, new Entry<>(key, value));
+                return entry.value();
+            }
+        }
+        if (free >= 0) {
+            slots.set(free, new Entry<>(key, value)); // reuses a tombstone, used stays the same
+        } else {
+            slots.set(index, new Entry<>(key, value));
+            used++;
+        }
+        size++;
+        // keep live entries and tombstones at or below half of the table so probe sequences stay short
+        if (used * 2 > slots.length()) {
+            rehash();
+        }
+        return null;
+    }
+
+    /**
+     * @return The removed value, or {@code null} if the key was not mapped.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        AtomicReferenceArray<Entry<V>> slots = table;
+        int mask = slots.length() - 1;
+        for (int index = indexOf(key, mask); ; index = (index + 1) & mask) {
+            Entry<V> entry = slots.get(index);
+            if (entry == null) {
+                return null;
+            }
+            if (entry != TOMBSTONE && entry.key() == key) {
+                slots.set(index, (Entry<V>) TOMBSTONE);
+                size--;
+                return entry.value();
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Calls the action for every entry of the table as it was when the call started, plus possibly some
+     * entries written since. Safe to call while a writer is active.
+     */
+    public void forEach(BiConsumer<Long, V> action) {
+        AtomicReferenceArray<Entry<V>> slots = table;
+        for (int index = 0; index < slots.length(); index++) {
+            Entry<V> entry = slots.get(index);
+            if (entry != null && entry != TOMBSTONE) {
+                action.accept(entry.key(), entry.value());
+            }
+        }
+    }
+
+    private void rehash() {
+        AtomicReferenceArray<Entry<V>> previous = table;
+        // size the new table for the live entries only, tombstones are dropped
+        AtomicReferenceArray<Entry<V>> slots = new AtomicReferenceArray<>(tableSizeFor(Math.max(size, MIN_CAPACITY)));
+        int mask = slots.length() - 1;
+        for (int index = 0; index < previous.length(); index++) {
+            Entry<V> entry = previous.get(index);
+            if (entry != null && entry != TOMBSTONE) {
+                int target = indexOf(entry.key(), mask);
+                while (slots.get(target) != null) {
+                    target = (target + 1) & mask;
+                }
+                slots.lazySet(target, entry);
+            }
+        }
+        used = size;
+        table = slots; // the volatile write publishes the filled table
+    }
+
+    private static int indexOf(long key, int mask) {
+        return (int) ((key * GOLDEN_RATIO) >>> 32) & mask;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2 - 1)) << 1;
+        return Math.min(capacity, 1 << 30);
+    }
+}
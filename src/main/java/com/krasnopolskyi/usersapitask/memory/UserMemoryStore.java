@@ -0,0 +1,426 @@
+package com.krasnopolskyi.usersapitask.memory;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.utils.LongHashSet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps every user in memory, for deployments without a database server.
+ *
+ * <p>Users live in a {@link LongObjectMap} by id, with a skip list of {@code (birth date, id)} keys for range
+ * queries and a hash index of the unique emails, which ignores case like the collation of the users table.
+ * Readers never lock: they see each user either before or after a change, and a range query running alongside
+ * writes returns every user at most once, with the value it had when the query reached it. Writers are serialised by one lock, which also keeps the write-ahead log in the
+ * order the changes were applied. Stored users are never handed out, reads return copies and writes store
+ * copies, so callers may modify what they get like a detached entity.</p>
+ *
+ * <p>With a directory the store is durable: every change is appended to the {@link UserWriteAheadLog} before it
+ * is applied, and every {@code checkpointEvery} changes a background checkpoint writes a snapshot and drops the
+ * log segments it covers. The snapshot is taken without blocking writers; it may contain changes of the
+ * segments replayed after it, which is harmless because every change carries the whole user. Without a
+ * directory nothing is persisted.</p>
+ *
+ * <p>There are no transactions: a change is visible and durable once the call returns, whatever happens to the
+ * transaction of the caller.</p>
+ */
+@Slf4j
+public class UserMemoryStore implements Closeable {
+    private static final String SNAPSHOT = "snapshot.bin";
+    private static final int SNAPSHOT_MAGIC = 0x55534d31;
+
+    private final LongObjectMap<User> users;
+    private final ConcurrentSkipListSet<BirthDateKey> birthDates = new ConcurrentSkipListSet<>();
+    private final ConcurrentHashMap<String, Long> emails = new ConcurrentHashMap<>();
+    private final LongSupplier ids;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+    private final Path directory;
+    private final UserWriteAheadLog writeAheadLog;
+    private final int checkpointEvery;
+    private final ExecutorService checkpointExecutor;
+    private final AtomicBoolean checkpointPending = new AtomicBoolean();
+    private int changesSinceCheckpoint;
+
+    private record BirthDateKey(LocalDate birthDate, long id) implements Comparable<BirthDateKey> {
+        @Override
+        public int compareTo(BirthDateKey other) {
+            int byDate = birthDate.compareTo(other.birthDate);
+            return byDate != 0 ? byDate : Long.compare(id, other.id);
+        }
+    }
+
+    private UserMemoryStore(LongObjectMap<User> users, LongSupplier ids, Path directory,
+                            UserWriteAheadLog writeAheadLog, int checkpointEvery) {
+        this.users = users;
+        this.ids = ids;
+        this.directory = directory;
+        this.writeAheadLog = writeAheadLog;
+        this.checkpointEvery = checkpointEvery;
+        this.checkpointExecutor = directory == null ? null : Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-memory-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        users.forEach((id, user) -> index(user));
+    }
+
+    /**
+     * Creates an empty store that persists nothing.
+     *
+     * @param ids Generates the ids of new users.
+     */
+    public static UserMemoryStore volatileStore(LongSupplier ids) {
+        return new UserMemoryStore(new LongObjectMap<>(), ids, null, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Opens the store kept in the directory: loads the snapshot, replays the write-ahead log after it and starts
+     * a new log segment.
+     *
+     * @param directory       The directory of the snapshot and the log, created if missing.
+     * @param ids             Generates the ids of new users.
+     * @param fsync           Whether every change is forced to disk before the call returns.
+     * @param checkpointEvery The number of changes after which a checkpoint is started.
+     */
+    public static UserMemoryStore open(Path directory, LongSupplier ids, boolean fsync, int checkpointEvery)
+            throws IOException {
+        long start = System.nanoTime();
+        LongObjectMap<User> users = new LongObjectMap<>();
+        long firstSegment = loadSnapshot(directory.resolve(SNAPSHOT), users);
+        List<byte[]> changes = UserWriteAheadLog.replay(directory, firstSegment);
+        for (byte[] payload : changes) {
+            UserRecords.Change change = UserRecords.decode(payload);
+            if (change.type() == UserRecords.PUT) {
+                users.put(change.id(), change.user());
+            } else {
+                users.remove(change.id());
+            }
+        }
+        UserWriteAheadLog writeAheadLog = UserWriteAheadLog.open(directory, fsync, firstSegment);
+        log.info(String.format("Loaded %d users and replayed %d changes from %s in %d ms", users.size(),
+                changes.size(), directory, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        return new UserMemoryStore(users, ids, directory, writeAheadLog, checkpointEvery);
+    }
+
+    /**
+     * @return A copy of the user, if it exists.
+     */
+    public Optional<User> findById(long id) {
+        return Optional.ofNullable(users.get(id)).map(UserMemoryStore::copy);
+    }
+
+    /**
+     * @return Copies of the existing users, in the order of the ids. Unknown ids are skipped.
+     */
+    public List<User> findAllById(Iterable<Long> ids) {
+        List<User> found = new ArrayList<>();
+        for (Long id : ids) {
+            User user = users.get(id);
+            if (user != null) {
+                found.add(copy(user));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return Copies of all users, ordered by id.
+     */
+    public List<User> findAll() {
+        List<User> found = new ArrayList<>(users.size());
+        users.forEach((id, user) -> found.add(copy(user)));
+        found.sort(Comparator.comparing(User::getId));
+        return found;
+    }
+
+    /**
+     * Finds the users born within the bounds, ordered by birth date and id.
+     *
+     * @param from          The lower bound, or {@code null} for none.
+     * @param fromInclusive Whether users born on {@code from} are included.
+     * @param to            The upper bound, or {@code null} for none.
+     * @param toInclusive   Whether users born on {@code to} are included.
+     * @return Copies of the users.
+     */
+    public List<User> findAllByBirthDate(LocalDate from, boolean fromInclusive, LocalDate to, boolean toInclusive) {
+        // the extreme ids place the bound before or after every user born on that day
+        BirthDateKey low = from == null ? null
+                : new BirthDateKey(from, fromInclusive ? Long.MIN_VALUE : Long.MAX_VALUE);
+        BirthDateKey high = to == null ? null
+                : new BirthDateKey(to, toInclusive ? Long.MAX_VALUE : Long.MIN_VALUE);
+        NavigableSet<BirthDateKey> range;
+        if (low != null && high != null) {
+            if (low.compareTo(high) > 0) {
+                return List.of();
+            }
+            range = birthDates.subSet(low, fromInclusive, high, toInclusive);
+        } else if (low != null) {
+            range = birthDates.tailSet(low, fromInclusive);
+        } else if (high != null) {
+            range = birthDates.headSet(high, toInclusive);
+        } else {
+            range = birthDates;
+        }
+        List<User> found = new ArrayList<>();
+        LongHashSet seen = new LongHashSet();
+        for (BirthDateKey key : range) {
+            User user = users.get(key.id());
+            // a key left behind or added ahead by a concurrent update no longer matches the stored user
+            if (user != null && key.birthDate().equals(user.getBirthDate()) && seen.add(key.id())) {
+                found.add(copy(user));
+            }
+        }
+        return found;
+    }
+
+    public boolean existsByEmail(String email) {
+        return email != null && emails.containsKey(emailKey(email));
+    }
+
+    /**
+     * @return The emails that belong to a user.
+     */
+    public List<String> findExistingEmails(Collection<String> candidates) {
+        return candidates.stream().filter(this::existsByEmail).toList();
+    }
+
+    public long count() {
+        return users.size();
+    }
+
+    /**
+     * @return The number of users per month of birth, in month order.
+     */
+    public SortedMap<YearMonth, Long> countByBirthMonth() {
+        SortedMap<YearMonth, Long> counts = new TreeMap<>();
+        for (BirthDateKey key : birthDates) {
+            counts.merge(YearMonth.from(key.birthDate()), 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Inserts or replaces a user. A user without id is given a new one.
+     *
+     * @param user The user to store, a copy of it is kept.
+     * @return The same user, with its id set.
+     * @throws DataIntegrityViolationException     If the email is missing or belongs to another user.
+     * @throws DataAccessResourceFailureException If the change could not be written to the log.
+     */
+    public User save(User user) {
+        writeLock.lock();
+        try {
+            if (user.getEmail() == null) {
+                throw new DataIntegrityViolationException("A user needs an email");
+            }
+            if (user.getId() == null) {
+                user.setId(ids.getAsLong());
+            }
+            Long owner = emails.get(emailKey(user.getEmail()));
+            if (owner != null && owner.longValue() != user.getId()) {
+                throw new DataIntegrityViolationException("Duplicate email " + user.getEmail());
+            }
+            User stored = copy(user);
+            logChange(UserRecords.put(stored));
+            User previous = users.put(stored.getId(), stored);
+            index(stored);
+            if (previous != null) {
+                unindex(previous, stored);
+            }
+            return user;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code true} if the user existed.
+     * @throws DataAccessResourceFailureException If the change could not be written to the log.
+     */
+    public boolean delete(long id) {
+        writeLock.lock();
+        try {
+            User previous = users.get(id);
+            if (previous == null) {
+                return false;
+            }
+            logChange(UserRecords.delete(id));
+            users.remove(id);
+            unindex(previous, null);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes a snapshot of the store and deletes the log segments it covers. Writers are only held up while the
+     * log rolls over to a new segment.
+     */
+    public void checkpoint() throws IOException {
+        if (directory == null) {
+            return;
+        }
+        checkpointLock.lock();
+        try {
+            long firstSegment;
+            writeLock.lock();
+            try {
+                firstSegment = writeAheadLog.roll();
+                changesSinceCheckpoint = 0;
+            } finally {
+                writeLock.unlock();
+            }
+            long start = System.nanoTime();
+            int written = writeSnapshot(firstSegment);
+            writeAheadLog.deleteBefore(firstSegment);
+            log.info(String.format("Checkpointed %d users in %d ms", written,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    /**
+     * Waits for a running checkpoint, takes a final one so that the next start replays nothing, and closes the
+     * log.
+     */
+    @Override
+    public void close() throws IOException {
+        if (directory == null) {
+            return;
+        }
+        checkpointExecutor.shutdown();
+        try {
+            checkpointExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        checkpoint();
+        writeLock.lock();
+        try {
+            writeAheadLog.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void logChange(byte[] payload) {
+        if (writeAheadLog == null) {
+            return;
+        }
+        try {
+            writeAheadLog.append(payload);
+        } catch (IOException exception) {
+            throw new DataAccessResourceFailureException("Could not write to the write-ahead log", exception);
+        }
+        if (++changesSinceCheckpoint >= checkpointEvery && checkpointPending.compareAndSet(false, true)) {
+            checkpointExecutor.execute(() -> {
+                try {
+                    checkpoint();
+                } catch (IOException exception) {
+                    log.error("Checkpoint of the in-memory users failed", exception);
+                } finally {
+                    checkpointPending.set(false);
+                }
+            });
+        }
+    }
+
+    // the new entries are added before the stale ones are removed, so readers never miss the user
+    private void index(User user) {
+        if (user.getBirthDate() != null) {
+            birthDates.add(new BirthDateKey(user.getBirthDate(), user.getId()));
+        }
+        emails.put(emailKey(user.getEmail()), user.getId());
+    }
+
+    private void unindex(User previous, User current) {
+        if (previous.getBirthDate() != null
+                && (current == null || !previous.getBirthDate().equals(current.getBirthDate()))) {
+            birthDates.remove(new BirthDateKey(previous.getBirthDate(), previous.getId()));
+        }
+        if (current == null || !emailKey(previous.getEmail()).equals(emailKey(current.getEmail()))) {
+            emails.remove(emailKey(previous.getEmail()), previous.getId());
+        }
+    }
+
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private int writeSnapshot(long firstSegment) throws IOException {
+        Path temporary = directory.resolve(SNAPSHOT + ".tmp");
+        List<User> snapshot = new ArrayList<>(users.size());
+        users.forEach((id, user) -> snapshot.add(user));
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(firstSegment);
+            out.writeInt(snapshot.size());
+            for (User user : snapshot) {
+                UserRecords.writeFrame(out, UserRecords.put(user));
+            }
+            out.flush();
+            file.getChannel().force(true);
+        }
+        Files.move(temporary, directory.resolve(SNAPSHOT),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return snapshot.size();
+    }
+
+    /**
+     * @return The first log segment to replay after the snapshot.
+     */
+    private static long loadSnapshot(Path file, LongObjectMap<User> users) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a snapshot of users: " + file);
+            }
+            long firstSegment = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                byte[] payload = UserRecords.readFrame(in);
+                if (payload == null) {
+                    throw new IOException("Damaged snapshot, " + i + " of " + count + " users readable: " + file);
+                }
+                User user = UserRecords.decode(payload).user();
+                users.put(user.getId(), user);
+            }
+            return firstSegment;
+        }
+    }
+
+    private static User copy(User user) {
+        return User.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .firstname(user.getFirstname())
+                .lastname(user.getLastname())
+                .birthDate(user.getBirthDate())
+                .address(user.getAddress())
+                .phoneNumber(user.getPhoneNumber())
+                .build();
+    }
+}
@@ -0,0 +1,125 @@
+package com.krasnopolskyi.usersapitask.memory;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.util.zip.CRC32;
+
+/**
+ * Binary format of the changes kept in the write-ahead log and the snapshot of a {@link UserMemoryStore}.
+ *
+ * <p>A change is framed as {@code [length][crc32][payload]}; the payload is a type byte, the user id and, for a
+ * put, the full user. A frame that is cut short or fails its checksum ends the file it is read from: it can only
+ * be the tail of a write that never completed.</p>
+ */
+final class UserRecords {
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+    private static final int MAX_PAYLOAD = 1 << 20;
+
+    /**
+     * @param user The stored user of a put, {@code null} for a delete.
+     */
+    record Change(byte type, long id, User user) {
+    }
+
+    private UserRecords() {
+    }
+
+    static byte[] put(User user) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(PUT);
+            out.writeLong(user.getId());
+            writeString(out, user.getEmail());
+            writeString(out, user.getFirstname());
+            writeString(out, user.getLastname());
+            out.writeBoolean(user.getBirthDate() != null);
+            if (user.getBirthDate() != null) {
+                out.writeLong(user.getBirthDate().toEpochDay());
+            }
+            writeString(out, user.getAddress());
+            writeString(out, user.getPhoneNumber());
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception); // not thrown by an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] delete(long id) {
+        byte[] payload = new byte[9];
+        payload[0] = DELETE;
+        for (int i = 0; i < 8; i++) {
+            payload[1 + i] = (byte) (id >>> (56 - 8 * i));
+        }
+        return payload;
+    }
+
+    static Change decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        long id = in.readLong();
+        if (type == DELETE) {
+            return new Change(type, id, null);
+        }
+        if (type != PUT) {
+            throw new IOException("Unknown change type " + type);
+        }
+        User user = User.builder()
+                .id(id)
+                .email(readString(in))
+                .firstname(readString(in))
+                .lastname(readString(in))
+                .birthDate(in.readBoolean() ? LocalDate.ofEpochDay(in.readLong()) : null)
+                .address(readString(in))
+                .phoneNumber(readString(in))
+                .build();
+        return new Change(type, id, user);
+    }
+
+    /**
+     * @return The number of bytes written.
+     */
+    static int writeFrame(DataOutput out, byte[] payload) throws IOException {
+        out.writeInt(payload.length);
+        out.writeInt(checksum(payload));
+        out.write(payload);
+        return 8 + payload.length;
+    }
+
+    /**
+     * @return The payload of the next frame, or {@code null} at the end of the file or at a damaged frame.
+     */
+    static byte[] readFrame(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length < 0 || length > MAX_PAYLOAD) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            return checksum(payload) == checksum ? payload : null;
+        } catch (EOFException exception) {
+            return null;
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
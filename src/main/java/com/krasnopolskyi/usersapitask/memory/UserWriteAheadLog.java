@@ -0,0 +1,159 @@
+package com.krasnopolskyi.usersapitask.memory;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Write-ahead log of a {@link UserMemoryStore}, split into numbered segment files {@code wal-<n>.log}.
+ *
+ * <p>Changes are only ever appended to the newest segment. A checkpoint rolls over to a new segment, snapshots
+ * the store and then deletes the segments before it. Opening the log always starts a new segment, so a segment
+ * left with a torn tail by a crash is never written to again and replay can stop at the tear.</p>
+ *
+ * <p>Not thread-safe, appends and rolls are serialised by the store.</p>
+ */
+@Slf4j
+final class UserWriteAheadLog implements Closeable {
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final boolean fsync;
+    private FileChannel channel;
+    private long segment;
+    private IOException failure;
+
+    private UserWriteAheadLog(Path directory, boolean fsync, long segment) throws IOException {
+        this.directory = directory;
+        this.fsync = fsync;
+        this.segment = segment;
+        this.channel = openSegment(segment);
+    }
+
+    /**
+     * Starts a new segment after the existing ones.
+     *
+     * @param fsync      Whether every append is forced to disk before it returns.
+     * @param minSegment The lowest number the new segment may have.
+     */
+    static UserWriteAheadLog open(Path directory, boolean fsync, long minSegment) throws IOException {
+        List<Long> segments = segments(directory);
+        long next = Math.max(minSegment, segments.isEmpty() ? 0 : segments.get(segments.size() - 1) + 1);
+        return new UserWriteAheadLog(directory, fsync, next);
+    }
+
+    /**
+     * @return The numbers of the segments in the directory, in ascending order.
+     */
+    static List<Long> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Reads the changes of the segments from {@code fromSegment} on, in the order they were appended.
+     */
+    static List<byte[]> replay(Path directory, long fromSegment) throws IOException {
+        List<byte[]> payloads = new ArrayList<>();
+        for (long segment : segments(directory)) {
+            if (segment < fromSegment) {
+                continue;
+            }
+            Path file = segmentFile(directory, segment);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                for (byte[] payload; (payload = UserRecords.readFrame(in)) != null; ) {
+                    payloads.add(payload);
+                }
+                if (in.read() >= 0) {
+                    log.warn("Skipped the damaged tail of " + file);
+                }
+            }
+        }
+        return payloads;
+    }
+
+    /**
+     * Appends a change. After a failed append the log refuses every further change, as it may end in a partly
+     * written frame.
+     *
+     * @throws IOException If the change could not be written, or an earlier one could not.
+     */
+    void append(byte[] payload) throws IOException {
+        if (failure != null) {
+            throw new IOException("The write-ahead log failed earlier", failure);
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length + 8);
+            UserRecords.writeFrame(new DataOutputStream(bytes), payload);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException exception) {
+            failure = exception;
+            throw exception;
+        }
+    }
+
+    /**
+     * Closes the current segment and starts the next one.
+     *
+     * @return The number of the new segment, the first one a snapshot taken from now on has to replay.
+     */
+    long roll() throws IOException {
+        channel.force(false);
+        channel.close();
+        segment++;
+        channel = openSegment(segment);
+        return segment;
+    }
+
+    /**
+     * Deletes the segments covered by a snapshot.
+     */
+    void deleteBefore(long firstKept) throws IOException {
+        for (long old : segments(directory)) {
+            if (old < firstKept) {
+                Files.deleteIfExists(segmentFile(directory, old));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        Files.createDirectories(directory);
+        return FileChannel.open(segmentFile(directory, number),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private static Path segmentFile(Path directory, long number) {
+        return directory.resolve(String.format("%s%016d%s", PREFIX, number, SUFFIX));
+    }
+}
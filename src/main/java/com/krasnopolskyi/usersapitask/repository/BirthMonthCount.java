@@ -0,0 +1,12 @@
+package com.krasnopolskyi.usersapitask.repository;
+
+/**
+ * Projection of the number of users born in one calendar month.
+ */
+public interface BirthMonthCount {
+    Integer getYear();
+
+    Integer getMonth();
+
+    Long getUsers();
+}
@@ -0,0 +1,12 @@
+package com.krasnopolskyi.usersapitask.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of the user id and birth date, used for streamed table scans.
+ */
+public interface UserBirthDateView {
+    Long getId();
+
+    LocalDate getBirthDate();
+}
@@ -0,0 +1,20 @@
+package com.krasnopolskyi.usersapitask.repository;
+
+import com.krasnopolskyi.usersapitask.entity.UserEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface UserEventRepository extends JpaRepository<UserEvent, Long> {
+    /**
+     * Seeks past the cursor on the primary key, so the cost depends on the page size only.
+     */
+    List<UserEvent> findAllByIdGreaterThanOrderByIdAsc(Long cursor, Pageable pageable);
+
+    /**
+     * @return The latest event, the head of the change stream.
+     */
+    Optional<UserEvent> findFirstByOrderByIdDesc();
+}
@@ -1,17 +1,54 @@
 package com.krasnopolskyi.usersapitask.repository;
 
 import com.krasnopolskyi.usersapitask.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+    String BIRTH_DATE_QUERY_REGION = "users-by-birth-date";
+
     boolean existsByEmail(String email);
 
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(Collection<String> emails);
+
+    /*
+     * The range queries are cached in the query cache. Hibernate drops the cached results whenever the users
+     * table is written through it, including bulk deletes, so they never outlive a committed change.
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = BIRTH_DATE_QUERY_REGION)})
     List<User> findAllByBirthDateAfter(LocalDate date);
 
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = BIRTH_DATE_QUERY_REGION)})
     List<User> findAllByBirthDateBefore(LocalDate date);
 
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = BIRTH_DATE_QUERY_REGION)})
     List<User> findAllByBirthDateBetween(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * One page of a range too wide to be served at once, not cached: pages are rarely read twice.
+     * Only the page is selected, no count query is run.
+     */
+    List<User> findAllByBirthDateBetween(LocalDate startDate, LocalDate endDate, Pageable pageable);
+
+    /**
+     * One sub-range of a range query split for parallel execution, not cached: the parts are only ever
+     * reassembled into the whole range.
+     */
+    List<User> findAllByBirthDateBetweenOrderByBirthDateAscIdAsc(LocalDate startDate, LocalDate endDate);
+
+    @Query("select year(u.birthDate) as year, month(u.birthDate) as month, count(u) as users from User u "
+            + "group by year(u.birthDate), month(u.birthDate)")
+    List<BirthMonthCount> countByBirthMonth();
 }
@@ -0,0 +1,44 @@
+package com.krasnopolskyi.usersapitask.repository;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Loads users by id through the second-level cache. Overrides the default {@code findAllById}, which
+     * runs an {@code in} query and never looks at the cache.
+     *
+     * @param ids The ids of the users.
+     * @return The existing users, unknown ids are skipped.
+     */
+    List<User> findAllById(Iterable<Long> ids);
+
+    /**
+     * Streams the searchable columns of every user without hydrating entities. Rows are streamed one by one on
+     * MySQL and fetched 1000 at a time elsewhere, the table is never buffered. Only these scans stream, the
+     * connection settings of every other query are left alone.
+     * Must be consumed inside a read-only transaction and closed afterwards.
+     */
+    Stream<UserSearchView> streamSearchViews();
+
+    /**
+     * Streams the id and birth date of every user in id order, without hydrating entities, like
+     * {@link #streamSearchViews()}.
+     */
+    Stream<UserBirthDateView> streamBirthDates();
+
+    /**
+     * Streams the users born within a period through a cursor, ordered by birth date and id. Unlike the other
+     * streams it reads through a stateless session with a connection and transaction of its own, so it needs no
+     * surrounding transaction and may be consumed from different threads, one after the other, as long as it is
+     * closed afterwards. Entities are not cached and not managed.
+     *
+     * @param startDate The start of the period, inclusive.
+     * @param endDate   The end of the period, inclusive.
+     */
+    Stream<User> streamAllByBirthDateBetween(LocalDate startDate, LocalDate endDate);
+}
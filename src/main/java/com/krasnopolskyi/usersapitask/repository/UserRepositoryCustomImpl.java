@@ -0,0 +1,130 @@
+package com.krasnopolskyi.usersapitask.repository;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+    private static final int SCAN_FETCH_SIZE = 1000;
+
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findAllById(Iterable<Long> ids) {
+        List<Long> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        // multiLoad only looks into the second-level cache with an explicit cache mode, then fetches the rest
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(User.class)
+                .with(CacheMode.NORMAL)
+                .multiLoad(idList)
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public Stream<UserSearchView> streamSearchViews() {
+        return entityManager.createQuery(
+                        "select u.id, u.email, u.firstname, u.lastname from User u", Tuple.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, scanFetchSize())
+                .getResultStream()
+                .map(row -> new SearchView(row.get(0, Long.class), row.get(1, String.class),
+                        row.get(2, String.class), row.get(3, String.class)));
+    }
+
+    @Override
+    public Stream<UserBirthDateView> streamBirthDates() {
+        return entityManager.createQuery("select u.id, u.birthDate from User u order by u.id", Tuple.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, scanFetchSize())
+                .getResultStream()
+                .map(row -> new BirthDateView(row.get(0, Long.class), row.get(1, LocalDate.class)));
+    }
+
+    @Override
+    public Stream<User> streamAllByBirthDateBetween(LocalDate startDate, LocalDate endDate) {
+        StatelessSession session = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class)
+                .openStatelessSession();
+        try {
+            session.beginTransaction();
+            return session.createSelectionQuery("from User u where u.birthDate between :startDate and :endDate "
+                            + "order by u.birthDate, u.id", User.class)
+                    .setParameter("startDate", startDate)
+                    .setParameter("endDate", endDate)
+                    .setFetchSize(scanFetchSize())
+                    .getResultStream()
+                    .onClose(() -> close(session));
+        } catch (RuntimeException exception) {
+            close(session);
+            throw exception;
+        }
+    }
+
+    // the cursor only reads, rolling back just ends the transaction
+    private static void close(StatelessSession session) {
+        try {
+            if (session.getTransaction().isActive()) {
+                session.getTransaction().rollback();
+            }
+        } finally {
+            session.close();
+        }
+    }
+
+    // MySQL Connector/J streams row by row only with a fetch size of Integer.MIN_VALUE, which other drivers reject
+    private int scanFetchSize() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof MySQLDialect ? Integer.MIN_VALUE : SCAN_FETCH_SIZE;
+    }
+
+    private record SearchView(Long id, String email, String firstname, String lastname) implements UserSearchView {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getEmail() {
+            return email;
+        }
+
+        @Override
+        public String getFirstname() {
+            return firstname;
+        }
+
+        @Override
+        public String getLastname() {
+            return lastname;
+        }
+    }
+
+    private record BirthDateView(Long id, LocalDate birthDate) implements UserBirthDateView {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public LocalDate getBirthDate() {
+            return birthDate;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.krasnopolskyi.usersapitask.repository;
+
+/**
+ * Lightweight projection of the searchable user columns, used for streamed table scans.
+ */
+public interface UserSearchView {
+    Long getId();
+
+    String getEmail();
+
+    String getFirstname();
+
+    String getLastname();
+}
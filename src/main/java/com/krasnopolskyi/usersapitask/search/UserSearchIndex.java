@@ -0,0 +1,208 @@
+package com.krasnopolskyi.usersapitask.search;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.event.UserChangedEvent;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import com.krasnopolskyi.usersapitask.repository.UserSearchView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-process prefix index over user first names, last names and emails.
+ *
+ * <p>Tokens are normalised (lower-cased, diacritics removed) and kept in a sorted map,
+ * so a prefix lookup is a range scan over the keys starting with the query token.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserSearchIndex {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+    private static final int EXACT_MATCH_SCORE = 2;
+    private static final int PREFIX_MATCH_SCORE = 1;
+
+    private final UserRepository userRepository;
+
+    private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, String[]> tokensById = new ConcurrentHashMap<>();
+    // users changed by a committed write while a rebuild scans the table, guarded by this
+    private Set<Long> changedDuringRebuild;
+
+    /**
+     * Builds the index from a streamed scan of the users table once the application is ready.
+     *
+     * <p>Writes keep being indexed while the table is scanned. A row of a user that has been written since the
+     * scan began is skipped, as it may be older than the write: the write has already been indexed, or removed
+     * the user.</p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long started = System.nanoTime();
+        synchronized (this) {
+            changedDuringRebuild = new HashSet<>();
+        }
+        try (Stream<UserSearchView> views = userRepository.streamSearchViews()) {
+            views.forEach(this::indexScanned);
+        } finally {
+            synchronized (this) {
+                changedDuringRebuild = null;
+            }
+        }
+        log.info("Search index built for " + tokensById.size() + " users in "
+                + (System.nanoTime() - started) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Keeps the index in line with committed writes from the user service.
+     *
+     * @param event The change that has been committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        User user = event.user();
+        if (event.type() == UserChangedEvent.Type.DELETED) {
+            remove(user.getId());
+        } else {
+            index(user.getId(), user.getFirstname(), user.getLastname(), user.getEmail());
+        }
+    }
+
+    /**
+     * Adds or replaces the tokens of a user. Writers are serialised, readers never block.
+     */
+    public synchronized void index(Long id, String firstname, String lastname, String email) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(id);
+        }
+        put(id, firstname, lastname, email);
+    }
+
+    public synchronized void remove(Long id) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(id);
+        }
+        String[] previous = tokensById.remove(id);
+        if (previous != null) {
+            for (String token : previous) {
+                removePosting(token, id);
+            }
+        }
+    }
+
+    private synchronized void indexScanned(UserSearchView view) {
+        if (!changedDuringRebuild.contains(view.getId())) {
+            put(view.getId(), view.getFirstname(), view.getLastname(), view.getEmail());
+        }
+    }
+
+    private void put(Long id, String firstname, String lastname, String email) {
+        String[] tokens = tokenize(firstname, lastname, email);
+        String[] previous = tokensById.put(id, tokens);
+        if (previous != null) {
+            for (String token : previous) {
+                removePosting(token, id);
+            }
+        }
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    /**
+     * Finds the users matching every token of the query, either exactly or by prefix.
+     *
+     * <p>Results are ranked by score (exact token matches weigh more than prefix matches)
+     * and then by id, so that pages are stable between calls.</p>
+     *
+     * @param query The free-text query.
+     * @param page  The zero-based page number.
+     * @param size  The page size.
+     * @return The ids of the matching users for the requested page, in rank order.
+     */
+    public List<Long> search(String query, int page, int size) {
+        String[] queryTokens = tokenize(query);
+        if (queryTokens.length == 0) {
+            return List.of();
+        }
+        Map<Long, Integer> scores = null;
+        for (String queryToken : queryTokens) {
+            Map<Long, Integer> tokenScores = scoreToken(queryToken);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                scores.keySet().retainAll(tokenScores.keySet());
+                scores.replaceAll((id, score) -> score + tokenScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+        long offset = (long) page * size;
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .skip(offset)
+                .limit(size)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    public int size() {
+        return tokensById.size();
+    }
+
+    private Map<Long, Integer> scoreToken(String queryToken) {
+        Map<Long, Integer> tokenScores = new HashMap<>();
+        // every token starting with queryToken sorts between queryToken and queryToken + Character.MAX_VALUE
+        for (Map.Entry<String, Set<Long>> entry :
+                postings.subMap(queryToken, true, queryToken + Character.MAX_VALUE, true).entrySet()) {
+            int score = entry.getKey().equals(queryToken) ? EXACT_MATCH_SCORE : PREFIX_MATCH_SCORE;
+            for (Long id : entry.getValue()) {
+                tokenScores.merge(id, score, Math::max);
+            }
+        }
+        return tokenScores;
+    }
+
+    private void removePosting(String token, Long id) {
+        Set<Long> ids = postings.get(token);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    static String[] tokenize(String... values) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            String normalized = DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD))
+                    .replaceAll("")
+                    .toLowerCase(Locale.ROOT);
+            for (String token : SEPARATORS.split(normalized)) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,198 @@
+package com.krasnopolskyi.usersapitask.service;
+
+import com.krasnopolskyi.usersapitask.event.UserChangedEvent;
+import com.krasnopolskyi.usersapitask.repository.BirthMonthCount;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estimates how many users are born within a period, from the number of users per birth month.
+ *
+ * <p>The counts are loaded with one aggregate query once the application is ready and reloaded in the background
+ * when they are older than the refresh interval. In between, creates and deletes are counted as they commit;
+ * updates of a birth date are only picked up by the next reload, which is good enough for an estimate.
+ * Within a month users are assumed to be spread evenly over the days.</p>
+ */
+@Component
+@Slf4j
+public class BirthDateHistogram {
+    private final UserRepository userRepository;
+    private final Clock clock;
+    private final long refreshMillis;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "birth-date-histogram");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Map<Integer, LongAdder> usersByMonth = new ConcurrentHashMap<>();
+    private volatile long loadedAtMillis;
+    private volatile boolean ready;
+
+    /**
+     * A period of birth dates, both ends inclusive.
+     */
+    public record DateRange(LocalDate from, LocalDate to) {
+    }
+
+    public BirthDateHistogram(UserRepository userRepository,
+                              Clock clock,
+                              @Value("${users.range.histogram-refresh-minutes:60}") long refreshMinutes) {
+        this.userRepository = userRepository;
+        this.clock = clock;
+        this.refreshMillis = refreshMinutes * 60_000;
+    }
+
+    /**
+     * Loads the counts from the users table.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Map<Integer, LongAdder> loaded = new ConcurrentHashMap<>();
+        for (BirthMonthCount count : userRepository.countByBirthMonth()) {
+            LongAdder users = new LongAdder();
+            users.add(count.getUsers());
+            loaded.put(monthIndex(count.getYear(), count.getMonth()), users);
+        }
+        usersByMonth = loaded;
+        loadedAtMillis = clock.millis();
+        ready = true;
+        log.debug("Birth date histogram loaded with " + loaded.size() + " months");
+    }
+
+    /**
+     * Counts a committed create or delete in the month of the user's birth date.
+     *
+     * @param event The change that has been committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        LocalDate birthDate = event.user().getBirthDate();
+        if (birthDate == null || event.type() == UserChangedEvent.Type.UPDATED) {
+            return;
+        }
+        usersByMonth.computeIfAbsent(monthIndex(birthDate.getYear(), birthDate.getMonthValue()),
+                        month -> new LongAdder())
+                .add(event.type() == UserChangedEvent.Type.DELETED ? -1 : 1);
+    }
+
+    /**
+     * @param from The first birth date of the period.
+     * @param to   The last birth date of the period.
+     * @return The estimated number of users born within the period.
+     */
+    public long estimate(LocalDate from, LocalDate to) {
+        refreshIfStale();
+        double users = 0;
+        for (LocalDate day = from; !day.isAfter(to); ) {
+            LocalDate monthEnd = day.withDayOfMonth(day.lengthOfMonth());
+            LocalDate last = monthEnd.isAfter(to) ? to : monthEnd;
+            users += usersPerDay(day) * (last.getDayOfMonth() - day.getDayOfMonth() + 1);
+            day = last.plusDays(1);
+        }
+        return Math.round(users);
+    }
+
+    /**
+     * @return Whether the counts have been loaded at least once, until then every period is estimated empty.
+     */
+    public boolean isLoaded() {
+        return ready;
+    }
+
+    /**
+     * @return The period from the first day of the first month to the last day of the last month with users,
+     *         empty if no users are counted (yet).
+     */
+    public Optional<DateRange> span() {
+        refreshIfStale();
+        int first = Integer.MAX_VALUE;
+        int last = Integer.MIN_VALUE;
+        for (Map.Entry<Integer, LongAdder> month : usersByMonth.entrySet()) {
+            if (month.getValue().sum() > 0) {
+                first = Math.min(first, month.getKey());
+                last = Math.max(last, month.getKey());
+            }
+        }
+        if (first > last) {
+            return Optional.empty();
+        }
+        LocalDate lastMonth = LocalDate.of(last / 12, last % 12 + 1, 1);
+        return Optional.of(new DateRange(LocalDate.of(first / 12, first % 12 + 1, 1),
+                lastMonth.withDayOfMonth(lastMonth.lengthOfMonth())));
+    }
+
+    /**
+     * Splits a period into consecutive sub-periods with about the same estimated number of users each.
+     *
+     * @param from  The first birth date of the period.
+     * @param to    The last birth date of the period.
+     * @param parts The number of sub-periods wanted.
+     * @return At most {@code parts} non-empty sub-periods covering the period without gaps or overlaps, in order.
+     */
+    public List<DateRange> split(LocalDate from, LocalDate to, int parts) {
+        double total = estimate(from, to);
+        if (total == 0) {
+            return List.of(new DateRange(from, to));
+        }
+        List<DateRange> ranges = new ArrayList<>(parts);
+        LocalDate start = from;
+        double users = 0;
+        for (LocalDate day = from; day.isBefore(to) && ranges.size() < parts - 1; day = day.plusDays(1)) {
+            users += usersPerDay(day);
+            if (users >= total * (ranges.size() + 1) / parts) {
+                ranges.add(new DateRange(start, day));
+                start = day.plusDays(1);
+            }
+        }
+        ranges.add(new DateRange(start, to));
+        return ranges;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private double usersPerDay(LocalDate day) {
+        LongAdder users = usersByMonth.get(monthIndex(day.getYear(), day.getMonthValue()));
+        return users == null ? 0 : Math.max(0, users.sum()) / (double) day.lengthOfMonth();
+    }
+
+    private void refreshIfStale() {
+        if (clock.millis() - loadedAtMillis > refreshMillis && refreshing.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                try {
+                    load();
+                } catch (RuntimeException exception) {
+                    log.warn("Birth date histogram could not be reloaded", exception);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        }
+    }
+
+    private static int monthIndex(int year, int month) {
+        return year * 12 + month - 1;
+    }
+}
@@ -0,0 +1,66 @@
+package com.krasnopolskyi.usersapitask.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks serialising concurrent creates of the same email within this instance.
+ *
+ * <p>An email maps to one of a fixed number of locks by its hash, so unrelated emails rarely contend and
+ * memory stays constant. Inside a transaction the lock is held until the transaction has completed, so that
+ * the next create for the same email sees the committed row in its existence check. The UNIQUE constraint
+ * remains the last line of defence across instances.</p>
+ */
+@Component
+public class EmailLocks {
+    private final ReentrantLock[] stripes;
+
+    /**
+     * A held lock, released on close or, inside a transaction, once the transaction has completed.
+     */
+    public interface Held extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public EmailLocks(@Value("${users.create.lock-stripes:256}") int stripeCount) {
+        // a power of two, so the stripe is picked with a mask
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Locks the stripe of the email.
+     *
+     * @param email The email, compared case-insensitively like the database collation does.
+     * @return The held lock, to be closed when the create has finished.
+     */
+    public Held lock(String email) {
+        ReentrantLock lock = stripeOf(email);
+        lock.lock();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+            });
+            return () -> {
+            };
+        }
+        return lock::unlock;
+    }
+
+    ReentrantLock stripeOf(String email) {
+        int hash = email.toLowerCase(Locale.ROOT).hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+}
@@ -0,0 +1,110 @@
+package com.krasnopolskyi.usersapitask.service;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import com.krasnopolskyi.usersapitask.utils.LongHashSet;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs wide birth date range queries as several sub-range queries in parallel.
+ *
+ * <p>The period is cut by {@link BirthDateHistogram} into sub-periods of about the same number of users, and every
+ * sub-period is queried on a thread of a bounded pool, each in a transaction and on a connection of its own.
+ * Every part comes back sorted by birth date and id and the parts do not overlap, so merging them in order is
+ * a plain concatenation. The pool size caps the database connections and server threads all wide queries together
+ * occupy at any time, and the parts of one query are capped separately, below the pool size, so a single export
+ * cannot take them all.</p>
+ *
+ * <p>The parts are not read from one consistent snapshot. A user whose birth date changes while the parts run may
+ * be read by two of them, which is why the merge keeps only the first row of every id, or by none of them. A
+ * single query is exact, so callers that need that use {@link UserRepository} directly.</p>
+ */
+@Component
+public class ParallelRangeQuery {
+    private final UserRepository userRepository;
+    private final BirthDateHistogram histogram;
+    private final boolean enabled;
+    private final long minRows;
+    private final long rowsPerPart;
+    private final int maxParts;
+    private final ExecutorService executor;
+
+    public ParallelRangeQuery(UserRepository userRepository,
+                              BirthDateHistogram histogram,
+                              @Value("${users.range.parallel.enabled:true}") boolean enabled,
+                              @Value("${users.range.parallel.min-rows:20000}") long minRows,
+                              @Value("${users.range.parallel.rows-per-part:10000}") long rowsPerPart,
+                              @Value("${users.range.parallel.max-parts:2}") int maxParts,
+                              @Value("${users.range.parallel.threads:4}") int threads) {
+        this.userRepository = userRepository;
+        this.histogram = histogram;
+        this.enabled = enabled;
+        this.minRows = minRows;
+        this.rowsPerPart = rowsPerPart;
+        this.maxParts = maxParts;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "users-range");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param from The first birth date of the period.
+     * @param to   The last birth date of the period.
+     * @return {@code true} if the period holds enough users to be worth querying in parts.
+     */
+    public boolean isWorthSplitting(LocalDate from, LocalDate to) {
+        return enabled && histogram.estimate(from, to) >= minRows;
+    }
+
+    /**
+     * Finds the users born within the period, querying sub-periods in parallel.
+     *
+     * @param from The first birth date of the period, inclusive.
+     * @param to   The last birth date of the period, inclusive.
+     * @return The users ordered by birth date and id.
+     */
+    public List<User> findAllByBirthDateBetween(LocalDate from, LocalDate to) {
+        long estimate = histogram.estimate(from, to);
+        int parts = (int) Math.max(1, Math.min(maxParts, (estimate + rowsPerPart - 1) / rowsPerPart));
+        List<CompletableFuture<List<User>>> futures = histogram.split(from, to, parts).stream()
+                .map(range -> CompletableFuture.supplyAsync(() -> userRepository
+                        .findAllByBirthDateBetweenOrderByBirthDateAscIdAsc(range.from(), range.to()), executor))
+                .toList();
+        int expected = (int) Math.min(Integer.MAX_VALUE - 8, estimate);
+        List<User> users = new ArrayList<>(expected);
+        LongHashSet ids = new LongHashSet(expected);
+        try {
+            for (CompletableFuture<List<User>> future : futures) {
+                for (User user : future.join()) {
+                    if (ids.add(user.getId())) {
+                        users.add(user);
+                    }
+                }
+            }
+        } catch (CompletionException exception) {
+            futures.forEach(future -> future.cancel(true));
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exception;
+        }
+        return users;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
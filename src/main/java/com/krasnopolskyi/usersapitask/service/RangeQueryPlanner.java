@@ -0,0 +1,130 @@
+package com.krasnopolskyi.usersapitask.service;
+
+import com.krasnopolskyi.usersapitask.exception.QueryTooLargeException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Decides how a birth date range query is run before it reaches the database, from the number of users the
+ * {@link BirthDateHistogram} estimates for the period.
+ *
+ * <p>A period with up to {@code max-rows} estimated users is served in one response. A wider one is only served
+ * page by page, and a period with more than {@code max-paged-rows} users is rejected altogether, as even paging
+ * through it would mostly scan rows already skipped. Open ends are clamped to the birth dates that actually
+ * occur, so an open range is planned like any other. Both limits can be raised or lowered per client under
+ * {@code users.range.guard.clients.<client>}, the client being the one resolved by the
+ * {@link com.krasnopolskyi.usersapitask.filter.ClientIdentityFilter}.</p>
+ *
+ * <p>Until the histogram has been loaded the size of a period is unknown, so only pages and periods bounded at
+ * both ends are served; an open range is rejected until the statistics are in.</p>
+ */
+@Component
+@Slf4j
+public class RangeQueryPlanner {
+    private static final String MAX_ROWS = "max-rows";
+    private static final String MAX_PAGED_ROWS = "max-paged-rows";
+
+    private final BirthDateHistogram histogram;
+    private final boolean enabled;
+    private final long maxRows;
+    private final long maxPagedRows;
+    private final Map<String, Map<String, Long>> clientLimits;
+
+    /**
+     * How a range query is run.
+     */
+    public enum Strategy {
+        /** All users of the period in one response. */
+        DIRECT,
+        /** One page of the users of the period. */
+        PAGED
+    }
+
+    /**
+     * @param strategy      How the query is run.
+     * @param estimatedRows The estimated number of users in the whole period.
+     */
+    public record Plan(Strategy strategy, long estimatedRows) {
+    }
+
+    public RangeQueryPlanner(BirthDateHistogram histogram,
+                             Environment environment,
+                             @Value("${users.range.guard.enabled:true}") boolean enabled,
+                             @Value("${users.range.guard.max-rows:100000}") long maxRows,
+                             @Value("${users.range.guard.max-paged-rows:5000000}") long maxPagedRows) {
+        this.histogram = histogram;
+        this.enabled = enabled;
+        this.maxRows = maxRows;
+        this.maxPagedRows = maxPagedRows;
+        // a map of maps instead of a properties class, so binding needs no reflection in the native image
+        this.clientLimits = Binder.get(environment)
+                .bind("users.range.guard.clients", Bindable.<Map<String, Map<String, Long>>>of(
+                        ResolvableType.forClassWithGenerics(Map.class, ResolvableType.forClass(String.class),
+                                ResolvableType.forClassWithGenerics(Map.class, String.class, Long.class))))
+                .orElse(Map.of());
+    }
+
+    /**
+     * Plans a range query.
+     *
+     * @param from   The first birth date of the period, {@code null} if the period is open at the start.
+     * @param to     The last birth date of the period, {@code null} if the period is open at the end.
+     * @param client The client asking, {@code null} if unknown.
+     * @param paged  Whether the client asked for a single page.
+     * @return How to run the query.
+     * @throws QueryTooLargeException If the period holds more users than the client may read this way.
+     */
+    public Plan plan(LocalDate from, LocalDate to, String client, boolean paged) throws QueryTooLargeException {
+        Strategy strategy = paged ? Strategy.PAGED : Strategy.DIRECT;
+        if (!enabled) {
+            return new Plan(strategy, -1);
+        }
+        if (!histogram.isLoaded()) {
+            if (!paged && (from == null || to == null)) {
+                throw new QueryTooLargeException("The number of users per birth date is not known yet. Read the "
+                        + "range page by page with 'page' and 'size', or give both 'startDate' and 'endDate'.");
+            }
+            return new Plan(strategy, -1);
+        }
+        long rows = estimate(from, to);
+        long clientMaxPagedRows = limitOf(client, MAX_PAGED_ROWS, maxPagedRows);
+        if (rows > clientMaxPagedRows) {
+            throw new QueryTooLargeException("About " + rows + " users are born in this period, more than the "
+                    + clientMaxPagedRows + " a client may read. Narrow the period.");
+        }
+        long clientMaxRows = limitOf(client, MAX_ROWS, maxRows);
+        if (!paged && rows > clientMaxRows) {
+            throw new QueryTooLargeException("About " + rows + " users are born in this period, more than the "
+                    + clientMaxRows + " served in one response. Read it page by page with 'page' and 'size', "
+                    + "or narrow the period.");
+        }
+        log.debug("Range " + from + ".." + to + " planned " + strategy + " for about " + rows + " users");
+        return new Plan(strategy, rows);
+    }
+
+    // open ends are clamped to the months with users, the histogram knows of no others
+    long estimate(LocalDate from, LocalDate to) {
+        Optional<BirthDateHistogram.DateRange> span = histogram.span();
+        if (span.isEmpty()) {
+            return 0;
+        }
+        LocalDate first = from == null || from.isBefore(span.get().from()) ? span.get().from() : from;
+        LocalDate last = to == null || to.isAfter(span.get().to()) ? span.get().to() : to;
+        return first.isAfter(last) ? 0 : histogram.estimate(first, last);
+    }
+
+    private long limitOf(String client, String limit, long defaultLimit) {
+        Map<String, Long> limits = client == null ? null : clientLimits.get(client);
+        Long clientLimit = limits == null ? null : limits.get(limit);
+        return clientLimit == null ? defaultLimit : clientLimit;
+    }
+}
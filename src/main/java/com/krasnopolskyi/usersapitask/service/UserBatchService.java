@@ -0,0 +1,13 @@
+package com.krasnopolskyi.usersapitask.service;
+
+import com.krasnopolskyi.usersapitask.dto.BatchDeleteResponseDto;
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.exception.ValidationException;
+
+import java.util.List;
+
+public interface UserBatchService {
+    List<User> getUsersByIds(String ids) throws ValidationException;
+
+    BatchDeleteResponseDto deleteUsersByIds(String ids) throws ValidationException;
+}
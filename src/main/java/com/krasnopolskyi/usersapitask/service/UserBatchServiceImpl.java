@@ -0,0 +1,102 @@
+package com.krasnopolskyi.usersapitask.service;
+
+import com.krasnopolskyi.usersapitask.dto.BatchDeleteResponseDto;
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.event.UserChangedEvent;
+import com.krasnopolskyi.usersapitask.exception.ValidationException;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import com.krasnopolskyi.usersapitask.utils.IdListConvertor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+@Slf4j
+public class UserBatchServiceImpl implements UserBatchService {
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxGetIds;
+    private final int maxDeleteIds;
+
+    public UserBatchServiceImpl(UserRepository userRepository,
+                                TransactionTemplate transactionTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${users.batch.chunk-size:1000}") int chunkSize,
+                                @Value("${users.batch.max-get-ids:10000}") int maxGetIds,
+                                @Value("${users.batch.max-delete-ids:1000000}") int maxDeleteIds) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxGetIds = maxGetIds;
+        this.maxDeleteIds = maxDeleteIds;
+    }
+
+    /**
+     * Retrieve the users with the given ids.
+     *
+     * <p>The ids are parsed into a sorted primitive array without duplicates and loaded
+     * with one {@code IN} query per chunk.</p>
+     *
+     * @param ids The comma-separated ids of the users.
+     * @return The existing users, ordered by id. Unknown ids are skipped.
+     * @throws ValidationException if the ids are malformed or there are too many of them.
+     */
+    @Override
+    public List<User> getUsersByIds(String ids) throws ValidationException {
+        long[] sortedIds = IdListConvertor.convertIds(ids, maxGetIds);
+        List<User> users = new ArrayList<>(sortedIds.length);
+        for (int from = 0; from < sortedIds.length; from += chunkSize) {
+            users.addAll(userRepository.findAllById(chunk(sortedIds, from)));
+        }
+        // IN queries do not guarantee any order
+        users.sort(Comparator.comparing(User::getId));
+        return users;
+    }
+
+    /**
+     * Delete the users with the given ids.
+     *
+     * <p>Every chunk is deleted in its own transaction with a single {@code DELETE ... IN} statement,
+     * so a large batch neither holds locks nor a persistence context for its whole duration.</p>
+     *
+     * @param ids The comma-separated ids of the users.
+     * @return The number of distinct requested ids and of users actually deleted.
+     * @throws ValidationException if the ids are malformed or there are too many of them.
+     */
+    @Override
+    public BatchDeleteResponseDto deleteUsersByIds(String ids) throws ValidationException {
+        long[] sortedIds = IdListConvertor.convertIds(ids, maxDeleteIds);
+        int deleted = 0;
+        for (int from = 0; from < sortedIds.length; from += chunkSize) {
+            List<Long> chunk = chunk(sortedIds, from);
+            Integer chunkDeleted = transactionTemplate.execute(status -> {
+                List<User> users = userRepository.findAllById(chunk);
+                if (users.isEmpty()) {
+                    return 0;
+                }
+                userRepository.deleteAllByIdInBatch(users.stream().map(User::getId).toList());
+                users.forEach(user ->
+                        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.DELETED, user)));
+                return users.size();
+            });
+            deleted += chunkDeleted == null ? 0 : chunkDeleted;
+        }
+        log.info("Batch delete removed " + deleted + " of " + sortedIds.length + " requested users");
+        return new BatchDeleteResponseDto(sortedIds.length, deleted);
+    }
+
+    // only the ids of the current chunk are boxed, never the whole batch
+    private List<Long> chunk(long[] sortedIds, int from) {
+        return Arrays.stream(sortedIds, from, Math.min(from + chunkSize, sortedIds.length)).boxed().toList();
+    }
+}
@@ -0,0 +1,165 @@
+package com.krasnopolskyi.usersapitask.service;
+
+import com.krasnopolskyi.usersapitask.dto.UserChangesResponseDto;
+import com.krasnopolskyi.usersapitask.entity.UserEvent;
+import com.krasnopolskyi.usersapitask.event.UserChangedEvent;
+import com.krasnopolskyi.usersapitask.exception.ValidationException;
+import com.krasnopolskyi.usersapitask.repository.UserEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves the outbox as an ordered change stream with long polling.
+ *
+ * <p>A poll with nothing new is parked until a change is committed or the timeout elapses.</p>
+ *
+ * <p>Event ids are assigned at insert time, not at commit, so a transaction still in flight leaves a gap in the
+ * ids that a later one may already have committed behind. A page therefore ends at the first gap, and events
+ * behind a gap are only served once they are older than the visibility horizon, by which time the transaction
+ * that held the missing id has committed or rolled back. Gaps left by rollbacks thus delay the stream by the
+ * horizon once, they never skip an event. The horizon must exceed the longest write transaction and is measured
+ * against {@code created_at}, so the clocks of the application and the database have to agree.</p>
+ */
+@ConditionalOnProperty(name = "users.changes.enabled", havingValue = "true", matchIfMissing = true)
+@Service
+@Slf4j
+public class UserChangeFeed {
+    private static final int MAX_LIMIT = 1000;
+
+    private final UserEventRepository userEventRepository;
+    private final long maxTimeoutMillis;
+    private final Duration visibilityHorizon;
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private record Waiter(long since, int limit, DeferredResult<UserChangesResponseDto> result) {
+    }
+
+    public UserChangeFeed(UserEventRepository userEventRepository,
+                          @Value("${users.changes.max-timeout-ms:30000}") long maxTimeoutMillis,
+                          @Value("${users.changes.visibility-horizon-ms:5000}") long visibilityHorizonMillis) {
+        this.userEventRepository = userEventRepository;
+        this.maxTimeoutMillis = maxTimeoutMillis;
+        this.visibilityHorizon = Duration.ofMillis(visibilityHorizonMillis);
+    }
+
+    /**
+     * Returns the events after the cursor, waiting for new ones if there are none yet.
+     *
+     * @param since         The id of the last event the consumer has processed, 0 to start from the beginning.
+     * @param limit         The maximum number of events to return (at most 1000).
+     * @param timeoutMillis How long to wait for new events before returning an empty page.
+     * @return A deferred page of events, completed as soon as at least one event is available.
+     * @throws ValidationException if the cursor, limit or timeout are out of range.
+     */
+    public DeferredResult<UserChangesResponseDto> poll(long since, int limit, long timeoutMillis)
+            throws ValidationException {
+        if (since < 0 || limit < 1 || limit > MAX_LIMIT) {
+            throw new ValidationException("Cursor should be positive and limit between 1 and " + MAX_LIMIT);
+        }
+        if (timeoutMillis < 0 || timeoutMillis > maxTimeoutMillis) {
+            throw new ValidationException("Timeout should be between 0 and " + maxTimeoutMillis + " ms");
+        }
+        DeferredResult<UserChangesResponseDto> result =
+                new DeferredResult<>(timeoutMillis, new UserChangesResponseDto(List.of(), since));
+        Waiter waiter = new Waiter(since, limit, result);
+        // register before reading, so that a commit in between cannot be missed
+        waiters.add(waiter);
+        result.onCompletion(() -> waiters.remove(waiter));
+        if (!tryComplete(waiter) && timeoutMillis == 0) {
+            result.setResult(new UserChangesResponseDto(List.of(), since));
+        }
+        return result;
+    }
+
+    /**
+     * Wakes the parked polls once a change is committed. The queries run on a dispatcher thread,
+     * so the committing request does not wait for them, and bursts of commits are coalesced.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!waiters.isEmpty()) {
+            scheduleDispatch();
+        }
+    }
+
+    private void scheduleDispatch() {
+        if (dispatchScheduled.compareAndSet(false, true)) {
+            dispatcher.execute(this::dispatch);
+        }
+    }
+
+    private void dispatch() {
+        dispatchScheduled.set(false);
+        for (Waiter waiter : waiters) {
+            try {
+                tryComplete(waiter);
+            } catch (RuntimeException exception) {
+                waiter.result().setErrorResult(exception);
+            }
+        }
+    }
+
+    private boolean tryComplete(Waiter waiter) {
+        List<UserEvent> events = userEventRepository.findAllByIdGreaterThanOrderByIdAsc(
+                waiter.since(), PageRequest.ofSize(waiter.limit()));
+        List<UserEvent> visible = visiblePrefix(waiter.since(), events, visibilityHorizon);
+        if (visible.isEmpty()) {
+            if (!events.isEmpty()) {
+                // held back by a gap, look again once the events behind it have passed the horizon
+                dispatcher.schedule(this::scheduleDispatch, visibilityHorizon.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            return false;
+        }
+        return waiter.result().setResult(
+                new UserChangesResponseDto(visible, visible.get(visible.size() - 1).getId()));
+    }
+
+    /**
+     * Cuts a page of outbox events at the first gap in the ids that is younger than the horizon.
+     *
+     * @param since             The id of the last event already processed.
+     * @param events            The events after it, in id order.
+     * @param visibilityHorizon How long a transaction may hold an id before its gap is passed.
+     * @return The events that can be processed without skipping one still in flight.
+     */
+    public static List<UserEvent> visiblePrefix(long since, List<UserEvent> events, Duration visibilityHorizon) {
+        LocalDateTime horizon = LocalDateTime.now().minus(visibilityHorizon);
+        long previous = since;
+        for (int i = 0; i < events.size(); i++) {
+            UserEvent event = events.get(i);
+            boolean settled = event.getCreatedAt() != null && event.getCreatedAt().isBefore(horizon);
+            if (event.getId() != previous + 1 && !settled) {
+                return events.subList(0, i);
+            }
+            previous = event.getId();
+        }
+        return events;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+    }
+}
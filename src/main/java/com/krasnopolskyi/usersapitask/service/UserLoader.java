@@ -0,0 +1,165 @@
+package com.krasnopolskyi.usersapitask.service;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import com.krasnopolskyi.usersapitask.warmup.WarmUserSnapshot;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Coalescing loader for users by id.
+ *
+ * <p>Concurrent loads of the same id share one in-flight future (single flight), and the ids
+ * requested within a short window are fetched together with one {@code findAllById} query.
+ * A batch is flushed when the window elapses or as soon as it reaches the maximum size.</p>
+ *
+ * <p>Loaded users are detached and may be shared between callers, so they must be treated as read-only.</p>
+ *
+ * <p>With a {@link WarmUserSnapshot} the users it still holds are returned from it without a query, and the
+ * ids loaded from the database are reported to it as candidates for its next snapshot.</p>
+ */
+@Component
+@Slf4j
+public class UserLoader {
+    private final UserRepository userRepository;
+    private final Optional<WarmUserSnapshot> warmSnapshot;
+    private final long batchWindowMicros;
+    private final int maxBatchSize;
+
+    private final ConcurrentHashMap<Long, CompletableFuture<Optional<User>>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Long> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService executor;
+
+    public UserLoader(UserRepository userRepository,
+                      Optional<WarmUserSnapshot> warmSnapshot,
+                      @Value("${users.loader.batch-window-micros:1500}") long batchWindowMicros,
+                      @Value("${users.loader.max-batch-size:100}") int maxBatchSize,
+                      @Value("${users.loader.threads:4}") int threads) {
+        this.userRepository = userRepository;
+        this.warmSnapshot = warmSnapshot;
+        this.batchWindowMicros = batchWindowMicros;
+        this.maxBatchSize = maxBatchSize;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-loader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads a user, joining an in-flight load of the same id if there is one.
+     *
+     * @param id The id of the user.
+     * @return A future completed with the user, or with an empty optional if it does not exist.
+     */
+    public CompletableFuture<Optional<User>> load(long id) {
+        Optional<User> warm = warmSnapshot.flatMap(snapshot -> snapshot.find(id));
+        if (warm.isPresent()) {
+            return CompletableFuture.completedFuture(warm);
+        }
+        CompletableFuture<Optional<User>> existing = inFlight.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<Optional<User>> created = new CompletableFuture<>();
+        existing = inFlight.putIfAbsent(id, created);
+        if (existing != null) {
+            return existing;
+        }
+        pending.add(id);
+        if (pendingCount.incrementAndGet() >= maxBatchSize) {
+            executor.execute(this::flush);
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::flush, batchWindowMicros, TimeUnit.MICROSECONDS);
+        }
+        return created;
+    }
+
+    /**
+     * Loads a user and waits for it.
+     *
+     * @param id The id of the user.
+     * @return The user, or an empty optional if it does not exist.
+     * @throws RuntimeException The exception the query failed with, as thrown by the repository.
+     */
+    public Optional<User> get(long id) {
+        return await(load(id));
+    }
+
+    /**
+     * Loads several users through the coalescing path.
+     *
+     * @param ids The ids of the users, duplicates are loaded once.
+     * @return The users that exist, in the order of the ids.
+     * @throws RuntimeException The exception the query failed with, as thrown by the repository.
+     */
+    public List<User> loadAll(Collection<Long> ids) {
+        Map<Long, CompletableFuture<Optional<User>>> futures = new LinkedHashMap<>();
+        for (Long id : ids) {
+            futures.computeIfAbsent(id, this::load);
+        }
+        List<User> users = new ArrayList<>(futures.size());
+        for (CompletableFuture<Optional<User>> future : futures.values()) {
+            await(future).ifPresent(users::add);
+        }
+        return users;
+    }
+
+    void flush() {
+        flushScheduled.set(false);
+        List<Long> ids = new ArrayList<>();
+        Long id;
+        while (ids.size() < maxBatchSize && (id = pending.poll()) != null) {
+            ids.add(id);
+        }
+        pendingCount.addAndGet(-ids.size());
+        if (!pending.isEmpty() && flushScheduled.compareAndSet(false, true)) {
+            executor.execute(this::flush);
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            Map<Long, User> found = userRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            for (Long loadedId : ids) {
+                inFlight.remove(loadedId).complete(Optional.ofNullable(found.get(loadedId)));
+            }
+            warmSnapshot.ifPresent(snapshot -> snapshot.recordLoaded(found.keySet()));
+        } catch (RuntimeException exception) {
+            log.warn("Loading users " + ids + " failed", exception);
+            for (Long failedId : ids) {
+                inFlight.remove(failedId).completeExceptionally(exception);
+            }
+        }
+    }
+
+    // the query failed on a loader thread, its exception is rethrown as is rather than as a CompletionException
+    private static Optional<User> await(CompletableFuture<Optional<User>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exception;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -4,15 +4,19 @@ import com.krasnopolskyi.usersapitask.dto.UserPostRequestDto;
 import com.krasnopolskyi.usersapitask.dto.UserPatchRequestDto;
 import com.krasnopolskyi.usersapitask.dto.UserPutRequestDto;
 import com.krasnopolskyi.usersapitask.exception.MinimumAgeException;
+import com.krasnopolskyi.usersapitask.exception.QueryTooLargeException;
 import com.krasnopolskyi.usersapitask.exception.UserAppException;
 import com.krasnopolskyi.usersapitask.exception.ValidationException;
 import com.krasnopolskyi.usersapitask.entity.User;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface UserService {
     User getUserById(Long id) throws UserAppException;
 
+    List<User> multiGetUsers(List<Long> ids);
+
     User createUser(UserPostRequestDto userDto) throws MinimumAgeException, ValidationException;
 
     boolean deleteUser(Long id);
@@ -21,6 +25,12 @@ public interface UserService {
 
     User updatePatch(Long id, UserPatchRequestDto userDto) throws UserAppException;
 
-    List<User> getUsersByBirthDate(String from, String to) throws ValidationException; // two date between
+    List<User> getUsersByBirthDate(String from, String to, String client, Integer page, Integer size)
+            throws ValidationException, QueryTooLargeException; // two date between
+
+    Stream<User> streamUsersByBirthDate(String from, String to, String client)
+            throws ValidationException, QueryTooLargeException;
+
+    List<User> searchUsers(String query, int page, int size) throws ValidationException;
 
 }
@@ -1,53 +1,104 @@
 package com.krasnopolskyi.usersapitask.service;
 
+import com.krasnopolskyi.usersapitask.archive.UserArchive;
 import com.krasnopolskyi.usersapitask.dto.UserPostRequestDto;
 import com.krasnopolskyi.usersapitask.dto.UserPatchRequestDto;
 import com.krasnopolskyi.usersapitask.dto.UserPutRequestDto;
+import com.krasnopolskyi.usersapitask.event.UserChangedEvent;
 import com.krasnopolskyi.usersapitask.exception.MinimumAgeException;
+import com.krasnopolskyi.usersapitask.exception.QueryTooLargeException;
 import com.krasnopolskyi.usersapitask.exception.UserAppException;
 import com.krasnopolskyi.usersapitask.exception.ValidationException;
+import com.krasnopolskyi.usersapitask.journal.WriteBehindUserWriter;
 import com.krasnopolskyi.usersapitask.utils.DateConvertor;
 import com.krasnopolskyi.usersapitask.utils.UserMapper;
 import com.krasnopolskyi.usersapitask.entity.User;
 import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import com.krasnopolskyi.usersapitask.search.UserSearchIndex;
 import com.krasnopolskyi.usersapitask.utils.UserValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserServiceImpl implements UserService {
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_RANGE_PAGE_SIZE = 1000;
+    // the bounds of an open period when it is read page by page, the DATE range MySQL supports
+    private static final LocalDate EARLIEST_BIRTH_DATE = LocalDate.of(1000, 1, 1);
+    private static final LocalDate LATEST_BIRTH_DATE = LocalDate.of(9999, 12, 31);
+
     private final UserRepository userRepository;
     private final UserValidator userValidator;
+    private final UserSearchIndex userSearchIndex;
+    private final UserLoader userLoader;
+    private final ParallelRangeQuery parallelRangeQuery;
+    private final RangeQueryPlanner rangeQueryPlanner;
+    private final EmailLocks emailLocks;
+    private final Optional<WriteBehindUserWriter> writeBehindUserWriter;
+    private final Optional<UserArchive> userArchive;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Retrieve a user by their unique identifier.
      *
+     * <p>Concurrent lookups of the same id share one database load, and lookups of different ids
+     * arriving within a short window are fetched with a single query, see {@link UserLoader}.
+     * A user that has been archived is moved back from the archive, see {@link UserArchive}.</p>
+     *
      * @param id The unique identifier of the user.
      * @return The user entity with the specified ID, if found.
      * @throws UserAppException If no user is found with the specified ID.
      */
     @Override
     public User getUserById(Long id) throws UserAppException {
-        return userRepository.findById(id)
-                .orElseThrow(() -> {
-                    UserAppException exception = new UserAppException("Not found user with id " + id);
-                    exception.setExceptionStatus(404);
-                    return exception;
-                });
+        Optional<User> user = userLoader.get(id);
+        if (user.isEmpty() && userArchive.isPresent()) {
+            user = userArchive.get().restore(id);
+        }
+        userArchive.ifPresent(archive -> archive.recordAccess(id));
+        return user.orElseThrow(() -> notFound(id));
+    }
+
+    /**
+     * Retrieve several users by their ids through the coalescing loader.
+     *
+     * @param ids The ids of the users.
+     * @return The existing users in the order of the ids, without duplicates. Unknown ids are skipped.
+     */
+    @Override
+    public List<User> multiGetUsers(List<Long> ids) {
+        List<User> users = userLoader.loadAll(ids);
+        userArchive.ifPresent(archive -> users.forEach(user -> archive.recordAccess(user.getId())));
+        return users;
     }
 
     /**
      * Create a new user with the provided details.
      *
+     * <p>Concurrent creates of the same email are serialised by {@link EmailLocks} until the creating
+     * transaction has completed, so a duplicate submission fails the email check instead of the UNIQUE constraint.</p>
+     *
+     * <p>In write-behind mode the user is only appended to the local journal and inserted later;
+     * the returned user then has no id yet. If the journal is full the user is inserted directly.</p>
+     *
      * @param userDto The DTO containing the details of the user to be created.
-     * @return The created user entity.
+     * @return The created user entity, without id if its insert has been deferred.
      * @throws MinimumAgeException If the user's age does not meet the minimum age requirement.
      * @throws ValidationException If the email address provided is already exists.
      */
@@ -55,9 +106,30 @@ public class UserServiceImpl implements UserService {
     @Transactional
     public User createUser(UserPostRequestDto userDto) throws MinimumAgeException, ValidationException {
         userValidator.validateAge(userDto.getBirthDate());
-        userValidator.validateEmail(userDto.getEmail());
-        User user = UserMapper.mapToUser(userDto);
-        return userRepository.save(user);
+        try (EmailLocks.Held ignored = emailLocks.lock(userDto.getEmail())) {
+            userValidator.validateEmail(userDto.getEmail());
+            if (userArchive.isPresent() && userArchive.get().existsByEmail(userDto.getEmail())) {
+                throw new ValidationException("The email address " + userDto.getEmail() + " already exists.");
+            }
+            User user = UserMapper.mapToUser(userDto);
+            if (writeBehindUserWriter.isPresent()) {
+                WriteBehindUserWriter writer = writeBehindUserWriter.get();
+                writer.reserve(user.getEmail());
+                boolean appended = false;
+                try {
+                    appended = writer.append(user);
+                    if (appended) {
+                        return user; // the reservation is released once the flusher has inserted the user
+                    }
+                    return saveUser(user);
+                } finally {
+                    if (!appended) {
+                        writer.release(user.getEmail());
+                    }
+                }
+            }
+            return saveUser(user);
+        }
     }
 
     /**
@@ -69,10 +141,11 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public boolean deleteUser(Long id) {
-        return userRepository.findById(id).
+        return findHotOrArchived(id).
                 map(entity -> {
                     userRepository.delete(entity);
                     userRepository.flush();
+                    eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.DELETED, entity));
                     return true;
                 }).orElse(false);
     }
@@ -89,7 +162,7 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public User updatePut(Long id, UserPutRequestDto userDto) throws UserAppException {
-        User user = getUserById(id);
+        User user = findUserForUpdate(id);
         userValidator.validateAge(userDto.getBirthDate());
 
         user.setFirstname(userDto.getFirstname());
@@ -98,6 +171,7 @@ public class UserServiceImpl implements UserService {
         user.setAddress(userDto.getAddress());
         user.setPhoneNumber(userDto.getPhoneNumber());
         user = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.UPDATED, user));
         return user;
     }
 
@@ -115,7 +189,7 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public User updatePatch(Long id, UserPatchRequestDto userDto) throws UserAppException {
-        User user = getUserById(id);
+        User user = findUserForUpdate(id);
         // For this functionality 2.2. Update one/some user fields
         // I can use reflection, but it can make it difficult for reading and understanding
         // Update only non-null fields of the existing user entity
@@ -136,6 +210,7 @@ public class UserServiceImpl implements UserService {
             user.setPhoneNumber(userDto.getPhoneNumber());
         }
         user = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.UPDATED, user));
         return user;
     }
 
@@ -146,20 +221,48 @@ public class UserServiceImpl implements UserService {
      * <p>If both 'from' and 'till' parameters are provided, returns users with birth dates within the specified range.</p>
      * <p>If only 'from' parameter is provided, returns users with birth dates after the specified date.</p>
      * <p>If only 'to' parameter is provided, returns users with birth dates before the specified date.</p>
+     * <p>Wide periods are queried in parallel sub-ranges, see {@link ParallelRangeQuery}; the users then come
+     * ordered by birth date and id.</p>
+     * <p>Before the query runs, {@link RangeQueryPlanner} estimates how many users it returns. Periods with more
+     * users than the client may read at once are only served page by page, ordered by birth date and id, and
+     * periods with far more are rejected.</p>
      *
-     * @param from The start date of the period (inclusive), in the format 'yyyy-MM-dd'. Can be {@code null}.
+     * @param from   The start date of the period (inclusive), in the format 'yyyy-MM-dd'. Can be {@code null}.
      * @param till   The end date of the period (inclusive), in the format 'yyyy-MM-dd'. Can be {@code null}.
+     * @param client The client asking, whose limits apply. Can be {@code null}.
+     * @param page   The zero-based page number, default 0. {@code null} with the size for all users at once.
+     * @param size   The number of users per page, default and at most 1000. {@code null} with the page
+     *               for all users at once.
      * @return A list of users matching the specified birth date criteria.
-     * @throws ValidationException if the provided date range is invalid.
+     * @throws ValidationException    if the provided date range or the paging parameters are invalid.
+     * @throws QueryTooLargeException if the period holds too many users to be read this way.
      */
     @Override
-    public List<User> getUsersByBirthDate(String from, String till) throws ValidationException {
+    public List<User> getUsersByBirthDate(String from, String till, String client, Integer page, Integer size)
+            throws ValidationException, QueryTooLargeException {
         LocalDate startDate = DateConvertor.convertDate(from);
         LocalDate endDate = DateConvertor.convertDate(till);
+        if (startDate != null && endDate != null) {
+            validatePeriod(startDate, endDate);
+        }
+        boolean paged = page != null || size != null;
+        int pageNumber = page == null ? 0 : page;
+        int pageSize = size == null ? MAX_RANGE_PAGE_SIZE : size;
+        if (paged && (pageNumber < 0 || pageSize < 1 || pageSize > MAX_RANGE_PAGE_SIZE)) {
+            throw new ValidationException("Page should be positive and size between 1 and " + MAX_RANGE_PAGE_SIZE);
+        }
+        RangeQueryPlanner.Plan plan = rangeQueryPlanner.plan(startDate, endDate, client, paged);
+        if (plan.strategy() == RangeQueryPlanner.Strategy.PAGED) {
+            return userRepository.findAllByBirthDateBetween(
+                    firstBirthDate(startDate, endDate), lastBirthDate(startDate, endDate),
+                    PageRequest.of(pageNumber, pageSize, Sort.by("birthDate", "id")));
+        }
         if (endDate == null && startDate == null) {
             return userRepository.findAll();
         } else if (startDate != null && endDate != null) {
-            validatePeriod(startDate, endDate);
+            if (parallelRangeQuery.isWorthSplitting(startDate, endDate)) {
+                return parallelRangeQuery.findAllByBirthDateBetween(startDate, endDate);
+            }
             return userRepository.findAllByBirthDateBetween(startDate, endDate);
         } else if (startDate != null) {
             return userRepository.findAllByBirthDateAfter(startDate);
@@ -168,6 +271,109 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    /**
+     * Streams the users born within a period from a database cursor, ordered by birth date and id, instead of
+     * loading them into a list first.
+     *
+     * <p>The period and the range limits are checked like an unpaged {@link #getUsersByBirthDate} request. The
+     * stream holds a connection of its own until it is closed, see
+     * {@link com.krasnopolskyi.usersapitask.repository.UserRepositoryCustom#streamAllByBirthDateBetween}.</p>
+     *
+     * @param from   The start date of the period (inclusive), in the format 'yyyy-MM-dd'. Can be {@code null}.
+     * @param till   The end date of the period (inclusive), in the format 'yyyy-MM-dd'. Can be {@code null}.
+     * @param client The client asking, whose limits apply. Can be {@code null}.
+     * @return The users of the period, to be closed once read.
+     * @throws ValidationException    if the provided date range is invalid.
+     * @throws QueryTooLargeException if the period holds more users than may be read in one response.
+     */
+    @Override
+    public Stream<User> streamUsersByBirthDate(String from, String till, String client)
+            throws ValidationException, QueryTooLargeException {
+        LocalDate startDate = DateConvertor.convertDate(from);
+        LocalDate endDate = DateConvertor.convertDate(till);
+        if (startDate != null && endDate != null) {
+            validatePeriod(startDate, endDate);
+        }
+        rangeQueryPlanner.plan(startDate, endDate, client, false);
+        return userRepository.streamAllByBirthDateBetween(firstBirthDate(startDate, endDate),
+                lastBirthDate(startDate, endDate));
+    }
+
+    /**
+     * Searches users by first name, last name and email using the in-memory prefix index.
+     *
+     * <p>Every token of the query has to match a token of the user, either exactly or as a prefix.
+     * Exact matches rank higher than prefix matches.</p>
+     *
+     * @param query The free-text query, e.g. 'jo smi' or 'john@exa'.
+     * @param page  The zero-based page number.
+     * @param size  The number of users per page, up to 100.
+     * @return The users of the requested page in rank order.
+     * @throws ValidationException if the query is blank or the paging parameters are out of range.
+     */
+    @Override
+    public List<User> searchUsers(String query, int page, int size) throws ValidationException {
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("Search query should not be blank");
+        }
+        if (page < 0 || size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new ValidationException("Page should be positive and size between 1 and " + MAX_SEARCH_PAGE_SIZE);
+        }
+        List<Long> ids = userSearchIndex.search(query, page, size);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // findAllById does not keep the order of the ids, restore the ranking
+        Map<Long, User> usersById = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return ids.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private User saveUser(User user) {
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.CREATED, saved));
+        return saved;
+    }
+
+    // updates need a managed entity of their own, not the shared instance handed out by the loader
+    private User findUserForUpdate(Long id) throws UserAppException {
+        User user = findHotOrArchived(id)
+                .orElseThrow(() -> notFound(id));
+        userArchive.ifPresent(archive -> archive.recordAccess(id));
+        return user;
+    }
+
+    private Optional<User> findHotOrArchived(Long id) {
+        Optional<User> user = userRepository.findById(id);
+        if (user.isEmpty() && userArchive.isPresent() && userArchive.get().restore(id).isPresent()) {
+            user = userRepository.findById(id);
+        }
+        return user;
+    }
+
+    private UserAppException notFound(Long id) {
+        UserAppException exception = new UserAppException("Not found user with id " + id);
+        exception.setExceptionStatus(404);
+        return exception;
+    }
+
+    // the same bounds as the unpaged queries: 'after' and 'before' exclude the date itself
+    private static LocalDate firstBirthDate(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null) {
+            return EARLIEST_BIRTH_DATE;
+        }
+        return endDate == null ? startDate.plusDays(1) : startDate;
+    }
+
+    private static LocalDate lastBirthDate(LocalDate startDate, LocalDate endDate) {
+        if (endDate == null) {
+            return LATEST_BIRTH_DATE;
+        }
+        return startDate == null ? endDate.minusDays(1) : endDate;
+    }
 
     private void validatePeriod(LocalDate startDate, LocalDate endDate) throws ValidationException {
         if (startDate.isAfter(endDate)) {
@@ -0,0 +1,72 @@
+package com.krasnopolskyi.usersapitask.sharding;
+
+import java.util.Locale;
+
+/**
+ * Maps users to partitions.
+ *
+ * <p>A new user is placed by the hash of its email, so the uniqueness check of an email only has to look at one
+ * partition. Its id then carries the partition in its low {@value #SHARD_BITS} bits above which sits the
+ * auto-increment id of the partition's table, so every later point operation is routed by the id alone.
+ * Ids stay valid if the number of partitions grows, emails of existing users however have to be moved to the
+ * partition of their new hash before one can rely on the email routing again.</p>
+ */
+public final class ShardRouter {
+    public static final int SHARD_BITS = 10;
+    public static final int MAX_SHARDS = 1 << SHARD_BITS;
+    private static final long SHARD_MASK = MAX_SHARDS - 1;
+
+    private final int shardCount;
+
+    public ShardRouter(int shardCount) {
+        if (shardCount < 1 || shardCount > MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard count should be between 1 and " + MAX_SHARDS);
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * @param email The email of the user, compared case-insensitively.
+     * @return The partition holding the user with this email, if any.
+     */
+    public int shardOfEmail(String email) {
+        int hash = email.toLowerCase(Locale.ROOT).hashCode();
+        // murmur3 finalizer, String.hashCode alone clusters similar emails
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, shardCount);
+    }
+
+    /**
+     * @param id A global user id.
+     * @return The partition of the user, or -1 if the id cannot belong to any partition.
+     */
+    public int shardOfId(long id) {
+        int shard = (int) (id & SHARD_MASK);
+        return id > 0 && shard < shardCount ? shard : -1;
+    }
+
+    /**
+     * @param id A global user id.
+     * @return The id of the user within its partition's table.
+     */
+    public long localId(long id) {
+        return id >>> SHARD_BITS;
+    }
+
+    /**
+     * @param shard   The partition of the user.
+     * @param localId The id of the user within the partition's table.
+     * @return The global id of the user.
+     */
+    public long globalId(int shard, long localId) {
+        return localId << SHARD_BITS | shard;
+    }
+}
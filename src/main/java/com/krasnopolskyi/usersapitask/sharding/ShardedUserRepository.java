@@ -0,0 +1,308 @@
+package com.krasnopolskyi.usersapitask.sharding;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.repository.BirthMonthCount;
+import com.krasnopolskyi.usersapitask.repository.UserBirthDateView;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import com.krasnopolskyi.usersapitask.repository.UserSearchView;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.*;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * {@link UserRepository} backed by a {@link ShardedUserStore}, so that the services run unchanged on the
+ * partitions instead of the users table.
+ *
+ * <p>The derived queries keep their JPA semantics: {@code After} and {@code Before} exclude the date itself,
+ * {@code Between} includes both ends. Entities are detached, changes only take effect through {@code save}, and
+ * every call commits on its partition at once, outside the surrounding JPA transaction. The outbox written in that
+ * transaction would therefore not be atomic with the change, so sharding requires it to be disabled. Sorting or paging {@code findAll} and query by example are not supported,
+ * the services use neither.</p>
+ */
+@RequiredArgsConstructor
+public class ShardedUserRepository implements UserRepository {
+    private final ShardedUserStore store;
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return store.existsByEmail(email);
+    }
+
+    @Override
+    public List<String> findExistingEmails(Collection<String> emails) {
+        return store.findExistingEmails(emails);
+    }
+
+    @Override
+    public List<User> findAllByBirthDateAfter(LocalDate date) {
+        return store.findAllByBirthDate(date, false, null, false);
+    }
+
+    @Override
+    public List<User> findAllByBirthDateBefore(LocalDate date) {
+        return store.findAllByBirthDate(null, false, date, false);
+    }
+
+    @Override
+    public List<User> findAllByBirthDateBetween(LocalDate startDate, LocalDate endDate) {
+        return store.findAllByBirthDateBetween(startDate, endDate);
+    }
+
+    @Override
+    public List<User> findAllByBirthDateBetweenOrderByBirthDateAscIdAsc(LocalDate startDate, LocalDate endDate) {
+        return store.findAllByBirthDateBetween(startDate, endDate);
+    }
+
+    @Override
+    public List<User> findAllByBirthDateBetween(LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return store.findAllByBirthDateBetween(startDate, endDate);
+        }
+        return store.findAllByBirthDateBetween(startDate, endDate, pageable.getOffset(), pageable.getPageSize());
+    }
+
+    @Override
+    public List<BirthMonthCount> countByBirthMonth() {
+        List<BirthMonthCount> counts = new ArrayList<>();
+        store.countByBirthMonth().forEach((month, users) ->
+                counts.add(new MonthCount(month.getYear(), month.getMonthValue(), users)));
+        return counts;
+    }
+
+    @Override
+    public Stream<UserSearchView> streamSearchViews() {
+        return store.streamAll().map(SearchView::new);
+    }
+
+    @Override
+    public Stream<UserBirthDateView> streamBirthDates() {
+        return store.streamAll().map(BirthDateView::new);
+    }
+
+    @Override
+    public Stream<User> streamAllByBirthDateBetween(LocalDate startDate, LocalDate endDate) {
+        return store.streamAllByBirthDateBetween(startDate, endDate);
+    }
+
+    @Override
+    public <S extends User> S save(S entity) {
+        store.save(entity);
+        return entity;
+    }
+
+    @Override
+    public <S extends User> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    @Override
+    public <S extends User> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+
+    @Override
+    public <S extends User> List<S> saveAllAndFlush(Iterable<S> entities) {
+        return saveAll(entities);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return store.findById(id);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return store.findById(id).isPresent();
+    }
+
+    @Override
+    public List<User> findAll() {
+        return store.findAll();
+    }
+
+    @Override
+    public List<User> findAll(Sort sort) {
+        throw notSupported("Sorting all users");
+    }
+
+    @Override
+    public Page<User> findAll(Pageable pageable) {
+        throw notSupported("Paging all users");
+    }
+
+    @Override
+    public List<User> findAllById(Iterable<Long> ids) {
+        List<Long> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        return store.findAllById(idList);
+    }
+
+    @Override
+    public long count() {
+        return store.count();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        store.deleteById(id);
+    }
+
+    @Override
+    public void delete(User entity) {
+        store.deleteById(entity.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        ids.forEach(store::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends User> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        store.findAll().forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<User> entities) {
+        deleteAll(entities);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    @Override
+    public void flush() {
+        // every change is committed on its partition when it is saved
+    }
+
+    @Override
+    @Deprecated
+    public User getOne(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public User getById(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    public User getReferenceById(Long id) {
+        return store.findById(id).orElseThrow(() -> new EntityNotFoundException("Not found user with id " + id));
+    }
+
+    @Override
+    public <S extends User> Optional<S> findOne(Example<S> example) {
+        throw notSupported("Query by example");
+    }
+
+    @Override
+    public <S extends User> List<S> findAll(Example<S> example) {
+        throw notSupported("Query by example");
+    }
+
+    @Override
+    public <S extends User> List<S> findAll(Example<S> example, Sort sort) {
+        throw notSupported("Query by example");
+    }
+
+    @Override
+    public <S extends User> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw notSupported("Query by example");
+    }
+
+    @Override
+    public <S extends User> long count(Example<S> example) {
+        throw notSupported("Query by example");
+    }
+
+    @Override
+    public <S extends User> boolean exists(Example<S> example) {
+        throw notSupported("Query by example");
+    }
+
+    @Override
+    public <S extends User, R> R findBy(Example<S> example,
+                                        Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw notSupported("Query by example");
+    }
+
+    private static UnsupportedOperationException notSupported(String operation) {
+        return new UnsupportedOperationException(operation + " is not supported by the sharded user store");
+    }
+
+    private record MonthCount(Integer year, Integer month, Long users) implements BirthMonthCount {
+        @Override
+        public Integer getYear() {
+            return year;
+        }
+
+        @Override
+        public Integer getMonth() {
+            return month;
+        }
+
+        @Override
+        public Long getUsers() {
+            return users;
+        }
+    }
+
+    private record SearchView(User user) implements UserSearchView {
+        @Override
+        public Long getId() {
+            return user.getId();
+        }
+
+        @Override
+        public String getEmail() {
+            return user.getEmail();
+        }
+
+        @Override
+        public String getFirstname() {
+            return user.getFirstname();
+        }
+
+        @Override
+        public String getLastname() {
+            return user.getLastname();
+        }
+    }
+
+    private record BirthDateView(User user) implements UserBirthDateView {
+        @Override
+        public Long getId() {
+            return user.getId();
+        }
+
+        @Override
+        public LocalDate getBirthDate() {
+            return user.getBirthDate();
+        }
+    }
+}
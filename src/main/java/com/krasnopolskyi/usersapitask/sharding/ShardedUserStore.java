@@ -0,0 +1,477 @@
+package com.krasnopolskyi.usersapitask.sharding;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Stores users in several partitions, each a users table in a database of its own.
+ *
+ * <p>Point operations go to the single partition chosen by {@link ShardRouter}. Range queries are sent to all
+ * partitions in parallel, each returns its users sorted by birth date and id, and the sorted results are merged,
+ * so the caller sees the same order as from one table.</p>
+ *
+ * <p>The store owns its data sources and closes those that are closeable on {@link #close()}.</p>
+ */
+public class ShardedUserStore implements AutoCloseable {
+    private static final String COLUMNS = "id, email, firstname, lastname, birth_date, address, phone_number";
+    private static final String INSERT = "INSERT INTO users "
+            + "(email, firstname, lastname, birth_date, address, phone_number) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_WITH_ID = "INSERT INTO users "
+            + "(id, email, firstname, lastname, birth_date, address, phone_number) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE = "UPDATE users SET firstname = ?, lastname = ?, birth_date = ?, "
+            + "address = ?, phone_number = ? WHERE id = ?";
+    private static final int SCAN_FETCH_SIZE = 1000;
+    private static final Comparator<User> BIRTH_DATE_ORDER =
+            Comparator.comparing(User::getBirthDate).thenComparing(User::getId);
+
+    private final List<DataSource> dataSources;
+    private final List<JdbcTemplate> shards;
+    private final ShardRouter router;
+    private final ExecutorService executor;
+
+    /**
+     * @param dataSources The partitions, in a fixed order: the position of a data source is its partition number.
+     * @param threads     The number of threads querying the partitions in parallel.
+     */
+    public ShardedUserStore(List<DataSource> dataSources, int threads) {
+        this.dataSources = List.copyOf(dataSources);
+        this.shards = this.dataSources.stream().map(JdbcTemplate::new).toList();
+        this.router = new ShardRouter(shards.size());
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-shards");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ShardRouter getRouter() {
+        return router;
+    }
+
+    /**
+     * Creates the users table in every partition where it does not exist yet.
+     */
+    public void initSchema() {
+        ResourceDatabasePopulator populator =
+                new ResourceDatabasePopulator(new ClassPathResource("db/sharding/users-shard.sql"));
+        dataSources.forEach(populator::execute);
+    }
+
+    /**
+     * Inserts a new user into the partition of its email.
+     *
+     * @param user The user to insert, without id.
+     * @return The same user with its global id set.
+     */
+    public User insert(User user) {
+        int shard = router.shardOfEmail(user.getEmail());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        shards.get(shard).update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS);
+            statement.setString(1, user.getEmail());
+            statement.setString(2, user.getFirstname());
+            statement.setString(3, user.getLastname());
+            statement.setDate(4, Date.valueOf(user.getBirthDate()));
+            statement.setString(5, user.getAddress());
+            statement.setString(6, user.getPhoneNumber());
+            return statement;
+        }, keyHolder);
+        user.setId(router.globalId(shard, keyHolder.getKeyAs(Number.class).longValue()));
+        return user;
+    }
+
+    /**
+     * @param email The email to check.
+     * @return {@code true} if a user with this email exists, looking only at the partition of the email.
+     */
+    public boolean existsByEmail(String email) {
+        return Boolean.TRUE.equals(shards.get(router.shardOfEmail(email))
+                .queryForObject("SELECT EXISTS (SELECT 1 FROM users WHERE email = ?)", Boolean.class, email));
+    }
+
+    /**
+     * @param emails The emails to check.
+     * @return Those of the emails that belong to a user, looking at each email's partition only.
+     */
+    public List<String> findExistingEmails(Collection<String> emails) {
+        Map<Integer, List<String>> emailsByShard = emails.stream()
+                .distinct()
+                .collect(Collectors.groupingBy(router::shardOfEmail));
+        return scatter(emailsByShard.keySet(), shard -> {
+            List<String> shardEmails = emailsByShard.get(shard);
+            String placeholders = String.join(",", Collections.nCopies(shardEmails.size(), "?"));
+            return shards.get(shard).queryForList("SELECT email FROM users WHERE email IN (" + placeholders + ")",
+                    String.class, shardEmails.toArray());
+        }).stream().flatMap(List::stream).toList();
+    }
+
+    /**
+     * Inserts a user without id, or updates the user with its id. A user with an id that is not stored yet, one
+     * restored from elsewhere, is inserted with that id into the partition the id points to.
+     *
+     * @param user The user to save.
+     * @return The same user, with its global id set.
+     */
+    public User save(User user) {
+        if (user.getId() == null) {
+            return insert(user);
+        }
+        int shard = router.shardOfId(user.getId());
+        if (shard < 0) {
+            throw new IllegalArgumentException("User id " + user.getId() + " belongs to no partition");
+        }
+        if (!update(user)) {
+            shards.get(shard).update(INSERT_WITH_ID, router.localId(user.getId()), user.getEmail(),
+                    user.getFirstname(), user.getLastname(), Date.valueOf(user.getBirthDate()), user.getAddress(),
+                    user.getPhoneNumber());
+        }
+        return user;
+    }
+
+    /**
+     * @param id The global id of the user.
+     * @return The user, if found.
+     */
+    public Optional<User> findById(long id) {
+        int shard = router.shardOfId(id);
+        if (shard < 0) {
+            return Optional.empty();
+        }
+        return shards.get(shard).query("SELECT " + COLUMNS + " FROM users WHERE id = ?",
+                rowMapper(shard), router.localId(id)).stream().findFirst();
+    }
+
+    /**
+     * Fetches several users, querying the partitions involved in parallel.
+     *
+     * @param ids The global ids of the users.
+     * @return The existing users in the order of the ids. Unknown ids are skipped.
+     */
+    public List<User> findAllById(Collection<Long> ids) {
+        Map<Integer, List<Long>> localIdsByShard = ids.stream()
+                .distinct()
+                .filter(id -> router.shardOfId(id) >= 0)
+                .collect(Collectors.groupingBy(router::shardOfId,
+                        Collectors.mapping(router::localId, Collectors.toList())));
+        List<List<User>> results = scatter(localIdsByShard.keySet(), shard -> {
+            List<Long> localIds = localIdsByShard.get(shard);
+            String placeholders = String.join(",", Collections.nCopies(localIds.size(), "?"));
+            return shards.get(shard).query("SELECT " + COLUMNS + " FROM users WHERE id IN (" + placeholders + ")",
+                    rowMapper(shard), localIds.toArray());
+        });
+        Map<Long, User> usersById = results.stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return ids.stream().distinct().map(usersById::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Updates every column of an existing user but the email, which decides its partition.
+     *
+     * @param user The user with its global id.
+     * @return {@code true} if the user existed.
+     */
+    public boolean update(User user) {
+        int shard = router.shardOfId(user.getId());
+        return shard >= 0 && shards.get(shard).update(UPDATE, user.getFirstname(), user.getLastname(),
+                Date.valueOf(user.getBirthDate()), user.getAddress(), user.getPhoneNumber(),
+                router.localId(user.getId())) > 0;
+    }
+
+    /**
+     * @param id The global id of the user.
+     * @return {@code true} if the user existed and has been deleted.
+     */
+    public boolean deleteById(long id) {
+        int shard = router.shardOfId(id);
+        return shard >= 0 && shards.get(shard).update("DELETE FROM users WHERE id = ?", router.localId(id)) > 0;
+    }
+
+    /**
+     * Finds the users born within the period in all partitions.
+     *
+     * @param from The start of the period, inclusive.
+     * @param to   The end of the period, inclusive.
+     * @return The users ordered by birth date and id.
+     */
+    public List<User> findAllByBirthDateBetween(LocalDate from, LocalDate to) {
+        return findAllByBirthDate(from, true, to, true);
+    }
+
+    /**
+     * Finds the users born within a period in all partitions.
+     *
+     * @param from          The start of the period, {@code null} if open.
+     * @param fromInclusive Whether users born on the start date are included.
+     * @param to            The end of the period, {@code null} if open.
+     * @param toInclusive   Whether users born on the end date are included.
+     * @return The users ordered by birth date and id.
+     */
+    public List<User> findAllByBirthDate(LocalDate from, boolean fromInclusive, LocalDate to, boolean toInclusive) {
+        return findAllByBirthDate(from, fromInclusive, to, toInclusive, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reads one page of the users born within the period. Every partition returns its first
+     * {@code offset + limit} users, so deep pages get more expensive, as with {@code OFFSET} on one table.
+     *
+     * @param from   The start of the period, inclusive.
+     * @param to     The end of the period, inclusive.
+     * @param offset The number of users to skip.
+     * @param limit  The maximum number of users to return.
+     * @return The users of the page ordered by birth date and id.
+     */
+    public List<User> findAllByBirthDateBetween(LocalDate from, LocalDate to, long offset, int limit) {
+        int firstRows = (int) Math.min(Integer.MAX_VALUE, offset + limit);
+        List<User> users = findAllByBirthDate(from, true, to, true, firstRows);
+        return users.subList((int) Math.min(offset, users.size()), Math.min(firstRows, users.size()));
+    }
+
+    /**
+     * @return The number of users per month of birth in all partitions.
+     */
+    public Map<YearMonth, Long> countByBirthMonth() {
+        List<List<Map<String, Object>>> results = scatter(allShards(), shard -> shards.get(shard).queryForList(
+                "SELECT YEAR(birth_date) AS birth_year, MONTH(birth_date) AS birth_month, COUNT(*) AS users "
+                        + "FROM users GROUP BY YEAR(birth_date), MONTH(birth_date)"));
+        Map<YearMonth, Long> counts = new HashMap<>();
+        for (List<Map<String, Object>> rows : results) {
+            for (Map<String, Object> row : rows) {
+                counts.merge(YearMonth.of(((Number) row.get("birth_year")).intValue(),
+                        ((Number) row.get("birth_month")).intValue()), ((Number) row.get("users")).longValue(),
+                        Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @return Every user of every partition, ordered by partition and local id.
+     */
+    public List<User> findAll() {
+        return scatter(allShards(), shard -> shards.get(shard).query(
+                "SELECT " + COLUMNS + " FROM users ORDER BY id", rowMapper(shard)))
+                .stream().flatMap(List::stream).toList();
+    }
+
+    /**
+     * Streams every user of every partition without buffering a table. Each partition is read through a cursor of
+     * its own, and the partitions are merged as they are read. The stream holds one connection per partition and
+     * must be closed.
+     *
+     * @return Every user, ordered by global id.
+     */
+    public Stream<User> streamAll() {
+        return streamMerged("SELECT " + COLUMNS + " FROM users ORDER BY id",
+                Comparator.comparing(User::getId));
+    }
+
+    /**
+     * Streams the users born within a period from every partition, like {@link #streamAll()}.
+     *
+     * @param from The start of the period, inclusive.
+     * @param to   The end of the period, inclusive.
+     * @return The users ordered by birth date and id.
+     */
+    public Stream<User> streamAllByBirthDateBetween(LocalDate from, LocalDate to) {
+        return streamMerged("SELECT " + COLUMNS + " FROM users WHERE birth_date BETWEEN ? AND ? "
+                + "ORDER BY birth_date, id", BIRTH_DATE_ORDER, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * @return The number of users in all partitions.
+     */
+    public long count() {
+        return scatter(allShards(), shard -> shards.get(shard).queryForObject("SELECT COUNT(*) FROM users", Long.class))
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    @Override
+    public void close() throws Exception {
+        executor.shutdownNow();
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * Merges lists that are each sorted by birth date and id into one sorted list.
+     * Ids of one partition grow with their local ids, so the order within a partition holds for the global ids.
+     */
+    static List<User> merge(List<List<User>> sortedLists) {
+        record Cursor(List<User> users, int position) {
+            User current() {
+                return users.get(position);
+            }
+        }
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Comparator.comparing(Cursor::current, BIRTH_DATE_ORDER));
+        int size = 0;
+        for (List<User> users : sortedLists) {
+            size += users.size();
+            if (!users.isEmpty()) {
+                heap.add(new Cursor(users, 0));
+            }
+        }
+        List<User> merged = new ArrayList<>(size);
+        while (!heap.isEmpty()) {
+            Cursor cursor = heap.poll();
+            merged.add(cursor.current());
+            if (cursor.position() + 1 < cursor.users().size()) {
+                heap.add(new Cursor(cursor.users(), cursor.position() + 1));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Merges iterators that are each sorted in the given order, reading each one only as far as the merged order
+     * needs.
+     */
+    static Iterator<User> mergeSorted(List<Iterator<User>> sortedIterators, Comparator<User> order) {
+        record Cursor(User current, Iterator<User> rest) {
+        }
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Comparator.comparing(Cursor::current, order));
+        for (Iterator<User> iterator : sortedIterators) {
+            if (iterator.hasNext()) {
+                heap.add(new Cursor(iterator.next(), iterator));
+            }
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heap.isEmpty();
+            }
+
+            @Override
+            public User next() {
+                Cursor cursor = heap.poll();
+                if (cursor == null) {
+                    throw new NoSuchElementException();
+                }
+                if (cursor.rest().hasNext()) {
+                    heap.add(new Cursor(cursor.rest().next(), cursor.rest()));
+                }
+                return cursor.current();
+            }
+        };
+    }
+
+    // local ids in order are global ids in order within a partition, so each partition can sort by its own ids
+    private Stream<User> streamMerged(String sql, Comparator<User> order, Object... arguments) {
+        List<Stream<User>> streams = new ArrayList<>(shards.size());
+        try {
+            for (int shard = 0; shard < shards.size(); shard++) {
+                streams.add(streamShard(shard, sql, arguments));
+            }
+        } catch (RuntimeException exception) {
+            streams.forEach(Stream::close);
+            throw exception;
+        }
+        Iterator<User> merged = mergeSorted(streams.stream().map(Stream::iterator).toList(), order);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false)
+                .onClose(() -> streams.forEach(Stream::close));
+    }
+
+    private Stream<User> streamShard(int shard, String sql, Object... arguments) {
+        return shards.get(shard).queryForStream(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            for (int i = 0; i < arguments.length; i++) {
+                statement.setObject(i + 1, arguments[i]);
+            }
+            statement.setFetchSize(scanFetchSize(connection));
+            return statement;
+        }, rowMapper(shard));
+    }
+
+    // MySQL Connector/J streams row by row only with a fetch size of Integer.MIN_VALUE, which other drivers reject
+    private static int scanFetchSize(Connection connection) throws SQLException {
+        return "MySQL".equals(connection.getMetaData().getDatabaseProductName()) ? Integer.MIN_VALUE : SCAN_FETCH_SIZE;
+    }
+
+    private List<User> findAllByBirthDate(LocalDate from, boolean fromInclusive, LocalDate to, boolean toInclusive,
+                                          int limit) {
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM users WHERE 1 = 1");
+        List<Object> arguments = new ArrayList<>(3);
+        if (from != null) {
+            sql.append(fromInclusive ? " AND birth_date >= ?" : " AND birth_date > ?");
+            arguments.add(Date.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(toInclusive ? " AND birth_date <= ?" : " AND birth_date < ?");
+            arguments.add(Date.valueOf(to));
+        }
+        sql.append(" ORDER BY birth_date, id");
+        if (limit < Integer.MAX_VALUE) {
+            sql.append(" LIMIT ?");
+            arguments.add(limit);
+        }
+        List<List<User>> results = scatter(allShards(), shard -> shards.get(shard).query(
+                sql.toString(), rowMapper(shard), arguments.toArray()));
+        return merge(results);
+    }
+
+    private List<Integer> allShards() {
+        List<Integer> all = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            all.add(shard);
+        }
+        return all;
+    }
+
+    private <T> List<T> scatter(Collection<Integer> targetShards, Function<Integer, T> query) {
+        if (targetShards.size() == 1) {
+            return List.of(query.apply(targetShards.iterator().next()));
+        }
+        List<CompletableFuture<T>> futures = targetShards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), executor))
+                .toList();
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException exception) {
+            futures.forEach(future -> future.cancel(true));
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exception;
+        }
+    }
+
+    private RowMapper<User> rowMapper(int shard) {
+        return (resultSet, rowNum) -> User.builder()
+                .id(router.globalId(shard, resultSet.getLong("id")))
+                .email(resultSet.getString("email"))
+                .firstname(resultSet.getString("firstname"))
+                .lastname(resultSet.getString("lastname"))
+                .birthDate(resultSet.getDate("birth_date").toLocalDate())
+                .address(resultSet.getString("address"))
+                .phoneNumber(resultSet.getString("phone_number"))
+                .build();
+    }
+}
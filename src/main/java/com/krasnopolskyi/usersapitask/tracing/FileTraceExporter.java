@@ -0,0 +1,112 @@
+package com.krasnopolskyi.usersapitask.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Appends the kept traces to a file, one JSON object per line.
+ *
+ * <p>Request threads only offer the trace to a bounded queue and a background thread writes it, so a slow disk
+ * drops traces instead of slowing requests down. Once the file exceeds {@code maxBytes} it is renamed to
+ * {@code <file>.1}, replacing the previous one, and a new file is started.</p>
+ */
+@Slf4j
+public class FileTraceExporter implements TraceExporter, Closeable {
+    private static final int DRAIN_BATCH = 256;
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+    private final long maxBytes;
+    private final BlockingQueue<TraceData> queue;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public FileTraceExporter(ObjectMapper objectMapper, Path path, int queueCapacity, long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.path = path;
+        this.maxBytes = maxBytes;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = new Thread(this::write, "trace-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void export(TraceData trace) {
+        if (!queue.offer(trace)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * @return The traces dropped because the queue was full.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Writes the traces still queued and stops the writer.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write() {
+        List<TraceData> batch = new ArrayList<>(DRAIN_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                TraceData first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, DRAIN_BATCH - 1);
+                append(batch);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException exception) {
+                log.warn("Traces could not be written to " + path, exception);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void append(List<TraceData> traces) throws IOException {
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        if (Files.exists(path) && Files.size(path) >= maxBytes) {
+            Files.move(path, path.resolveSibling(path.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        }
+        try (OutputStream out = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (TraceData trace : traces) {
+                out.write(objectMapper.writeValueAsBytes(trace));
+                out.write('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.krasnopolskyi.usersapitask.tracing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Keeps the most recent kept traces in memory, for {@code GET /traces}. Older traces are dropped.
+ */
+public class InMemoryTraceExporter implements TraceExporter {
+    private final int capacity;
+    private final ArrayDeque<TraceData> traces;
+
+    public InMemoryTraceExporter(int capacity) {
+        this.capacity = capacity;
+        this.traces = new ArrayDeque<>(capacity);
+    }
+
+    @Override
+    public synchronized void export(TraceData trace) {
+        if (traces.size() == capacity) {
+            traces.pollFirst();
+        }
+        traces.addLast(trace);
+    }
+
+    /**
+     * @param limit The number of traces wanted.
+     * @return Up to {@code limit} traces, the most recent first.
+     */
+    public synchronized List<TraceData> recent(int limit) {
+        List<TraceData> recent = new ArrayList<>(Math.min(limit, traces.size()));
+        Iterator<TraceData> newestFirst = traces.descendingIterator();
+        while (newestFirst.hasNext() && recent.size() < limit) {
+            recent.add(newestFirst.next());
+        }
+        return recent;
+    }
+}
@@ -0,0 +1,121 @@
+package com.krasnopolskyi.usersapitask.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One timed operation of a trace, ended by {@link #close()} so it fits a try-with-resources block.
+ *
+ * <p>Spans are confined to the thread of their trace and are not thread-safe. Outside of a trace the
+ * {@link #NOOP} span is handed out, which records nothing.</p>
+ */
+public final class Span implements AutoCloseable {
+    /** The span handed out when nothing is traced. */
+    public static final Span NOOP = new Span(null, null, null, 0, null, 0);
+
+    private final Tracer tracer;
+    private final Trace trace;
+    private final Span parent;
+    private final int id;
+    private final long startNanos;
+    private String name;
+    private long durationNanos = -1;
+    private String error;
+    private Map<String, Object> attributes;
+
+    Span(Tracer tracer, Trace trace, Span parent, int id, String name, long startNanos) {
+        this.tracer = tracer;
+        this.trace = trace;
+        this.parent = parent;
+        this.id = id;
+        this.name = name;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * @return {@code false} for the {@link #NOOP} span, so that expensive attributes can be skipped.
+     */
+    public boolean isRecording() {
+        return trace != null;
+    }
+
+    public Span setName(String name) {
+        if (isOpen()) {
+            this.name = name;
+        }
+        return this;
+    }
+
+    public Span setAttribute(String key, Object value) {
+        if (isOpen()) {
+            if (attributes == null) {
+                attributes = new LinkedHashMap<>(4);
+            }
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    /**
+     * Marks the span as failed. A failed root span keeps its trace regardless of its duration.
+     */
+    public Span setError(Throwable throwable) {
+        return setError(throwable.getClass().getSimpleName()
+                + (throwable.getMessage() != null ? ": " + throwable.getMessage() : ""));
+    }
+
+    public Span setError(String error) {
+        if (isOpen()) {
+            this.error = error;
+        }
+        return this;
+    }
+
+    /**
+     * Ends the span. Ending it again has no effect.
+     */
+    @Override
+    public void close() {
+        if (isOpen()) {
+            durationNanos = Math.max(0, tracer.nanoTime() - startNanos);
+            tracer.end(this);
+        }
+    }
+
+    // an ended span is no longer changed, it may already be exported
+    private boolean isOpen() {
+        return trace != null && durationNanos < 0;
+    }
+
+    Trace trace() {
+        return trace;
+    }
+
+    Span parent() {
+        return parent;
+    }
+
+    int id() {
+        return id;
+    }
+
+    String name() {
+        return name;
+    }
+
+    long startNanos() {
+        return startNanos;
+    }
+
+    long durationNanos() {
+        return durationNanos;
+    }
+
+    String error() {
+        return error;
+    }
+
+    Map<String, Object> attributes() {
+        return attributes;
+    }
+}
@@ -0,0 +1,74 @@
+package com.krasnopolskyi.usersapitask.tracing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The spans of one request while it runs, in the order they were started. The first span is the root.
+ */
+final class Trace {
+    private final String traceId;
+    private final long startEpochMillis;
+    private final List<Span> spans = new ArrayList<>();
+    private Span current;
+    private int droppedSpans;
+
+    Trace(String traceId, long startEpochMillis) {
+        this.traceId = traceId;
+        this.startEpochMillis = startEpochMillis;
+    }
+
+    String traceId() {
+        return traceId;
+    }
+
+    Span root() {
+        return spans.get(0);
+    }
+
+    Span current() {
+        return current;
+    }
+
+    void setCurrent(Span current) {
+        this.current = current;
+    }
+
+    int spanCount() {
+        return spans.size();
+    }
+
+    int nextSpanId() {
+        return spans.size() + 1;
+    }
+
+    void add(Span span) {
+        spans.add(span);
+    }
+
+    void dropSpan() {
+        droppedSpans++;
+    }
+
+    /**
+     * @return The trace as it is exported, with times relative to the start of the root span. Spans still
+     *         running have a duration of -1, the attributes are copied as they may still change.
+     */
+    TraceData toData() {
+        Span root = root();
+        List<TraceData.SpanData> data = new ArrayList<>(spans.size());
+        for (Span span : spans) {
+            Map<String, Object> attributes = span.attributes() == null
+                    ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(span.attributes()));
+            data.add(new TraceData.SpanData(span.id(), span.parent() == null ? 0 : span.parent().id(), span.name(),
+                    (span.startNanos() - root.startNanos()) / 1000,
+                    span.durationNanos() < 0 ? -1 : span.durationNanos() / 1000,
+                    span.error(), attributes));
+        }
+        return new TraceData(traceId, root.name(), startEpochMillis, root.durationNanos() / 1000,
+                root.error() != null, droppedSpans, data);
+    }
+}
@@ -0,0 +1,32 @@
+package com.krasnopolskyi.usersapitask.tracing;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A finished trace as it is exported, all times in microseconds.
+ *
+ * @param traceId          The W3C trace id, 32 hex digits.
+ * @param name             The name of the root span, e.g. 'GET /users/{id}'.
+ * @param startEpochMillis When the root span started.
+ * @param durationMicros   How long the root span took.
+ * @param error            Whether the root span failed.
+ * @param droppedSpans     Spans not recorded because the trace had reached its maximum number of spans.
+ * @param spans            The spans in the order they were started, the root first.
+ */
+public record TraceData(String traceId, String name, long startEpochMillis, long durationMicros, boolean error,
+                        int droppedSpans, List<SpanData> spans) {
+
+    /**
+     * @param id             The id of the span within its trace, starting at 1 for the root.
+     * @param parentId       The id of the parent span, 0 for the root.
+     * @param name           The operation, e.g. 'UserRepository.findById' or 'sql'.
+     * @param startMicros    When the span started, relative to the start of the root span.
+     * @param durationMicros How long the span took, -1 if it had not ended when the root span did.
+     * @param error          Why the span failed, {@code null} if it did not.
+     * @param attributes     Details such as the SQL statement and the number of rows it returned.
+     */
+    public record SpanData(int id, int parentId, String name, long startMicros, long durationMicros, String error,
+                           Map<String, Object> attributes) {
+    }
+}
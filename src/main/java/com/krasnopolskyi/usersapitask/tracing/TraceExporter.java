@@ -0,0 +1,11 @@
+package com.krasnopolskyi.usersapitask.tracing;
+
+/**
+ * Receives the traces kept by the tail sampling of the {@link Tracer}.
+ *
+ * <p>Called on the request thread once the response is complete, so implementations must not block.</p>
+ */
+public interface TraceExporter {
+
+    void export(TraceData trace);
+}
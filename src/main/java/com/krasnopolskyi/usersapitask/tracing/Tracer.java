@@ -0,0 +1,184 @@
+package com.krasnopolskyi.usersapitask.tracing;
+
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the spans of a request on its thread and decides at the end of the request whether to keep them.
+ *
+ * <p>Every request is traced in full (100% sampling) into plain objects on the request thread, without any
+ * synchronisation. Only when its root span ends is the trace sampled, by its outcome: failed and slow traces
+ * (at least {@code slowMillis}) are exported, of the others only a {@code sampleRate} share. Work on other
+ * threads, such as the batched loads of the user loader, is not part of the trace; the request thread shows up
+ * waiting for it.</p>
+ *
+ * <p>Spans started while no trace runs on the thread are the {@link Span#NOOP} span, so instrumented code
+ * running in background jobs costs a thread-local lookup.</p>
+ */
+public class Tracer {
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final ThreadLocal<Trace> current = new ThreadLocal<>();
+    private final TraceExporter exporter;
+    private final long slowNanos;
+    private final double sampleRate;
+    private final int maxSpans;
+    private final LongAdder traces = new LongAdder();
+    private final LongAdder keptTraces = new LongAdder();
+    private final LongAdder failedExports = new LongAdder();
+
+    /**
+     * Counters since startup.
+     *
+     * @param traces        The traces recorded.
+     * @param keptTraces    The traces kept by the sampling and handed to the exporter.
+     * @param failedExports The kept traces the exporter failed on.
+     */
+    public record Stats(long traces, long keptTraces, long failedExports) {
+    }
+
+    /**
+     * @param exporter   Receives the kept traces.
+     * @param slowMillis The duration from which a trace is kept, 0 keeps every trace.
+     * @param sampleRate The share of the faster traces that is kept as well, between 0 and 1.
+     * @param maxSpans   The spans recorded per trace at most, further spans are only counted.
+     */
+    public Tracer(TraceExporter exporter, long slowMillis, double sampleRate, int maxSpans) {
+        this.exporter = exporter;
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(slowMillis);
+        this.sampleRate = sampleRate;
+        this.maxSpans = maxSpans;
+    }
+
+    /**
+     * Starts a trace on the current thread, or a span of the running one if there is one already.
+     *
+     * @param name        The name of the root span, it can be refined until the span ends.
+     * @param traceparent The W3C {@code traceparent} header of the caller, whose trace id is then continued.
+     *                    Can be {@code null}.
+     * @return The root span, which ends the trace when it is closed.
+     */
+    public Span startTrace(String name, String traceparent) {
+        if (current.get() != null) {
+            return startSpan(name);
+        }
+        String traceId = traceIdOf(traceparent);
+        Trace trace = new Trace(traceId != null ? traceId : newTraceId(), System.currentTimeMillis());
+        Span root = new Span(this, trace, null, trace.nextSpanId(), name, nanoTime());
+        trace.add(root);
+        trace.setCurrent(root);
+        current.set(trace);
+        return root;
+    }
+
+    /**
+     * Starts a child of the current span, which becomes the current span until it is closed.
+     */
+    public Span startSpan(String name) {
+        Span span = newSpan(name);
+        if (span != Span.NOOP) {
+            span.trace().setCurrent(span);
+        }
+        return span;
+    }
+
+    /**
+     * Starts a child of the current span that does not become the current span, for work that ends at some
+     * later point, such as reading a result set.
+     */
+    public Span startDetachedSpan(String name) {
+        return newSpan(name);
+    }
+
+    /**
+     * @return Whether a trace runs on the current thread.
+     */
+    public boolean isTracing() {
+        return current.get() != null;
+    }
+
+    /**
+     * @return The W3C {@code traceparent} header identifying the span, for the response or downstream calls.
+     */
+    public String traceparent(Span span) {
+        if (!span.isRecording()) {
+            return null;
+        }
+        return "00-" + span.trace().traceId() + "-" + HEX.toHexDigits((long) span.id()) + "-01";
+    }
+
+    public Stats stats() {
+        return new Stats(traces.sum(), keptTraces.sum(), failedExports.sum());
+    }
+
+    long nanoTime() {
+        return System.nanoTime();
+    }
+
+    void end(Span span) {
+        Trace trace = span.trace();
+        if (trace.current() == span) {
+            trace.setCurrent(span.parent());
+        }
+        if (span.parent() == null) {
+            current.remove();
+            finish(trace);
+        }
+    }
+
+    private Span newSpan(String name) {
+        Trace trace = current.get();
+        if (trace == null) {
+            return Span.NOOP;
+        }
+        if (trace.spanCount() >= maxSpans) {
+            trace.dropSpan();
+            return Span.NOOP;
+        }
+        Span span = new Span(this, trace, trace.current(), trace.nextSpanId(), name, nanoTime());
+        trace.add(span);
+        return span;
+    }
+
+    // tail sampling, the outcome of the request is known now
+    private void finish(Trace trace) {
+        traces.increment();
+        Span root = trace.root();
+        boolean keep = root.error() != null || root.durationNanos() >= slowNanos
+                || sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        if (!keep) {
+            return;
+        }
+        keptTraces.increment();
+        try {
+            exporter.export(trace.toData());
+        } catch (RuntimeException exception) {
+            failedExports.increment();
+        }
+    }
+
+    private static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return HEX.toHexDigits(random.nextLong()) + HEX.toHexDigits(random.nextLong());
+    }
+
+    // '00-<32 hex trace id>-<16 hex parent id>-<2 hex flags>', an all-zero trace id is invalid
+    private static String traceIdOf(String traceparent) {
+        if (traceparent == null || traceparent.length() != 55 || !traceparent.startsWith("00-")
+                || traceparent.charAt(35) != '-' || traceparent.charAt(52) != '-') {
+            return null;
+        }
+        String traceId = traceparent.substring(3, 35);
+        boolean zero = true;
+        for (int i = 0; i < traceId.length(); i++) {
+            char c = traceId.charAt(i);
+            if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+                return null;
+            }
+            zero &= c == '0';
+        }
+        return zero ? null : traceId;
+    }
+}
@@ -0,0 +1,97 @@
+package com.krasnopolskyi.usersapitask.tracing;
+
+import com.krasnopolskyi.usersapitask.controller.UserController;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import com.krasnopolskyi.usersapitask.service.UserService;
+import com.krasnopolskyi.usersapitask.utils.UserValidator;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Puts spans on the boundaries a user request crosses: every method of the {@link UserController}, the
+ * {@link UserService}, the {@link UserValidator} and the {@link UserRepository} becomes a span named after the
+ * boundary and the method, e.g. {@code UserRepository.findById}, and data sources are wrapped in a
+ * {@link TracingDataSource}.
+ *
+ * <p>Beans that are proxies already, such as the transactional service and the Spring Data repositories, get
+ * the span as their outermost advice, so the span of a service method includes its commit. Other beans get a
+ * class-based proxy. Proxies are generated at runtime, so tracing is not available in the native image.</p>
+ */
+public class TracingBeanPostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<Tracer> tracer;
+
+    public TracingBeanPostProcessor(ObjectProvider<Tracer> tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof DataSource dataSource && !(bean instanceof TracingDataSource)) {
+            return new TracingDataSource(dataSource, tracer.getObject());
+        }
+        String boundary = boundaryOf(bean);
+        if (boundary == null) {
+            return bean;
+        }
+        SpanInterceptor interceptor = new SpanInterceptor(tracer.getObject(), boundary);
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy();
+    }
+
+    private static String boundaryOf(Object bean) {
+        if (bean instanceof UserController) {
+            return "UserController";
+        } else if (bean instanceof UserService) {
+            return "UserService";
+        } else if (bean instanceof UserValidator) {
+            return "UserValidator";
+        } else if (bean instanceof UserRepository) {
+            return "UserRepository";
+        }
+        return null;
+    }
+
+    private static final class SpanInterceptor implements MethodInterceptor {
+        private final Tracer tracer;
+        private final String boundary;
+        private final Map<Method, String> spanNames = new ConcurrentHashMap<>();
+
+        SpanInterceptor(Tracer tracer, String boundary) {
+            this.tracer = tracer;
+            this.boundary = boundary;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Method method = invocation.getMethod();
+            if (!tracer.isTracing() || method.getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            String name = spanNames.computeIfAbsent(method, key -> boundary + "." + key.getName());
+            try (Span span = tracer.startSpan(name)) {
+                try {
+                    return invocation.proceed();
+                } catch (Throwable throwable) {
+                    span.setError(throwable);
+                    throw throwable;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.krasnopolskyi.usersapitask.tracing;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.logging.Logger;
+
+/**
+ * Records the JDBC work of a traced request as spans: waiting for a connection ({@code sql.connection}) and
+ * every statement executed ({@code sql}), with its text, the time to execute it and the rows it affected.
+ * For queries the span lasts until the last row has been read or the result set is closed, and also records the
+ * rows read and the time spent fetching them, which includes the driver reading further packets from the socket.
+ *
+ * <p>Connections, statements and result sets are wrapped in dynamic proxies. A statement executed while no
+ * trace runs on the thread, e.g. by a background job, is passed through without a span and its result set is
+ * not wrapped.</p>
+ */
+public class TracingDataSource implements DataSource {
+    private static final int MAX_STATEMENT_LENGTH = 500;
+
+    private final DataSource delegate;
+    private final Tracer tracer;
+
+    public TracingDataSource(DataSource delegate, Tracer tracer) {
+        this.delegate = delegate;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!tracer.isTracing()) {
+            return traced(delegate.getConnection());
+        }
+        try (Span ignored = tracer.startSpan("sql.connection")) {
+            return traced(delegate.getConnection());
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (!tracer.isTracing()) {
+            return traced(delegate.getConnection(username, password));
+        }
+        try (Span ignored = tracer.startSpan("sql.connection")) {
+            return traced(delegate.getConnection(username, password));
+        }
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) throws SQLException {
+        return type.isInstance(this) ? type.cast(this) : delegate.unwrap(type);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> type) throws SQLException {
+        return type.isInstance(this) || delegate.isWrapperFor(type);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return delegate.getParentLogger();
+    }
+
+    private Connection traced(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                return proxy(method.getReturnType(), statement, new StatementHandler(statement, sql));
+            }
+            return result;
+        });
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String preparedSql;
+        private Span openQuery;
+
+        StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close") && openQuery != null) {
+                openQuery.close();
+            }
+            if (!name.startsWith("execute") || !tracer.isTracing()) {
+                return TracingDataSource.invoke(statement, method, args);
+            }
+            String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+            Span span = tracer.startDetachedSpan("sql")
+                    .setAttribute("statement", sql == null || sql.length() <= MAX_STATEMENT_LENGTH
+                            ? sql : sql.substring(0, MAX_STATEMENT_LENGTH) + "...");
+            long started = System.nanoTime();
+            try {
+                Object result = TracingDataSource.invoke(statement, method, args);
+                span.setAttribute("executeMicros", (System.nanoTime() - started) / 1000);
+                if (result instanceof ResultSet resultSet) {
+                    openQuery = span;
+                    return proxy(ResultSet.class, resultSet, new ResultSetHandler(resultSet, span));
+                }
+                if (result instanceof Number rows) {
+                    span.setAttribute("rows", rows.longValue());
+                } else if (result instanceof int[] counts) {
+                    long rows = 0;
+                    for (int count : counts) {
+                        rows += Math.max(0, count);
+                    }
+                    span.setAttribute("rows", rows).setAttribute("batchSize", counts.length);
+                }
+                span.close();
+                return result;
+            } catch (Throwable throwable) {
+                span.setError(throwable).close();
+                throw throwable;
+            }
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet resultSet;
+        private final Span span;
+        private long rows;
+        private long fetchNanos;
+
+        ResultSetHandler(ResultSet resultSet, Span span) {
+            this.resultSet = resultSet;
+            this.span = span;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("next")) {
+                long started = System.nanoTime();
+                boolean hasRow = (Boolean) TracingDataSource.invoke(resultSet, method, args);
+                fetchNanos += System.nanoTime() - started;
+                if (hasRow) {
+                    rows++;
+                } else {
+                    end();
+                }
+                return hasRow;
+            }
+            if (name.equals("close")) {
+                end();
+            }
+            return TracingDataSource.invoke(resultSet, method, args);
+        }
+
+        private void end() {
+            span.setAttribute("rows", rows).setAttribute("fetchMicros", fetchNanos / 1000).close();
+        }
+    }
+
+    // equals and hashCode keep the identity of the proxy, which JDBC pools and Hibernate use as a map key
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "traced " + target;
+                    default -> handler.invoke(proxy, method, args);
+                }));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException exception) {
+            throw exception.getCause();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.krasnopolskyi.usersapitask.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Starts a trace for every request to the user endpoints, ahead of admission control so that time spent being
+ * admitted counts as well. The root span is named after the matched route, e.g. {@code GET /users/{id}}, and
+ * fails on a 5xx status or an exception escaping the controller. The trace is continued from an incoming
+ * {@code traceparent} header and returned in one.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+@ConditionalOnProperty(name = "users.tracing.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class TracingFilter extends OncePerRequestFilter {
+    private static final String TRACEPARENT = "traceparent";
+
+    private final Tracer tracer;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().substring(request.getContextPath().length()).startsWith("/users");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (Span span = tracer.startTrace(request.getMethod() + " " + request.getRequestURI(),
+                request.getHeader(TRACEPARENT))) {
+            response.setHeader(TRACEPARENT, tracer.traceparent(span));
+            boolean failed = false;
+            try {
+                chain.doFilter(request, response);
+            } catch (IOException | ServletException | RuntimeException exception) {
+                failed = true;
+                span.setError(exception);
+                throw exception;
+            } finally {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                if (pattern != null) {
+                    span.setName(request.getMethod() + " " + pattern);
+                }
+                span.setAttribute("http.status", response.getStatus());
+                if (request.isAsyncStarted()) {
+                    span.setAttribute("async", true);
+                }
+                if (!failed && response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                    span.setError("HTTP " + response.getStatus());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.krasnopolskyi.usersapitask.tracing;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Wraps a Jackson message converter to record reading request bodies ({@code jackson.read}) and writing responses
+ * ({@code jackson.write}) as spans. Writing includes handing the bytes to the servlet output stream, so a client
+ * reading slowly shows up here too.
+ */
+public class TracingMessageConverter implements GenericHttpMessageConverter<Object> {
+    private final GenericHttpMessageConverter<Object> delegate;
+    private final Tracer tracer;
+
+    public TracingMessageConverter(GenericHttpMessageConverter<Object> delegate, Tracer tracer) {
+        this.delegate = delegate;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return delegate.canRead(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return delegate.canRead(type, contextClass, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return delegate.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return delegate.canWrite(type, clazz, mediaType);
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes() {
+        return delegate.getSupportedMediaTypes();
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return delegate.getSupportedMediaTypes(clazz);
+    }
+
+    @Override
+    public Object read(Class<?> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        try (Span span = startSpan("jackson.read", inputMessage.getHeaders().getContentType())) {
+            try {
+                return delegate.read(clazz, inputMessage);
+            } catch (IOException | RuntimeException exception) {
+                span.setError(exception);
+                throw exception;
+            }
+        }
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        try (Span span = startSpan("jackson.read", inputMessage.getHeaders().getContentType())) {
+            try {
+                return delegate.read(type, contextClass, inputMessage);
+            } catch (IOException | RuntimeException exception) {
+                span.setError(exception);
+                throw exception;
+            }
+        }
+    }
+
+    @Override
+    public void write(Object body, MediaType contentType, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        try (Span span = startSpan("jackson.write", contentType)) {
+            try {
+                delegate.write(body, contentType, outputMessage);
+            } catch (IOException | RuntimeException exception) {
+                span.setError(exception);
+                throw exception;
+            }
+        }
+    }
+
+    @Override
+    public void write(Object body, Type type, MediaType contentType, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        try (Span span = startSpan("jackson.write", contentType)) {
+            try {
+                delegate.write(body, type, contentType, outputMessage);
+            } catch (IOException | RuntimeException exception) {
+                span.setError(exception);
+                throw exception;
+            }
+        }
+    }
+
+    private Span startSpan(String name, MediaType mediaType) {
+        Span span = tracer.startSpan(name);
+        if (span.isRecording() && mediaType != null) {
+            span.setAttribute("mediaType", mediaType.toString());
+        }
+        return span;
+    }
+}
@@ -0,0 +1,65 @@
+package com.krasnopolskyi.usersapitask.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * The minimum age rule, bound from {@code age.minimum}.
+ *
+ * <p>Instead of computing an age for every user, the policy keeps the latest birth date that is old enough today
+ * and checks a birth date with a single comparison. The cutoff is recomputed on the first check after midnight of
+ * the clock's zone; until then a check costs one read of {@link Clock#millis()}. It can be used by any path that
+ * validates many users at once, e.g. bulk imports.</p>
+ */
+@Component
+public class AgePolicy {
+    private final int minimumAge;
+    private final Clock clock;
+    private volatile Cutoff cutoff;
+
+    /**
+     * @param latestBirthDate The latest birth date that is old enough.
+     * @param validUntilMillis The next midnight, from when the cutoff has to be recomputed.
+     */
+    private record Cutoff(LocalDate latestBirthDate, long validUntilMillis) {
+    }
+
+    public AgePolicy(@Value("${age.minimum}") int minimumAge, Clock clock) {
+        this.minimumAge = minimumAge;
+        this.clock = clock;
+        this.cutoff = computeCutoff();
+    }
+
+    /**
+     * @return {@code true} if someone born on the date is at least {@code age.minimum} years old today.
+     */
+    public boolean isOldEnough(LocalDate birthDate) {
+        return !birthDate.isAfter(latestAllowedBirthDate());
+    }
+
+    /**
+     * @return The latest birth date that is old enough today, e.g. for range queries or generated data.
+     */
+    public LocalDate latestAllowedBirthDate() {
+        Cutoff current = cutoff;
+        if (clock.millis() >= current.validUntilMillis()) {
+            current = computeCutoff();
+            cutoff = current;
+        }
+        return current.latestBirthDate();
+    }
+
+    public int getMinimumAge() {
+        return minimumAge;
+    }
+
+    // same result as Period.between(birthDate, today).getYears() >= minimumAge, including 29 February
+    private Cutoff computeCutoff() {
+        LocalDate today = LocalDate.now(clock);
+        long nextMidnight = today.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        return new Cutoff(today.minusYears(minimumAge), nextMidnight);
+    }
+}
@@ -0,0 +1,70 @@
+package com.krasnopolskyi.usersapitask.utils;
+
+import com.krasnopolskyi.usersapitask.exception.ValidationException;
+
+public class IdListConvertor {
+
+    private IdListConvertor() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Parses a comma-separated list of ids straight into a sorted, deduplicated primitive array.
+     * No {@code Long} or substring is allocated per id, which matters for batches of millions of ids.
+     *
+     * @param ids    The ids separated by commas, e.g. '3,1,2,3'. Whitespace around ids is ignored.
+     * @param maxIds The maximum number of ids (before deduplication) that may be passed.
+     * @return The distinct ids in ascending order.
+     * @throws ValidationException if the list is empty, too long or contains something else than positive ids.
+     */
+    public static long[] convertIds(String ids, int maxIds) throws ValidationException {
+        if (ids == null || ids.isBlank()) {
+            throw new ValidationException("Ids should not be empty");
+        }
+        LongHashSet distinct = new LongHashSet(Math.min(maxIds, countCommas(ids) + 1));
+        int count = 0;
+        long current = 0;
+        boolean inNumber = false;
+        boolean numberEnded = false;
+        for (int i = 0; i <= ids.length(); i++) {
+            char c = i < ids.length() ? ids.charAt(i) : ',';
+            if (c >= '0' && c <= '9') {
+                if (numberEnded) {
+                    throw new ValidationException("Ids should be separated by commas, see position " + i);
+                }
+                if (current > (Long.MAX_VALUE - (c - '0')) / 10) {
+                    throw new ValidationException("Id is too large at position " + i);
+                }
+                current = current * 10 + (c - '0');
+                inNumber = true;
+            } else if (c == ',') {
+                if (!inNumber || current == 0) {
+                    throw new ValidationException("Ids should be positive numbers separated by commas");
+                }
+                if (++count > maxIds) {
+                    throw new ValidationException("No more than " + maxIds + " ids are allowed");
+                }
+                distinct.add(current);
+                current = 0;
+                inNumber = false;
+                numberEnded = false;
+            } else if (Character.isWhitespace(c)) {
+                numberEnded = inNumber;
+            } else {
+                throw new ValidationException("Invalid character '" + c + "' in ids at position " + i);
+            }
+        }
+        return distinct.toSortedArray();
+    }
+
+    // sizes the set for the ids actually passed, the string length would over-estimate it for ids of many digits
+    private static int countCommas(String ids) {
+        int commas = 0;
+        for (int i = 0; i < ids.length(); i++) {
+            if (ids.charAt(i) == ',') {
+                commas++;
+            }
+        }
+        return commas;
+    }
+}
@@ -0,0 +1,123 @@
+package com.krasnopolskyi.usersapitask.utils;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash set of primitive longs, used to deduplicate large id batches without boxing.
+ *
+ * <p>Not thread-safe. The value 0 marks an empty slot and is tracked separately.</p>
+ */
+public class LongHashSet {
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] slots;
+    private int mask;
+    private int shift;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize The number of elements the set should hold without resizing.
+     */
+    public LongHashSet(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * @return {@code true} if the value was not yet in the set.
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int index = indexOf(value);
+        while (slots[index] != 0) {
+            if (slots[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        slots[index] = value;
+        size++;
+        // keep the load factor at or below 1/2 so probe sequences stay short
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        int index = indexOf(value);
+        while (slots[index] != 0) {
+            if (slots[index] == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return A new array with the elements of the set in ascending order.
+     */
+    public long[] toSortedArray() {
+        long[] values = new long[size];
+        int position = 0;
+        if (containsZero) {
+            values[position++] = 0;
+        }
+        for (long slot : slots) {
+            if (slot != 0) {
+                values[position++] = slot;
+            }
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    private int indexOf(long value) {
+        return (int) ((value * GOLDEN_RATIO) >>> shift);
+    }
+
+    private void rehash(int capacity) {
+        long[] previous = slots;
+        allocate(capacity);
+        for (long value : previous) {
+            if (value != 0) {
+                int index = indexOf(value);
+                while (slots[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                slots[index] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = new long[capacity];
+        mask = capacity - 1;
+        shift = Long.numberOfLeadingZeros(mask);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2 - 1)) << 1;
+        return Math.min(capacity, 1 << 30);
+    }
+}
@@ -4,27 +4,20 @@ import com.krasnopolskyi.usersapitask.exception.MinimumAgeException;
 import com.krasnopolskyi.usersapitask.exception.ValidationException;
 import com.krasnopolskyi.usersapitask.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
-import java.time.Period;
 
 @RequiredArgsConstructor
 @Component
 public class UserValidator {
     private final UserRepository userRepository;
-
-    @Value("${age.minimum}")
-    private static Integer minimumAge;
+    private final AgePolicy agePolicy;
 
     public void validateAge(LocalDate dateOfBirth) throws MinimumAgeException {
-        if (dateOfBirth != null) {
-            Period age = Period.between(dateOfBirth, LocalDate.now());
-            // Check if the person is  up to 18 years old
-            if (age.getYears() < minimumAge) {
-                throw new MinimumAgeException("Age up to 18 years. Sorry, but we couldn't register you");
-            }
+        if (dateOfBirth != null && !agePolicy.isOldEnough(dateOfBirth)) {
+            throw new MinimumAgeException("Age up to " + agePolicy.getMinimumAge()
+                    + " years. Sorry, but we couldn't register you");
         }
     }
 
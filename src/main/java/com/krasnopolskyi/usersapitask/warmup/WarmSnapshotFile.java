@@ -0,0 +1,211 @@
+package com.krasnopolskyi.usersapitask.warmup;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-only, memory-mapped snapshot of the hot users.
+ *
+ * <p>Layout: a header {@code [magic][version][cursor][count]}, an index of {@code count} entries
+ * {@code [id][offset][length]} sorted by id, then the user records. A lookup is a binary search over the mapped
+ * index and decodes a single record, so opening the file reads nothing and the mapped pages are owned by the
+ * page cache, not by the Java heap.</p>
+ */
+public final class WarmSnapshotFile {
+    private static final int MAGIC = 0x55535731;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int INDEX_ENTRY_SIZE = 16;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final MappedByteBuffer buffer;
+    private final long cursor;
+    private final int count;
+
+    private WarmSnapshotFile(MappedByteBuffer buffer, long cursor, int count) {
+        this.buffer = buffer;
+        this.cursor = cursor;
+        this.count = count;
+    }
+
+    /**
+     * Maps a snapshot written by {@link #write}.
+     *
+     * @throws IOException If the file is no snapshot, has another version or is cut short.
+     */
+    public static WarmSnapshotFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a warm snapshot: " + path);
+            }
+            // the mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a warm snapshot of version " + VERSION + ": " + path);
+            }
+            long cursor = buffer.getLong(8);
+            int count = buffer.getInt(16);
+            if (count < 0 || HEADER_SIZE + (long) count * INDEX_ENTRY_SIZE > size) {
+                throw new IOException("Damaged warm snapshot: " + path);
+            }
+            return new WarmSnapshotFile(buffer, cursor, count);
+        }
+    }
+
+    /**
+     * Writes the users to a new snapshot and moves it over the previous one atomically.
+     *
+     * @param cursor The id of the last outbox event whose change the users already include.
+     */
+    public static void write(Path path, long cursor, List<User> users) throws IOException {
+        List<User> sorted = new ArrayList<>(users);
+        sorted.sort(Comparator.comparing(User::getId));
+        List<byte[]> records = new ArrayList<>(sorted.size());
+        for (User user : sorted) {
+            records.add(encode(user));
+        }
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(cursor);
+            out.writeInt(sorted.size());
+            out.writeInt(0);
+            long offset = HEADER_SIZE + (long) sorted.size() * INDEX_ENTRY_SIZE;
+            for (int i = 0; i < sorted.size(); i++) {
+                out.writeLong(sorted.get(i).getId());
+                out.writeInt(Math.toIntExact(offset));
+                out.writeInt(records.get(i).length);
+                offset += records.get(i).length;
+            }
+            for (byte[] record : records) {
+                out.write(record);
+            }
+            out.flush();
+            file.getChannel().force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return The id of the last outbox event included in the snapshot.
+     */
+    public long getCursor() {
+        return cursor;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return A new user decoded from the snapshot, if it holds the id.
+     */
+    public Optional<User> find(long id) {
+        int entry = indexOf(id);
+        return entry < 0 ? Optional.empty() : Optional.of(decode(id, buffer.getInt(entry + 8)));
+    }
+
+    public boolean contains(long id) {
+        return indexOf(id) >= 0;
+    }
+
+    /**
+     * @return The ids in the snapshot, in ascending order.
+     */
+    public long[] ids() {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = buffer.getLong(HEADER_SIZE + i * INDEX_ENTRY_SIZE);
+        }
+        return ids;
+    }
+
+    // binary search over the mapped index, returns the position of the entry or -1
+    private int indexOf(long id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entry = HEADER_SIZE + middle * INDEX_ENTRY_SIZE;
+            long entryId = buffer.getLong(entry);
+            if (entryId < id) {
+                low = middle + 1;
+            } else if (entryId > id) {
+                high = middle - 1;
+            } else {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] encode(User user) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeString(out, user.getEmail());
+        writeString(out, user.getFirstname());
+        writeString(out, user.getLastname());
+        out.writeInt(user.getBirthDate() == null ? NO_DATE : Math.toIntExact(user.getBirthDate().toEpochDay()));
+        writeString(out, user.getAddress());
+        writeString(out, user.getPhoneNumber());
+        return bytes.toByteArray();
+    }
+
+    private User decode(long id, int offset) {
+        ByteBuffer record = buffer.duplicate().position(offset);
+        String email = readString(record);
+        String firstname = readString(record);
+        String lastname = readString(record);
+        int day = record.getInt();
+        return User.builder()
+                .id(id)
+                .email(email)
+                .firstname(firstname)
+                .lastname(lastname)
+                .birthDate(day == NO_DATE ? null : LocalDate.ofEpochDay(day))
+                .address(readString(record))
+                .phoneNumber(readString(record))
+                .build();
+    }
+
+    // a length of -1 stands for null
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer record) {
+        short length = record.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,270 @@
+package com.krasnopolskyi.usersapitask.warmup;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.entity.UserEvent;
+import com.krasnopolskyi.usersapitask.event.UserChangedEvent;
+import com.krasnopolskyi.usersapitask.repository.UserEventRepository;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import com.krasnopolskyi.usersapitask.service.UserChangeFeed;
+import com.krasnopolskyi.usersapitask.utils.LongHashSet;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves the hot users from a memory-mapped {@link WarmSnapshotFile} right after startup, while the
+ * second-level cache is still cold.
+ *
+ * <p>The snapshot is mapped when the bean is created, before the application accepts requests. Its users are
+ * valid as of the outbox cursor stored with it. Once the application is ready a background thread follows the
+ * outbox from a little before that cursor and invalidates every user changed since, on any node; local changes
+ * are invalidated as soon as they commit. An invalidated user is loaded from the database again. Until the first
+ * pass over the outbox has completed, a user changed while the node was down may be served in its older
+ * version.</p>
+ *
+ * <p>The ids handed out by the {@link com.krasnopolskyi.usersapitask.service.UserLoader} are remembered in a
+ * lossy ring of {@code max-users} slots. Every {@code interval-minutes} and at shutdown those users, topped up
+ * with the still valid users of the current snapshot, are loaded and written to a new snapshot for the next
+ * start.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "users.warm-snapshot.enabled", havingValue = "true")
+@Slf4j
+public class WarmUserSnapshot {
+    private static final int LOAD_CHUNK = 1000;
+
+    private final UserRepository userRepository;
+    private final UserEventRepository userEventRepository;
+    private final Path path;
+    private final int maxUsers;
+    private final long intervalMinutes;
+    private final long reconcileOverlap;
+    private final long reconcileIntervalMillis;
+    private final int reconcileBatchSize;
+    private final Duration visibilityHorizon;
+    private final AtomicLongArray recentIds;
+    private final AtomicLong recentPosition = new AtomicLong();
+    private final Set<Long> invalidated = ConcurrentHashMap.newKeySet();
+    private final LongAdder hits = new LongAdder();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "warm-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final WarmSnapshotFile snapshot;
+    private volatile boolean reconciled;
+    private long outboxCursor;
+
+    public WarmUserSnapshot(UserRepository userRepository,
+                            UserEventRepository userEventRepository,
+                            @Value("${users.warm-snapshot.path:data/warm-users.bin}") String path,
+                            @Value("${users.warm-snapshot.max-users:500000}") int maxUsers,
+                            @Value("${users.warm-snapshot.interval-minutes:10}") long intervalMinutes,
+                            @Value("${users.warm-snapshot.reconcile-overlap:1000}") long reconcileOverlap,
+                            @Value("${users.warm-snapshot.reconcile-interval-ms:1000}") long reconcileIntervalMillis,
+                            @Value("${users.warm-snapshot.reconcile-batch-size:1000}") int reconcileBatchSize,
+                            @Value("${users.changes.visibility-horizon-ms:5000}") long visibilityHorizonMillis,
+                            @Value("${users.changes.enabled:true}") boolean changesEnabled) {
+        if (!changesEnabled) {
+            throw new IllegalStateException("The warm snapshot follows the outbox: "
+                    + "users.changes.enabled must be true when users.warm-snapshot.enabled is");
+        }
+        this.userRepository = userRepository;
+        this.userEventRepository = userEventRepository;
+        this.path = Path.of(path);
+        this.maxUsers = maxUsers;
+        this.intervalMinutes = intervalMinutes;
+        this.reconcileOverlap = reconcileOverlap;
+        this.reconcileIntervalMillis = reconcileIntervalMillis;
+        this.reconcileBatchSize = reconcileBatchSize;
+        this.visibilityHorizon = Duration.ofMillis(visibilityHorizonMillis);
+        this.recentIds = new AtomicLongArray(maxUsers);
+        this.snapshot = map();
+        this.outboxCursor = snapshot == null ? 0 : Math.max(0, snapshot.getCursor() - reconcileOverlap);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(() -> runSafely("reconcile", this::reconcile),
+                0, reconcileIntervalMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(() -> runSafely("write", this::write),
+                intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * @return The user as of the snapshot, unless it has changed since or is not in the snapshot.
+     */
+    public Optional<User> find(long id) {
+        if (snapshot == null || invalidated.contains(id)) {
+            return Optional.empty();
+        }
+        Optional<User> user = snapshot.find(id);
+        if (user.isPresent()) {
+            hits.increment();
+        }
+        return user;
+    }
+
+    /**
+     * Remembers users that have been read, as candidates for the next snapshot. Never blocks.
+     */
+    public void recordLoaded(Collection<Long> ids) {
+        for (Long id : ids) {
+            recentIds.set((int) (recentPosition.getAndIncrement() % recentIds.length()), id);
+        }
+    }
+
+    /**
+     * Invalidates a user in the snapshot once its change has been committed on this node.
+     *
+     * @param event The change that has been committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (snapshot != null && event.user().getId() != null && snapshot.contains(event.user().getId())) {
+            invalidated.add(event.user().getId());
+        }
+    }
+
+    public boolean isReconciled() {
+        return reconciled;
+    }
+
+    /**
+     * Invalidates the users of every outbox event after the cursor, including those written by other nodes.
+     * Like the {@link UserChangeFeed}, the cursor stops at the first gap in the ids until the events behind it
+     * have passed the visibility horizon, so an event committed late into the gap is not skipped.
+     */
+    void reconcile() {
+        if (snapshot == null) {
+            reconciled = true;
+            return;
+        }
+        int seen = 0;
+        while (true) {
+            List<UserEvent> page = userEventRepository.findAllByIdGreaterThanOrderByIdAsc(
+                    outboxCursor, PageRequest.ofSize(reconcileBatchSize));
+            for (UserEvent event : page) {
+                // only users of the snapshot are remembered, so the set stays bounded by its size
+                if (snapshot.contains(event.getUserId())) {
+                    invalidated.add(event.getUserId());
+                }
+            }
+            // invalidating the events behind a gap early is harmless, passing the gap is not
+            List<UserEvent> visible = UserChangeFeed.visiblePrefix(outboxCursor, page, visibilityHorizon);
+            if (!visible.isEmpty()) {
+                outboxCursor = visible.get(visible.size() - 1).getId();
+            }
+            seen += visible.size();
+            if (visible.size() < reconcileBatchSize) {
+                break;
+            }
+        }
+        if (!reconciled) {
+            reconciled = true;
+            log.info("Warm snapshot reconciled: " + seen + " outbox events, " + invalidated.size()
+                    + " of " + snapshot.size() + " users invalidated");
+        }
+    }
+
+    /**
+     * Writes the recently read users to a new snapshot. The outbox cursor is read before the users, so the
+     * users are at least as recent as the cursor says.
+     */
+    synchronized void write() throws IOException {
+        long cursor = userEventRepository.findFirstByOrderByIdDesc().map(UserEvent::getId).orElse(0L);
+        long[] ids = hotIds();
+        List<User> users = new ArrayList<>(ids.length);
+        for (int from = 0; from < ids.length; from += LOAD_CHUNK) {
+            List<Long> chunk = new ArrayList<>(LOAD_CHUNK);
+            for (int i = from; i < Math.min(from + LOAD_CHUNK, ids.length); i++) {
+                chunk.add(ids[i]);
+            }
+            users.addAll(userRepository.findAllById(chunk));
+        }
+        long started = System.nanoTime();
+        WarmSnapshotFile.write(path, cursor, users);
+        log.info("Warm snapshot of " + users.size() + " users written in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + " ms, "
+                + hits.sum() + " reads served from the current one");
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+        // the users read just before a deploy are the ones the next start needs
+        runSafely("write", this::write);
+    }
+
+    // recently read users first, then the valid users of the current snapshot, up to max-users
+    private long[] hotIds() {
+        LongHashSet ids = new LongHashSet(maxUsers);
+        long end = recentPosition.get();
+        for (long position = end - 1; position >= Math.max(0, end - recentIds.length()); position--) {
+            ids.add(recentIds.get((int) (position % recentIds.length())));
+        }
+        if (snapshot != null) {
+            for (long id : snapshot.ids()) {
+                if (ids.size() >= maxUsers) {
+                    break;
+                }
+                if (!invalidated.contains(id)) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids.toSortedArray();
+    }
+
+    private WarmSnapshotFile map() {
+        try {
+            long started = System.nanoTime();
+            WarmSnapshotFile file = WarmSnapshotFile.open(path);
+            log.info(String.format("Warm snapshot of %d users mapped from %s in %.1f ms", file.size(), path,
+                    (System.nanoTime() - started) / 1e6));
+            return file;
+        } catch (NoSuchFileException exception) {
+            log.info("No warm snapshot at " + path + ", starting cold");
+        } catch (IOException exception) {
+            log.warn("Warm snapshot at " + path + " is unusable, starting cold", exception);
+        }
+        return null;
+    }
+
+    private void runSafely(String task, ThrowingRunnable runnable) {
+        try {
+            runnable.run();
+        } catch (Exception exception) {
+            log.error("Warm snapshot " + task + " failed", exception);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
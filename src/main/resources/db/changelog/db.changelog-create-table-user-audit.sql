@@ -0,0 +1,13 @@
+--liquibase formatted sql
+
+--changeset maksKrasnopolskyi:1
+CREATE TABLE IF NOT EXISTS user_audit (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    occurred_at TIMESTAMP(3) NOT NULL,
+    http_method VARCHAR(8) NOT NULL,
+    path_pattern VARCHAR(128) NOT NULL,
+    user_id BIGINT,
+    client VARCHAR(128),
+    status SMALLINT NOT NULL
+    );
+CREATE INDEX idx_user_audit_user_id ON user_audit (user_id);
@@ -0,0 +1,10 @@
+--liquibase formatted sql
+
+--changeset maksKrasnopolskyi:1
+CREATE TABLE IF NOT EXISTS user_events (
+    event_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    event_type VARCHAR(16) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+    );
@@ -0,0 +1,21 @@
+--liquibase formatted sql
+
+--changeset maksKrasnopolskyi:1
+ALTER TABLE users ADD COLUMN last_accessed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+CREATE INDEX idx_users_last_accessed_at ON users (last_accessed_at);
+
+--changeset maksKrasnopolskyi:2
+CREATE TABLE IF NOT EXISTS users_archive (
+    id BIGINT PRIMARY KEY,
+    email VARCHAR(64) NOT NULL UNIQUE,
+    firstname VARCHAR(64) NOT NULL,
+    lastname VARCHAR(64) NOT NULL,
+    birth_date TIMESTAMP NOT NULL,
+    address VARCHAR(255),
+    phone_number VARCHAR(32),
+    last_accessed_at TIMESTAMP NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+    );
+
+--changeset maksKrasnopolskyi:3 dbms:mysql
+ALTER TABLE users_archive ROW_FORMAT=COMPRESSED;
@@ -0,0 +1,7 @@
+--liquibase formatted sql
+
+--changeset maksKrasnopolskyi:1 dbms:mysql
+ALTER TABLE users MODIFY id BIGINT NOT NULL;
+
+--changeset maksKrasnopolskyi:2 dbms:h2
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
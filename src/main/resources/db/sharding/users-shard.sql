@@ -0,0 +1,11 @@
+-- The users table of one partition, ids are local and combined with the partition number by ShardRouter
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    email VARCHAR(64) NOT NULL UNIQUE,
+    firstname VARCHAR(64) NOT NULL,
+    lastname VARCHAR(64) NOT NULL,
+    birth_date TIMESTAMP NOT NULL,
+    address VARCHAR(255),
+    phone_number VARCHAR(32),
+    INDEX idx_users_birth_date (birth_date)
+    );
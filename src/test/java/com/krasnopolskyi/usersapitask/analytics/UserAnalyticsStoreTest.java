@@ -0,0 +1,196 @@
+package com.krasnopolskyi.usersapitask.analytics;
+
+import com.krasnopolskyi.usersapitask.dto.HistogramBucketDto;
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.event.UserChangedEvent;
+import com.krasnopolskyi.usersapitask.exception.ValidationException;
+import com.krasnopolskyi.usersapitask.repository.UserBirthDateView;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserAnalyticsStoreTest {
+    @Mock
+    private UserRepository userRepository;
+    private UserAnalyticsStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new UserAnalyticsStore(userRepository, 1 << 20, 1000);
+        when(userRepository.streamBirthDates()).thenReturn(Stream.of(
+                view(1L, LocalDate.of(1980, 1, 1)),
+                view(2L, LocalDate.of(1985, 2, 15)),
+                view(3L, LocalDate.of(1985, 12, 31)),
+                view(4L, LocalDate.of(1990, 6, 1))));
+        store.load();
+    }
+
+    @Test
+    void count_ReturnsUsersWithinInclusiveRange() {
+        // Act&Assert
+        assertTrue(store.isAvailable());
+        assertEquals(2, store.count(LocalDate.of(1985, 2, 15), LocalDate.of(1985, 12, 31)));
+        assertEquals(4, store.count(null, null));
+        assertEquals(1, store.count(LocalDate.of(1986, 1, 1), null));
+    }
+
+    @Test
+    void histogram_ReturnsCountsPerYear() throws ValidationException {
+        // Act
+        List<HistogramBucketDto> buckets =
+                store.histogram(LocalDate.of(1984, 6, 1), LocalDate.of(1986, 12, 31), ChronoUnit.YEARS);
+
+        // Assert
+        assertEquals(List.of(
+                new HistogramBucketDto(LocalDate.of(1984, 6, 1), LocalDate.of(1984, 12, 31), 0),
+                new HistogramBucketDto(LocalDate.of(1985, 1, 1), LocalDate.of(1985, 12, 31), 2),
+                new HistogramBucketDto(LocalDate.of(1986, 1, 1), LocalDate.of(1986, 12, 31), 0)), buckets);
+    }
+
+    @Test
+    void onUserChanged_AppliesWritesBeforeAndAfterCompaction() throws ValidationException {
+        // Arrange
+        User moved = User.builder().id(2L).birthDate(LocalDate.of(1990, 1, 1)).build();
+        User created = User.builder().id(5L).birthDate(LocalDate.of(1985, 5, 5)).build();
+        User deleted = User.builder().id(3L).birthDate(LocalDate.of(1985, 12, 31)).build();
+
+        // Act
+        store.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.UPDATED, moved));
+        store.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.CREATED, created));
+        store.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.DELETED, deleted));
+
+        // Assert
+        assertEquals(1, store.count(LocalDate.of(1985, 1, 1), LocalDate.of(1985, 12, 31)));
+        assertEquals(2, store.histogram(LocalDate.of(1990, 1, 1), LocalDate.of(1990, 12, 31), ChronoUnit.YEARS)
+                .get(0).count());
+
+        // Act
+        store.compact();
+
+        // Assert
+        assertEquals(1, store.count(LocalDate.of(1985, 1, 1), LocalDate.of(1985, 12, 31)));
+        assertEquals(4, store.count(null, null));
+    }
+
+    @Test
+    void load_KeepsWritesOfCompactionStartedDuringScan() throws InterruptedException {
+        // Arrange
+        User created = User.builder().id(5L).birthDate(LocalDate.of(1985, 5, 5)).build();
+        store.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.CREATED, created));
+        Thread compaction = new Thread(store::compact);
+        // the scan has read the table before user 5 was committed, and a compaction starts meanwhile
+        when(userRepository.streamBirthDates()).thenReturn(Stream.of(
+                        view(1L, LocalDate.of(1980, 1, 1)),
+                        view(2L, LocalDate.of(1985, 2, 15)),
+                        view(3L, LocalDate.of(1985, 12, 31)),
+                        view(4L, LocalDate.of(1990, 6, 1)))
+                .peek(view -> {
+                    if (view.getId() == 1L) {
+                        compaction.start();
+                    }
+                }));
+
+        // Act
+        store.load();
+        compaction.join();
+
+        // Assert
+        assertEquals(3, store.count(LocalDate.of(1985, 1, 1), LocalDate.of(1985, 12, 31)));
+        assertEquals(5, store.count(null, null));
+    }
+
+    @Test
+    void count_OrdersUsersBornBefore1970AndOnTheSameDay() {
+        // Arrange
+        UserAnalyticsStore oldUsersStore = new UserAnalyticsStore(userRepository, 1 << 20, 1000);
+        when(userRepository.streamBirthDates()).thenReturn(Stream.of(
+                view(1L, LocalDate.of(1969, 12, 31)),
+                view(2L, LocalDate.of(1950, 3, 1)),
+                view(3L, LocalDate.of(1969, 12, 31)),
+                view(4L, LocalDate.of(1970, 1, 1))));
+
+        // Act
+        oldUsersStore.load();
+
+        // Assert
+        assertEquals(1, oldUsersStore.count(null, LocalDate.of(1969, 12, 30)));
+        assertEquals(2, oldUsersStore.count(LocalDate.of(1969, 12, 31), LocalDate.of(1969, 12, 31)));
+        assertEquals(3, oldUsersStore.count(LocalDate.of(1960, 1, 1), null));
+    }
+
+    @Test
+    void load_StaysUnavailable_WhenBudgetExceeded() {
+        // Arrange
+        UserAnalyticsStore smallStore = new UserAnalyticsStore(userRepository, 48, 1000);
+        when(userRepository.streamBirthDates()).thenReturn(Stream.of(
+                view(1L, LocalDate.of(1980, 1, 1)),
+                view(2L, LocalDate.of(1985, 2, 15)),
+                view(3L, LocalDate.of(1985, 12, 31))));
+
+        // Act
+        smallStore.load();
+
+        // Assert
+        assertFalse(smallStore.isAvailable());
+    }
+
+    @Test
+    void compact_DisablesStoreOverBudget_AndEnablesItOnceACompactionFits() {
+        // Arrange
+        // a snapshot of six users born within four days is the most that fits into half of 320 bytes
+        UserAnalyticsStore smallStore = new UserAnalyticsStore(userRepository, 320, 1000);
+        LocalDate day = LocalDate.of(1990, 6, 1);
+        when(userRepository.streamBirthDates()).thenReturn(Stream.of(
+                view(1L, day), view(2L, day), view(3L, day.plusDays(1)), view(4L, day.plusDays(2))));
+        smallStore.load();
+        for (long id = 5; id <= 7; id++) {
+            User created = User.builder().id(id).birthDate(day.plusDays(3)).build();
+            smallStore.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.CREATED, created));
+        }
+
+        // Act
+        smallStore.compact();
+
+        // Assert
+        assertFalse(smallStore.isAvailable());
+        assertEquals(7, smallStore.count(null, null));
+
+        // Act
+        for (long id = 1; id <= 2; id++) {
+            User deleted = User.builder().id(id).birthDate(day).build();
+            smallStore.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.DELETED, deleted));
+        }
+        smallStore.compact();
+
+        // Assert
+        assertTrue(smallStore.isAvailable());
+        assertEquals(5, smallStore.count(null, null));
+        assertEquals(3, smallStore.count(day.plusDays(3), null));
+    }
+
+    private static UserBirthDateView view(Long id, LocalDate birthDate) {
+        return new UserBirthDateView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDate getBirthDate() {
+                return birthDate;
+            }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package com.krasnopolskyi.usersapitask.archive;
+
+import com.krasnopolskyi.usersapitask.config.IdConfig;
+import com.krasnopolskyi.usersapitask.config.TimeConfig;
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against an embedded H2 database with the Liquibase schema.
+ */
+@DataJpaTest(properties = {"users.archive.enabled=true", "users.archive.access-sample-rate=1"})
+@Import({UserArchive.class, UserAccessTracker.class, IdConfig.class, TimeConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserArchiveTest {
+    @Autowired
+    private UserArchive userArchive;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .email("archived@gold.ua")
+                .firstname("John")
+                .lastname("Gold")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .build());
+        jdbcTemplate.update("UPDATE users SET last_accessed_at = ? WHERE id = ?",
+                Timestamp.valueOf("2000-01-01 00:00:00"), user.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM users_archive WHERE id = ?", user.getId());
+    }
+
+    @Test
+    void archiveInactive_MovesOnlyInactiveUsers_AndRestoreBringsThemBack() {
+        // Act
+        int archived = userArchive.archiveInactive();
+
+        // Assert
+        assertEquals(1, archived);
+        assertTrue(userRepository.findById(user.getId()).isEmpty());
+        assertTrue(userRepository.existsByEmail("user1@example.com"));
+        assertTrue(userArchive.existsByEmail("archived@gold.ua"));
+
+        // Act
+        User restored = userArchive.restore(user.getId()).orElseThrow();
+
+        // Assert
+        assertEquals(user, restored);
+        assertEquals(user, userRepository.findById(user.getId()).orElseThrow());
+        assertFalse(userArchive.existsByEmail("archived@gold.ua"));
+        assertTrue(userArchive.restore(user.getId()).isEmpty());
+    }
+
+    @Test
+    void archiveInactive_KeepsUsers_WhoseAccessHasBeenRecorded() {
+        // Arrange
+        userArchive.recordAccess(user.getId());
+
+        // Act
+        int archived = userArchive.archiveInactive();
+
+        // Assert
+        assertEquals(0, archived);
+        assertTrue(userRepository.findById(user.getId()).isPresent());
+    }
+}
@@ -0,0 +1,102 @@
+package com.krasnopolskyi.usersapitask.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditRingBufferTest {
+
+    @Test
+    void drain_ReturnsEventsInPublicationOrder() {
+        // Arrange
+        AuditRingBuffer ringBuffer = new AuditRingBuffer(8, 1);
+        for (int i = 0; i < 5; i++) {
+            ringBuffer.tryPublish(i, "GET", "/users/{id}", i, "client", 200, false);
+        }
+        List<Long> userIds = new ArrayList<>();
+
+        // Act
+        int drained = ringBuffer.drain(event -> userIds.add(event.getUserId()), 3);
+        drained += ringBuffer.drain(event -> userIds.add(event.getUserId()), 10);
+
+        // Assert
+        assertEquals(5, drained);
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L), userIds);
+        assertEquals(0, ringBuffer.size());
+    }
+
+    @Test
+    void tryPublish_DropsReadsFirst_WhenRingFillsUp() {
+        // Arrange
+        AuditRingBuffer ringBuffer = new AuditRingBuffer(8, 0.5);
+
+        // Act
+        for (int i = 0; i < 6; i++) {
+            ringBuffer.tryPublish(i, "GET", "/users/{id}", i, null, 200, false);
+        }
+        for (int i = 0; i < 6; i++) {
+            ringBuffer.tryPublish(i, "PATCH", "/users/{id}", i, null, 200, true);
+        }
+
+        // Assert
+        assertEquals(2, ringBuffer.getDroppedReads());
+        assertEquals(2, ringBuffer.getDroppedWrites());
+        assertEquals(8, ringBuffer.size());
+    }
+
+    @Test
+    void tryPublish_LosesNothing_WithConcurrentProducers() throws InterruptedException {
+        // Arrange
+        int producers = 8;
+        int eventsPerProducer = 100_000;
+        AuditRingBuffer ringBuffer = new AuditRingBuffer(1024, 1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        long[] lastSeen = new long[producers];
+        AtomicInteger outOfOrder = new AtomicInteger();
+        int consumed = 0;
+
+        // Act
+        for (int producer = 0; producer < producers; producer++) {
+            int id = producer;
+            lastSeen[id] = -1;
+            executor.execute(() -> {
+                for (int i = 0; i < eventsPerProducer; ) {
+                    // the status carries the producer, the user id its sequence
+                    if (ringBuffer.tryPublish(0, "GET", "/users/{id}", i, null, id, true)) {
+                        i++;
+                    }
+                }
+                done.countDown();
+            });
+        }
+        while (done.getCount() > 0 || ringBuffer.size() > 0) {
+            consumed += ringBuffer.drain(event -> {
+                if (event.getUserId() != lastSeen[event.getStatus()] + 1) {
+                    outOfOrder.incrementAndGet();
+                }
+                lastSeen[event.getStatus()] = event.getUserId();
+            }, 256);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(producers * eventsPerProducer, consumed);
+        assertEquals(0, outOfOrder.get());
+    }
+
+    @Test
+    void constructor_Throws_WhenCapacityIsNotAPowerOfTwo() {
+        // Act&Assert
+        assertThrows(IllegalArgumentException.class, () -> new AuditRingBuffer(1000, 0.75));
+    }
+}
@@ -0,0 +1,147 @@
+package com.krasnopolskyi.usersapitask.audit;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.event.UserChangedEvent;
+import com.krasnopolskyi.usersapitask.filter.ClientIdentityFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class UserAuditLogTest {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @AfterEach
+    void resetRequestContext() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void record_WritesEventsInBatches() throws InterruptedException {
+        // Arrange
+        UserAuditLog auditLog = new UserAuditLog(jdbcTemplate, 1024, 0.75, 100);
+        auditLog.start();
+
+        // Act
+        for (int i = 0; i < 250; i++) {
+            auditLog.record("GET", "/users/{id}", i, "client", 200);
+        }
+        auditLog.record("GET", "/users", -1, null, 200);
+        auditLog.stop();
+
+        // Assert
+        assertEquals(251, auditLog.stats().written());
+        assertEquals(0, auditLog.stats().pending());
+        verify(jdbcTemplate, atLeast(3)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void record_RetriesBatch_WhenInsertFails() throws InterruptedException {
+        // Arrange
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(new int[]{1});
+        UserAuditLog auditLog = new UserAuditLog(jdbcTemplate, 1024, 0.75, 100);
+        auditLog.start();
+
+        // Act
+        auditLog.record("DELETE", "/users/{id}", 1, null, 204);
+        verify(jdbcTemplate, timeout(5000).times(2)).batchUpdate(anyString(), anyList());
+        auditLog.stop();
+
+        // Assert
+        assertEquals(1, auditLog.stats().written());
+        assertEquals(1, auditLog.stats().failedBatches());
+    }
+
+    @Test
+    void record_DropsReads_WhenRingIsFull() {
+        // Arrange
+        UserAuditLog auditLog = new UserAuditLog(jdbcTemplate, 4, 0.5, 100);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            auditLog.record("GET", "/users/{id}", i, null, 200);
+        }
+        auditLog.record("POST", "/users", -1, null, 201);
+
+        // Assert
+        assertEquals(1, auditLog.stats().droppedReads());
+        assertEquals(0, auditLog.stats().droppedWrites());
+        assertEquals(3, auditLog.stats().pending());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void onUserChanged_RecordsUserIdWithRequest_WhenChangedInHttpRequest() throws InterruptedException {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/users");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/users");
+        request.setAttribute(ClientIdentityFilter.CLIENT_ATTRIBUTE, "client");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        List<Object[]> rows = captureRows();
+        UserAuditLog auditLog = new UserAuditLog(jdbcTemplate, 1024, 0.75, 100);
+        auditLog.start();
+
+        // Act
+        auditLog.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.DELETED, user(7)));
+        auditLog.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.DELETED, user(8)));
+        auditLog.stop();
+
+        // Assert
+        assertEquals(2, rows.size());
+        assertArrayEquals(new Object[]{"DELETE", "/users", 7L, "client", 200}, tail(rows.get(0)));
+        assertArrayEquals(new Object[]{"DELETE", "/users", 8L, "client", 200}, tail(rows.get(1)));
+    }
+
+    @Test
+    void onUserChanged_RecordsInternalChange_WhenChangedOutsideHttpRequest() throws InterruptedException {
+        // Arrange
+        List<Object[]> rows = captureRows();
+        UserAuditLog auditLog = new UserAuditLog(jdbcTemplate, 1024, 0.75, 100);
+        auditLog.start();
+
+        // Act
+        auditLog.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.CREATED, user(3)));
+        auditLog.stop();
+
+        // Assert
+        assertEquals(1, rows.size());
+        assertArrayEquals(new Object[]{"POST", UserAuditLog.INTERNAL, 3L, null, 201}, tail(rows.get(0)));
+    }
+
+    // the batch is cleared once it has been written, keep its rows
+    @SuppressWarnings("unchecked")
+    private List<Object[]> captureRows() {
+        List<Object[]> rows = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            rows.addAll((List<Object[]>) invocation.getArgument(1));
+            return new int[0];
+        });
+        return rows;
+    }
+
+    // the row without its timestamp
+    private static Object[] tail(Object[] row) {
+        return Arrays.copyOfRange(row, 1, row.length);
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
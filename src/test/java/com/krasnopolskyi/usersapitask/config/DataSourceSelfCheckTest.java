@@ -0,0 +1,47 @@
+package com.krasnopolskyi.usersapitask.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataSourceSelfCheckTest {
+    private static final String TUNED_URL = "jdbc:mysql://localhost:3306/users"
+            + "?useServerPrepStmts=true&cachePrepStmts=true&rewriteBatchedStatements=true";
+
+    @Test
+    void check_ReturnsNoWarnings_WhenTuned() {
+        // Arrange
+        DataSourceSelfCheck.Settings settings = new DataSourceSelfCheck.Settings(20, 2000, 100, TUNED_URL, 8);
+
+        // Act&Assert
+        assertEquals(List.of(), DataSourceSelfCheck.check(settings));
+    }
+
+    @Test
+    void check_Warns_WhenPoolTooSmallForThreadsWithLongTimeout() {
+        // Arrange
+        DataSourceSelfCheck.Settings settings = new DataSourceSelfCheck.Settings(10, 30000, 200, TUNED_URL, 8);
+
+        // Act
+        List<String> warnings = DataSourceSelfCheck.check(settings);
+
+        // Assert
+        assertEquals(1, warnings.size());
+        assertTrue(warnings.get(0).contains("10 connections for 200 request threads"));
+    }
+
+    @Test
+    void check_Warns_WhenDriverDefaults() {
+        // Arrange
+        DataSourceSelfCheck.Settings settings = new DataSourceSelfCheck.Settings(
+                20, 2000, 100, "jdbc:mysql://localhost:3306/users", 8);
+
+        // Act
+        List<String> warnings = DataSourceSelfCheck.check(settings);
+
+        // Assert
+        assertEquals(2, warnings.size());
+    }
+}
@@ -0,0 +1,27 @@
+package com.krasnopolskyi.usersapitask.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdConfigTest {
+
+    @Test
+    void nodeId_PrefersConfiguredId_OverHostName() {
+        // Act&Assert
+        assertEquals(7, IdConfig.nodeId("7", "users-api-3"));
+    }
+
+    @Test
+    void nodeId_TakesStatefulSetOrdinal_WhenNotConfigured() {
+        // Act&Assert
+        assertEquals(3, IdConfig.nodeId("", "users-api-3"));
+    }
+
+    @Test
+    void nodeId_ThrowException_WhenNeitherConfiguredNorDerivable() {
+        // Act&Assert
+        assertThrows(IllegalStateException.class, () -> IdConfig.nodeId("", "3f4e5a6b7c8d"));
+        assertThrows(IllegalStateException.class, () -> IdConfig.nodeId(" ", ""));
+    }
+}
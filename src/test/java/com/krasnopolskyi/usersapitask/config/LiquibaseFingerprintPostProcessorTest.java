@@ -0,0 +1,64 @@
+package com.krasnopolskyi.usersapitask.config;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LiquibaseFingerprintPostProcessorTest {
+
+    @Test
+    void fingerprint_IsStable_AcrossCalls() {
+        // Act
+        String first = LiquibaseFingerprintPostProcessor.fingerprint();
+        String second = LiquibaseFingerprintPostProcessor.fingerprint();
+
+        // Assert
+        assertEquals(64, first.length());
+        assertEquals(first, second);
+    }
+
+    @Test
+    void postProcessBeforeInitialization_KeepsLiquibase_WhenNoFingerprintStored() throws SQLException {
+        // Arrange
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenThrow(new SQLException("Table 'schema_fingerprint' doesn't exist"));
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+
+        LiquibaseFingerprintPostProcessor postProcessor = new LiquibaseFingerprintPostProcessor();
+
+        // Act
+        postProcessor.postProcessBeforeInitialization(liquibase, "liquibase");
+
+        // Assert
+        assertFalse(postProcessor.isSkipped("liquibase"));
+    }
+
+    @Test
+    void postProcessBeforeInitialization_SkipsLiquibase_WhenFingerprintStoredByLastRun() {
+        // Arrange
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:fingerprint;DB_CLOSE_DELAY=-1");
+        SpringLiquibase firstStart = new SpringLiquibase();
+        firstStart.setDataSource(dataSource);
+        LiquibaseFingerprintPostProcessor firstPostProcessor = new LiquibaseFingerprintPostProcessor();
+        firstPostProcessor.postProcessBeforeInitialization(firstStart, "liquibase");
+        firstPostProcessor.postProcessAfterInitialization(firstStart, "liquibase");
+        SpringLiquibase secondStart = new SpringLiquibase();
+        secondStart.setDataSource(dataSource);
+        LiquibaseFingerprintPostProcessor secondPostProcessor = new LiquibaseFingerprintPostProcessor();
+
+        // Act
+        secondPostProcessor.postProcessBeforeInitialization(secondStart, "liquibase");
+
+        // Assert
+        assertFalse(firstPostProcessor.isSkipped("liquibase"));
+        assertTrue(secondPostProcessor.isSkipped("liquibase"));
+    }
+}
@@ -0,0 +1,34 @@
+package com.krasnopolskyi.usersapitask.config;
+
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.krasnopolskyi.usersapitask.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeRuntimeHintsTest {
+
+    @Test
+    void registerHints_CoversEntityChangelogsAndJavaTimeModule() {
+        // Arrange
+        RuntimeHints hints = new RuntimeHints();
+
+        // Act
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // Assert
+        assertTrue(RuntimeHintsPredicates.reflection().onType(User.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(JavaTimeModule.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource("db/changelog/db.changelog-master.yaml").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource("db/changelog/db.changelog-create-table-users.sql").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("ehcache.xml").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("db/sharding/users-shard.sql").test(hints));
+    }
+}
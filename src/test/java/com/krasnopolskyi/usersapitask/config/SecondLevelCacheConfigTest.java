@@ -0,0 +1,46 @@
+package com.krasnopolskyi.usersapitask.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.ehcache.config.CacheRuntimeConfiguration;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.cache.CacheManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Loads the whole application on an embedded database of its own, so a cache configuration Hibernate cannot
+ * resolve fails here rather than at startup.
+ */
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:cache-config;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("embedded")
+class SecondLevelCacheConfigTest {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void regions_AreConfiguredByEhcacheXml() {
+        // Arrange
+        JCacheRegionFactory regionFactory = (JCacheRegionFactory) entityManagerFactory
+                .unwrap(SessionFactoryImplementor.class).getCache().getRegionFactory();
+        CacheManager cacheManager = regionFactory.getCacheManager();
+
+        // Act
+        CacheRuntimeConfiguration<?, ?> users = (CacheRuntimeConfiguration<?, ?>) cacheManager.getCache("users")
+                .getConfiguration(Eh107Configuration.class).unwrap(CacheRuntimeConfiguration.class);
+
+        // Assert
+        assertTrue(cacheManager.getURI().toString().endsWith("ehcache.xml"));
+        assertEquals(100_000, users.getResourcePools().getPoolForResource(ResourceType.Core.HEAP).getSize());
+        assertEquals(EntryUnit.ENTRIES, users.getResourcePools().getPoolForResource(ResourceType.Core.HEAP).getUnit());
+    }
+}
@@ -1,11 +1,13 @@
 package com.krasnopolskyi.usersapitask.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.krasnopolskyi.usersapitask.dto.UserPostRequestDto;
 import com.krasnopolskyi.usersapitask.dto.UserPatchRequestDto;
 import com.krasnopolskyi.usersapitask.dto.UserPutRequestDto;
 import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.exception.QueryTooLargeException;
 import com.krasnopolskyi.usersapitask.exception.UserAppException;
 import com.krasnopolskyi.usersapitask.exception.ValidationException;
 import com.krasnopolskyi.usersapitask.service.UserService;
@@ -21,6 +23,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -32,6 +35,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -39,6 +43,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @ExtendWith({MockitoExtension.class, SpringExtension.class})
 @WebMvcTest(UserController.class)
+@TestPropertySource(properties = "users.admission.trusted-proxies=127.0.0.1")
 class UserControllerTest {
 
     @MockBean
@@ -99,6 +104,24 @@ class UserControllerTest {
         verifyNoMoreInteractions(userService);
     }
 
+    @Test
+    void getUser_ReturnsCbor_WhenAccepted() throws Exception {
+        // Arrange
+        Long userId = 1L;
+        given(userService.getUserById(userId)).willReturn(user);
+        ObjectMapper cborMapper = mapper.copyWith(new CBORFactory());
+
+        // Act
+        byte[] body = mockMvc.perform(get("/users/{id}", userId).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        User decoded = cborMapper.readValue(body, User.class);
+        assertEquals(user, decoded);
+    }
+
     @Test
     void getUser_ReturnsNotFound_WhenIdDoesNotExist() throws Exception {
         // Arrange
@@ -149,7 +172,7 @@ class UserControllerTest {
     void getUsersByPeriod_ReturnsListOfUsers_WhenValidDatesProvided() throws Exception {
         // Arrange
         List<User> users = Arrays.asList(user, user2);
-        when(userService.getUsersByBirthDate(anyString(), anyString())).thenReturn(users);
+        when(userService.getUsersByBirthDate(anyString(), anyString(), any(), any(), any())).thenReturn(users);
 
         // Act&Assert
         mockMvc.perform(MockMvcRequestBuilders.get("/users/range")
@@ -164,10 +187,55 @@ class UserControllerTest {
 
     }
 
+    @Test
+    void getUsersByPeriod_PassesClientAndPage_WhenProvided() throws Exception {
+        // Arrange
+        when(userService.getUsersByBirthDate(null, null, "reports", 2, 500)).thenReturn(List.of(user));
+
+        // Act&Assert
+        mockMvc.perform(get("/users/range")
+                        .header("X-Client-Id", "reports")
+                        .param("page", "2")
+                        .param("size", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L));
+    }
+
+    @Test
+    void getUsersByPeriod_KeysLimitsOnRemoteAddress_WhenNotSentByTrustedProxy() throws Exception {
+        // Arrange
+        when(userService.getUsersByBirthDate(null, null, "192.168.1.7", 2, 500)).thenReturn(List.of(user));
+
+        // Act&Assert
+        mockMvc.perform(get("/users/range")
+                        .with(request -> {
+                            request.setRemoteAddr("192.168.1.7");
+                            return request;
+                        })
+                        .header("X-Client-Id", "reports")
+                        .param("page", "2")
+                        .param("size", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L));
+    }
+
+    @Test
+    void getUsersByPeriod_ReturnsPayloadTooLarge_WhenRangeHoldsTooManyUsers() throws Exception {
+        // Arrange
+        when(userService.getUsersByBirthDate(any(), any(), any(), any(), any()))
+                .thenThrow(new QueryTooLargeException("Read it page by page with 'page' and 'size'"));
+
+        // Act&Assert
+        mockMvc.perform(get("/users/range"))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.status").value(413))
+                .andExpect(jsonPath("$.message").value("Read it page by page with 'page' and 'size'"));
+    }
+
     @Test
     void getUsersByPeriod_ReturnsBadRequest_WhenInvalidDatesProvided() throws Exception {
         //Arrange
-        when((userService.getUsersByBirthDate(anyString(), anyString())))
+        when((userService.getUsersByBirthDate(anyString(), anyString(), any(), any(), any())))
                 .thenThrow(new ValidationException("Date is invalid"));
         // Act&Assert
         mockMvc.perform(get("/users/range")
@@ -196,6 +264,7 @@ class UserControllerTest {
                 .build();
 
         User currentUser = UserMapper.mapToUser(userDto);
+        currentUser.setId(1L);
         when(userService.createUser(any(UserPostRequestDto.class))).thenReturn(currentUser);
 
         // Act&Assert
@@ -209,6 +278,26 @@ class UserControllerTest {
         verify(userService, times(1)).createUser(any(UserPostRequestDto.class));
     }
 
+    @Test
+    void testCreateUser_ReturnAccepted_WhenInsertDeferred() throws Exception {
+        //Arrange
+        UserPostRequestDto userDto = UserPostRequestDto.builder()
+                .email("johndoe@gmail.com")
+                .firstname("John")
+                .lastname("Doe")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .build();
+        when(userService.createUser(any(UserPostRequestDto.class))).thenReturn(UserMapper.mapToUser(userDto));
+
+        // Act&Assert
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(userDto)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").doesNotExist())
+                .andExpect(jsonPath("$.email").value(userDto.getEmail()));
+    }
+
     @ParameterizedTest
     @CsvFileSource(resources = "/user_create_data_invalid.csv", numLinesToSkip = 1)
     void testCreateUser_ThrowException_InValidDto(String email,
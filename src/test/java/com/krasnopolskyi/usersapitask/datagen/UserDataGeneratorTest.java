@@ -0,0 +1,68 @@
+package com.krasnopolskyi.usersapitask.datagen;
+
+import com.krasnopolskyi.usersapitask.id.SnowflakeIdGenerator;
+import com.krasnopolskyi.usersapitask.utils.AgePolicy;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class UserDataGeneratorTest {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final UserDataGenerator generator = new UserDataGenerator(
+            jdbcTemplate, new AgePolicy(18, Clock.systemDefaultZone()),
+            new SnowflakeIdGenerator(0, System::currentTimeMillis, 1000), 2500, 1000, 42, "batch");
+
+    @Test
+    void birthDate_IsAlwaysAboveMinimumAge_AndSkewedToYoungAdults() {
+        // Arrange
+        Random random = new Random(1);
+        int underForty = 0;
+
+        // Act
+        for (int i = 0; i < 100_000; i++) {
+            int age = Period.between(generator.birthDate(random), LocalDate.now()).getYears();
+
+            // Assert
+            assertTrue(age >= 18 && age <= 100, "age " + age);
+            if (age < 40) {
+                underForty++;
+            }
+        }
+        assertTrue(underForty > 70_000);
+    }
+
+    @Test
+    void generateRow_ProducesUniqueEmails() {
+        // Arrange
+        Random random = new Random(1);
+        Set<String> emails = new HashSet<>();
+
+        // Act&Assert
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(emails.add((String) generator.generateRow(random, "run", i)[1]));
+        }
+    }
+
+    @Test
+    void run_InsertsInBatches() throws IOException {
+        // Act
+        generator.run();
+
+        // Assert
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), anyList());
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<Object[]> rows) -> rows.size() == 500));
+    }
+}
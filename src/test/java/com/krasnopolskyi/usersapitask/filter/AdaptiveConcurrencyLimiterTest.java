@@ -0,0 +1,46 @@
+package com.krasnopolskyi.usersapitask.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+    private static final long TARGET = 100;
+
+    @Test
+    void tryAcquire_Rejects_WhenLimitReached() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, TARGET, 0.5);
+
+        // Act&Assert
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void onComplete_GrowsAdditively_WhenFast_AndShrinksMultiplicatively_WhenSlow() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 20, TARGET, 0.5);
+
+        // Act
+        for (int i = 0; i < 11; i++) {
+            limiter.tryAcquire();
+            limiter.onComplete(TARGET / 2, false);
+        }
+        int grown = limiter.getLimit();
+        limiter.tryAcquire();
+        limiter.onComplete(TARGET * 2, false);
+        int shrunk = limiter.getLimit();
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire();
+            limiter.onComplete(TARGET * 2, true);
+        }
+
+        // Assert
+        assertEquals(11, grown);
+        assertEquals(5, shrunk);
+        assertEquals(5, limiter.getLimit()); // one decrease per limit's worth of completions
+    }
+}
@@ -0,0 +1,40 @@
+package com.krasnopolskyi.usersapitask.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientIdentityFilterTest {
+    private final ClientIdentityFilter filter = new ClientIdentityFilter("X-Client-Id", Set.of("10.0.0.1"));
+
+    @Test
+    void client_IgnoresHeader_WhenNotSentByTrustedProxy() {
+        // Arrange
+        MockHttpServletRequest request = request("192.168.1.7", "reports");
+
+        // Act&Assert
+        assertEquals("192.168.1.7", filter.client(request));
+    }
+
+    @Test
+    void client_UsesHeader_WhenSentByTrustedProxy() {
+        // Arrange
+        MockHttpServletRequest request = request("10.0.0.1", "reports");
+
+        // Act&Assert
+        assertEquals("reports", filter.client(request));
+        assertEquals("10.0.0.1", filter.client(request("10.0.0.1", null)));
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/range");
+        request.setRemoteAddr(remoteAddress);
+        if (client != null) {
+            request.addHeader("X-Client-Id", client);
+        }
+        return request;
+    }
+}
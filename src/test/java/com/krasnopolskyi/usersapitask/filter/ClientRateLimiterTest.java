@@ -0,0 +1,55 @@
+package com.krasnopolskyi.usersapitask.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientRateLimiterTest {
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final ClientRateLimiter limiter = new ClientRateLimiter(10, 20, 2, now::get);
+
+    @Test
+    void tryAcquire_AdmitsBurst_ThenRejectsWithWaitTime() {
+        // Act
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, limiter.tryAcquire("client", 5));
+        }
+        long wait = limiter.tryAcquire("client", 5);
+
+        // Assert
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), wait);
+        assertEquals(0, limiter.tryAcquire("other", 5));
+    }
+
+    @Test
+    void tryAcquire_RefillsOverTime() {
+        // Arrange
+        assertEquals(0, limiter.tryAcquire("client", 20));
+        assertTrue(limiter.tryAcquire("client", 1) > 0);
+
+        // Act
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        // Assert
+        assertEquals(0, limiter.tryAcquire("client", 1));
+        assertTrue(limiter.tryAcquire("client", 1) > 0);
+    }
+
+    @Test
+    void tryAcquire_EvictsFullestBucket_WhenTooManyClients() {
+        // Arrange
+        assertEquals(0, limiter.tryAcquire("first", 20));
+        limiter.tryAcquire("second", 1);
+        assertTrue(limiter.tryAcquire("first", 1) > 0);
+
+        // Act
+        limiter.tryAcquire("third", 1);
+
+        // Assert
+        assertEquals(2, limiter.trackedClients());
+        assertTrue(limiter.tryAcquire("first", 1) > 0);
+    }
+}
@@ -0,0 +1,163 @@
+package com.krasnopolskyi.usersapitask.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyFilterTest {
+    private final IdempotencyFilter filter = new IdempotencyFilter(new ObjectMapper(), 60, 100, 1000);
+    private final AtomicInteger calls = new AtomicInteger();
+    private int status = 201;
+
+    // stands in for the controller: echoes the body with a call counter
+    private final HttpServlet servlet = new HttpServlet() {
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            response.setStatus(status);
+            response.setContentType("application/json");
+            response.getWriter().write("{\"call\":" + calls.incrementAndGet() + ",\"body\":" + body + "}");
+        }
+    };
+
+    @Test
+    void doFilter_ReplaysStoredResponse_WhenKeyIsReused() throws ServletException, IOException {
+        // Act
+        MockHttpServletResponse first = post("key-1", "{\"email\":\"john@gold.ua\"}");
+        MockHttpServletResponse second = post("key-1", "{\"email\":\"john@gold.ua\"}");
+
+        // Assert
+        assertEquals(1, calls.get());
+        assertEquals(201, second.getStatus());
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertEquals("{\"call\":1,\"body\":{\"email\":\"john@gold.ua\"}}", second.getContentAsString());
+        assertEquals("true", second.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void doFilter_Rejects_WhenKeyIsReusedWithDifferentBody() throws ServletException, IOException {
+        // Arrange
+        post("key-1", "{\"email\":\"john@gold.ua\"}");
+
+        // Act
+        MockHttpServletResponse response = post("key-1", "{\"email\":\"jane@gold.ua\"}");
+
+        // Assert
+        assertEquals(422, response.getStatus());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void doFilter_ProcessesAgain_WhenFirstAttemptFailed() throws ServletException, IOException {
+        // Arrange
+        status = 500;
+        post("key-1", "{}");
+        status = 201;
+
+        // Act
+        MockHttpServletResponse response = post("key-1", "{}");
+
+        // Assert
+        assertEquals(201, response.getStatus());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void doFilter_ProcessesAgain_WhenKeyIsReusedByAnotherClient() throws ServletException, IOException {
+        // Arrange
+        post("key-1", "{}", "client-a");
+
+        // Act
+        MockHttpServletResponse response = post("key-1", "{}", "client-b");
+
+        // Assert
+        assertEquals(2, calls.get());
+        assertNull(response.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void doFilter_NotifiesReadListener_OfCachedBody() throws ServletException, IOException {
+        // Arrange
+        MockHttpServletRequest request = request("key-1", "{}", "client-a");
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicBoolean allRead = new AtomicBoolean();
+        HttpServlet asyncServlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                ServletInputStream input = request.getInputStream();
+                input.setReadListener(new ReadListener() {
+                    @Override
+                    public void onDataAvailable() throws IOException {
+                        while (input.isReady() && !input.isFinished()) {
+                            read.write(input.read());
+                        }
+                    }
+
+                    @Override
+                    public void onAllDataRead() {
+                        allRead.set(true);
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                    }
+                });
+            }
+        };
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(asyncServlet));
+
+        // Assert
+        assertEquals("{}", read.toString(StandardCharsets.UTF_8));
+        assertTrue(allRead.get());
+    }
+
+    @Test
+    void doFilter_PassesThrough_WithoutKey() throws ServletException, IOException {
+        // Act
+        post(null, "{}");
+        post(null, "{}");
+
+        // Assert
+        assertEquals(2, calls.get());
+    }
+
+    private MockHttpServletResponse post(String key, String body) throws ServletException, IOException {
+        return post(key, body, "client-a");
+    }
+
+    private MockHttpServletResponse post(String key, String body, String client) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(key, body, client), response, new MockFilterChain(servlet));
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String key, String body, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/users");
+        request.setAttribute(ClientIdentityFilter.CLIENT_ATTRIBUTE, client);
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        }
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
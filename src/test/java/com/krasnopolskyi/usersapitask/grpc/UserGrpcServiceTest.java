@@ -0,0 +1,169 @@
+package com.krasnopolskyi.usersapitask.grpc;
+
+import com.krasnopolskyi.usersapitask.dto.UserPostRequestDto;
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.exception.UserAppException;
+import com.krasnopolskyi.usersapitask.exception.ValidationException;
+import com.krasnopolskyi.usersapitask.grpc.proto.*;
+import com.krasnopolskyi.usersapitask.service.UserService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserGrpcServiceTest {
+    private final UserService userService = mock(UserService.class);
+    private Server server;
+    private ManagedChannel channel;
+    private UsersGrpc.UsersBlockingStub stub;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        UserGrpcService service = new UserGrpcService(
+                userService, Validation.buildDefaultValidatorFactory().getValidator());
+        server = InProcessServerBuilder.forName(name).directExecutor().addService(service).build().start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        stub = UsersGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void getUser_ReturnsUser_WhenExists() throws UserAppException {
+        // Arrange
+        when(userService.getUserById(1L)).thenReturn(user(1L));
+
+        // Act
+        UserMessage response = stub.getUser(GetUserRequest.newBuilder().setId(1L).build());
+
+        // Assert
+        assertEquals(1L, response.getId());
+        assertEquals("john1@gold.ua", response.getEmail());
+        assertEquals("2000-01-01", response.getBirthDate());
+        assertFalse(response.hasPhoneNumber());
+    }
+
+    @Test
+    void getUser_ReturnsNotFound_WhenIdDoesNotExist() throws UserAppException {
+        // Arrange
+        UserAppException exception = new UserAppException("Not found user with id 1");
+        exception.setExceptionStatus(404);
+        when(userService.getUserById(1L)).thenThrow(exception);
+
+        // Act
+        StatusRuntimeException thrown = assertThrows(StatusRuntimeException.class,
+                () -> stub.getUser(GetUserRequest.newBuilder().setId(1L).build()));
+
+        // Assert
+        assertEquals(Status.Code.NOT_FOUND, thrown.getStatus().getCode());
+    }
+
+    @Test
+    void createUser_ReturnsInvalidArgument_WhenConstraintsViolated() {
+        // Act
+        StatusRuntimeException thrown = assertThrows(StatusRuntimeException.class,
+                () -> stub.createUser(CreateUserRequest.newBuilder()
+                        .setEmail("not-an-email")
+                        .setFirstname("J")
+                        .setLastname("Gold")
+                        .setBirthDate("2000-01-01")
+                        .build()));
+
+        // Assert
+        assertEquals(Status.Code.INVALID_ARGUMENT, thrown.getStatus().getCode());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void createUser_ReturnsCreatedUser_WhenValid() throws Exception {
+        // Arrange
+        when(userService.createUser(any(UserPostRequestDto.class))).thenReturn(user(7L));
+
+        // Act
+        UserMessage response = stub.createUser(CreateUserRequest.newBuilder()
+                .setEmail("john7@gold.ua")
+                .setFirstname("John")
+                .setLastname("Gold")
+                .setBirthDate("2000-01-01")
+                .build());
+
+        // Assert
+        assertEquals(7L, response.getId());
+    }
+
+    @Test
+    void rangeUsers_StreamsAllUsersOfPeriod_AndClosesCursor() throws UserAppException, ValidationException {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        when(userService.streamUsersByBirthDate("1990-01-01", null, null))
+                .thenReturn(LongStream.rangeClosed(1, 1000).mapToObj(UserGrpcServiceTest::user)
+                        .onClose(() -> closed.set(true)));
+
+        // Act
+        List<Long> ids = new ArrayList<>();
+        stub.rangeUsers(RangeUsersRequest.newBuilder().setStartDate("1990-01-01").build())
+                .forEachRemaining(message -> ids.add(message.getId()));
+
+        // Assert
+        assertEquals(1000, ids.size());
+        assertEquals(1L, ids.get(0));
+        assertEquals(1000L, ids.get(999));
+        assertTrue(closed.get());
+        verify(userService, never()).getUsersByBirthDate(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void rangeUsers_FailsAndClosesCursor_WhenReadingFails() throws UserAppException, ValidationException {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        when(userService.streamUsersByBirthDate("1990-01-01", null, null))
+                .thenReturn(Stream.concat(Stream.of(user(1)), Stream.<User>generate(() -> {
+                    throw new IllegalStateException("connection lost");
+                })).onClose(() -> closed.set(true)));
+
+        // Act
+        Iterator<UserMessage> messages = stub.rangeUsers(
+                RangeUsersRequest.newBuilder().setStartDate("1990-01-01").build());
+        StatusRuntimeException exception = assertThrows(StatusRuntimeException.class,
+                () -> messages.forEachRemaining(message -> { }));
+
+        // Assert
+        assertEquals(Status.Code.INTERNAL, exception.getStatus().getCode());
+        assertTrue(closed.get());
+    }
+
+    private static User user(long id) {
+        return User.builder()
+                .id(id)
+                .email("john" + id + "@gold.ua")
+                .firstname("John")
+                .lastname("Gold")
+                .birthDate(LocalDate.of(2000, 1, 1))
+                .address("Earth")
+                .build();
+    }
+}
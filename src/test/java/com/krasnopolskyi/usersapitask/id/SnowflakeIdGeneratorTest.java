@@ -0,0 +1,124 @@
+package com.krasnopolskyi.usersapitask.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+    private static final long NOW = SnowflakeIdGenerator.EPOCH_MILLIS + 1_000_000;
+
+    @Test
+    void nextId_IsUniqueAcrossNodesAndThreads_AndIncreasingPerThread() throws Exception {
+        // Arrange
+        int nodes = 4;
+        int threadsPerNode = 4;
+        int idsPerThread = 50_000;
+        AtomicLong clock = new AtomicLong(NOW);
+        List<SnowflakeIdGenerator> generators = new ArrayList<>();
+        for (int node = 0; node < nodes; node++) {
+            generators.add(new SnowflakeIdGenerator(node, clock::get, 10_000));
+        }
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(nodes * threadsPerNode);
+        List<Future<Boolean>> increasing = new ArrayList<>();
+
+        // Act
+        for (int thread = 0; thread < nodes * threadsPerNode; thread++) {
+            SnowflakeIdGenerator generator = generators.get(thread % nodes);
+            increasing.add(executor.submit(() -> {
+                long previous = 0;
+                for (int i = 0; i < idsPerThread; i++) {
+                    if (i % 1000 == 0) {
+                        clock.incrementAndGet();
+                    }
+                    long id = generator.nextId();
+                    if (id <= previous) {
+                        return false;
+                    }
+                    ids.add(id);
+                    previous = id;
+                }
+                return true;
+            }));
+        }
+        executor.shutdown();
+
+        // Assert
+        for (Future<Boolean> result : increasing) {
+            assertTrue(result.get(30, TimeUnit.SECONDS));
+        }
+        assertEquals(nodes * threadsPerNode * idsPerThread, ids.size());
+    }
+
+    @Test
+    void nextId_EncodesNodeAndTimestamp() {
+        // Arrange
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(513, () -> NOW, 1000);
+
+        // Act
+        long id = generator.nextId();
+
+        // Assert
+        assertTrue(id > 0);
+        assertEquals(513, SnowflakeIdGenerator.nodeOf(id));
+        assertEquals(NOW, SnowflakeIdGenerator.timestampOf(id).toEpochMilli());
+    }
+
+    @Test
+    void nextId_CarriesIntoNextMillisecond_WhenSequenceIsExhausted() {
+        // Arrange
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, () -> NOW, 5);
+
+        // Act
+        long last = 0;
+        for (int i = 0; i < 4097; i++) {
+            last = generator.nextId();
+        }
+
+        // Assert
+        assertEquals(NOW + 1, SnowflakeIdGenerator.timestampOf(last).toEpochMilli());
+    }
+
+    @Test
+    void nextId_KeepsIncreasing_WhenClockStepsBackWithinDrift() {
+        // Arrange
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::get, 100);
+        long before = generator.nextId();
+
+        // Act
+        clock.addAndGet(-50);
+        long after = generator.nextId();
+
+        // Assert
+        assertTrue(after > before);
+    }
+
+    @Test
+    void nextId_Throws_WhenClockStepsBackBeyondDrift() {
+        // Arrange
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::get, 100);
+        generator.nextId();
+
+        // Act
+        clock.addAndGet(-500);
+
+        // Assert
+        assertThrows(IllegalStateException.class, generator::nextId);
+    }
+
+    @Test
+    void constructor_Throws_WhenNodeIdOutOfRange() {
+        // Act&Assert
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1, () -> NOW, 1000));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1, () -> NOW, 1000));
+    }
+}
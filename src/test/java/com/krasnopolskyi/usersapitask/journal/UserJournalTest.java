@@ -0,0 +1,102 @@
+package com.krasnopolskyi.usersapitask.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserJournalTest {
+    // a header and room for exactly five records of 20 bytes
+    private static final int CAPACITY = 16 + 5 * 36;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void append_ReusesConsumedSpace_WhileRecordsArePending() throws IOException {
+        // Arrange
+        try (UserJournal journal = UserJournal.open(directory.resolve("journal.bin"), CAPACITY)) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(journal.append(payload(i)));
+            }
+            UserJournal.Batch consumed = journal.read(2);
+            journal.checkpoint(consumed.nextOffset());
+
+            // Act
+            boolean wrapped = true;
+            for (int i = 4; i < 7; i++) {
+                wrapped &= journal.append(payload(i));
+            }
+
+            // Assert
+            assertTrue(wrapped);
+            assertFalse(journal.append(payload(7)));
+            assertEquals(List.of("user-000000000000002", "user-000000000000003", "user-000000000000004",
+                    "user-000000000000005", "user-000000000000006"), texts(journal.read(10)));
+        }
+    }
+
+    @Test
+    void open_ReplaysPendingRecords_AcrossTheEndOfTheRing() throws IOException {
+        // Arrange
+        Path path = directory.resolve("journal.bin");
+        try (UserJournal journal = UserJournal.open(path, CAPACITY)) {
+            for (int lap = 0; lap < 3; lap++) {
+                for (int i = 0; i < 3; i++) {
+                    assertTrue(journal.append(payload(lap * 3 + i)));
+                }
+                journal.checkpoint(journal.read(lap < 2 ? 3 : 1).nextOffset());
+            }
+        }
+
+        // Act
+        try (UserJournal journal = UserJournal.open(path, CAPACITY)) {
+            UserJournal.Batch pending = journal.read(10);
+
+            // Assert
+            // records of the earlier laps are still in the file but are not replayed
+            assertEquals(List.of("user-000000000000007", "user-000000000000008"), texts(pending));
+            journal.checkpoint(pending.nextOffset());
+            assertEquals(0, journal.pendingBytes());
+            assertTrue(journal.append(payload(9)));
+        }
+    }
+
+    @Test
+    void open_SkipsWrapMarker_WhenRecordDidNotFitBeforeTheEnd() throws IOException {
+        // Arrange
+        Path path = directory.resolve("journal.bin");
+        try (UserJournal journal = UserJournal.open(path, CAPACITY)) {
+            // records of 40 bytes leave 20 bytes at the end of the ring, enough for a wrap marker
+            for (int i = 0; i < 4; i++) {
+                assertTrue(journal.append(longPayload(i)));
+            }
+            journal.checkpoint(journal.read(2).nextOffset());
+            assertTrue(journal.append(longPayload(4)));
+        }
+
+        // Act
+        try (UserJournal journal = UserJournal.open(path, CAPACITY)) {
+            // Assert
+            assertEquals(List.of("user-0000000000000000002", "user-0000000000000000003",
+                    "user-0000000000000000004"), texts(journal.read(10)));
+        }
+    }
+
+    private static byte[] longPayload(int i) {
+        return String.format("user-%019d", i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] payload(int i) {
+        return String.format("user-%015d", i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> texts(UserJournal.Batch batch) {
+        return batch.payloads().stream().map(bytes -> new String(bytes, StandardCharsets.UTF_8)).toList();
+    }
+}
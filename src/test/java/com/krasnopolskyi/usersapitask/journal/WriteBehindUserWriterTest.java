@@ -0,0 +1,108 @@
+package com.krasnopolskyi.usersapitask.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.exception.ValidationException;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class WriteBehindUserWriterTest {
+    private static final String BAD_EMAIL = "too-long@example.com";
+
+    @TempDir
+    Path directory;
+
+    private UserRepository userRepository;
+    private WriteBehindUserWriter writer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        userRepository = mock(UserRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+        writer = new WriteBehindUserWriter(userRepository, transactionTemplate,
+                mock(ApplicationEventPublisher.class), new ObjectMapper().registerModule(new JavaTimeModule()),
+                directory.resolve("journal.bin").toString(), 1 << 16,
+                directory.resolve("dead-letter.jsonl").toString(), 500, 200);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException, InterruptedException {
+        writer.stop();
+    }
+
+    @Test
+    void flush_DeadLettersRejectedUser_AndInsertsTheOthers() throws ValidationException, IOException {
+        // Arrange
+        journal("first@example.com", BAD_EMAIL, "third@example.com");
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            if (users.stream().anyMatch(user -> user.getEmail().equals(BAD_EMAIL))) {
+                throw new DataIntegrityViolationException("Data too long for column 'address'");
+            }
+            return users;
+        });
+
+        // Act
+        writer.flush();
+        writer.flush();
+
+        // Assert
+        verify(userRepository).saveAll(List.of(user("first@example.com")));
+        verify(userRepository).saveAll(List.of(user("third@example.com")));
+        verify(userRepository, times(4)).saveAll(anyList());
+        assertTrue(Files.readString(directory.resolve("dead-letter.jsonl")).contains(BAD_EMAIL));
+        assertDoesNotThrow(() -> writer.reserve(BAD_EMAIL));
+    }
+
+    @Test
+    void flush_KeepsBatchInJournal_WhenDatabaseIsDown() throws ValidationException {
+        // Arrange
+        journal("first@example.com", "second@example.com");
+        when(userRepository.saveAll(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("Communications link failure"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act&Assert
+        assertThrows(DataAccessResourceFailureException.class, () -> writer.flush());
+        writer.flush();
+        verify(userRepository, times(2)).saveAll(List.of(user("first@example.com"), user("second@example.com")));
+        assertFalse(Files.exists(directory.resolve("dead-letter.jsonl")));
+    }
+
+    private void journal(String... emails) throws ValidationException {
+        for (String email : emails) {
+            writer.reserve(email);
+            assertTrue(writer.append(user(email)));
+        }
+    }
+
+    private static User user(String email) {
+        return User.builder().email(email).firstname("John").birthDate(LocalDate.of(1990, 1, 1)).build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.krasnopolskyi.usersapitask.memory;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.repository.BirthMonthCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryUserRepositoryTest {
+    private static final LocalDate DAY = LocalDate.of(1990, 6, 15);
+
+    private InMemoryUserRepository userRepository;
+    private User before;
+    private User on;
+    private User after;
+
+    @BeforeEach
+    void setUp() {
+        AtomicLong ids = new AtomicLong();
+        userRepository = new InMemoryUserRepository(UserMemoryStore.volatileStore(ids::incrementAndGet));
+        after = userRepository.save(user("c@gold.ua", DAY.plusDays(1)));
+        on = userRepository.save(user("b@gold.ua", DAY));
+        before = userRepository.save(user("a@gold.ua", DAY.minusDays(1)));
+    }
+
+    @Test
+    void derivedQueries_KeepJpaSemantics() {
+        // Act&Assert
+        assertEquals(List.of(after), userRepository.findAllByBirthDateAfter(DAY));
+        assertEquals(List.of(before), userRepository.findAllByBirthDateBefore(DAY));
+        assertEquals(List.of(on), userRepository.findAllByBirthDateBetween(DAY, DAY));
+        assertEquals(List.of(before, on, after),
+                userRepository.findAllByBirthDateBetweenOrderByBirthDateAscIdAsc(DAY.minusDays(1), DAY.plusDays(1)));
+        assertTrue(userRepository.existsByEmail("b@gold.ua"));
+        assertEquals(List.of("a@gold.ua"), userRepository.findExistingEmails(List.of("a@gold.ua", "x@gold.ua")));
+    }
+
+    @Test
+    void findAll_OrdersByIdOrBySort() {
+        // Act&Assert
+        assertEquals(List.of(after, on, before), userRepository.findAll());
+        assertEquals(List.of(before, on, after), userRepository.findAll(Sort.by("email")));
+        assertEquals(List.of(after, on, before), userRepository.findAll(Sort.by(Sort.Direction.DESC, "birthDate")));
+    }
+
+    @Test
+    void findAllByBirthDateBetween_ReturnsRequestedPage() {
+        // Arrange
+        Sort byBirthDate = Sort.by("birthDate", "id");
+
+        // Act&Assert
+        assertEquals(List.of(before, on), userRepository.findAllByBirthDateBetween(
+                DAY.minusDays(1), DAY.plusDays(1), PageRequest.of(0, 2, byBirthDate)));
+        assertEquals(List.of(after), userRepository.findAllByBirthDateBetween(
+                DAY.minusDays(1), DAY.plusDays(1), PageRequest.of(1, 2, byBirthDate)));
+        assertEquals(List.of(), userRepository.findAllByBirthDateBetween(
+                DAY.plusDays(5), DAY.plusDays(9), PageRequest.of(0, 2, byBirthDate)));
+    }
+
+    @Test
+    void delete_RemovesUserFromEveryIndex() {
+        // Act
+        userRepository.delete(on);
+        userRepository.flush();
+
+        // Assert
+        assertTrue(userRepository.findById(on.getId()).isEmpty());
+        assertFalse(userRepository.existsByEmail("b@gold.ua"));
+        assertEquals(List.of(), userRepository.findAllByBirthDateBetween(DAY, DAY));
+        assertEquals(2, userRepository.count());
+    }
+
+    @Test
+    void countByBirthMonth_CountsUsersPerMonth() {
+        // Act
+        List<BirthMonthCount> counts = userRepository.countByBirthMonth();
+
+        // Assert
+        assertEquals(1, counts.size());
+        assertEquals(1990, counts.get(0).getYear());
+        assertEquals(6, counts.get(0).getMonth());
+        assertEquals(3, counts.get(0).getUsers());
+    }
+
+    private static User user(String email, LocalDate birthDate) {
+        return User.builder()
+                .email(email)
+                .firstname("John")
+                .lastname("Gold")
+                .birthDate(birthDate)
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.krasnopolskyi.usersapitask.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectMapTest {
+
+    @Test
+    void putGetRemove_BehaveLikeAHashMap() {
+        // Arrange
+        LongObjectMap<String> map = new LongObjectMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        // Act
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(5_000) - 100; // negative keys and 0 included
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = "v" + i;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+
+        // Assert
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+        Map<Long, String> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertEquals(expected, iterated);
+    }
+
+    @Test
+    void get_NeverMissesAKey_WhileAWriterChurnsOtherKeys() throws InterruptedException {
+        // Arrange
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        for (long key = 0; key < 1_000; key++) {
+            map.put(key, key);
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger misses = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                for (long key = 0; key < 1_000; key++) {
+                    if (!Long.valueOf(key).equals(map.get(key))) {
+                        misses.incrementAndGet();
+                    }
+                }
+            }
+        });
+
+        // Act
+        reader.start();
+        for (long key = 1_000; key < 500_000; key++) {
+            map.put(key, key); // grows the table several times
+            if (key >= 1_100) {
+                map.remove(key - 100); // leaves tombstones behind
+            }
+        }
+        running.set(false);
+        reader.join();
+
+        // Assert
+        assertEquals(0, misses.get());
+        assertEquals(1_100, map.size());
+    }
+}
@@ -0,0 +1,182 @@
+package com.krasnopolskyi.usersapitask.memory;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserMemoryStoreTest {
+    private final AtomicLong ids = new AtomicLong();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void findAllByBirthDate_HonoursInclusiveAndExclusiveBounds() {
+        // Arrange
+        UserMemoryStore store = UserMemoryStore.volatileStore(ids::incrementAndGet);
+        store.save(user("a@gold.ua", LocalDate.of(1990, 1, 1)));
+        store.save(user("b@gold.ua", LocalDate.of(1990, 1, 2)));
+        store.save(user("c@gold.ua", LocalDate.of(1990, 1, 2)));
+        store.save(user("d@gold.ua", LocalDate.of(1990, 1, 3)));
+        LocalDate day = LocalDate.of(1990, 1, 2);
+
+        // Act&Assert
+        assertEquals(List.of("b@gold.ua", "c@gold.ua"), emails(store.findAllByBirthDate(day, true, day, true)));
+        assertEquals(List.of("d@gold.ua"), emails(store.findAllByBirthDate(day, false, null, false)));
+        assertEquals(List.of("a@gold.ua"), emails(store.findAllByBirthDate(null, false, day, false)));
+        assertEquals(List.of(), store.findAllByBirthDate(day, false, day, true));
+        assertEquals(List.of(), store.findAllByBirthDate(LocalDate.of(1990, 1, 3), true, day, true));
+        assertEquals(4, store.findAllByBirthDate(null, false, null, false).size());
+    }
+
+    @Test
+    void save_ReindexesChangedBirthDateAndEmail_AndReturnsCopies() {
+        // Arrange
+        UserMemoryStore store = UserMemoryStore.volatileStore(ids::incrementAndGet);
+        User user = store.save(user("john@gold.ua", LocalDate.of(1990, 1, 1)));
+
+        // Act
+        User loaded = store.findById(user.getId()).orElseThrow();
+        loaded.setEmail("johnny@gold.ua");
+        loaded.setBirthDate(LocalDate.of(1995, 5, 5));
+        User untouched = store.findById(user.getId()).orElseThrow();
+        store.save(loaded);
+
+        // Assert
+        assertEquals("john@gold.ua", untouched.getEmail());
+        assertFalse(store.existsByEmail("john@gold.ua"));
+        assertTrue(store.existsByEmail("johnny@gold.ua"));
+        LocalDate previousDay = LocalDate.of(1990, 1, 1);
+        assertEquals(List.of(), store.findAllByBirthDate(previousDay, true, previousDay, true));
+        assertEquals(Map.of(YearMonth.of(1995, 5), 1L), store.countByBirthMonth());
+    }
+
+    @Test
+    void save_Throws_WhenEmailBelongsToAnotherUser() {
+        // Arrange
+        UserMemoryStore store = UserMemoryStore.volatileStore(ids::incrementAndGet);
+        store.save(user("john@gold.ua", LocalDate.of(1990, 1, 1)));
+
+        // Act&Assert
+        assertThrows(DataIntegrityViolationException.class,
+                () -> store.save(user("john@gold.ua", LocalDate.of(1991, 1, 1))));
+        assertEquals(1, store.count());
+    }
+
+    @Test
+    void save_Throws_WhenEmailDiffersOnlyInCase() {
+        // Arrange
+        UserMemoryStore store = UserMemoryStore.volatileStore(ids::incrementAndGet);
+        User john = store.save(user("john@gold.ua", LocalDate.of(1990, 1, 1)));
+
+        // Act
+        john.setEmail("John@Gold.ua");
+        store.save(john);
+
+        // Assert
+        assertTrue(store.existsByEmail("JOHN@gold.ua"));
+        assertThrows(DataIntegrityViolationException.class,
+                () -> store.save(user("john@GOLD.UA", LocalDate.of(1991, 1, 1))));
+        assertEquals(1, store.count());
+    }
+
+    @Test
+    void open_RestoresChangesFromSnapshotAndLog() throws IOException {
+        // Arrange
+        UserMemoryStore store = UserMemoryStore.open(directory, ids::incrementAndGet, false, 1_000);
+        User kept = store.save(user("kept@gold.ua", LocalDate.of(1990, 1, 1)));
+        User deleted = store.save(user("deleted@gold.ua", LocalDate.of(1990, 1, 1)));
+        store.checkpoint();
+        kept.setFirstname("Johnny");
+        store.save(kept);
+        store.delete(deleted.getId());
+        User added = store.save(user("added@gold.ua", LocalDate.of(2000, 1, 1)));
+        // simulate a crash: the last changes only exist in the log
+
+        // Act
+        UserMemoryStore reopened = UserMemoryStore.open(directory, ids::incrementAndGet, false, 1_000);
+
+        // Assert
+        assertEquals(2, reopened.count());
+        assertEquals("Johnny", reopened.findById(kept.getId()).orElseThrow().getFirstname());
+        assertTrue(reopened.findById(deleted.getId()).isEmpty());
+        assertEquals(added, reopened.findById(added.getId()).orElseThrow());
+        assertTrue(reopened.existsByEmail("added@gold.ua"));
+        assertFalse(reopened.existsByEmail("deleted@gold.ua"));
+        reopened.close();
+    }
+
+    @Test
+    void open_IgnoresTornTailOfTheLog() throws IOException {
+        // Arrange
+        UserMemoryStore store = UserMemoryStore.open(directory, ids::incrementAndGet, true, 1_000);
+        User user = store.save(user("john@gold.ua", LocalDate.of(1990, 1, 1)));
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(file -> file.getFileName().toString().startsWith("wal-"))
+                    .findFirst()
+                    .orElseThrow();
+        }
+        Files.write(segment, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        // Act
+        UserMemoryStore reopened = UserMemoryStore.open(directory, ids::incrementAndGet, true, 1_000);
+        User added = reopened.save(user("jane@gold.ua", LocalDate.of(1991, 1, 1)));
+        reopened.close();
+        UserMemoryStore again = UserMemoryStore.open(directory, ids::incrementAndGet, true, 1_000);
+
+        // Assert
+        assertEquals(user, again.findById(user.getId()).orElseThrow());
+        assertEquals(added, again.findById(added.getId()).orElseThrow());
+        assertEquals(2, again.count());
+        again.close();
+    }
+
+    @Test
+    void checkpoint_DeletesCoveredLogSegments() throws IOException {
+        // Arrange
+        UserMemoryStore store = UserMemoryStore.open(directory, ids::incrementAndGet, false, 1_000);
+        for (int i = 0; i < 10; i++) {
+            store.save(user("user" + i + "@gold.ua", LocalDate.of(1990, 1, 1 + i)));
+        }
+
+        // Act
+        store.checkpoint();
+
+        // Assert
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(file -> file.getFileName().toString().startsWith("wal-")).count());
+        }
+        store.close();
+        assertEquals(10, UserMemoryStore.open(directory, ids::incrementAndGet, false, 1_000).count());
+    }
+
+    private static List<String> emails(List<User> users) {
+        return users.stream().map(User::getEmail).toList();
+    }
+
+    private static User user(String email, LocalDate birthDate) {
+        return User.builder()
+                .email(email)
+                .firstname("John")
+                .lastname("Gold")
+                .birthDate(birthDate)
+                .address("Kyiv")
+                .phoneNumber("+380501234567")
+                .build();
+    }
+}
@@ -0,0 +1,141 @@
+package com.krasnopolskyi.usersapitask.repository;
+
+import com.krasnopolskyi.usersapitask.config.IdConfig;
+import com.krasnopolskyi.usersapitask.config.TimeConfig;
+import com.krasnopolskyi.usersapitask.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against an embedded H2 database, every repository call in a transaction of its own, as in the service.
+ */
+@DataJpaTest
+@Import({IdConfig.class, TimeConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserRepositoryCacheTest {
+    private static final LocalDate FROM = LocalDate.of(1900, 1, 1);
+    private static final LocalDate TO = LocalDate.of(1900, 12, 31);
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .email("cached@gold.ua")
+                .firstname("John")
+                .lastname("Gold")
+                .birthDate(LocalDate.of(1900, 6, 1))
+                .build());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void streamAllByBirthDateBetween_ReadsCursorOnAnotherThread_WithoutTransaction() throws Exception {
+        // Arrange
+        User second = userRepository.save(User.builder()
+                .email("streamed@gold.ua")
+                .firstname("John")
+                .lastname("Gold")
+                .birthDate(LocalDate.of(1900, 3, 1))
+                .build());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // Act
+        List<Long> ids;
+        try (Stream<User> stream = userRepository.streamAllByBirthDateBetween(FROM, TO)) {
+            Iterator<User> users = stream.iterator();
+            ids = executor.submit(() -> {
+                List<Long> read = new ArrayList<>();
+                users.forEachRemaining(streamed -> read.add(streamed.getId()));
+                return read;
+            }).get();
+        } finally {
+            executor.shutdown();
+            userRepository.deleteById(second.getId());
+        }
+
+        // Assert
+        assertEquals(List.of(second.getId(), user.getId()), ids);
+    }
+
+    @Test
+    void findAllByBirthDateBetween_IsCached_UntilBirthDateChanges() {
+        // Arrange
+        List<User> first = userRepository.findAllByBirthDateBetween(FROM, TO);
+        List<User> second = userRepository.findAllByBirthDateBetween(FROM, TO);
+        long hitsBeforeUpdate = statistics.getQueryCacheHitCount();
+
+        // Act
+        user.setBirthDate(LocalDate.of(1950, 1, 1));
+        user = userRepository.save(user);
+        List<User> afterUpdate = userRepository.findAllByBirthDateBetween(FROM, TO);
+
+        // Assert
+        assertEquals(List.of(user.getId()), first.stream().map(User::getId).toList());
+        assertEquals(List.of(user.getId()), second.stream().map(User::getId).toList());
+        assertEquals(1, hitsBeforeUpdate);
+        assertEquals(List.of(), afterUpdate);
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void findAllByBirthDateBetween_IsInvalidated_ByBulkDelete() {
+        // Arrange
+        User other = userRepository.save(User.builder()
+                .email("cached2@gold.ua")
+                .firstname("Jane")
+                .lastname("Gold")
+                .birthDate(LocalDate.of(1900, 7, 1))
+                .build());
+        assertEquals(2, userRepository.findAllByBirthDateBetween(FROM, TO).size());
+
+        // Act
+        userRepository.deleteAllByIdInBatch(List.of(other.getId()));
+
+        // Assert
+        assertEquals(List.of(user.getId()),
+                userRepository.findAllByBirthDateBetween(FROM, TO).stream().map(User::getId).toList());
+    }
+
+    @Test
+    void findById_AndFindAllById_AreServedFromSecondLevelCache() {
+        // Act
+        User byId = userRepository.findById(user.getId()).orElseThrow();
+        List<User> byIds = userRepository.findAllById(List.of(user.getId(), Long.MAX_VALUE));
+
+        // Assert
+        assertEquals(user.getEmail(), byId.getEmail());
+        assertEquals(List.of(user.getId()), byIds.stream().map(User::getId).toList());
+        assertEquals(2, statistics.getDomainDataRegionStatistics("users").getHitCount());
+    }
+}
@@ -0,0 +1,141 @@
+package com.krasnopolskyi.usersapitask.search;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.event.UserChangedEvent;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import com.krasnopolskyi.usersapitask.repository.UserSearchView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserSearchIndexTest {
+    @Mock
+    private UserRepository userRepository;
+    private UserSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserSearchIndex(userRepository);
+        index.index(1L, "John", "Gold", "johngold@gold.ua");
+        index.index(2L, "Johanna", "Smith", "jsmith@example.com");
+        index.index(3L, "Zoë", "Johns", "zoe@example.com");
+    }
+
+    @Test
+    void search_ReturnsPrefixMatches_RankedByExactness() {
+        // Act
+        List<Long> result = index.search("john", 0, 10);
+
+        // Assert
+        // 1 holds the exact token 'john', 3 only matches 'johns' by prefix and 'johanna' does not start with 'john'
+        assertEquals(List.of(1L, 3L), result);
+    }
+
+    @Test
+    void search_RequiresEveryQueryToken() {
+        // Act&Assert
+        assertEquals(List.of(2L), index.search("jo smi", 0, 10));
+        assertEquals(List.of(), index.search("jo unknown", 0, 10));
+    }
+
+    @Test
+    void search_IgnoresCaseAndDiacritics() {
+        // Act&Assert
+        assertEquals(List.of(3L), index.search("ZOE", 0, 10));
+    }
+
+    @Test
+    void search_ReturnsRequestedPage() {
+        // Act&Assert
+        assertEquals(List.of(1L, 2L), index.search("j", 0, 2));
+        assertEquals(List.of(3L), index.search("j", 1, 2));
+    }
+
+    @Test
+    void onUserChanged_ReplacesAndRemovesTokens() {
+        // Arrange
+        User renamed = User.builder().id(1L).firstname("Jack").lastname("Gold").email("jack@gold.ua").build();
+
+        // Act
+        index.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.UPDATED, renamed));
+
+        // Assert
+        assertEquals(List.of(3L), index.search("john", 0, 10));
+        assertEquals(List.of(1L), index.search("jack", 0, 10));
+
+        // Act
+        index.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.DELETED, renamed));
+
+        // Assert
+        assertEquals(List.of(), index.search("gold", 0, 10));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void rebuild_KeepsWritesCommittedWhileScanning() {
+        // Arrange
+        index = new UserSearchIndex(userRepository);
+        User deleted = User.builder().id(1L).firstname("John").lastname("Gold").email("johngold@gold.ua").build();
+        User renamed = User.builder().id(2L).firstname("Jack").lastname("Smith").email("jsmith@example.com").build();
+        // the rows of users 1 and 2 are read before their changes are committed, and reach the index after them
+        when(userRepository.streamSearchViews()).thenReturn(Stream.of(
+                        view(1L, "John", "Gold", "johngold@gold.ua"),
+                        view(2L, "Johanna", "Smith", "jsmith@example.com"),
+                        view(3L, "Zoë", "Johns", "zoe@example.com"))
+                .peek(view -> {
+                    if (view.getId() == 1L) {
+                        index.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.DELETED, deleted));
+                    } else if (view.getId() == 2L) {
+                        index.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.UPDATED, renamed));
+                    }
+                }));
+
+        // Act
+        index.rebuild();
+
+        // Assert
+        assertEquals(List.of(3L), index.search("john", 0, 10));
+        assertEquals(List.of(2L), index.search("jack", 0, 10));
+        assertEquals(List.of(), index.search("johanna", 0, 10));
+        assertEquals(2, index.size());
+
+        // Act
+        index.index(1L, "John", "Gold", "johngold@gold.ua");
+
+        // Assert
+        assertEquals(List.of(1L, 3L), index.search("john", 0, 10));
+    }
+
+    private static UserSearchView view(Long id, String firstname, String lastname, String email) {
+        return new UserSearchView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+
+            @Override
+            public String getFirstname() {
+                return firstname;
+            }
+
+            @Override
+            public String getLastname() {
+                return lastname;
+            }
+        };
+    }
+}
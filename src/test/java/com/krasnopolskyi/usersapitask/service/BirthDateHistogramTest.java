@@ -0,0 +1,115 @@
+package com.krasnopolskyi.usersapitask.service;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.event.UserChangedEvent;
+import com.krasnopolskyi.usersapitask.repository.BirthMonthCount;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BirthDateHistogramTest {
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final BirthDateHistogram histogram = new BirthDateHistogram(userRepository,
+            Clock.fixed(Instant.parse("2024-06-01T00:00:00Z"), ZoneOffset.UTC), 60);
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.countByBirthMonth()).thenReturn(List.of(
+                monthCount(1990, 1, 3100),
+                monthCount(1990, 2, 2800),
+                monthCount(1990, 3, 31_000)));
+        histogram.load();
+    }
+
+    @Test
+    void estimate_ProratesPartialMonths() {
+        // Act&Assert
+        assertEquals(36_900, histogram.estimate(LocalDate.of(1989, 12, 1), LocalDate.of(1990, 4, 30)));
+        assertEquals(1500, histogram.estimate(LocalDate.of(1990, 1, 17), LocalDate.of(1990, 1, 31)));
+        assertEquals(0, histogram.estimate(LocalDate.of(2000, 1, 1), LocalDate.of(2000, 12, 31)));
+    }
+
+    @Test
+    void split_BalancesPartsByEstimatedUsers_WithoutGaps() {
+        // Act
+        List<BirthDateHistogram.DateRange> ranges =
+                histogram.split(LocalDate.of(1990, 1, 1), LocalDate.of(1990, 3, 31), 4);
+
+        // Assert
+        assertEquals(4, ranges.size());
+        assertEquals(LocalDate.of(1990, 1, 1), ranges.get(0).from());
+        assertEquals(LocalDate.of(1990, 3, 31), ranges.get(3).to());
+        for (int i = 1; i < ranges.size(); i++) {
+            assertEquals(ranges.get(i - 1).to().plusDays(1), ranges.get(i).from());
+        }
+        // March holds most users, so three of the four parts fall into it
+        assertEquals(3, ranges.get(1).from().getMonthValue());
+        for (BirthDateHistogram.DateRange range : ranges) {
+            long users = histogram.estimate(range.from(), range.to());
+            assertTrue(users > 8000 && users < 11_000, range + " holds " + users);
+        }
+    }
+
+    @Test
+    void span_CoversFirstToLastMonthWithUsers() {
+        // Act
+        BirthDateHistogram.DateRange span = histogram.span().orElseThrow();
+
+        // Assert
+        assertEquals(LocalDate.of(1990, 1, 1), span.from());
+        assertEquals(LocalDate.of(1990, 3, 31), span.to());
+    }
+
+    @Test
+    void span_IsEmpty_WhenNoUsersCounted() {
+        // Arrange
+        when(userRepository.countByBirthMonth()).thenReturn(List.of());
+        histogram.load();
+
+        // Act&Assert
+        assertTrue(histogram.span().isEmpty());
+    }
+
+    @Test
+    void onUserChanged_CountsCreatesAndDeletes() {
+        // Arrange
+        User user = User.builder().id(1L).birthDate(LocalDate.of(2001, 5, 5)).build();
+
+        // Act
+        histogram.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.CREATED, user));
+        histogram.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.CREATED, user));
+        histogram.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.DELETED, user));
+        histogram.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.UPDATED, user));
+
+        // Assert
+        assertEquals(1, histogram.estimate(LocalDate.of(2001, 5, 1), LocalDate.of(2001, 5, 31)));
+    }
+
+    private static BirthMonthCount monthCount(int year, int month, long users) {
+        return new BirthMonthCount() {
+            @Override
+            public Integer getYear() {
+                return year;
+            }
+
+            @Override
+            public Integer getMonth() {
+                return month;
+            }
+
+            @Override
+            public Long getUsers() {
+                return users;
+            }
+        };
+    }
+}
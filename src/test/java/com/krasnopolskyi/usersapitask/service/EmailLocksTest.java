@@ -0,0 +1,55 @@
+package com.krasnopolskyi.usersapitask.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailLocksTest {
+    private final EmailLocks emailLocks = new EmailLocks(16);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void stripeOf_IsCaseInsensitive() {
+        // Act&Assert
+        assertSame(emailLocks.stripeOf("John@Gold.ua"), emailLocks.stripeOf("john@gold.ua"));
+    }
+
+    @Test
+    void lock_ReleasesOnClose_WithoutTransaction() {
+        // Act
+        try (EmailLocks.Held ignored = emailLocks.lock("john@gold.ua")) {
+            assertTrue(emailLocks.stripeOf("john@gold.ua").isHeldByCurrentThread());
+        }
+
+        // Assert
+        assertFalse(emailLocks.stripeOf("john@gold.ua").isLocked());
+    }
+
+    @Test
+    void lock_IsHeldUntilTransactionCompletes() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        try (EmailLocks.Held ignored = emailLocks.lock("john@gold.ua")) {
+            assertTrue(emailLocks.stripeOf("john@gold.ua").isLocked());
+        }
+        boolean lockedAfterClose = emailLocks.stripeOf("john@gold.ua").isLocked();
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+
+        // Assert
+        assertTrue(lockedAfterClose);
+        assertFalse(emailLocks.stripeOf("john@gold.ua").isLocked());
+    }
+}
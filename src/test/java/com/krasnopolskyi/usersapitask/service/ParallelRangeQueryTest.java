@@ -0,0 +1,103 @@
+package com.krasnopolskyi.usersapitask.service;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ParallelRangeQueryTest {
+    private static final LocalDate FROM = LocalDate.of(1980, 1, 1);
+    private static final LocalDate TO = LocalDate.of(1999, 12, 31);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final BirthDateHistogram histogram = mock(BirthDateHistogram.class);
+    private final ParallelRangeQuery query = new ParallelRangeQuery(
+            userRepository, histogram, true, 20_000, 10_000, 4, 2);
+
+    @AfterEach
+    void tearDown() {
+        query.shutdown();
+    }
+
+    @Test
+    void isWorthSplitting_OnlyForPeriodsWithManyUsers() {
+        // Arrange
+        when(histogram.estimate(FROM, TO)).thenReturn(25_000L);
+        when(histogram.estimate(FROM, FROM)).thenReturn(10L);
+
+        // Act&Assert
+        assertTrue(query.isWorthSplitting(FROM, TO));
+        assertFalse(query.isWorthSplitting(FROM, FROM));
+    }
+
+    @Test
+    void findAllByBirthDateBetween_ConcatenatesPartsInOrder() {
+        // Arrange
+        List<BirthDateHistogram.DateRange> ranges = List.of(
+                new BirthDateHistogram.DateRange(FROM, LocalDate.of(1985, 12, 31)),
+                new BirthDateHistogram.DateRange(LocalDate.of(1986, 1, 1), LocalDate.of(1991, 6, 30)),
+                new BirthDateHistogram.DateRange(LocalDate.of(1991, 7, 1), TO));
+        when(histogram.estimate(FROM, TO)).thenReturn(25_000L);
+        when(histogram.split(FROM, TO, 3)).thenReturn(ranges);
+        for (int i = 0; i < ranges.size(); i++) {
+            BirthDateHistogram.DateRange range = ranges.get(i);
+            when(userRepository.findAllByBirthDateBetweenOrderByBirthDateAscIdAsc(range.from(), range.to()))
+                    .thenReturn(List.of(user(2L * i, range.from()), user(2L * i + 1, range.to())));
+        }
+
+        // Act
+        List<User> users = query.findAllByBirthDateBetween(FROM, TO);
+
+        // Assert
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L), users.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void findAllByBirthDateBetween_KeepsFirstRowOfUserReadByTwoParts() {
+        // Arrange
+        LocalDate middle = LocalDate.of(1990, 1, 1);
+        when(histogram.estimate(FROM, TO)).thenReturn(15_000L);
+        when(histogram.split(FROM, TO, 2)).thenReturn(List.of(
+                new BirthDateHistogram.DateRange(FROM, middle),
+                new BirthDateHistogram.DateRange(middle.plusDays(1), TO)));
+        // user 2 moved into the second part after the first one had read it
+        when(userRepository.findAllByBirthDateBetweenOrderByBirthDateAscIdAsc(FROM, middle))
+                .thenReturn(List.of(user(1, FROM), user(2, middle)));
+        when(userRepository.findAllByBirthDateBetweenOrderByBirthDateAscIdAsc(middle.plusDays(1), TO))
+                .thenReturn(List.of(user(2, TO), user(3, TO)));
+
+        // Act
+        List<User> users = query.findAllByBirthDateBetween(FROM, TO);
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L), users.stream().map(User::getId).toList());
+        assertEquals(middle, users.get(1).getBirthDate());
+    }
+
+    @Test
+    void findAllByBirthDateBetween_RethrowsFailureOfAPart() {
+        // Arrange
+        LocalDate middle = LocalDate.of(1990, 1, 1);
+        when(histogram.estimate(FROM, TO)).thenReturn(15_000L);
+        when(histogram.split(FROM, TO, 2)).thenReturn(List.of(
+                new BirthDateHistogram.DateRange(FROM, middle),
+                new BirthDateHistogram.DateRange(middle.plusDays(1), TO)));
+        when(userRepository.findAllByBirthDateBetweenOrderByBirthDateAscIdAsc(any(), eq(TO)))
+                .thenThrow(new IllegalStateException("connection lost"));
+
+        // Act&Assert
+        assertThrows(IllegalStateException.class, () -> query.findAllByBirthDateBetween(FROM, TO));
+    }
+
+    private static User user(long id, LocalDate birthDate) {
+        return User.builder().id(id).birthDate(birthDate).build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.krasnopolskyi.usersapitask.service;
+
+import com.krasnopolskyi.usersapitask.exception.QueryTooLargeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RangeQueryPlannerTest {
+    private static final LocalDate FIRST = LocalDate.of(1950, 1, 1);
+    private static final LocalDate LAST = LocalDate.of(2010, 12, 31);
+
+    private final BirthDateHistogram histogram = mock(BirthDateHistogram.class);
+    private final RangeQueryPlanner planner = new RangeQueryPlanner(histogram, new MockEnvironment()
+            .withProperty("users.range.guard.clients.reports.max-rows", "1000000")
+            .withProperty("users.range.guard.clients.reports.max-paged-rows", "2000000"),
+            true, 100_000, 1_000_000);
+
+    @BeforeEach
+    void setUp() {
+        when(histogram.isLoaded()).thenReturn(true);
+        when(histogram.span()).thenReturn(Optional.of(new BirthDateHistogram.DateRange(FIRST, LAST)));
+    }
+
+    @Test
+    void plan_ServesDirectly_WhenPeriodIsSmall() throws QueryTooLargeException {
+        // Arrange
+        when(histogram.estimate(LocalDate.of(2000, 1, 1), LocalDate.of(2000, 12, 31))).thenReturn(20_000L);
+
+        // Act
+        RangeQueryPlanner.Plan plan = planner.plan(LocalDate.of(2000, 1, 1), LocalDate.of(2000, 12, 31), null, false);
+
+        // Assert
+        assertEquals(RangeQueryPlanner.Strategy.DIRECT, plan.strategy());
+        assertEquals(20_000, plan.estimatedRows());
+    }
+
+    @Test
+    void plan_ClampsOpenEndsToKnownBirthDates() throws QueryTooLargeException {
+        // Arrange
+        when(histogram.estimate(FIRST, LAST)).thenReturn(50_000L);
+        when(histogram.estimate(LocalDate.of(2000, 1, 1), LAST)).thenReturn(10_000L);
+
+        // Act&Assert
+        assertEquals(50_000, planner.plan(null, null, null, false).estimatedRows());
+        assertEquals(50_000, planner.plan(LocalDate.of(1900, 1, 1), LocalDate.of(2020, 1, 1), null, false)
+                .estimatedRows());
+        assertEquals(10_000, planner.plan(LocalDate.of(2000, 1, 1), null, null, false).estimatedRows());
+        assertEquals(0, planner.plan(LocalDate.of(2020, 1, 1), null, null, false).estimatedRows());
+    }
+
+    @Test
+    void plan_RequiresPaging_WhenPeriodExceedsMaxRows() throws QueryTooLargeException {
+        // Arrange
+        when(histogram.estimate(FIRST, LAST)).thenReturn(500_000L);
+
+        // Act&Assert
+        QueryTooLargeException exception = assertThrows(QueryTooLargeException.class, () ->
+                planner.plan(null, null, null, false));
+        assertEquals(413, exception.getExceptionStatus());
+        assertTrue(exception.getMessage().contains("'page' and 'size'"), exception.getMessage());
+        assertEquals(RangeQueryPlanner.Strategy.PAGED, planner.plan(null, null, null, true).strategy());
+    }
+
+    @Test
+    void plan_Rejects_WhenPeriodExceedsMaxPagedRows() {
+        // Arrange
+        when(histogram.estimate(FIRST, LAST)).thenReturn(1_500_000L);
+
+        // Act&Assert
+        QueryTooLargeException exception = assertThrows(QueryTooLargeException.class, () ->
+                planner.plan(null, null, null, true));
+        assertTrue(exception.getMessage().contains("Narrow the period"), exception.getMessage());
+    }
+
+    @Test
+    void plan_AppliesClientLimits() throws QueryTooLargeException {
+        // Arrange
+        when(histogram.estimate(FIRST, LAST)).thenReturn(500_000L);
+
+        // Act&Assert
+        assertEquals(RangeQueryPlanner.Strategy.DIRECT, planner.plan(null, null, "reports", false).strategy());
+        assertThrows(QueryTooLargeException.class, () -> planner.plan(null, null, "dashboard", false));
+    }
+
+    @Test
+    void plan_ServesDirectly_WhenHistogramIsNotLoaded() throws QueryTooLargeException {
+        // Arrange
+        when(histogram.span()).thenReturn(Optional.empty());
+
+        // Act&Assert
+        assertEquals(RangeQueryPlanner.Strategy.DIRECT, planner.plan(null, null, null, false).strategy());
+        verify(histogram, never()).estimate(any(), any());
+    }
+
+    @Test
+    void plan_RequiresPagingOrBoundedPeriod_UntilHistogramIsLoaded() throws QueryTooLargeException {
+        // Arrange
+        when(histogram.isLoaded()).thenReturn(false);
+
+        // Act&Assert
+        assertThrows(QueryTooLargeException.class, () -> planner.plan(null, null, null, false));
+        assertThrows(QueryTooLargeException.class, () -> planner.plan(FIRST, null, null, false));
+        assertEquals(RangeQueryPlanner.Strategy.PAGED, planner.plan(null, null, null, true).strategy());
+        assertEquals(RangeQueryPlanner.Strategy.DIRECT, planner.plan(FIRST, LAST, null, false).strategy());
+        verify(histogram, never()).estimate(any(), any());
+    }
+}
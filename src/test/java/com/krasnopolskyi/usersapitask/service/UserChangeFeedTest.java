@@ -0,0 +1,113 @@
+package com.krasnopolskyi.usersapitask.service;
+
+import com.krasnopolskyi.usersapitask.dto.UserChangesResponseDto;
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.entity.UserEvent;
+import com.krasnopolskyi.usersapitask.event.UserChangedEvent;
+import com.krasnopolskyi.usersapitask.exception.ValidationException;
+import com.krasnopolskyi.usersapitask.repository.UserEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserChangeFeedTest {
+    @Mock
+    private UserEventRepository userEventRepository;
+    private UserChangeFeed userChangeFeed;
+    private UserEvent event;
+
+    @BeforeEach
+    void setUp() {
+        userChangeFeed = new UserChangeFeed(userEventRepository, 30_000, 5_000);
+        event = event(6L, LocalDateTime.now());
+    }
+
+    @AfterEach
+    void tearDown() {
+        userChangeFeed.shutdown();
+    }
+
+    @Test
+    void poll_ReturnsEventsAtOnce_WhenAvailable() throws ValidationException {
+        // Arrange
+        when(userEventRepository.findAllByIdGreaterThanOrderByIdAsc(5L, PageRequest.ofSize(10)))
+                .thenReturn(List.of(event));
+
+        // Act
+        DeferredResult<UserChangesResponseDto> result = userChangeFeed.poll(5L, 10, 1000);
+
+        // Assert
+        assertEquals(new UserChangesResponseDto(List.of(event), 6L), result.getResult());
+    }
+
+    @Test
+    void poll_CompletesParkedPoll_WhenChangeCommitted() throws ValidationException, InterruptedException {
+        // Arrange
+        when(userEventRepository.findAllByIdGreaterThanOrderByIdAsc(5L, PageRequest.ofSize(10)))
+                .thenReturn(List.of())
+                .thenReturn(List.of(event));
+        DeferredResult<UserChangesResponseDto> result = userChangeFeed.poll(5L, 10, 1000);
+        assertFalse(result.hasResult());
+
+        // Act
+        userChangeFeed.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.CREATED, new User()));
+
+        // Assert
+        for (int attempt = 0; attempt < 100 && !result.hasResult(); attempt++) {
+            Thread.sleep(10); // the parked poll is completed by the dispatcher thread
+        }
+        assertEquals(new UserChangesResponseDto(List.of(event), 6L), result.getResult());
+    }
+
+    @Test
+    void poll_StopsAtGap_UntilEventsBehindItPassTheHorizon() throws ValidationException {
+        // Arrange
+        UserEvent behindRecentGap = event(8L, LocalDateTime.now());
+        when(userEventRepository.findAllByIdGreaterThanOrderByIdAsc(5L, PageRequest.ofSize(10)))
+                .thenReturn(List.of(event, behindRecentGap));
+
+        // Act
+        DeferredResult<UserChangesResponseDto> result = userChangeFeed.poll(5L, 10, 0);
+
+        // Assert
+        assertEquals(new UserChangesResponseDto(List.of(event), 6L), result.getResult());
+    }
+
+    @Test
+    void poll_ReturnsEventsBehindGap_WhenOlderThanTheHorizon() throws ValidationException {
+        // Arrange
+        UserEvent behindSettledGap = event(8L, LocalDateTime.now().minusMinutes(1));
+        when(userEventRepository.findAllByIdGreaterThanOrderByIdAsc(6L, PageRequest.ofSize(10)))
+                .thenReturn(List.of(behindSettledGap));
+
+        // Act
+        DeferredResult<UserChangesResponseDto> result = userChangeFeed.poll(6L, 10, 0);
+
+        // Assert
+        assertEquals(new UserChangesResponseDto(List.of(behindSettledGap), 8L), result.getResult());
+    }
+
+    @Test
+    void poll_ThrowException_WhenLimitOutOfRange() {
+        // Act&Assert
+        assertThrows(ValidationException.class, () -> userChangeFeed.poll(0, 5000, 1000));
+    }
+
+    private static UserEvent event(long id, LocalDateTime createdAt) {
+        return UserEvent.builder()
+                .id(id).userId(1L).eventType(UserChangedEvent.Type.CREATED).payload("{}").createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,137 @@
+package com.krasnopolskyi.usersapitask.service;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import com.krasnopolskyi.usersapitask.warmup.WarmUserSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserLoaderTest {
+    @Mock
+    private UserRepository userRepository;
+    private UserLoader userLoader;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        // a long window so that the test decides when a batch is flushed
+        userLoader = new UserLoader(userRepository, Optional.empty(), TimeUnit.SECONDS.toMicros(30), 3, 1);
+        user = User.builder().id(1L).email("johngold@gold.ua").build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userLoader.shutdown();
+    }
+
+    @Test
+    void load_SharesOneQuery_ForConcurrentLoadsOfSameAndDifferentIds() {
+        // Arrange
+        when(userRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(user));
+
+        // Act
+        CompletableFuture<Optional<User>> first = userLoader.load(1L);
+        CompletableFuture<Optional<User>> second = userLoader.load(1L);
+        CompletableFuture<Optional<User>> missing = userLoader.load(2L);
+        userLoader.flush();
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(Optional.of(user), first.join());
+        assertEquals(Optional.empty(), missing.join());
+        verify(userRepository, times(1)).findAllById(anyList());
+    }
+
+    @Test
+    void load_FlushesImmediately_WhenBatchIsFull() {
+        // Arrange
+        when(userRepository.findAllById(List.of(1L, 2L, 3L))).thenReturn(List.of(user));
+
+        // Act
+        List<User> users = userLoader.loadAll(List.of(1L, 2L, 3L, 1L));
+
+        // Assert
+        assertEquals(List.of(user), users);
+    }
+
+    @Test
+    void load_StartsNewLoad_AfterPreviousCompleted() {
+        // Arrange
+        when(userRepository.findAllById(List.of(1L))).thenReturn(List.of(user));
+        CompletableFuture<Optional<User>> first = userLoader.load(1L);
+        userLoader.flush();
+
+        // Act
+        CompletableFuture<Optional<User>> second = userLoader.load(1L);
+        userLoader.flush();
+
+        // Assert
+        assertNotSame(first, second);
+        assertEquals(Optional.of(user), second.join());
+        verify(userRepository, times(2)).findAllById(List.of(1L));
+    }
+
+    @Test
+    void load_CompletesExceptionally_WhenQueryFails() {
+        // Arrange
+        when(userRepository.findAllById(anyList())).thenThrow(new IllegalStateException("db is down"));
+
+        // Act
+        CompletableFuture<Optional<User>> future = userLoader.load(1L);
+        userLoader.flush();
+
+        // Assert
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    void loadAll_RethrowsQueryFailure_Unwrapped() {
+        // Arrange
+        when(userRepository.findAllById(anyList())).thenThrow(new IllegalStateException("db is down"));
+
+        // Act&Assert
+        // a full batch is flushed on a loader thread right away
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> userLoader.loadAll(List.of(1L, 2L, 3L)));
+        assertEquals("db is down", exception.getMessage());
+    }
+
+    @Test
+    void load_ServesWarmSnapshot_WithoutQuery_AndReportsLoadedIds() {
+        // Arrange
+        WarmUserSnapshot warmSnapshot = mock(WarmUserSnapshot.class);
+        UserLoader warmLoader = new UserLoader(userRepository, Optional.of(warmSnapshot),
+                TimeUnit.SECONDS.toMicros(30), 3, 1);
+        User cold = User.builder().id(2L).email("janegold@gold.ua").build();
+        when(warmSnapshot.find(1L)).thenReturn(Optional.of(user));
+        when(warmSnapshot.find(2L)).thenReturn(Optional.empty());
+        when(userRepository.findAllById(List.of(2L))).thenReturn(List.of(cold));
+
+        // Act
+        CompletableFuture<Optional<User>> warm = warmLoader.load(1L);
+        CompletableFuture<Optional<User>> loaded = warmLoader.load(2L);
+        warmLoader.flush();
+        warmLoader.shutdown();
+
+        // Assert
+        assertEquals(Optional.of(user), warm.join());
+        assertEquals(Optional.of(cold), loaded.join());
+        verify(userRepository).findAllById(List.of(2L));
+        verify(warmSnapshot).recordLoaded(Set.of(2L));
+    }
+}
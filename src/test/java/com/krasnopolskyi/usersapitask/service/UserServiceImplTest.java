@@ -1,13 +1,18 @@
 package com.krasnopolskyi.usersapitask.service;
 
+import com.krasnopolskyi.usersapitask.archive.UserArchive;
 import com.krasnopolskyi.usersapitask.dto.UserPostRequestDto;
 import com.krasnopolskyi.usersapitask.dto.UserPatchRequestDto;
 import com.krasnopolskyi.usersapitask.dto.UserPutRequestDto;
 import com.krasnopolskyi.usersapitask.entity.User;
 import com.krasnopolskyi.usersapitask.exception.MinimumAgeException;
+import com.krasnopolskyi.usersapitask.exception.QueryTooLargeException;
 import com.krasnopolskyi.usersapitask.exception.UserAppException;
 import com.krasnopolskyi.usersapitask.exception.ValidationException;
+import com.krasnopolskyi.usersapitask.journal.WriteBehindUserWriter;
+import com.krasnopolskyi.usersapitask.event.UserChangedEvent;
 import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import com.krasnopolskyi.usersapitask.search.UserSearchIndex;
 import com.krasnopolskyi.usersapitask.utils.UserValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,11 +22,16 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,14 +43,25 @@ class UserServiceImplTest {
     private UserRepository userRepository;
     @Mock
     private UserValidator userValidator;
+    @Mock
+    private UserSearchIndex userSearchIndex;
+    @Mock
+    private UserLoader userLoader;
+    @Mock
+    private ParallelRangeQuery parallelRangeQuery;
+    @Mock
+    private RangeQueryPlanner rangeQueryPlanner;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private UserServiceImpl userService;
     private User user;
 
     @BeforeEach
     private void setUp() {
-        userService = new UserServiceImpl(userRepository, userValidator);
-        ReflectionTestUtils.setField(userValidator, "minimumAge", 18); // mock value from application.yaml
+        userService = new UserServiceImpl(
+                userRepository, userValidator, userSearchIndex, userLoader, parallelRangeQuery, rangeQueryPlanner,
+                new EmailLocks(16), Optional.empty(), Optional.empty(), eventPublisher);
         user = User.builder()
                 .id(1L)
                 .email("johngold@gold.ua")
@@ -55,7 +76,7 @@ class UserServiceImplTest {
     @Test
     void getUserById_ReturnUser_whenExists() throws UserAppException {
         // Arrange
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+        when(userLoader.get(Mockito.anyLong())).thenReturn(Optional.of(user));
         // Act
         User testUser = userService.getUserById(1L);
         // Assert
@@ -65,7 +86,7 @@ class UserServiceImplTest {
     @Test
     void getUserById_ThrowException_whenNotExists() throws UserAppException {
         // Arrange
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
+        when(userLoader.get(Mockito.anyLong())).thenReturn(Optional.empty());
         //  Act&Assert
         assertThrows(UserAppException.class, () -> userService.getUserById(1L));
     }
@@ -83,6 +104,7 @@ class UserServiceImplTest {
         verify(userRepository, times(1)).findById(1L);
         verify(userRepository, times(1)).delete(user);
         verify(userRepository, times(1)).flush();
+        verify(eventPublisher, times(1)).publishEvent(new UserChangedEvent(UserChangedEvent.Type.DELETED, user));
     }
 
     @Test
@@ -101,66 +123,149 @@ class UserServiceImplTest {
     }
 
     @Test
-    void getUsersByBirthDate_ReturnsAllUsers_WhenBothDatesNull() throws ValidationException {
+    void getUsersByBirthDate_ReturnsAllUsers_WhenBothDatesNull() throws UserAppException, ValidationException {
         // Arrange
+        planDirect();
         when(userRepository.findAll()).thenReturn(List.of(user));
 
         // Act
-        List<User> result = userService.getUsersByBirthDate(null, null);
+        List<User> result = userService.getUsersByBirthDate(null, null, null, null, null);
 
         // Assert
         assertEquals(List.of(user), result);
     }
 
     @Test
-    void getUsersByBirthDate_ReturnsUsersInPeriod_WhenBothDatesProvided() throws ValidationException {
+    void getUsersByBirthDate_ReturnsUsersInPeriod_WhenBothDatesProvided() throws UserAppException, ValidationException {
         // Arrange
         LocalDate startDate = LocalDate.of(2000, 1, 1);
         LocalDate endDate = LocalDate.of(2001, 1, 1);
+        planDirect();
         when(userRepository.findAllByBirthDateBetween(startDate, endDate)).thenReturn(List.of(user));
 
         // Act
-        List<User> result = userService.getUsersByBirthDate(startDate.toString(), endDate.toString());
+        List<User> result = userService.getUsersByBirthDate(
+                startDate.toString(), endDate.toString(), null, null, null);
 
         // Assert
         assertEquals(List.of(user), result);
     }
 
     @Test
-    void getUsersByBirthDate_ThrowException_WhenBothDatesProvided() throws ValidationException {
+    void getUsersByBirthDate_QueriesInParallel_WhenPeriodIsWide() throws UserAppException, ValidationException {
+        // Arrange
+        LocalDate startDate = LocalDate.of(1950, 1, 1);
+        LocalDate endDate = LocalDate.of(2000, 1, 1);
+        planDirect();
+        when(parallelRangeQuery.isWorthSplitting(startDate, endDate)).thenReturn(true);
+        when(parallelRangeQuery.findAllByBirthDateBetween(startDate, endDate)).thenReturn(List.of(user));
+
+        // Act
+        List<User> result = userService.getUsersByBirthDate(
+                startDate.toString(), endDate.toString(), null, null, null);
+
+        // Assert
+        assertEquals(List.of(user), result);
+        verify(userRepository, never()).findAllByBirthDateBetween(any(), any());
+    }
+
+    @Test
+    void getUsersByBirthDate_ThrowException_WhenBothDatesProvided() {
         // Arrange
         LocalDate startDate = LocalDate.of(2003, 1, 1);
         LocalDate endDate = LocalDate.of(2001, 1, 1);
 
         // Act&Assert
         assertThrows(ValidationException.class, () ->
-                userService.getUsersByBirthDate(startDate.toString(), endDate.toString()));
+                userService.getUsersByBirthDate(startDate.toString(), endDate.toString(), null, null, null));
     }
 
     @Test
-    void getUsersByBirthDate_ReturnsUsersAfterStartDate_WhenStartDateProvided() throws ValidationException {
+    void getUsersByBirthDate_ReturnsUsersAfterStartDate_WhenStartDateProvided()
+            throws UserAppException, ValidationException {
         // Arrange
         LocalDate startDate = LocalDate.of(2000, 1, 1);
+        planDirect();
         when(userRepository.findAllByBirthDateAfter(startDate)).thenReturn(List.of(user));
 
         // Act
-        List<User> result = userService.getUsersByBirthDate(startDate.toString(), null);
+        List<User> result = userService.getUsersByBirthDate(startDate.toString(), null, null, null, null);
 
         // Assert
         assertEquals(List.of(user), result);
     }
 
     @Test
-    void getUsersByBirthDate_ReturnsUsersBeforeEndDate_WhenEndDateProvided() throws ValidationException {
+    void getUsersByBirthDate_ReturnsUsersBeforeEndDate_WhenEndDateProvided()
+            throws UserAppException, ValidationException {
         // Arrange
         LocalDate endDate = LocalDate.of(2000, 1, 1);
+        planDirect();
         when(userRepository.findAllByBirthDateBefore(endDate)).thenReturn(List.of(user));
 
         // Act
-        List<User> result = userService.getUsersByBirthDate(null, endDate.toString());
+        List<User> result = userService.getUsersByBirthDate(null, endDate.toString(), null, null, null);
+
+        // Assert
+        assertEquals(List.of(user), result);
+    }
+
+    @Test
+    void getUsersByBirthDate_ReadsOnePage_WhenPageRequested() throws UserAppException, ValidationException {
+        // Arrange
+        LocalDate startDate = LocalDate.of(2000, 1, 1);
+        when(rangeQueryPlanner.plan(startDate, null, "reports", true))
+                .thenReturn(new RangeQueryPlanner.Plan(RangeQueryPlanner.Strategy.PAGED, 500_000));
+        when(userRepository.findAllByBirthDateBetween(LocalDate.of(2000, 1, 2), LocalDate.of(9999, 12, 31),
+                PageRequest.of(3, 1000, Sort.by("birthDate", "id")))).thenReturn(List.of(user));
+
+        // Act
+        List<User> result = userService.getUsersByBirthDate(startDate.toString(), null, "reports", 3, null);
 
         // Assert
         assertEquals(List.of(user), result);
+        verify(userRepository, never()).findAllByBirthDateAfter(any());
+    }
+
+    @Test
+    void streamUsersByBirthDate_StreamsFromCursor_WithBoundsOfUnpagedQuery()
+            throws UserAppException, ValidationException {
+        // Arrange
+        LocalDate startDate = LocalDate.of(2000, 1, 1);
+        when(userRepository.streamAllByBirthDateBetween(LocalDate.of(2000, 1, 2), LocalDate.of(9999, 12, 31)))
+                .thenReturn(Stream.of(user));
+
+        // Act
+        List<User> result;
+        try (Stream<User> stream = userService.streamUsersByBirthDate(startDate.toString(), null, null)) {
+            result = stream.toList();
+        }
+
+        // Assert
+        assertEquals(List.of(user), result);
+        verify(rangeQueryPlanner).plan(startDate, null, null, false);
+        verify(userRepository, never()).findAllByBirthDateAfter(any());
+    }
+
+    @Test
+    void getUsersByBirthDate_ThrowException_WhenPageSizeTooLarge() {
+        // Act&Assert
+        assertThrows(ValidationException.class, () ->
+                userService.getUsersByBirthDate("2000-01-01", "2001-01-01", null, 0, 1001));
+        verifyNoInteractions(rangeQueryPlanner);
+    }
+
+    @Test
+    void getUsersByBirthDate_ThrowException_WhenPlannerRejectsPeriod() throws UserAppException {
+        // Arrange
+        when(rangeQueryPlanner.plan(null, null, null, false))
+                .thenThrow(new QueryTooLargeException("Read it page by page"));
+
+        // Act&Assert
+        QueryTooLargeException exception = assertThrows(QueryTooLargeException.class, () ->
+                userService.getUsersByBirthDate(null, null, null, null, null));
+        assertEquals(413, exception.getExceptionStatus());
+        verify(userRepository, never()).findAll();
     }
 
     @Test
@@ -190,6 +295,52 @@ class UserServiceImplTest {
         assertEquals(userDto.getPhoneNumber(), result.getPhoneNumber());
     }
 
+    @Test
+    void createUser_DefersInsert_WhenWriteBehindEnabled() throws MinimumAgeException, ValidationException {
+        // Arrange
+        WriteBehindUserWriter writer = mock(WriteBehindUserWriter.class);
+        UserServiceImpl writeBehindService = new UserServiceImpl(
+                userRepository, userValidator, userSearchIndex, userLoader, parallelRangeQuery, rangeQueryPlanner,
+                new EmailLocks(16), Optional.of(writer), Optional.empty(), eventPublisher);
+        UserPostRequestDto userDto = UserPostRequestDto.builder()
+                .email("johngold@gold.ua")
+                .firstname("John")
+                .lastname("Gold")
+                .birthDate(LocalDate.of(2000, 1, 1))
+                .build();
+        when(writer.append(any(User.class))).thenReturn(true);
+
+        // Act
+        User result = writeBehindService.createUser(userDto);
+
+        // Assert
+        assertNull(result.getId());
+        verify(writer, times(1)).reserve("johngold@gold.ua");
+        verify(writer, never()).release(anyString());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void createUser_ReleasesReservation_WhenJournalWriteFails() throws ValidationException {
+        // Arrange
+        WriteBehindUserWriter writer = mock(WriteBehindUserWriter.class);
+        UserServiceImpl writeBehindService = new UserServiceImpl(
+                userRepository, userValidator, userSearchIndex, userLoader, parallelRangeQuery, rangeQueryPlanner,
+                new EmailLocks(16), Optional.of(writer), Optional.empty(), eventPublisher);
+        UserPostRequestDto userDto = UserPostRequestDto.builder()
+                .email("johngold@gold.ua")
+                .firstname("John")
+                .lastname("Gold")
+                .birthDate(LocalDate.of(2000, 1, 1))
+                .build();
+        when(writer.append(any(User.class))).thenThrow(new UncheckedIOException(new IOException("disk full")));
+
+        // Act&Assert
+        assertThrows(UncheckedIOException.class, () -> writeBehindService.createUser(userDto));
+        verify(writer, times(1)).release("johngold@gold.ua");
+        verify(userRepository, never()).save(any(User.class));
+    }
+
     @Test
     void createUser_ThrowsMinimumAgeException_WhenUnderage() throws MinimumAgeException {
         // Arrange
@@ -361,4 +512,65 @@ class UserServiceImplTest {
         verify(userRepository, never()).save(any(User.class));
     }
 
+    @Test
+    void searchUsers_ReturnsUsersInRankOrder_WhenIndexMatches() throws ValidationException {
+        // Arrange
+        User user2 = User.builder().id(2L).email("goldie@gold.ua").firstname("Goldie").lastname("Hawn").build();
+        when(userSearchIndex.search("gold", 0, 20)).thenReturn(List.of(2L, 1L));
+        when(userRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(user, user2));
+
+        // Act
+        List<User> result = userService.searchUsers("gold", 0, 20);
+
+        // Assert
+        assertEquals(List.of(user2, user), result);
+    }
+
+    @Test
+    void searchUsers_ThrowException_WhenQueryBlank() {
+        // Act&Assert
+        assertThrows(ValidationException.class, () -> userService.searchUsers("  ", 0, 20));
+        verifyNoInteractions(userSearchIndex);
+    }
+
+    @Test
+    void getUserById_RestoresUser_WhenArchived() throws UserAppException {
+        // Arrange
+        UserArchive userArchive = mock(UserArchive.class);
+        UserServiceImpl archivingService = new UserServiceImpl(
+                userRepository, userValidator, userSearchIndex, userLoader, parallelRangeQuery, rangeQueryPlanner,
+                new EmailLocks(16), Optional.empty(), Optional.of(userArchive), eventPublisher);
+        when(userLoader.get(1L)).thenReturn(Optional.empty());
+        when(userArchive.restore(1L)).thenReturn(Optional.of(user));
+
+        // Act
+        User result = archivingService.getUserById(1L);
+
+        // Assert
+        assertEquals(user, result);
+        verify(userArchive).recordAccess(1L);
+    }
+
+    @Test
+    void createUser_ThrowException_WhenEmailIsArchived() throws ValidationException {
+        // Arrange
+        UserArchive userArchive = mock(UserArchive.class);
+        UserServiceImpl archivingService = new UserServiceImpl(
+                userRepository, userValidator, userSearchIndex, userLoader, parallelRangeQuery, rangeQueryPlanner,
+                new EmailLocks(16), Optional.empty(), Optional.of(userArchive), eventPublisher);
+        UserPostRequestDto userDto = UserPostRequestDto.builder()
+                .email("johngold@gold.ua")
+                .birthDate(LocalDate.of(2000, 1, 1))
+                .build();
+        when(userArchive.existsByEmail("johngold@gold.ua")).thenReturn(true);
+
+        // Act&Assert
+        assertThrows(ValidationException.class, () -> archivingService.createUser(userDto));
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    private void planDirect() throws QueryTooLargeException {
+        when(rangeQueryPlanner.plan(any(), any(), any(), anyBoolean()))
+                .thenReturn(new RangeQueryPlanner.Plan(RangeQueryPlanner.Strategy.DIRECT, 0));
+    }
 }
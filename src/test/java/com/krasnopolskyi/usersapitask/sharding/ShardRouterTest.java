@@ -0,0 +1,57 @@
+package com.krasnopolskyi.usersapitask.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRouterTest {
+
+    @Test
+    void globalId_RoundTripsShardAndLocalId() {
+        // Arrange
+        ShardRouter router = new ShardRouter(8);
+
+        // Act
+        long id = router.globalId(5, 123_456_789L);
+
+        // Assert
+        assertEquals(5, router.shardOfId(id));
+        assertEquals(123_456_789L, router.localId(id));
+    }
+
+    @Test
+    void shardOfId_ReturnsMinusOne_ForIdsOutsideThePartitions() {
+        // Arrange
+        ShardRouter router = new ShardRouter(4);
+
+        // Act&Assert
+        assertEquals(-1, router.shardOfId(router.globalId(6, 1)));
+        assertEquals(-1, router.shardOfId(0));
+        assertEquals(-1, router.shardOfId(-3));
+    }
+
+    @Test
+    void shardOfEmail_IgnoresCase_AndSpreadsEmails() {
+        // Arrange
+        ShardRouter router = new ShardRouter(4);
+        int[] counts = new int[4];
+
+        // Act
+        IntStream.range(0, 10_000).forEach(i -> counts[router.shardOfEmail("user" + i + "@example.com")]++);
+
+        // Assert
+        assertEquals(router.shardOfEmail("john@gold.ua"), router.shardOfEmail("John@Gold.UA"));
+        for (int count : counts) {
+            assertTrue(count > 2_000 && count < 3_000, "unbalanced partition with " + count + " users");
+        }
+    }
+
+    @Test
+    void constructor_Throws_WhenShardCountOutOfRange() {
+        // Act&Assert
+        assertThrows(IllegalArgumentException.class, () -> new ShardRouter(0));
+        assertThrows(IllegalArgumentException.class, () -> new ShardRouter(ShardRouter.MAX_SHARDS + 1));
+    }
+}
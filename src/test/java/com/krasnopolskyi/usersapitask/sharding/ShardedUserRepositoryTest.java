@@ -0,0 +1,119 @@
+package com.krasnopolskyi.usersapitask.sharding;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.repository.BirthMonthCount;
+import com.krasnopolskyi.usersapitask.repository.UserBirthDateView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against three in-memory H2 databases in MySQL mode, one per partition.
+ */
+class ShardedUserRepositoryTest {
+    private static final LocalDate DAY = LocalDate.of(1990, 6, 15);
+
+    private ShardedUserStore store;
+    private ShardedUserRepository userRepository;
+    private User before;
+    private User on;
+    private User after;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString();
+        List<DataSource> dataSources = IntStream.range(0, 3)
+                .<DataSource>mapToObj(shard -> new DriverManagerDataSource(
+                        "jdbc:h2:mem:shard" + shard + "-" + run + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "sa", ""))
+                .toList();
+        store = new ShardedUserStore(dataSources, 4);
+        store.initSchema();
+        userRepository = new ShardedUserRepository(store);
+        after = userRepository.save(user("c@gold.ua", DAY.plusDays(1)));
+        on = userRepository.save(user("b@gold.ua", DAY));
+        before = userRepository.save(user("a@gold.ua", DAY.minusDays(1)));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+    }
+
+    @Test
+    void derivedQueries_KeepJpaSemantics() {
+        // Act&Assert
+        assertEquals(List.of(after), userRepository.findAllByBirthDateAfter(DAY));
+        assertEquals(List.of(before), userRepository.findAllByBirthDateBefore(DAY));
+        assertEquals(List.of(on), userRepository.findAllByBirthDateBetween(DAY, DAY));
+        assertEquals(List.of(before, on, after),
+                userRepository.findAllByBirthDateBetweenOrderByBirthDateAscIdAsc(DAY.minusDays(1), DAY.plusDays(1)));
+        assertTrue(userRepository.existsByEmail("b@gold.ua"));
+        assertEquals(List.of("a@gold.ua"), userRepository.findExistingEmails(List.of("a@gold.ua", "x@gold.ua")));
+    }
+
+    @Test
+    void findAllByBirthDateBetween_ReturnsRequestedPage_AcrossPartitions() {
+        // Act&Assert
+        assertEquals(List.of(before, on), userRepository.findAllByBirthDateBetween(
+                DAY.minusDays(1), DAY.plusDays(1), PageRequest.of(0, 2)));
+        assertEquals(List.of(after), userRepository.findAllByBirthDateBetween(
+                DAY.minusDays(1), DAY.plusDays(1), PageRequest.of(1, 2)));
+        assertEquals(List.of(), userRepository.findAllByBirthDateBetween(
+                DAY.plusDays(5), DAY.plusDays(9), PageRequest.of(0, 2)));
+    }
+
+    @Test
+    void save_UpdatesExistingUser_AndRestoresUserWithItsId() {
+        // Arrange
+        on.setFirstname("Jane");
+        userRepository.delete(before);
+
+        // Act
+        userRepository.save(on);
+        userRepository.save(before);
+
+        // Assert
+        assertEquals("Jane", userRepository.findById(on.getId()).orElseThrow().getFirstname());
+        assertEquals(before, userRepository.findById(before.getId()).orElseThrow());
+        assertEquals(3, userRepository.count());
+    }
+
+    @Test
+    void scans_CountAndStreamEveryPartition() {
+        // Act
+        List<BirthMonthCount> counts = userRepository.countByBirthMonth();
+        List<Long> streamedIds = userRepository.streamBirthDates().map(UserBirthDateView::getId).toList();
+
+        // Assert
+        assertEquals(1, counts.size());
+        assertEquals(1990, counts.get(0).getYear());
+        assertEquals(6, counts.get(0).getMonth());
+        assertEquals(3, counts.get(0).getUsers());
+        assertEquals(List.of(before, on, after).stream().map(User::getId).sorted(Comparator.naturalOrder()).toList(),
+                streamedIds);
+        assertEquals(3, userRepository.streamSearchViews().count());
+    }
+
+    private static User user(String email, LocalDate birthDate) {
+        return User.builder()
+                .email(email)
+                .firstname("John")
+                .lastname("Gold")
+                .birthDate(birthDate)
+                .address("Earth")
+                .phoneNumber("1234567890")
+                .build();
+    }
+}
@@ -0,0 +1,174 @@
+package com.krasnopolskyi.usersapitask.sharding;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against three in-memory H2 databases in MySQL mode, one per partition.
+ */
+class ShardedUserStoreTest {
+    private static final int SHARDS = 3;
+
+    private ShardedUserStore store;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString();
+        List<DataSource> dataSources = IntStream.range(0, SHARDS)
+                .<DataSource>mapToObj(shard -> new DriverManagerDataSource(
+                        "jdbc:h2:mem:shard" + shard + "-" + run + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "sa", ""))
+                .toList();
+        store = new ShardedUserStore(dataSources, 4);
+        store.initSchema();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+    }
+
+    @Test
+    void insert_PlacesUserByEmail_AndFindByIdRoutesById() {
+        // Arrange
+        User user = user("john@gold.ua", LocalDate.of(1990, 1, 1));
+
+        // Act
+        store.insert(user);
+
+        // Assert
+        assertEquals(store.getRouter().shardOfEmail("john@gold.ua"), store.getRouter().shardOfId(user.getId()));
+        assertEquals(user, store.findById(user.getId()).orElseThrow());
+        assertTrue(store.existsByEmail("john@gold.ua"));
+        assertFalse(store.existsByEmail("jane@gold.ua"));
+    }
+
+    @Test
+    void findById_ReturnsEmpty_ForUnknownIds() {
+        // Act&Assert
+        assertTrue(store.findById(store.getRouter().globalId(1, 42)).isEmpty());
+        assertTrue(store.findById(store.getRouter().globalId(SHARDS + 1, 1)).isEmpty());
+    }
+
+    @Test
+    void findAllById_KeepsOrderOfIds_AcrossPartitions() {
+        // Arrange
+        List<User> users = insertUsers(30);
+        List<Long> ids = new ArrayList<>(users.stream().map(User::getId).toList());
+        Collections.reverse(ids);
+        ids.add(1, store.getRouter().globalId(0, 10_000));
+
+        // Act
+        List<User> found = store.findAllById(ids);
+
+        // Assert
+        assertEquals(ids.stream().filter(id -> id != store.getRouter().globalId(0, 10_000)).toList(),
+                found.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void findAllByBirthDateBetween_MergesPartitionsInOrder() {
+        // Arrange
+        List<User> users = insertUsers(60);
+        LocalDate from = LocalDate.of(1980, 3, 1);
+        LocalDate to = LocalDate.of(1980, 10, 31);
+        List<User> expected = users.stream()
+                .filter(user -> !user.getBirthDate().isBefore(from) && !user.getBirthDate().isAfter(to))
+                .sorted(Comparator.comparing(User::getBirthDate).thenComparing(User::getId))
+                .toList();
+
+        // Act
+        List<User> found = store.findAllByBirthDateBetween(from, to);
+
+        // Assert
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, found);
+        assertEquals(60, store.count());
+    }
+
+    @Test
+    void streamAll_MergesPartitionCursorsInIdOrder() {
+        // Arrange
+        List<User> users = insertUsers(60);
+
+        // Act
+        List<User> streamed;
+        try (Stream<User> stream = store.streamAll()) {
+            streamed = stream.toList();
+        }
+
+        // Assert
+        assertEquals(users.stream().sorted(Comparator.comparing(User::getId)).toList(), streamed);
+    }
+
+    @Test
+    void streamAllByBirthDateBetween_MergesPartitionCursorsInBirthDateOrder() {
+        // Arrange
+        List<User> users = insertUsers(60);
+        LocalDate from = LocalDate.of(1980, 3, 1);
+        LocalDate to = LocalDate.of(1980, 10, 31);
+
+        // Act
+        List<User> streamed;
+        try (Stream<User> stream = store.streamAllByBirthDateBetween(from, to)) {
+            streamed = stream.toList();
+        }
+
+        // Assert
+        assertEquals(store.findAllByBirthDateBetween(from, to), streamed);
+        assertEquals(users.stream().filter(user -> user.getBirthDate().getMonthValue() >= 3
+                && user.getBirthDate().getMonthValue() <= 10).count(), streamed.size());
+    }
+
+    @Test
+    void updateAndDelete_AreRoutedById() {
+        // Arrange
+        User user = store.insert(user("john@gold.ua", LocalDate.of(1990, 1, 1)));
+        user.setLastname("Silver");
+
+        // Act
+        boolean updated = store.update(user);
+        User reloaded = store.findById(user.getId()).orElseThrow();
+        boolean deleted = store.deleteById(user.getId());
+
+        // Assert
+        assertTrue(updated);
+        assertEquals("Silver", reloaded.getLastname());
+        assertTrue(deleted);
+        assertTrue(store.findById(user.getId()).isEmpty());
+        assertFalse(store.deleteById(user.getId()));
+    }
+
+    private List<User> insertUsers(int count) {
+        return IntStream.range(0, count)
+                // several users per birth date, so that the id decides the order among them
+                .mapToObj(i -> store.insert(user("user" + i + "@gold.ua", LocalDate.of(1980, 1 + i % 12, 1 + i % 3))))
+                .toList();
+    }
+
+    private static User user(String email, LocalDate birthDate) {
+        return User.builder()
+                .email(email)
+                .firstname("John")
+                .lastname("Gold")
+                .birthDate(birthDate)
+                .address("1 Main St")
+                .phoneNumber("+380501234567")
+                .build();
+    }
+}
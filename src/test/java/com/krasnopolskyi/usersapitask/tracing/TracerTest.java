@@ -0,0 +1,160 @@
+package com.krasnopolskyi.usersapitask.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracerTest {
+
+    @Test
+    void startSpan_NestsSpansUnderTheCurrentSpan() {
+        // Arrange
+        InMemoryTraceExporter exporter = new InMemoryTraceExporter(10);
+        Tracer tracer = new Tracer(exporter, 0, 0, 100);
+
+        // Act
+        try (Span root = tracer.startTrace("GET /users/{id}", null)) {
+            try (Span service = tracer.startSpan("UserService.getUserById")) {
+                tracer.startSpan("UserRepository.findById").setAttribute("id", 42L).close();
+            }
+            tracer.startSpan("jackson.write").close();
+        }
+
+        // Assert
+        TraceData trace = exporter.recent(1).get(0);
+        List<TraceData.SpanData> spans = trace.spans();
+        assertEquals("GET /users/{id}", trace.name());
+        assertEquals(4, spans.size());
+        assertEquals(0, spans.get(0).parentId());
+        assertEquals(spans.get(0).id(), spans.get(1).parentId());
+        assertEquals(spans.get(1).id(), spans.get(2).parentId());
+        assertEquals(42L, spans.get(2).attributes().get("id"));
+        assertEquals(spans.get(0).id(), spans.get(3).parentId());
+        assertFalse(tracer.isTracing());
+    }
+
+    @Test
+    void end_KeepsSlowTraces_AndDropsFastOnes() {
+        // Arrange
+        InMemoryTraceExporter exporter = new InMemoryTraceExporter(10);
+        ManualTracer tracer = new ManualTracer(exporter, 250);
+
+        // Act
+        try (Span ignored = tracer.startTrace("fast", null)) {
+            tracer.advanceMillis(10);
+        }
+        try (Span ignored = tracer.startTrace("slow", null)) {
+            tracer.advanceMillis(300);
+        }
+
+        // Assert
+        List<TraceData> traces = exporter.recent(10);
+        assertEquals(1, traces.size());
+        assertEquals("slow", traces.get(0).name());
+        assertEquals(300_000, traces.get(0).durationMicros());
+        assertEquals(new Tracer.Stats(2, 1, 0), tracer.stats());
+    }
+
+    @Test
+    void end_KeepsFailedTraces_EvenWhenFast() {
+        // Arrange
+        InMemoryTraceExporter exporter = new InMemoryTraceExporter(10);
+        ManualTracer tracer = new ManualTracer(exporter, 250);
+
+        // Act
+        try (Span root = tracer.startTrace("GET /users/{id}", null)) {
+            root.setError(new IllegalStateException("boom"));
+        }
+
+        // Assert
+        TraceData trace = exporter.recent(1).get(0);
+        assertTrue(trace.error());
+        assertEquals("IllegalStateException: boom", trace.spans().get(0).error());
+    }
+
+    @Test
+    void startSpan_CountsSpansBeyondTheLimit() {
+        // Arrange
+        InMemoryTraceExporter exporter = new InMemoryTraceExporter(10);
+        Tracer tracer = new Tracer(exporter, 0, 0, 3);
+
+        // Act
+        try (Span ignored = tracer.startTrace("GET /users", null)) {
+            for (int i = 0; i < 5; i++) {
+                tracer.startSpan("sql").close();
+            }
+        }
+
+        // Assert
+        TraceData trace = exporter.recent(1).get(0);
+        assertEquals(3, trace.spans().size());
+        assertEquals(3, trace.droppedSpans());
+    }
+
+    @Test
+    void startSpan_ReturnsNoopSpan_WhenNotTracing() {
+        // Arrange
+        Tracer tracer = new Tracer(new InMemoryTraceExporter(10), 0, 0, 100);
+
+        // Act
+        Span span = tracer.startSpan("UserRepository.findById");
+
+        // Assert
+        assertSame(Span.NOOP, span);
+        assertFalse(span.isRecording());
+        assertNull(tracer.traceparent(span));
+    }
+
+    @Test
+    void startTrace_ContinuesTheTraceOfTheCaller() {
+        // Arrange
+        InMemoryTraceExporter exporter = new InMemoryTraceExporter(10);
+        Tracer tracer = new Tracer(exporter, 0, 0, 100);
+        String traceparent = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+        // Act
+        String returned;
+        try (Span root = tracer.startTrace("GET /users", traceparent)) {
+            returned = tracer.traceparent(root);
+        }
+
+        // Assert
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", exporter.recent(1).get(0).traceId());
+        assertEquals("00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000001-01", returned);
+    }
+
+    @Test
+    void startTrace_StartsNewTrace_WhenTraceparentIsInvalid() {
+        // Arrange
+        InMemoryTraceExporter exporter = new InMemoryTraceExporter(10);
+        Tracer tracer = new Tracer(exporter, 0, 0, 100);
+
+        // Act
+        tracer.startTrace("GET /users", "00-00000000000000000000000000000000-00f067aa0ba902b7-01").close();
+
+        // Assert
+        String traceId = exporter.recent(1).get(0).traceId();
+        assertEquals(32, traceId.length());
+        assertNotEquals("00000000000000000000000000000000", traceId);
+    }
+
+    private static final class ManualTracer extends Tracer {
+        private long nanos;
+
+        ManualTracer(TraceExporter exporter, long slowMillis) {
+            super(exporter, slowMillis, 0, 100);
+        }
+
+        void advanceMillis(long millis) {
+            nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+
+        @Override
+        long nanoTime() {
+            return nanos;
+        }
+    }
+}
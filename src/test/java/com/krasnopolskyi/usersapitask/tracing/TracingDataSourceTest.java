@@ -0,0 +1,123 @@
+package com.krasnopolskyi.usersapitask.tracing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TracingDataSourceTest {
+    private static final String SELECT = "select * from users where id = ?";
+
+    private DataSource delegate;
+    private Connection connection;
+    private PreparedStatement statement;
+    private ResultSet resultSet;
+    private InMemoryTraceExporter exporter;
+    private Tracer tracer;
+    private TracingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        delegate = mock(DataSource.class);
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        resultSet = mock(ResultSet.class);
+        when(delegate.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        exporter = new InMemoryTraceExporter(10);
+        tracer = new Tracer(exporter, 0, 0, 100);
+        dataSource = new TracingDataSource(delegate, tracer);
+    }
+
+    @Test
+    void executeQuery_RecordsStatementAndRowsRead() throws SQLException {
+        // Arrange
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+
+        // Act
+        try (Span ignored = tracer.startTrace("GET /users", null)) {
+            try (Connection traced = dataSource.getConnection();
+                 PreparedStatement prepared = traced.prepareStatement(SELECT);
+                 ResultSet rows = prepared.executeQuery()) {
+                while (rows.next()) {
+                    rows.getLong(1);
+                }
+            }
+        }
+
+        // Assert
+        TraceData.SpanData sql = spanNamed("sql");
+        assertEquals(SELECT, sql.attributes().get("statement"));
+        assertEquals(2L, sql.attributes().get("rows"));
+        assertTrue(sql.attributes().containsKey("fetchMicros"));
+        assertTrue(sql.durationMicros() >= 0);
+        assertNotNull(spanNamed("sql.connection"));
+        verify(resultSet, times(2)).getLong(1);
+    }
+
+    @Test
+    void executeUpdate_RecordsRowsAffected() throws SQLException {
+        // Arrange
+        when(statement.executeUpdate()).thenReturn(3);
+
+        // Act
+        try (Span ignored = tracer.startTrace("DELETE /users/{id}", null)) {
+            dataSource.getConnection().prepareStatement("delete from users where id = ?").executeUpdate();
+        }
+
+        // Assert
+        assertEquals(3L, spanNamed("sql").attributes().get("rows"));
+    }
+
+    @Test
+    void executeQuery_RecordsError_WhenStatementFails() throws SQLException {
+        // Arrange
+        when(statement.executeQuery()).thenThrow(new SQLException("Lock wait timeout exceeded"));
+
+        // Act&Assert
+        try (Span ignored = tracer.startTrace("GET /users", null)) {
+            PreparedStatement prepared = dataSource.getConnection().prepareStatement(SELECT);
+            assertThrows(SQLException.class, prepared::executeQuery);
+        }
+        assertEquals("SQLException: Lock wait timeout exceeded", spanNamed("sql").error());
+    }
+
+    @Test
+    void executeQuery_PassesResultSetThrough_WhenNotTracing() throws SQLException {
+        // Arrange
+        when(statement.executeQuery()).thenReturn(resultSet);
+
+        // Act
+        ResultSet rows = dataSource.getConnection().prepareStatement(SELECT).executeQuery();
+
+        // Assert
+        assertSame(resultSet, rows);
+        assertTrue(exporter.recent(10).isEmpty());
+    }
+
+    @Test
+    void unwrap_DelegatesToWrappedDataSource() throws SQLException {
+        // Arrange
+        when(delegate.isWrapperFor(Map.class)).thenReturn(true);
+
+        // Act&Assert
+        assertTrue(dataSource.isWrapperFor(Map.class));
+        assertSame(dataSource, dataSource.unwrap(TracingDataSource.class));
+    }
+
+    private TraceData.SpanData spanNamed(String name) {
+        return exporter.recent(1).get(0).spans().stream()
+                .filter(span -> name.equals(span.name()))
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -0,0 +1,58 @@
+package com.krasnopolskyi.usersapitask.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgePolicyTest {
+    private static final ZoneId ZONE = ZoneId.of("Europe/Kyiv");
+
+    @Test
+    void isOldEnough_MatchesPeriodBetween_IncludingLeapDays() {
+        // Arrange
+        LocalDate today = LocalDate.of(2024, 2, 29);
+        AgePolicy agePolicy = new AgePolicy(18, Clock.fixed(today.atStartOfDay(ZONE).toInstant(), ZONE));
+
+        // Act&Assert
+        for (LocalDate birthDate = LocalDate.of(2005, 1, 1); birthDate.isBefore(LocalDate.of(2007, 1, 1));
+             birthDate = birthDate.plusDays(1)) {
+            boolean expected = Period.between(birthDate, today).getYears() >= 18;
+            assertEquals(expected, agePolicy.isOldEnough(birthDate), birthDate.toString());
+        }
+    }
+
+    @Test
+    void latestAllowedBirthDate_IsRefreshed_AfterMidnight() {
+        // Arrange
+        AtomicReference<Instant> now = new AtomicReference<>(
+                LocalDateTime.of(2024, 6, 15, 23, 59, 59).atZone(ZONE).toInstant());
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZONE;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+        };
+        AgePolicy agePolicy = new AgePolicy(18, clock);
+        LocalDate beforeMidnight = agePolicy.latestAllowedBirthDate();
+
+        // Act
+        now.set(now.get().plusSeconds(2));
+
+        // Assert
+        assertEquals(LocalDate.of(2006, 6, 15), beforeMidnight);
+        assertEquals(LocalDate.of(2006, 6, 16), agePolicy.latestAllowedBirthDate());
+    }
+}
@@ -0,0 +1,30 @@
+package com.krasnopolskyi.usersapitask.utils;
+
+import com.krasnopolskyi.usersapitask.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdListConvertorTest {
+
+    @Test
+    void convertIds_ReturnsSortedDistinctIds() throws ValidationException {
+        // Act&Assert
+        assertArrayEquals(new long[]{1, 2, 3, 10}, IdListConvertor.convertIds(" 3,1, 10 ,2,3,1", 10));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", " ", "1,,2", "1,a", "-1", "0", "1 2", "1,", "99999999999999999999"})
+    void convertIds_ThrowException_InvalidIds(String ids) {
+        // Act&Assert
+        assertThrows(ValidationException.class, () -> IdListConvertor.convertIds(ids, 10));
+    }
+
+    @Test
+    void convertIds_ThrowException_TooManyIds() {
+        // Act&Assert
+        assertThrows(ValidationException.class, () -> IdListConvertor.convertIds("1,2,3", 2));
+    }
+}
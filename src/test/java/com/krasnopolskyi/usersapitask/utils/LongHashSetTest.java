@@ -0,0 +1,46 @@
+package com.krasnopolskyi.usersapitask.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongHashSetTest {
+
+    @Test
+    void add_IgnoresDuplicates_IncludingZero() {
+        // Arrange
+        LongHashSet set = new LongHashSet();
+
+        // Act&Assert
+        assertTrue(set.add(5));
+        assertFalse(set.add(5));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.add(-7));
+        assertEquals(3, set.size());
+        assertTrue(set.contains(0));
+        assertFalse(set.contains(6));
+        assertArrayEquals(new long[]{-7, 0, 5}, set.toSortedArray());
+    }
+
+    @Test
+    void add_KeepsAllValues_WhenGrowingPastInitialCapacity() {
+        // Arrange
+        LongHashSet set = new LongHashSet(4);
+        TreeSet<Long> expected = new TreeSet<>();
+        Random random = new Random(42);
+
+        // Act
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextInt(50_000);
+            assertEquals(expected.add(value), set.add(value));
+        }
+
+        // Assert
+        assertEquals(expected.size(), set.size());
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), set.toSortedArray());
+    }
+}
@@ -1,5 +1,6 @@
 package com.krasnopolskyi.usersapitask.utils;
 
+import com.krasnopolskyi.usersapitask.exception.MinimumAgeException;
 import com.krasnopolskyi.usersapitask.exception.ValidationException;
 import com.krasnopolskyi.usersapitask.repository.UserRepository;
 import com.krasnopolskyi.usersapitask.service.UserServiceImpl;
@@ -13,6 +14,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,7 +34,8 @@ class UserValidatorTest {
 
     @BeforeEach
     private void setUp() {
-        userValidator = new UserValidator(userRepository);
+        Clock clock = Clock.fixed(Instant.parse("2024-06-15T10:00:00Z"), ZoneOffset.UTC);
+        userValidator = new UserValidator(userRepository, new AgePolicy(18, clock));
     }
 
     @ParameterizedTest
@@ -41,4 +48,18 @@ class UserValidatorTest {
 
         assertThrows(ValidationException.class, () -> userValidator.validateEmail(email));
     }
+
+    @Test
+    void validateAge_AcceptsUser_OnEighteenthBirthday() {
+        // Act&Assert
+        assertDoesNotThrow(() -> userValidator.validateAge(LocalDate.of(2006, 6, 15)));
+    }
+
+    @Test
+    void validateAge_ThrowException_DayBeforeEighteenthBirthday() {
+        // Act&Assert
+        MinimumAgeException exception = assertThrows(MinimumAgeException.class,
+                () -> userValidator.validateAge(LocalDate.of(2006, 6, 16)));
+        assertTrue(exception.getMessage().contains("18"));
+    }
 }
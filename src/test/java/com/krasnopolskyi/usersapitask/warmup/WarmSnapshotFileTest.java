@@ -0,0 +1,60 @@
+package com.krasnopolskyi.usersapitask.warmup;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WarmSnapshotFileTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void open_FindsEveryWrittenUser() throws IOException {
+        // Arrange
+        Path path = directory.resolve("warm.bin");
+        List<User> users = new ArrayList<>();
+        for (long id = 1000; id > 0; id -= 3) {
+            users.add(User.builder()
+                    .id(id)
+                    .email("user" + id + "@gold.ua")
+                    .firstname("Олена")
+                    .lastname("Gold")
+                    .birthDate(LocalDate.of(1990, 1, 1).plusDays(id))
+                    .address(id % 2 == 0 ? null : "Kyiv")
+                    .build());
+        }
+        WarmSnapshotFile.write(path, 42, users);
+
+        // Act
+        WarmSnapshotFile snapshot = WarmSnapshotFile.open(path);
+
+        // Assert
+        assertEquals(42, snapshot.getCursor());
+        assertEquals(users.size(), snapshot.size());
+        for (User user : users) {
+            assertEquals(user, snapshot.find(user.getId()).orElseThrow());
+        }
+        assertTrue(snapshot.find(2).isEmpty());
+        assertFalse(snapshot.contains(1001));
+        assertEquals(1, snapshot.ids()[0]);
+    }
+
+    @Test
+    void open_Throws_WhenFileIsNoSnapshot() throws IOException {
+        // Arrange
+        Path path = directory.resolve("warm.bin");
+        Files.write(path, new byte[64]);
+
+        // Act&Assert
+        assertThrows(IOException.class, () -> WarmSnapshotFile.open(path));
+    }
+}
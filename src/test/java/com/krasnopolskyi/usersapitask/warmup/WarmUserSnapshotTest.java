@@ -0,0 +1,129 @@
+package com.krasnopolskyi.usersapitask.warmup;
+
+import com.krasnopolskyi.usersapitask.entity.User;
+import com.krasnopolskyi.usersapitask.entity.UserEvent;
+import com.krasnopolskyi.usersapitask.event.UserChangedEvent;
+import com.krasnopolskyi.usersapitask.repository.UserEventRepository;
+import com.krasnopolskyi.usersapitask.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WarmUserSnapshotTest {
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserEventRepository userEventRepository = mock(UserEventRepository.class);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void find_ServesSnapshotUntilUserChanges() throws IOException {
+        // Arrange
+        WarmSnapshotFile.write(directory.resolve("warm.bin"), 100, List.of(user(1), user(2), user(3)));
+        WarmUserSnapshot warmSnapshot = warmSnapshot(10);
+        // user 2 changed on another node while this one was down
+        when(userEventRepository.findAllByIdGreaterThanOrderByIdAsc(eq(90L), any()))
+                .thenReturn(List.of(event(101, 2)));
+
+        // Act
+        warmSnapshot.reconcile();
+        warmSnapshot.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.DELETED, user(3)));
+
+        // Assert
+        assertTrue(warmSnapshot.isReconciled());
+        assertEquals(Optional.of(user(1)), warmSnapshot.find(1));
+        assertTrue(warmSnapshot.find(2).isEmpty());
+        assertTrue(warmSnapshot.find(3).isEmpty());
+        assertTrue(warmSnapshot.find(4).isEmpty());
+    }
+
+    @Test
+    void reconcile_StopsAtGap_UntilEventBehindItCommits() throws IOException {
+        // Arrange
+        WarmSnapshotFile.write(directory.resolve("warm.bin"), 90, List.of(user(1), user(2), user(3)));
+        WarmUserSnapshot warmSnapshot = warmSnapshot(0);
+        // event 92 is still in flight while 93 has already committed
+        when(userEventRepository.findAllByIdGreaterThanOrderByIdAsc(eq(90L), any()))
+                .thenReturn(List.of(event(91, 1), event(93, 2)));
+        when(userEventRepository.findAllByIdGreaterThanOrderByIdAsc(eq(91L), any()))
+                .thenReturn(List.of(event(92, 3), event(93, 2)));
+
+        // Act
+        warmSnapshot.reconcile();
+        warmSnapshot.reconcile();
+
+        // Assert
+        verify(userEventRepository, times(1)).findAllByIdGreaterThanOrderByIdAsc(eq(90L), any());
+        assertTrue(warmSnapshot.find(1).isEmpty());
+        assertTrue(warmSnapshot.find(2).isEmpty());
+        assertTrue(warmSnapshot.find(3).isEmpty());
+    }
+
+    @Test
+    void write_KeepsRecentlyLoadedAndStillValidUsers() throws IOException {
+        // Arrange
+        WarmSnapshotFile.write(directory.resolve("warm.bin"), 100, List.of(user(1), user(2)));
+        WarmUserSnapshot warmSnapshot = warmSnapshot(0);
+        warmSnapshot.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.UPDATED, user(2)));
+        warmSnapshot.recordLoaded(List.of(5L, 7L));
+        when(userEventRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.of(event(250, 7)));
+        when(userRepository.findAllById(List.of(1L, 5L, 7L))).thenReturn(List.of(user(1), user(5), user(7)));
+
+        // Act
+        warmSnapshot.write();
+
+        // Assert
+        WarmSnapshotFile written = WarmSnapshotFile.open(directory.resolve("warm.bin"));
+        assertEquals(250, written.getCursor());
+        assertArrayEquals(new long[]{1, 5, 7}, written.ids());
+    }
+
+    @Test
+    void find_ReturnsNothing_WithoutSnapshotFile() {
+        // Arrange
+        WarmUserSnapshot warmSnapshot = warmSnapshot(0);
+
+        // Act
+        warmSnapshot.reconcile();
+
+        // Assert
+        assertTrue(warmSnapshot.isReconciled());
+        assertTrue(warmSnapshot.find(1).isEmpty());
+        verifyNoInteractions(userEventRepository);
+    }
+
+    private WarmUserSnapshot warmSnapshot(long reconcileOverlap) {
+        return new WarmUserSnapshot(userRepository, userEventRepository, directory.resolve("warm.bin").toString(),
+                100, 10, reconcileOverlap, 1000, 1000, 5000, true);
+    }
+
+    private static UserEvent event(long id, long userId) {
+        return UserEvent.builder()
+                .id(id)
+                .userId(userId)
+                .eventType(UserChangedEvent.Type.UPDATED)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static User user(long id) {
+        return User.builder()
+                .id(id)
+                .email("user" + id + "@gold.ua")
+                .firstname("John")
+                .lastname("Gold")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+}